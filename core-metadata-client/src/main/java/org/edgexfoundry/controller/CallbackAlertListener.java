@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import org.edgexfoundry.domain.meta.CallbackAlert;
+
+/**
+ * Receives the callback alerts read off the core-metadata callback stream.
+ */
+public interface CallbackAlertListener {
+
+  /**
+   * An object changed on the server; anything derived from it is stale.
+   * 
+   * @param alert type and database generated id of the changed object
+   */
+  void onAlert(CallbackAlert alert);
+
+  /**
+   * The stream was (re)established. Alerts sent while disconnected are lost, so everything held
+   * locally must be treated as stale.
+   */
+  void onConnected();
+
+  /**
+   * The stream was lost; alerts are no longer being received.
+   */
+  void onDisconnected();
+
+}
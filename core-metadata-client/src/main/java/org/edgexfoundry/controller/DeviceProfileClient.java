@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import org.edgexfoundry.domain.meta.DeviceProfile;
+
+/**
+ * Client side view of the DeviceProfile resource. Implementations may answer from a local
+ * near-cache, so repeated lookups of the same profile do not cost a round trip to core-metadata.
+ */
+public interface DeviceProfileClient {
+
+  /**
+   * Fetch a specific profile by database generated id. Returns null if no profile with the id is
+   * found.
+   * 
+   * @param String database generated id for the profile
+   * 
+   * @return device profile matching on the id
+   */
+  DeviceProfile deviceProfile(String id);
+
+  /**
+   * Return DeviceProfile matching given name (profile names should be unique). Returns null if no
+   * profile matches on the name provided.
+   * 
+   * @param name
+   * @return device profile matching on name
+   */
+  DeviceProfile deviceProfileForName(String name);
+
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import org.edgexfoundry.domain.meta.DeviceService;
+
+/**
+ * Client side view of the DeviceService resource. Implementations may answer from a local
+ * near-cache, so repeated lookups of the same service do not cost a round trip to core-metadata.
+ */
+public interface DeviceServiceClient {
+
+  /**
+   * Fetch a specific device service by database generated id. Returns null if no device service
+   * with the id is found.
+   * 
+   * @param String database generated id for the device service
+   * 
+   * @return device service matching on the id
+   */
+  DeviceService deviceService(String id);
+
+  /**
+   * Return DeviceService matching given name (service names should be unique). Returns null if no
+   * device service matches on the name provided.
+   * 
+   * @param name
+   * @return device service matching on name
+   */
+  DeviceService deviceServiceForName(String name);
+
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.edgexfoundry.controller.CallbackAlertListener;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holds a connection to the core-metadata callback stream (/api/v1/callbackstream) and hands each
+ * alert to the registered listeners. The connection is re-established after failures; listeners
+ * are told about every connect and disconnect so that they can drop what they may have missed.
+ */
+public class CallbackStreamListener implements Runnable, Closeable {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(CallbackStreamListener.class);
+
+  private static final String DATA = "data:";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final List<CallbackAlertListener> listeners = new CopyOnWriteArrayList<>();
+
+  private final String url;
+
+  private final int readTimeout;
+
+  private final long retryInterval;
+
+  private volatile boolean running;
+
+  private volatile HttpURLConnection connection;
+
+  private Thread thread;
+
+  /**
+   * @param url full url of the stream, e.g.
+   *        http://localhost:48081/api/v1/callbackstream?type=DEVICE&type=PROFILE
+   * @param readTimeout milliseconds without data (keep alive comments included) before the
+   *        connection is considered lost
+   * @param retryInterval milliseconds to wait before reconnecting
+   */
+  public CallbackStreamListener(String url, int readTimeout, long retryInterval) {
+    this.url = url;
+    this.readTimeout = readTimeout;
+    this.retryInterval = retryInterval;
+  }
+
+  public void addListener(CallbackAlertListener listener) {
+    listeners.add(listener);
+  }
+
+  public synchronized void start() {
+    if (running)
+      return;
+    running = true;
+    thread = new Thread(this, "callback-stream");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public synchronized void close() {
+    running = false;
+    HttpURLConnection current = connection;
+    if (current != null)
+      current.disconnect();
+    if (thread != null)
+      thread.interrupt();
+  }
+
+  @Override
+  public void run() {
+    while (running) {
+      try {
+        listen();
+      } catch (IOException e) {
+        logger.debug("Callback stream lost:  " + e.getMessage());
+      } finally {
+        listeners.forEach(CallbackAlertListener::onDisconnected);
+      }
+      try {
+        Thread.sleep(retryInterval);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void listen() throws IOException {
+    connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setRequestProperty("Accept", "text/event-stream");
+    connection.setReadTimeout(readTimeout);
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      listeners.forEach(CallbackAlertListener::onConnected);
+      StringBuilder data = new StringBuilder();
+      String line;
+      while (running && (line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          dispatch(data.toString());
+          data.setLength(0);
+        } else if (line.startsWith(DATA)) {
+          data.append(line.substring(DATA.length()).trim());
+        }
+        // event names and keep alive comments carry nothing the caches need
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  void dispatch(String data) {
+    if (data.isEmpty())
+      return;
+    try {
+      CallbackAlert alert = mapper.readValue(data, CallbackAlert.class);
+      listeners.forEach(listener -> listener.onAlert(alert));
+    } catch (IOException e) {
+      logger.error("Unreadable callback alert on stream:  " + data);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.function.Predicate;
+
+import org.edgexfoundry.controller.DeviceClient;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.domain.meta.Device;
+import org.springframework.web.client.RestTemplate;
+
+public class DeviceClientImpl extends NearCacheClient<Device> implements DeviceClient {
+
+  /**
+   * @param url base url of the device resource, e.g. http://localhost:48081/api/v1/device
+   */
+  public DeviceClientImpl(RestTemplate template, String url, long maxAge, int maxSize) {
+    super(template, url, Device.class, maxAge, maxSize);
+  }
+
+  @Override
+  public Device device(String id) {
+    return fetch("/{id}", id);
+  }
+
+  @Override
+  public Device deviceForName(String name) {
+    return fetch("/name/{name}", name);
+  }
+
+  // devices embed their service, profile and addressable, so a change to any of them is a change
+  // to the device as read
+  @Override
+  protected Predicate<Device> staleFor(CallbackAlert alert) {
+    String id = alert.getId();
+    switch (alert.getType()) {
+      case DEVICE:
+        return device -> sameId(device, id);
+      case PROFILE:
+        return device -> sameId(device.getProfile(), id);
+      case SERVICE:
+        return device -> sameId(device.getService(), id);
+      case ADDRESSABLE:
+        return device -> sameId(device.getAddressable(), id) || (device.getService() != null
+            && sameId(device.getService().getAddressable(), id));
+      default:
+        return device -> false;
+    }
+  }
+
+}
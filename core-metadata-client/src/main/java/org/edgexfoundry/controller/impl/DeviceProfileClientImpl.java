@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.function.Predicate;
+
+import org.edgexfoundry.controller.DeviceProfileClient;
+import org.edgexfoundry.domain.meta.ActionType;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.springframework.web.client.RestTemplate;
+
+public class DeviceProfileClientImpl extends NearCacheClient<DeviceProfile>
+    implements DeviceProfileClient {
+
+  /**
+   * @param url base url of the device profile resource, e.g.
+   *        http://localhost:48081/api/v1/deviceprofile
+   */
+  public DeviceProfileClientImpl(RestTemplate template, String url, long maxAge, int maxSize) {
+    super(template, url, DeviceProfile.class, maxAge, maxSize);
+  }
+
+  @Override
+  public DeviceProfile deviceProfile(String id) {
+    return fetch("/{id}", id);
+  }
+
+  @Override
+  public DeviceProfile deviceProfileForName(String name) {
+    return fetch("/name/{name}", name);
+  }
+
+  @Override
+  protected Predicate<DeviceProfile> staleFor(CallbackAlert alert) {
+    String id = alert.getId();
+    if (alert.getType() == ActionType.PROFILE)
+      return profile -> sameId(profile, id);
+    return profile -> false;
+  }
+
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.function.Predicate;
+
+import org.edgexfoundry.controller.DeviceServiceClient;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.springframework.web.client.RestTemplate;
+
+public class DeviceServiceClientImpl extends NearCacheClient<DeviceService>
+    implements DeviceServiceClient {
+
+  /**
+   * @param url base url of the device service resource, e.g.
+   *        http://localhost:48081/api/v1/deviceservice
+   */
+  public DeviceServiceClientImpl(RestTemplate template, String url, long maxAge, int maxSize) {
+    super(template, url, DeviceService.class, maxAge, maxSize);
+  }
+
+  @Override
+  public DeviceService deviceService(String id) {
+    return fetch("/{id}", id);
+  }
+
+  @Override
+  public DeviceService deviceServiceForName(String name) {
+    return fetch("/name/{name}", name);
+  }
+
+  @Override
+  protected Predicate<DeviceService> staleFor(CallbackAlert alert) {
+    String id = alert.getId();
+    switch (alert.getType()) {
+      case SERVICE:
+        return service -> sameId(service, id);
+      case ADDRESSABLE:
+        return service -> sameId(service.getAddressable(), id);
+      default:
+        return service -> false;
+    }
+  }
+
+}
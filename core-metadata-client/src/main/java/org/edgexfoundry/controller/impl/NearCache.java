@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Local copy of metadata objects keyed by the resource path they were read from, along with the
+ * ETag the server returned for them. Every invalidation bumps a generation counter; a load that
+ * started before an invalidation is not stored, so an in-flight read can never put back an object
+ * that a concurrent alert just evicted.
+ */
+public class NearCache<T> {
+
+  private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final int maxSize;
+
+  public NearCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public Entry<T> get(String key) {
+    return entries.get(key);
+  }
+
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Store a freshly loaded value unless the cache was invalidated since the load started.
+   * 
+   * @param loadGeneration the generation read before the load was issued
+   */
+  public void put(String key, T value, String etag, long loadGeneration) {
+    if (value == null || generation.get() != loadGeneration)
+      return;
+    if (entries.size() >= maxSize && !entries.containsKey(key))
+      evictOne();
+    entries.put(key, new Entry<>(value, etag));
+    // an alert may have slipped in between the check and the put
+    if (generation.get() != loadGeneration)
+      entries.remove(key);
+  }
+
+  public void remove(String key) {
+    generation.incrementAndGet();
+    entries.remove(key);
+  }
+
+  public void evictIf(Predicate<T> stale) {
+    generation.incrementAndGet();
+    entries.values().removeIf(entry -> stale.test(entry.value));
+  }
+
+  public void clear() {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void evictOne() {
+    Iterator<String> keys = entries.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  public static class Entry<T> {
+    private final T value;
+    private final String etag;
+    private volatile long validated;
+
+    Entry(T value, String etag) {
+      this.value = value;
+      this.etag = etag;
+      this.validated = System.currentTimeMillis();
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    public boolean isFresh(long maxAge) {
+      return System.currentTimeMillis() - validated < maxAge;
+    }
+
+    /**
+     * The server answered 304 Not Modified; the value is good for another max age.
+     */
+    public void revalidated() {
+      validated = System.currentTimeMillis();
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.function.Predicate;
+
+import org.edgexfoundry.controller.CallbackAlertListener;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Base for the caching metadata clients. Reads are answered from the near-cache while the entry
+ * is fresh, that is for max age after it was last read or revalidated. While the callback stream
+ * is connected, pushed alerts evict entries early; they do not extend them, since not every server
+ * write publishes an alert. Expired entries are revalidated with If-None-Match so an unchanged
+ * object costs a body-less 304 instead of a full read.
+ */
+public abstract class NearCacheClient<T extends BaseObject> implements CallbackAlertListener {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(NearCacheClient.class);
+
+  private final RestTemplate template;
+
+  private final String url;
+
+  private final Class<T> type;
+
+  private final long maxAge;
+
+  private final NearCache<T> cache;
+
+  /**
+   * @param url base url of the resource, e.g. http://localhost:48081/api/v1/device
+   * @param maxAge milliseconds a cached object is served without revalidation
+   * @param maxSize maximum number of cached objects
+   */
+  protected NearCacheClient(RestTemplate template, String url, Class<T> type, long maxAge,
+      int maxSize) {
+    this.template = template;
+    this.url = url;
+    this.type = type;
+    this.maxAge = maxAge;
+    this.cache = new NearCache<>(maxSize);
+  }
+
+  /**
+   * Read the object at the resource path relative to the base url. The path may contain uri
+   * template variables which are expanded (and encoded) from the values given.
+   * 
+   * @return the object or null if the server does not know it
+   */
+  protected T fetch(String path, Object... variables) {
+    String key = key(path, variables);
+    NearCache.Entry<T> entry = cache.get(key);
+    if (entry != null && entry.isFresh(maxAge))
+      return entry.getValue();
+    long generation = cache.generation();
+    HttpHeaders headers = new HttpHeaders();
+    if (entry != null && entry.getEtag() != null)
+      headers.setIfNoneMatch(entry.getEtag());
+    try {
+      ResponseEntity<T> response =
+          template.exchange(url + path, HttpMethod.GET, new HttpEntity<>(headers), type, variables);
+      if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && entry != null) {
+        entry.revalidated();
+        return entry.getValue();
+      }
+      T value = response.getBody();
+      cache.put(key, value, response.getHeaders().getETag(), generation);
+      return value;
+    } catch (HttpClientErrorException e) {
+      if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+        cache.remove(key);
+        return null;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * @return a test that is true for cached objects made stale by the alert
+   */
+  protected abstract Predicate<T> staleFor(CallbackAlert alert);
+
+  @Override
+  public void onAlert(CallbackAlert alert) {
+    logger.debug("Near-cache eviction for " + alert.getType() + " " + alert.getId());
+    cache.evictIf(staleFor(alert));
+  }
+
+  @Override
+  public void onConnected() {
+    cache.clear();
+  }
+
+  @Override
+  public void onDisconnected() {
+    // entries still expire after max age, so nothing cached outlives it without the stream
+  }
+
+  public int cachedCount() {
+    return cache.size();
+  }
+
+  protected static boolean sameId(BaseObject object, String id) {
+    return object != null && id != null && id.equals(object.getId());
+  }
+
+  private static String key(String path, Object... variables) {
+    StringBuilder key = new StringBuilder(path);
+    for (Object variable : variables)
+      key.append('\u0000').append(variable);
+    return key.toString();
+  }
+}
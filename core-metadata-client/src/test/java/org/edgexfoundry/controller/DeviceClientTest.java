@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.edgexfoundry.controller.impl.DeviceClientImpl;
+import org.edgexfoundry.domain.meta.ActionType;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+@Category(RequiresNone.class)
+public class DeviceClientTest {
+
+  private static final String TEST_URL = "http://localhost:48081/api/v1/device";
+  private static final String TEST_ID = "123";
+  private static final String TEST_PROFILE_ID = "456";
+  private static final String TEST_ETAG = "\"0123456789abcdef\"";
+  private static final long TEST_MAX_AGE = 60000;
+  private static final int TEST_MAX_SIZE = 10;
+
+  @Mock
+  private RestTemplate template;
+
+  private DeviceClientImpl client;
+
+  private Device device;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    device = DeviceData.newTestInstance();
+    device.setId(TEST_ID);
+    DeviceProfile profile = ProfileData.newTestInstance();
+    profile.setId(TEST_PROFILE_ID);
+    device.setProfile(profile);
+    client = new DeviceClientImpl(template, TEST_URL, TEST_MAX_AGE, TEST_MAX_SIZE);
+  }
+
+  @Test
+  public void testDeviceForNameCached() {
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    assertEquals("Device not returned", device, client.deviceForName(DeviceData.TEST_NAME));
+    assertEquals("Cached device not returned", device, client.deviceForName(DeviceData.TEST_NAME));
+    verifyReads(1);
+  }
+
+  @Test
+  public void testDeviceRevalidatedWithEtag() {
+    client = new DeviceClientImpl(template, TEST_URL, 0, TEST_MAX_SIZE);
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    respondWith(new ResponseEntity<>(etag(), HttpStatus.NOT_MODIFIED));
+    assertEquals("Cached device not returned on 304", device,
+        client.deviceForName(DeviceData.TEST_NAME));
+    @SuppressWarnings("rawtypes")
+    ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+    verify(template, times(2)).exchange(anyString(), eq(HttpMethod.GET), request.capture(),
+        eq(Device.class), eq(DeviceData.TEST_NAME));
+    assertEquals("Revalidation did not send If-None-Match", TEST_ETAG,
+        request.getValue().getHeaders().getIfNoneMatch().get(0));
+  }
+
+  @Test
+  public void testDeviceEvictedByAlert() {
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    client.onAlert(new CallbackAlert(ActionType.DEVICE, TEST_ID));
+    assertEquals("Evicted device still cached", 0, client.cachedCount());
+    client.deviceForName(DeviceData.TEST_NAME);
+    verifyReads(2);
+  }
+
+  @Test
+  public void testDeviceEvictedByProfileAlert() {
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    client.onAlert(new CallbackAlert(ActionType.PROFILE, TEST_PROFILE_ID));
+    assertEquals("Device with changed profile still cached", 0, client.cachedCount());
+  }
+
+  @Test
+  public void testDeviceKeptOnUnrelatedAlert() {
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    client.onAlert(new CallbackAlert(ActionType.DEVICE, "unrelated"));
+    assertEquals("Device evicted by unrelated alert", 1, client.cachedCount());
+  }
+
+  @Test
+  public void testDeviceRevalidatedWhileStreamConnected() {
+    client = new DeviceClientImpl(template, TEST_URL, 0, TEST_MAX_SIZE);
+    client.onConnected();
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    client.deviceForName(DeviceData.TEST_NAME);
+    verifyReads(2);
+  }
+
+  @Test
+  public void testConnectClearsCache() {
+    respondWith(new ResponseEntity<>(device, etag(), HttpStatus.OK));
+    client.deviceForName(DeviceData.TEST_NAME);
+    client.onConnected();
+    assertEquals("Device cached across a reconnect", 0, client.cachedCount());
+  }
+
+  @Test
+  public void testDeviceForNameNotFound() {
+    when(template.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(Device.class), eq(DeviceData.TEST_NAME)))
+            .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+    assertNull("Unknown device returned", client.deviceForName(DeviceData.TEST_NAME));
+    assertEquals("Unknown device cached", 0, client.cachedCount());
+  }
+
+  @Test(expected = HttpClientErrorException.class)
+  public void testDeviceForNameClientError() {
+    when(template.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(Device.class), eq(DeviceData.TEST_NAME)))
+            .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+    client.deviceForName(DeviceData.TEST_NAME);
+  }
+
+  private void respondWith(ResponseEntity<Device> response) {
+    when(template.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(Device.class), eq(DeviceData.TEST_NAME))).thenReturn(response);
+  }
+
+  private void verifyReads(int count) {
+    verify(template, times(count)).exchange(anyString(), eq(HttpMethod.GET),
+        any(HttpEntity.class), eq(Device.class), eq(DeviceData.TEST_NAME));
+  }
+
+  private HttpHeaders etag() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(TEST_ETAG);
+    return headers;
+  }
+
+}
@@ -39,11 +39,12 @@ import com.mongodb.ServerAddress;
 
 /**
  * Configures Mongo DB. This configuration allows the MongoClientOptions to be used - thereby
- * allowing timeouts and wait times to override defaults.
+ * allowing timeouts and wait times to override defaults. Audited times come from the version clock
+ * so a save always moves the modified time (the document version) forward.
  * 
  */
 @Configuration
-@EnableMongoAuditing
+@EnableMongoAuditing(dateTimeProviderRef = "versionClock")
 public class AppConfig extends AbstractMongoConfiguration {
 
   @Value("${spring.data.mongodb.username}")
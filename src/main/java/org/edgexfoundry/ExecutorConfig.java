@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the bounded pools used off the servlet threads. The DAO pool runs independent
+ * database lookups concurrently; the request pool runs the asynchronous variants of the write
+ * endpoints so that Tomcat workers are released while database and callback I/O is in flight.
+ * Both are exposed as plain ExecutorServices (not Spring TaskExecutors) so that @Async callbacks
+ * keep using their own executor. When the DAO pool and its queue are full the submitting thread
+ * runs the task itself, which bounds the load placed on the database. When the request pool and
+ * its queue are full the write is rejected instead, since running it on the servlet thread would
+ * take back the very load the asynchronous endpoints shed. Bulk profile imports parse their
+ * documents on a separate fork-join pool so a large import cannot starve the other pools.
+ */
+@Configuration
+public class ExecutorConfig {
+
+  @Value("${dao.executor.threads}")
+  private int daoThreads;
+
+  @Value("${dao.executor.queue}")
+  private int daoQueue;
+
+  @Value("${request.executor.threads}")
+  private int requestThreads;
+
+  @Value("${request.executor.queue}")
+  private int requestQueue;
+
+  @Value("${import.parallelism}")
+  private int importParallelism;
+
+  @Bean(name = "daoExecutor", destroyMethod = "shutdown")
+  public ExecutorService daoExecutor() {
+    return boundedPool("dao-", daoThreads, daoQueue, new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @Bean(name = "requestExecutor", destroyMethod = "shutdown")
+  public ExecutorService requestExecutor() {
+    return boundedPool("request-", requestThreads, requestQueue,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @Bean(name = "importPool", destroyMethod = "shutdown")
+  public ForkJoinPool importPool() {
+    return new ForkJoinPool(importParallelism);
+  }
+
+  private ExecutorService boundedPool(String prefix, int threads, int queue,
+      RejectedExecutionHandler saturated) {
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory factory = r -> {
+      Thread thread = new Thread(r, prefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queue), factory, saturated);
+  }
+
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry;
+
+import org.edgexfoundry.controller.impl.CachedJsonHttpMessageConverter;
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+
+/**
+ * Configures the web layer. Device profiles and device services are written from their cached JSON
+ * ahead of the Jackson converter. Reads are tagged with their version by VersionEtagAdvice rather
+ * than a hash of the body, so the ETag a near-cache client revalidates with is also the value an
+ * If-Match on update is checked against.
+ */
+@Configuration
+public class WebConfig {
+
+  public @Bean HttpMessageConverter<BaseObject> cachedJsonConverter(JsonCache jsonCache) {
+    return new CachedJsonHttpMessageConverter(jsonCache);
+  }
+
+}
@@ -19,10 +19,12 @@
 package org.edgexfoundry.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.edgexfoundry.domain.meta.Addressable;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 public interface AddressableController {
 
@@ -55,6 +57,28 @@ public interface AddressableController {
    */
   Addressable addressableForName(@PathVariable String name);
 
+  /**
+   * Fetch the addressables with the given database generated ids using a single query. The result
+   * is keyed by id in request order; ids with no matching addressable map to null. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException
+   * (HTTP 413) if more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to addressable (or null when not found) in request order
+   */
+  Map<String, Addressable> addressablesForIds(@RequestBody List<String> ids);
+
+  /**
+   * Fetch the addressables with the given names using a single query. The result is keyed by name
+   * in request order; names with no matching addressable map to null. Returns ServiceException
+   * (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if
+   * more names than the max limit are requested.
+   * 
+   * @param names - list of addressable names
+   * @return map of name to addressable (or null when not found) in request order
+   */
+  Map<String, Addressable> addressablesForNames(@RequestBody List<String> names);
+
   /**
    * Return Addressable objects with given address. List may be empty if none are associated to the
    * address. Returns ServiceException (HTTP 503) for unknown or unanticipated issues.
@@ -104,7 +128,9 @@ public interface AddressableController {
    * Update the Addressable identified by the id or name in the object provided. Id is used first,
    * name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if no addressable with
-   * the provided id is found.
+   * the provided id is found. Returns PreconditionFailedException (HTTP 412) if an If-Match header
+   * is sent and does not hold the current modified value, or if the object is changed by another
+   * request while this update is applied.
    * 
    * @param Addressable object holding the identifier and new values for the Addressable
    * @return boolean indicating success of the update
@@ -131,4 +157,41 @@ public interface AddressableController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Addressable is saved;
+   * the response carries the database generated identifier once the write completes. Errors are
+   * returned exactly as for add.
+   * 
+   * @param Addressable to add
+   * @return deferred database generated id for the new Addressable
+   */
+  DeferredResult<String> addAsync(@RequestBody Addressable addressable);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Addressable is updated
+   * and associates are notified. Errors are returned exactly as for update.
+   * 
+   * @param Addressable object holding the identifier and new values for the Addressable
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody Addressable addressable2);
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Addressable is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param database generated id for the addressable
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Addressable is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param unique name of the addressable
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
+
 }
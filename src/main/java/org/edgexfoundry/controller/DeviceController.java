@@ -19,10 +19,13 @@
 package org.edgexfoundry.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.edgexfoundry.domain.meta.Device;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 
 public interface DeviceController {
 
@@ -57,6 +60,119 @@ public interface DeviceController {
    */
   Device deviceForName(@PathVariable String name);
 
+  /**
+   * Fetch the devices with the given database generated ids using a single query. The result is
+   * keyed by id in request order; ids with no matching device map to null. Returns ServiceException
+   * (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if
+   * more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to device (or null when not found) in request order
+   */
+  Map<String, Device> devicesForIds(@RequestBody List<String> ids);
+
+  /**
+   * Fetch the devices with the given names using a single query. The result is keyed by name in
+   * request order; names with no matching device map to null. Returns ServiceException (HTTP 503)
+   * for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if more names
+   * than the max limit are requested.
+   * 
+   * @param names - list of device names
+   * @return map of name to device (or null when not found) in request order
+   */
+  Map<String, Device> devicesForNames(@RequestBody List<String> names);
+
+  /**
+   * Find the devices matching a combination of label, service, profile, state and lastConnected
+   * criteria, evaluated over the in-memory device index. Returns ServiceException (HTTP 503) for
+   * unknown or unanticipated issues, or if the device index cannot be loaded. Returns
+   * ClientException (HTTP 400) if and, or and not nest queries more than 32 levels deep. Returns
+   * LimitExceededException (HTTP 413) if more devices than the max limit match.
+   * 
+   * @param query - criteria the devices must match
+   * @return list of the matching devices
+   */
+  List<Device> search(@RequestBody DeviceQuery query);
+
+  /**
+   * Find the devices whose lastConnected or lastReported time is older than the time provided,
+   * oldest first, optionally only those of the named device service. Returns ServiceException
+   * (HTTP 503) for unknown or unanticipated issues. Returns ClientException (HTTP 400) if the field
+   * is not lastconnected or lastreported. Returns NotFoundException (HTTP 404) if no DeviceService
+   * match on the name provided. Returns LimitExceededException (HTTP 413) if the page size is over
+   * the max limit.
+   * 
+   * @param field - lastconnected or lastreported
+   * @param time - devices with the field before this time (in milliseconds) are stale
+   * @param service - optional device service name the devices must belong to
+   * @param page - zero based page number
+   * @param size - page size, the max limit when zero
+   * @return page of the stale devices
+   */
+  List<Device> staleDevices(@PathVariable String field, @PathVariable long time,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "page", defaultValue = "0") int page,
+      @RequestParam(value = "size", defaultValue = "0") int size);
+
+  /**
+   * Count the devices in total and per device service id, device profile id, admin state and
+   * operating state. The counts are read from the in-memory device index, so this does not read the
+   * device collection. Returns ServiceException (HTTP 503) for unknown or unanticipated issues, or
+   * if the device index cannot be loaded.
+   * 
+   * @return device counts
+   */
+  DeviceCounts statistics();
+
+  /**
+   * Count the device change notifications sent to support-notifications, coalesced within a
+   * batch, dropped on a full queue and failed since startup, and those still queued. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @return notification counts
+   */
+  NotificationCounts notificationStatistics();
+
+  /**
+   * Set the admin state of every device of the named service, of the named profile and with the
+   * label, whichever are given, with a single update. Each affected device service is called back
+   * once for all of its changed devices. A admin state change still debounced for any of the
+   * devices is dropped. Returns ServiceException (HTTP 503) for unknown or unanticipated issues,
+   * or if the device index cannot be loaded. Returns ClientException (HTTP 400) if the state is
+   * unknown or no service, profile or label is given. Returns NotFoundException (HTTP 404) if the
+   * service or profile cannot be found by the name provided.
+   * 
+   * @param adminState - new admin state for the devices (either LOCKED or UNLOCKED)
+   * @param service - optional device service name the devices must belong to
+   * @param profile - optional device profile name the devices must have
+   * @param label - optional label the devices must have
+   * @return counts of the devices matched and changed, per device service
+   */
+  StateChangeSummary updateAdminStates(@PathVariable String adminState,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "profile", required = false) String profile,
+      @RequestParam(value = "label", required = false) String label);
+
+  /**
+   * Set the op state of every device of the named service, of the named profile and with the
+   * label, whichever are given, with a single update. Each affected device service is called back
+   * once for all of its changed devices. A op state change still debounced for any of the
+   * devices is dropped. Returns ServiceException (HTTP 503) for unknown or unanticipated issues,
+   * or if the device index cannot be loaded. Returns ClientException (HTTP 400) if the state is
+   * unknown or no service, profile or label is given. Returns NotFoundException (HTTP 404) if the
+   * service or profile cannot be found by the name provided.
+   * 
+   * @param opState - new op state for the devices (either ENABLED or DISABLED)
+   * @param service - optional device service name the devices must belong to
+   * @param profile - optional device profile name the devices must have
+   * @param label - optional label the devices must have
+   * @return counts of the devices matched and changed, per device service
+   */
+  StateChangeSummary updateOpStates(@PathVariable String opState,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "profile", required = false) String profile,
+      @RequestParam(value = "label", required = false) String label);
+
 
   /**
    * Find all Devices having at least one label matching the label provided. List may be empty if no
@@ -301,7 +417,9 @@ public interface DeviceController {
    * created with a PUT, but the service and profile can replaced by referring to a new device
    * service or profile id or name. Returns ServiceException (HTTP 503) for unknown or unanticipated
    * issues. Returns NotFoundException (HTTP 404) if the device cannot be found by the identifier
-   * provided
+   * provided. Returns PreconditionFailedException (HTTP 412) if an If-Match header is sent and does
+   * not hold the current version, which reads return as their ETag, or if the object is changed by
+   * another request while this update is applied.
    * 
    * @param device2 - object holding the identifier and new values for the Device
    * @return boolean indicating success of the update
@@ -330,5 +448,110 @@ public interface DeviceController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Device is validated
+   * and saved; the response carries the database generated identifier once the write completes.
+   * Errors are returned exactly as for add.
+   * 
+   * @param Device object
+   * @return deferred database generated identifier for the new device
+   */
+  DeferredResult<String> addAsync(@RequestBody Device device);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Device is updated and
+   * associates are notified. Errors are returned exactly as for update.
+   * 
+   * @param device2 - object holding the identifier and new values for the Device
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody Device device2);
 
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Device is removed.
+   * Errors are returned exactly as for delete.
+   * 
+   * @param database generated id for the device
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Device is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param unique name of the device
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
+
+  /**
+   * Asynchronous variant of updateLastConnected. The servlet thread is released while the last
+   * connected time is saved. Errors are returned exactly as for updateLastConnected.
+   * 
+   * @param id - database generated identifier for the device
+   * @param time - new last connected time in milliseconds
+   * @param notify - boolean indicating whether callback should be made to device service to inform
+   *        of update
+   * @return deferred boolean indicating success of update
+   */
+  DeferredResult<Boolean> updateLastConnectedAsync(@PathVariable String id, @PathVariable long time,
+      @PathVariable boolean notify);
+
+  /**
+   * Asynchronous variant of updateLastConnectedByName. The servlet thread is released while the
+   * last connected time is saved. Errors are returned exactly as for updateLastConnectedByName.
+   * 
+   * @param name - device name
+   * @param time - new last connected time in milliseconds
+   * @param notify - boolean indicating whether callback should be made to device service to inform
+   *        of update
+   * @return deferred boolean indicating success of update
+   */
+  DeferredResult<Boolean> updateLastConnectedByNameAsync(@PathVariable String name,
+      @PathVariable long time, @PathVariable boolean notify);
+
+  /**
+   * Asynchronous variant of updateOpState. The servlet thread is released while the op state is
+   * saved. Errors are returned exactly as for updateOpState.
+   * 
+   * @param id - database generated identifier for the device
+   * @param opState - new op state for the device (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateOpStateAsync(@PathVariable String id,
+      @PathVariable String opState);
+
+  /**
+   * Asynchronous variant of updateOpStateByName. The servlet thread is released while the op
+   * state is saved. Errors are returned exactly as for updateOpStateByName.
+   * 
+   * @param name - device name
+   * @param opState - new op state for the device (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateOpStateByNameAsync(@PathVariable String name,
+      @PathVariable String opState);
+
+  /**
+   * Asynchronous variant of updateAdminState. The servlet thread is released while the admin state
+   * is saved. Errors are returned exactly as for updateAdminState.
+   * 
+   * @param id - database generated id for the device
+   * @param adminState - new admin state for the device (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateAdminStateAsync(@PathVariable String id,
+      @PathVariable String adminState);
+
+  /**
+   * Asynchronous variant of updateAdminStateByName. The servlet thread is released while the admin
+   * state is saved. Errors are returned exactly as for updateAdminStateByName.
+   * 
+   * @param name - device name
+   * @param adminState - new admin state for the device (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateAdminStateByNameAsync(@PathVariable String name,
+      @PathVariable String adminState);
 }
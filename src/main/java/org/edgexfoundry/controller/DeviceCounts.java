@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.Map;
+
+/**
+ * Number of devices in total and per service id, profile id, admin state and operating state,
+ * with when the counts were last confirmed against the device collection and how many
+ * reconciliations found them drifted. Devices without a service or profile are only in the total.
+ */
+public class DeviceCounts {
+
+  private final long total;
+
+  private final Map<String, Long> services;
+
+  private final Map<String, Long> profiles;
+
+  private final Map<String, Long> adminStates;
+
+  private final Map<String, Long> operatingStates;
+
+  private final long reconciled;
+
+  private final long drifts;
+
+  public DeviceCounts(long total, Map<String, Long> services, Map<String, Long> profiles,
+      Map<String, Long> adminStates, Map<String, Long> operatingStates, long reconciled,
+      long drifts) {
+    this.total = total;
+    this.services = services;
+    this.profiles = profiles;
+    this.adminStates = adminStates;
+    this.operatingStates = operatingStates;
+    this.reconciled = reconciled;
+    this.drifts = drifts;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public Map<String, Long> getServices() {
+    return services;
+  }
+
+  public Map<String, Long> getProfiles() {
+    return profiles;
+  }
+
+  public Map<String, Long> getAdminStates() {
+    return adminStates;
+  }
+
+  public Map<String, Long> getOperatingStates() {
+    return operatingStates;
+  }
+
+  /**
+   * @return when the counts were last loaded or confirmed against the collection
+   */
+  public long getReconciled() {
+    return reconciled;
+  }
+
+  /**
+   * @return how many reconciliations found the counts had drifted
+   */
+  public long getDrifts() {
+    return drifts;
+  }
+
+}
@@ -19,11 +19,13 @@
 package org.edgexfoundry.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.edgexfoundry.domain.meta.DeviceProfile;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface DeviceProfileController {
@@ -60,6 +62,28 @@ public interface DeviceProfileController {
    */
   DeviceProfile deviceProfileForName(@PathVariable String name);
 
+  /**
+   * Fetch the device profiles with the given database generated ids using a single query. The
+   * result is keyed by id in request order; ids with no matching device profile map to null.
+   * Returns ServiceException (HTTP 503) for unknown or unanticipated issues. Returns
+   * LimitExceededException (HTTP 413) if more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to device profile (or null when not found) in request order
+   */
+  Map<String, DeviceProfile> deviceProfilesForIds(@RequestBody List<String> ids);
+
+  /**
+   * Fetch the device profiles with the given names using a single query. The result is keyed by
+   * name in request order; names with no matching device profile map to null. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException
+   * (HTTP 413) if more names than the max limit are requested.
+   * 
+   * @param names - list of device profile names
+   * @return map of name to device profile (or null when not found) in request order
+   */
+  Map<String, DeviceProfile> deviceProfilesForNames(@RequestBody List<String> names);
+
   /**
    * Return, in yaml form, the DeviceProfiles matching given name (profile names should be unique).
    * May be null if no profiles matches on the name provided. Returns ServiceException (HTTP 503)
@@ -155,11 +179,39 @@ public interface DeviceProfileController {
    */
   String uploadYaml(@RequestBody String yamlContent);
 
+  /**
+   * Add many DeviceProfiles (and their Command objects) from an uploaded file, either a zip archive
+   * of .yaml/.yml files or a multi-document YAML file. Documents are parsed in parallel and the
+   * valid profiles stored with bulk writes. Each document is reported on separately: a profile
+   * whose YAML is invalid, whose name is not unique or whose command names are duplicated is not
+   * imported, but does not stop the others. Returns ServiceException (HTTP 503) for unknown or
+   * unanticipated issues. Returns ClientException (HTTP 400) if the file is empty.
+   * 
+   * @param file - zip archive or YAML file containing the profiles
+   * @return the outcome for each document, in the order found
+   */
+  List<ImportResult> uploadYamlFileBulk(@RequestParam("file") MultipartFile file);
+
+  /**
+   * Add many DeviceProfiles (and their Command objects) from multi-document YAML content. Documents
+   * are parsed in parallel and the valid profiles stored with bulk writes. Each document is
+   * reported on separately: a profile whose YAML is invalid, whose name is not unique or whose
+   * command names are duplicated is not imported, but does not stop the others. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param yamlContent - multi-document YAML profile content
+   * @return the outcome for each document, in the order found
+   */
+  List<ImportResult> uploadYamlBulk(@RequestBody String yamlContent);
+
   /**
    * Update the DeviceProfile identified by the id or name stored in the object provided. Id is used
    * first, name is used second for identification purposes. Associated commands must be updated
    * directly. Returns ServiceException (HTTP 503) for unknown or unanticipated issues. Returns
-   * NotFoundException (HTTP 404) if the profile cannot be found by the identifier provided.
+   * NotFoundException (HTTP 404) if the profile cannot be found by the identifier provided. Returns
+   * PreconditionFailedException (HTTP 412) if an If-Match header is sent and does not hold the
+   * current version, which reads return as their ETag, or if the object is changed by another
+   * request while this update is applied.
    * 
    * @param profile2 - object holding the identifier and new values for the DeviceProfile
    * @return boolean indicating success of the update
@@ -188,4 +240,40 @@ public interface DeviceProfileController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new DeviceProfile is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param deviceProfile - DeviceProfile object
+   * @return deferred database generated identifier for the new device profile
+   */
+  DeferredResult<String> addAsync(@RequestBody DeviceProfile deviceProfile);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the DeviceProfile is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param profile2 - DeviceProfile object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody DeviceProfile profile2);
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the DeviceProfile is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the device profile
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the DeviceProfile is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - device profile name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
 }
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.OperatingState;
+
+/**
+ * A device search, posted as JSON. Every criterion set on one query must hold (label, service and
+ * profile by database id, the two states, and a lastConnected range); "and", "or" and "not" nest
+ * further queries, so any boolean combination can be expressed, up to 32 levels deep. A query with
+ * nothing set matches every device. For example, unlocked devices of one service with either of
+ * two labels:
+ * 
+ * <pre>
+ * {"service": "57b...", "adminState": "UNLOCKED",
+ *  "or": [{"label": "floor-1"}, {"label": "floor-2"}]}
+ * </pre>
+ */
+public class DeviceQuery {
+
+  private String label;
+
+  private String service;
+
+  private String profile;
+
+  private AdminState adminState;
+
+  private OperatingState operatingState;
+
+  private Range lastConnected;
+
+  private List<DeviceQuery> and;
+
+  private List<DeviceQuery> or;
+
+  private DeviceQuery not;
+
+  public String getLabel() {
+    return label;
+  }
+
+  public void setLabel(String label) {
+    this.label = label;
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public void setService(String service) {
+    this.service = service;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public void setProfile(String profile) {
+    this.profile = profile;
+  }
+
+  public AdminState getAdminState() {
+    return adminState;
+  }
+
+  public void setAdminState(AdminState adminState) {
+    this.adminState = adminState;
+  }
+
+  public OperatingState getOperatingState() {
+    return operatingState;
+  }
+
+  public void setOperatingState(OperatingState operatingState) {
+    this.operatingState = operatingState;
+  }
+
+  public Range getLastConnected() {
+    return lastConnected;
+  }
+
+  public void setLastConnected(Range lastConnected) {
+    this.lastConnected = lastConnected;
+  }
+
+  public List<DeviceQuery> getAnd() {
+    return and;
+  }
+
+  public void setAnd(List<DeviceQuery> and) {
+    this.and = and;
+  }
+
+  public List<DeviceQuery> getOr() {
+    return or;
+  }
+
+  public void setOr(List<DeviceQuery> or) {
+    this.or = or;
+  }
+
+  public DeviceQuery getNot() {
+    return not;
+  }
+
+  public void setNot(DeviceQuery not) {
+    this.not = not;
+  }
+
+  /**
+   * Times in milliseconds; both ends are included and either may be left out.
+   */
+  public static class Range {
+
+    private Long from;
+
+    private Long to;
+
+    public Long getFrom() {
+      return from;
+    }
+
+    public void setFrom(Long from) {
+      this.from = from;
+    }
+
+    public Long getTo() {
+      return to;
+    }
+
+    public void setTo(Long to) {
+      this.to = to;
+    }
+
+  }
+
+}
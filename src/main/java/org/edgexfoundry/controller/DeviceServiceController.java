@@ -25,6 +25,7 @@ import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 public interface DeviceServiceController {
 
@@ -114,6 +115,48 @@ public interface DeviceServiceController {
    */
   Set<Addressable> addressablesForAssociatedDevicesByName(@PathVariable String name);
 
+  /**
+   * Return the root of the hash tree over the devices of a device service. A device service
+   * compares it with the root computed over the devices it holds and, where they differ, descends
+   * with {@link #digestNode(String, int)} to find the devices to fetch. Returns NotFoundException
+   * (HTTP 404) if the device service is not found by id. Returns ServiceException (HTTP 503) for
+   * unknown or unanticipated issues, or if the device index cannot be loaded.
+   * 
+   * @param id - database provided id for the device service
+   * @return - the root node with the digests of its two children
+   */
+  DigestNode digest(@PathVariable String id);
+
+  /**
+   * Return a node of the hash tree over the devices of a device service: for an inner node, its
+   * digest and those of its two children; for a bucket, its digest and the name and modified time
+   * of each of its devices. Returns NotFoundException (HTTP 404) if the device service is not
+   * found by id. Returns ClientException (HTTP 400) if the node is not in the tree. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues, or if the device index cannot
+   * be loaded.
+   * 
+   * @param id - database provided id for the device service
+   * @param node - heap number of the node; 1 is the root and the children of n are 2n and 2n + 1
+   * @return - the node
+   */
+  DigestNode digestNode(@PathVariable String id, @PathVariable int node);
+
+  /**
+   * Synchronize a device service with core metadata in one request. The service posts the name and
+   * version (modified time) of the devices, profiles and addressables it holds, and gets back the
+   * devices of the service, and the profiles and addressables they and the service use, that it
+   * lacks or holds at another version, plus the names it holds that no longer apply. Devices refer
+   * to their profile and addressable by name. At most the max limit of objects is returned, and
+   * the diff is marked truncated if more were due, so the service posts its manifest again for the
+   * rest. Returns NotFoundException (HTTP 404) if the device service is not found by name. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param name - unique name for the device service
+   * @param manifest - versions held by the device service, by name
+   * @return - added, changed and removed devices, profiles and addressables
+   */
+  SyncDiff sync(@PathVariable String name, @RequestBody SyncManifest manifest);
+
   /**
    * Add a new DeviceService - name must be unique. Returns ServiceException (HTTP 503) for unknown
    * or unanticipated issues. Returns DataValidationException (HTTP 409) if an associated
@@ -216,7 +259,9 @@ public interface DeviceServiceController {
    * Update the DeviceServcie identified by the id or name stored in the object provided. Id is used
    * first, name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if the device service
-   * cannot be found by the identifier provided.
+   * cannot be found by the identifier provided. Returns PreconditionFailedException (HTTP 412) if
+   * an If-Match header is sent and does not hold the current version, which reads return as their
+   * ETag, or if the object is changed by another request while this update is applied.
    * 
    * @param deviceService2 - object holding the identifier and new values for the DeviceService
    * @return boolean indicating success of the update
@@ -245,4 +290,84 @@ public interface DeviceServiceController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new DeviceService is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param deviceService - DeviceService object
+   * @return deferred database generated identifier for the new device service
+   */
+  DeferredResult<String> addAsync(@RequestBody DeviceService deviceService);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the DeviceService is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param deviceService2 - DeviceService object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody DeviceService deviceService2);
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the DeviceService is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the device service
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the DeviceService is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - device service name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
+
+  /**
+   * Asynchronous variant of updateOpState. The servlet thread is released while the op state is
+   * saved. Errors are returned exactly as for updateOpState.
+   * 
+   * @param id - database generated id for the device service
+   * @param opState - new op state for the device service (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateOpStateAsync(@PathVariable String id,
+      @PathVariable String opState);
+
+  /**
+   * Asynchronous variant of updateOpStateByName. The servlet thread is released while the op state
+   * is saved. Errors are returned exactly as for updateOpStateByName.
+   * 
+   * @param name - device service name
+   * @param opState - new op state for the device service (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateOpStateByNameAsync(@PathVariable String name,
+      @PathVariable String opState);
+
+  /**
+   * Asynchronous variant of updateAdminState. The servlet thread is released while the admin state
+   * is saved. Errors are returned exactly as for updateAdminState.
+   * 
+   * @param id - database generated id for the device service
+   * @param adminState - new admin state for the device service (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateAdminStateAsync(@PathVariable String id,
+      @PathVariable String adminState);
+
+  /**
+   * Asynchronous variant of updateAdminStateByName. The servlet thread is released while the admin
+   * state is saved. Errors are returned exactly as for updateAdminStateByName.
+   * 
+   * @param name - device service name
+   * @param adminState - new admin state for the device service (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  DeferredResult<Boolean> updateAdminStateByNameAsync(@PathVariable String name,
+      @PathVariable String adminState);
 }
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of the hash tree over the devices of a device service. Inner nodes list the digests of
+ * their two children; buckets list the version (modified time) of each of their devices by name.
+ */
+public class DigestNode {
+
+  private final int depth;
+
+  private final int node;
+
+  private final String digest;
+
+  private final List<String> children;
+
+  private final Map<String, Long> devices;
+
+  public DigestNode(int depth, int node, String digest, List<String> children,
+      Map<String, Long> devices) {
+    this.depth = depth;
+    this.node = node;
+    this.digest = digest;
+    this.children = children;
+    this.devices = devices;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getNode() {
+    return node;
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public List<String> getChildren() {
+    return children;
+  }
+
+  public Map<String, Long> getDevices() {
+    return devices;
+  }
+
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+/**
+ * Outcome of importing one YAML document in a bulk profile import. The source names the document
+ * (the file or archive entry, with "#n" when it held several documents). On success the id of the
+ * new profile is set; on failure the error says why the document was not imported.
+ */
+public class ImportResult {
+
+  private final String source;
+
+  private String name;
+
+  private String id;
+
+  private String error;
+
+  public ImportResult(String source) {
+    this.source = source;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public boolean isImported() {
+    return id != null && error == null;
+  }
+
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+/**
+ * Device change notifications sent, coalesced into another in the same batch, dropped on a full
+ * queue and failed since startup, and the number still queued.
+ */
+public class NotificationCounts {
+
+  private final long sent;
+
+  private final long coalesced;
+
+  private final long dropped;
+
+  private final long failed;
+
+  private final int pending;
+
+  public NotificationCounts(long sent, long coalesced, long dropped, long failed, int pending) {
+    this.sent = sent;
+    this.coalesced = coalesced;
+    this.dropped = dropped;
+    this.failed = failed;
+    this.pending = pending;
+  }
+
+  public long getSent() {
+    return sent;
+  }
+
+  public long getCoalesced() {
+    return coalesced;
+  }
+
+  public long getDropped() {
+    return dropped;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public int getPending() {
+    return pending;
+  }
+
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 public interface ScheduleController {
 
@@ -101,5 +102,40 @@ public interface ScheduleController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Schedule is validated
+   * and saved; the response carries the database generated identifier once the write completes.
+   * Errors are returned exactly as for add.
+   * 
+   * @param schedule - Schedule object
+   * @return deferred database generated identifier for the new schedule
+   */
+  DeferredResult<String> addAsync(@RequestBody Schedule schedule);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Schedule is validated
+   * and updated. Errors are returned exactly as for update.
+   * 
+   * @param schedule2 - Schedule object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody Schedule schedule2);
 
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Schedule is removed.
+   * Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the schedule
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Schedule is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - schedule name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
 }
@@ -23,6 +23,7 @@ import java.util.List;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 public interface ScheduleEventController {
 
@@ -106,7 +107,10 @@ public interface ScheduleEventController {
    * name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. DataValidationException (HTTP 409) if an attempt to change the
    * name is made when the schedule event is still being referenced by device reports.
-   * NotFoundException (HTTP 404) if no schedule is found for the name provided.
+   * NotFoundException (HTTP 404) if no schedule is found for the name provided. Returns
+   * PreconditionFailedException (HTTP 412) if an If-Match header is sent and does not hold the
+   * current modified value, or if the object is changed by another request while this update is
+   * applied.
    * 
    * @param schedule2 - object holding the identifier and new values for the schedule event
    * @return boolean indicating success of the update
@@ -135,5 +139,40 @@ public interface ScheduleEventController {
    */
   boolean deleteByName(@PathVariable String name);
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new ScheduleEvent is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param scheduleEvent - ScheduleEvent object
+   * @return deferred database generated identifier for the new schedule event
+   */
+  DeferredResult<String> addAsync(@RequestBody ScheduleEvent scheduleEvent);
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the ScheduleEvent is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param scheduleEvent2 - ScheduleEvent object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  DeferredResult<Boolean> updateAsync(@RequestBody ScheduleEvent scheduleEvent2);
 
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the ScheduleEvent is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the schedule event
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteAsync(@PathVariable String id);
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the ScheduleEvent is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - schedule event name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name);
 }
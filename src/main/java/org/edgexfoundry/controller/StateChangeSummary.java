@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a bulk state change: how many devices the selector matched that were not already
+ * in the state, how many the update changed, and how many of those belong to each device service
+ * (by name), each of which was called back once.
+ */
+public class StateChangeSummary {
+
+  private int matched;
+
+  private int changed;
+
+  private final Map<String, Integer> services = new TreeMap<>();
+
+  public int getMatched() {
+    return matched;
+  }
+
+  public void setMatched(int matched) {
+    this.matched = matched;
+  }
+
+  public int getChanged() {
+    return changed;
+  }
+
+  public void setChanged(int changed) {
+    this.changed = changed;
+  }
+
+  public Map<String, Integer> getServices() {
+    return services;
+  }
+
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.OperatingState;
+
+/**
+ * A device as returned by a sync. Its own fields are copied; the service, profile and addressable
+ * are given by name, the key the sync manifest uses, since the profiles and addressables themselves
+ * are returned alongside the devices when the service lacks them.
+ */
+public class SyncDevice {
+
+  private final String id;
+
+  private final String name;
+
+  private final String description;
+
+  private final AdminState adminState;
+
+  private final OperatingState operatingState;
+
+  private final String[] labels;
+
+  private final Object location;
+
+  private final long lastConnected;
+
+  private final long lastReported;
+
+  private final long origin;
+
+  private final long created;
+
+  private final long modified;
+
+  private final String service;
+
+  private final String profile;
+
+  private final String addressable;
+
+  public SyncDevice(Device device) {
+    id = device.getId();
+    name = device.getName();
+    description = device.getDescription();
+    adminState = device.getAdminState();
+    operatingState = device.getOperatingState();
+    labels = device.getLabels();
+    location = device.getLocation();
+    lastConnected = device.getLastConnected();
+    lastReported = device.getLastReported();
+    origin = device.getOrigin();
+    created = device.getCreated();
+    modified = device.getModified();
+    service = device.getService() == null ? null : device.getService().getName();
+    profile = device.getProfile() == null ? null : device.getProfile().getName();
+    addressable = device.getAddressable() == null ? null : device.getAddressable().getName();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public AdminState getAdminState() {
+    return adminState;
+  }
+
+  public OperatingState getOperatingState() {
+    return operatingState;
+  }
+
+  public String[] getLabels() {
+    return labels;
+  }
+
+  public Object getLocation() {
+    return location;
+  }
+
+  public long getLastConnected() {
+    return lastConnected;
+  }
+
+  public long getLastReported() {
+    return lastReported;
+  }
+
+  public long getOrigin() {
+    return origin;
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public long getModified() {
+    return modified;
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public String getAddressable() {
+    return addressable;
+  }
+
+}
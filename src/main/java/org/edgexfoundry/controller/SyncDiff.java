@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+
+/**
+ * The answer to a {@link SyncManifest}: for the devices of the service, and for the profiles and
+ * addressables they and the service use, the objects the service does not hold (added), the ones it
+ * holds at another version (changed), and the names it holds that no longer apply (removed).
+ * Devices refer to their profile and addressable by name rather than embedding them.
+ * 
+ * At most the max limit of added and changed objects is returned, addressables and profiles
+ * before the devices that use them. If more were due the diff is truncated: the service stores
+ * what it got, at the versions listed, and posts its manifest again for the rest.
+ */
+public class SyncDiff {
+
+  private boolean truncated;
+
+  private final Changes<SyncDevice> devices = new Changes<>();
+
+  private final Changes<DeviceProfile> profiles = new Changes<>();
+
+  private final Changes<Addressable> addressables = new Changes<>();
+
+  public Changes<SyncDevice> getDevices() {
+    return devices;
+  }
+
+  public Changes<DeviceProfile> getProfiles() {
+    return profiles;
+  }
+
+  public Changes<Addressable> getAddressables() {
+    return addressables;
+  }
+
+  /**
+   * @return true if added or changed objects were left out to keep within the max limit
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  public void setTruncated(boolean truncated) {
+    this.truncated = truncated;
+  }
+
+  public static class Changes<T> {
+
+    private final List<T> added = new ArrayList<>();
+
+    private final List<T> changed = new ArrayList<>();
+
+    private final List<String> removed = new ArrayList<>();
+
+    private final Map<String, Long> versions = new TreeMap<>();
+
+    public List<T> getAdded() {
+      return added;
+    }
+
+    public List<T> getChanged() {
+      return changed;
+    }
+
+    public List<String> getRemoved() {
+      return removed;
+    }
+
+    /**
+     * @return the version to hold for each added and changed object, by name; a profile's covers
+     *         its commands, so it can be later than the profile's own modified time
+     */
+    public Map<String, Long> getVersions() {
+      return versions;
+    }
+
+  }
+
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a device service already holds, posted to synchronize with core metadata: the version
+ * (modified time) of each of its devices, and of their profiles and addressables, by name, as
+ * listed in the versions of the {@link SyncDiff} they were returned in.
+ * 
+ * <pre>
+ * {"devices": {"livingroomthermostat": 1471922478043},
+ *  "profiles": {"thermostat profile": 1471806386919},
+ *  "addressables": {"hvac thermo address": 1471917059552}}
+ * </pre>
+ */
+public class SyncManifest {
+
+  private Map<String, Long> devices = new HashMap<>();
+
+  private Map<String, Long> profiles = new HashMap<>();
+
+  private Map<String, Long> addressables = new HashMap<>();
+
+  public Map<String, Long> getDevices() {
+    return devices;
+  }
+
+  public void setDevices(Map<String, Long> devices) {
+    this.devices = devices == null ? new HashMap<>() : devices;
+  }
+
+  public Map<String, Long> getProfiles() {
+    return profiles;
+  }
+
+  public void setProfiles(Map<String, Long> profiles) {
+    this.profiles = profiles == null ? new HashMap<>() : profiles;
+  }
+
+  public Map<String, Long> getAddressables() {
+    return addressables;
+  }
+
+  public void setAddressables(Map<String, Long> addressables) {
+    this.addressables = addressables == null ? new HashMap<>() : addressables;
+  }
+
+}
@@ -19,11 +19,15 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.List;
+import java.util.Map;
 
 import org.edgexfoundry.controller.Action;
 import org.edgexfoundry.controller.AddressableController;
 import org.edgexfoundry.dao.AddressableDao;
 import org.edgexfoundry.dao.AddressableRepository;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
 import org.edgexfoundry.domain.meta.ActionType;
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.exception.controller.DataValidationException;
@@ -39,6 +43,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/addressable")
@@ -59,8 +64,17 @@ public class AddressableControllerImpl implements AddressableController {
   @Autowired
   private AddressableDao dao;
 
+  @Autowired
+  private DocumentDao documentDao;
+
   @Autowired
   private CallbackExecutor callback;
+
+  @Autowired
+  private AsyncWriter writer;
+
+  @Autowired
+  private JsonCache jsonCache;
   
   @Value("${read.max.limit:100}")
   private int maxLimit;
@@ -140,6 +154,60 @@ public class AddressableControllerImpl implements AddressableController {
     }
   }
 
+  /**
+   * Fetch the addressables with the given database generated ids using a single query. The result
+   * is keyed by id in request order; ids with no matching addressable map to null. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException
+   * (HTTP 413) if more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to addressable (or null when not found) in request order
+   */
+  @RequestMapping(value = "/ids", method = RequestMethod.POST)
+  @Override
+  public Map<String, Addressable> addressablesForIds(@RequestBody List<String> ids) {
+    try {
+      if (ids.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting addressables by id");
+        throw new LimitExceededException("Addressable");
+      }
+      return MultiGet.inRequestOrder(ids, repos.findAll(MultiGet.distinct(ids)),
+          Addressable::getId);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error getting addressables:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Fetch the addressables with the given names using a single query. The result is keyed by name
+   * in request order; names with no matching addressable map to null. Returns ServiceException
+   * (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if
+   * more names than the max limit are requested.
+   * 
+   * @param names - list of addressable names
+   * @return map of name to addressable (or null when not found) in request order
+   */
+  @RequestMapping(value = "/names", method = RequestMethod.POST)
+  @Override
+  public Map<String, Addressable> addressablesForNames(@RequestBody List<String> names) {
+    try {
+      if (names.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting addressables by name");
+        throw new LimitExceededException("Addressable");
+      }
+      return MultiGet.inRequestOrder(names, repos.findByNameIn(MultiGet.distinct(names)),
+          Addressable::getName);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error getting addressables:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Return Addressable objects with given address. List may be empty if none are associated to the
    * address. Returns ServiceException (HTTP 503) for unknown or unanticipated issues.
@@ -239,7 +307,9 @@ public class AddressableControllerImpl implements AddressableController {
    * Update the Addressable identified by the id or name in the object provided. Id is used first,
    * name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if no addressable with
-   * the provided id is found.
+   * the provided id is found. Returns PreconditionFailedException (HTTP 412) if an If-Match header
+   * is sent and does not hold the current modified value, or if the object is changed by another
+   * request while this update is applied.
    * 
    * @param Addressable object holding the identifier and new values for the Addressable
    * @return boolean indicating success of the update
@@ -256,44 +326,55 @@ public class AddressableControllerImpl implements AddressableController {
             + addressable2.getId() + "/" + addressable2.getName());
         throw new NotFoundException(Addressable.class.toString(), addressable2.getId());
       }
-      updateAddressable(addressable2, addressable);
-      notifyAssociates(addressable, Action.PUT);
+      IfMatch.check(addressable);
+      if (updateAddressable(addressable2, addressable))
+        notifyAssociates(addressable, Action.PUT);
       return true;
     } catch (NotFoundException nE) {
       throw nE;
     } catch (DataValidationException dE) {
       throw dE;
+    } catch (PreconditionFailedException pE) {
+      throw pE;
     } catch (Exception e) {
       logger.error("Error updating addressable:  " + e.getMessage());
       throw new ServiceException(e);
     }
   }
 
-  private void updateAddressable(Addressable from, Addressable to) {
+  private boolean updateAddressable(Addressable from, Addressable to) {
+    ChangeSet changes = new ChangeSet();
     if (from.getProtocol() != null)
-      to.setProtocol(from.getProtocol());
+      changes.set("protocol", to.getProtocol(), from.getProtocol(), to::setProtocol);
     if (from.getAddress() != null)
-      to.setAddress(from.getAddress());
+      changes.set("address", to.getAddress(), from.getAddress(), to::setAddress);
     if (from.getMethod() != null)
-      to.setMethod(from.getMethod());
+      changes.set("method", to.getMethod(), from.getMethod(), to::setMethod);
     if (from.getPath() != null)
-      to.setPath(from.getPath());
+      changes.set("path", to.getPath(), from.getPath(), to::setPath);
     if (from.getPort() != 0)
-      to.setPort(from.getPort());
+      changes.set("port", to.getPort(), from.getPort(), to::setPort);
     if (from.getPublisher() != null)
-      to.setPublisher(from.getPublisher());
+      changes.set("publisher", to.getPublisher(), from.getPublisher(), to::setPublisher);
     if (from.getTopic() != null)
-      to.setTopic(from.getTopic());
+      changes.set("topic", to.getTopic(), from.getTopic(), to::setTopic);
     if (from.getUser() != null)
-      to.setUser(from.getUser());
+      changes.set("user", to.getUser(), from.getUser(), to::setUser);
     if (from.getPassword() != null)
-      to.setPassword(from.getPassword());
+      changes.set("password", to.getPassword(), from.getPassword(), to::setPassword);
     if (from.getName() != null && !from.getName().equals(to.getName())) {
+      String name = to.getName();
       checkAddressableAssociatedToDevice(to, from.getName());
+      changes.set("name", name, from.getName(), to::setName);
     }
     if (from.getOrigin() != 0)
-      to.setOrigin(from.getOrigin());
-    repos.save(to);
+      changes.set("origin", to.getOrigin(), from.getOrigin(), to::setOrigin);
+    if (changes.isEmpty())
+      return false;
+    documentDao.update(to, changes);
+    // addressables are written inside the JSON of the device services that reference them
+    jsonCache.clear();
+    return true;
   }
   
   private void checkAddressableAssociatedToDevice(Addressable addressable, String oldName) {
@@ -362,6 +443,59 @@ public class AddressableControllerImpl implements AddressableController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Addressable is saved;
+   * the response carries the database generated identifier once the write completes. Errors are
+   * returned exactly as for add.
+   * 
+   * @param Addressable to add
+   * @return deferred database generated id for the new Addressable
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody Addressable addressable) {
+    return writer.submit(() -> add(addressable));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Addressable is updated
+   * and associates are notified. Errors are returned exactly as for update.
+   * 
+   * @param Addressable object holding the identifier and new values for the Addressable
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody Addressable addressable2) {
+    return writer.submit(() -> update(addressable2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Addressable is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param database generated id for the addressable
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Addressable is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param unique name of the addressable
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
   private boolean deleteAddressable(Addressable addressable) {
     if (dao.isAddressableAssociatedToDevice(addressable)
         || (dao.isAddressableAssociatedToDeviceService(addressable))) {
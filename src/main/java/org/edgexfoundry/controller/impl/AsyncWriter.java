@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Runs a write on the request executor and hands back a DeferredResult, releasing the servlet
+ * thread until the write completes. Exceptions thrown by the write are passed to Spring unwrapped
+ * so they map to the same HTTP status as the synchronous endpoint. The request attributes are
+ * carried over to the worker so request headers such as If-Match are still seen by the write.
+ * When the request executor is saturated the write is rejected with ServiceException (HTTP 503).
+ * A write not completed within the timeout is answered with 202 (Accepted) and no body: it is
+ * still running and may well commit, so its outcome is unknown rather than failed, and a client
+ * should read the object back instead of repeating the write.
+ */
+@Component
+public class AsyncWriter {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory.getEdgeXLogger(AsyncWriter.class);
+
+  private final Executor executor;
+
+  @Value("${request.async.timeout:30000}")
+  private long timeout = 30000;
+
+  @Autowired
+  public AsyncWriter(@Qualifier("requestExecutor") Executor executor) {
+    this.executor = executor;
+  }
+
+  public <T> DeferredResult<T> submit(Supplier<T> write) {
+    DeferredResult<T> result =
+        new DeferredResult<>(timeout, new ResponseEntity<>(HttpStatus.ACCEPTED));
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    try {
+      CompletableFuture.supplyAsync(() -> inRequest(attributes, write), executor)
+          .whenComplete((value, e) -> {
+            if (e == null)
+              result.setResult(value);
+            else if (e instanceof CompletionException && e.getCause() != null)
+              result.setErrorResult(e.getCause());
+            else
+              result.setErrorResult(e);
+          });
+    } catch (RejectedExecutionException e) {
+      logger.error("Request executor saturated, write rejected");
+      result.setErrorResult(new ServiceException(e));
+    }
+    return result;
+  }
+
+  private static <T> T inRequest(RequestAttributes attributes, Supplier<T> write) {
+    RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+    RequestContextHolder.setRequestAttributes(attributes);
+    try {
+      return write.get();
+    } finally {
+      RequestContextHolder.setRequestAttributes(previous);
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.io.IOException;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes the objects held in the {@link JsonCache} straight from their cached bytes, ahead of the
+ * general Jackson converter. Controllers keep returning domain objects; only the serialization
+ * step is skipped. Request bodies are still read by Jackson.
+ */
+public class CachedJsonHttpMessageConverter extends AbstractHttpMessageConverter<BaseObject> {
+
+  private final JsonCache cache;
+
+  public CachedJsonHttpMessageConverter(JsonCache cache) {
+    super(MediaType.APPLICATION_JSON_UTF8);
+    this.cache = cache;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return cache.isCached(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected BaseObject readInternal(Class<? extends BaseObject> clazz, HttpInputMessage input) {
+    throw new HttpMessageNotReadableException("Cached JSON is write only");
+  }
+
+  @Override
+  protected void writeInternal(BaseObject object, HttpOutputMessage output) throws IOException {
+    output.getBody().write(cache.toJson(object));
+  }
+
+}
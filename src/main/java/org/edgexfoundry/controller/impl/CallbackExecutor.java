@@ -29,6 +29,7 @@ import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.Asset;
 import org.edgexfoundry.domain.meta.CallbackAlert;
 import org.edgexfoundry.exception.controller.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -48,13 +49,33 @@ public class CallbackExecutor {
   @Value("${server.timeout}")
   private int timeout = 5000;
 
+  @Autowired
+  private CallbackPublisher publisher;
+
   public void callback(List<Asset> assets, String id, Action action, ActionType type) {
     assets.forEach(a -> callback(a, id, action, type));
   }
 
   @Async
   public void callback(Asset asset, final String id, final Action action, final ActionType type) {
+    deliver(asset, id, action, type);
+  }
+
+  /**
+   * Call back one device service about many of its objects, as after a bulk update, from a single
+   * task: the alerts go out one after another instead of as a task each.
+   */
+  @Async
+  public void callback(Asset asset, List<String> ids, Action action, ActionType type) {
+    ids.forEach(id -> deliver(asset, id, action, type));
+  }
+
+  private void deliver(Asset asset, String id, Action action, ActionType type) {
     if (asset == null) return;
+    if (publisher.publish(asset.getName(), id, action, type)) {
+      logger.debug("Callback for " + asset.getName() + " delivered on open stream with id:  " + id);
+      return;
+    }
     final String url = getCallBackURL(asset.getAddressable());
     try {
       if (url != null) {
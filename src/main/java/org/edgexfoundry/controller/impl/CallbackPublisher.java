@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.edgexfoundry.controller.Action;
+import org.edgexfoundry.domain.meta.ActionType;
+import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Keeps the open callback alert streams and pushes alerts to them. Device services holding a
+ * stream for their own name receive alerts over the existing connection, which avoids a new
+ * outbound connection per alert and works when the device service cannot accept inbound calls.
+ */
+@Component
+public class CallbackPublisher {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(CallbackPublisher.class);
+
+  @Value("${callback.stream.timeout:3600000}")
+  private long timeout;
+
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  /**
+   * Register a new stream. A null service receives alerts for all services; a null or empty set
+   * of types receives alerts of every type.
+   */
+  public SseEmitter subscribe(String service, Set<ActionType> types) {
+    SseEmitter emitter = new SseEmitter(timeout);
+    Subscription subscription = new Subscription(service, types, emitter);
+    emitter.onCompletion(() -> subscriptions.remove(subscription));
+    emitter.onTimeout(() -> subscriptions.remove(subscription));
+    subscriptions.add(subscription);
+    logger.debug("Callback stream opened for service:  " + (service == null ? "all" : service));
+    return emitter;
+  }
+
+  /**
+   * Push the alert to every matching stream.
+   * 
+   * @return true if the alert was delivered to a stream held for the named service, meaning the
+   *         outbound callback is no longer needed
+   */
+  public boolean publish(String service, String id, Action action, ActionType type) {
+    boolean delivered = false;
+    for (Subscription subscription : subscriptions) {
+      if (subscription.matches(service, type) && send(subscription, id, action, type)
+          && subscription.service != null)
+        delivered = true;
+    }
+    return delivered;
+  }
+
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  // proxies and NAT gateways drop idle connections, so streams get a periodic comment
+  @Scheduled(fixedDelayString = "${callback.stream.keepalive:30000}")
+  public void keepAlive() {
+    for (Subscription subscription : subscriptions) {
+      try {
+        synchronized (subscription) {
+          subscription.emitter.send(SseEmitter.event().comment("keepalive"));
+        }
+      } catch (IOException | IllegalStateException e) {
+        drop(subscription, e);
+      }
+    }
+  }
+
+  private boolean send(Subscription subscription, String id, Action action, ActionType type) {
+    try {
+      synchronized (subscription) {
+        subscription.emitter.send(SseEmitter.event().name(action.toString())
+            .data(new CallbackAlert(type, id), MediaType.APPLICATION_JSON));
+      }
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      drop(subscription, e);
+      return false;
+    }
+  }
+
+  private void drop(Subscription subscription, Exception e) {
+    subscriptions.remove(subscription);
+    logger.debug("Callback stream closed for service:  " + subscription.service + "; " + e);
+    try {
+      subscription.emitter.completeWithError(e);
+    } catch (Exception ignore) {
+      // already completed by the container
+    }
+  }
+
+  private static class Subscription {
+    private final String service;
+    private final Collection<ActionType> types;
+    private final SseEmitter emitter;
+
+    Subscription(String service, Collection<ActionType> types, SseEmitter emitter) {
+      this.service = service;
+      this.types = types;
+      this.emitter = emitter;
+    }
+
+    boolean matches(String serviceName, ActionType type) {
+      return (service == null || service.equals(serviceName))
+          && (types == null || types.isEmpty() || types.contains(type));
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.edgexfoundry.controller.CallbackStreamController;
+import org.edgexfoundry.dao.DeviceServiceDao;
+import org.edgexfoundry.domain.meta.ActionType;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.exception.controller.NotFoundException;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/callbackstream")
+public class CallbackStreamControllerImpl implements CallbackStreamController {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(CallbackStreamControllerImpl.class);
+
+  @Autowired
+  private DeviceServiceDao serviceDao;
+
+  @Autowired
+  private CallbackPublisher publisher;
+
+  /**
+   * Open a server-sent event stream of callback alerts. Each event is named by the action (POST,
+   * PUT, DELETE) and carries the same CallbackAlert (type and id) that would otherwise be posted to
+   * the device service's callback addressable. While a device service holds a stream open for its
+   * own name, alerts for that service are delivered on the stream instead of by callback. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues. Returns NotFoundException
+   * (HTTP 404) if a service name is provided and no device service matches it.
+   * 
+   * @param service - optional device service name; when absent alerts for all services are sent
+   * @param types - optional list of ActionTypes to receive; when absent all types are sent
+   * @return event stream of callback alerts
+   */
+  @RequestMapping(method = RequestMethod.GET, produces = "text/event-stream")
+  @Override
+  public SseEmitter subscribe(@RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "type", required = false) List<ActionType> types) {
+    try {
+      if (service != null) {
+        DeviceService deviceService = serviceDao.getByName(service);
+        if (deviceService == null) {
+          logger.error("Request for callback stream by non-existent service:  " + service);
+          throw new NotFoundException(DeviceService.class.toString(), service);
+        }
+      }
+      Set<ActionType> filter =
+          (types == null || types.isEmpty()) ? null : EnumSet.copyOf(types);
+      return publisher.subscribe(service, filter);
+    } catch (NotFoundException nE) {
+      throw nE;
+    } catch (Exception e) {
+      logger.error("Error opening callback stream:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+}
@@ -53,6 +53,12 @@ public class CommandControllerImpl implements CommandController {
   @Autowired
   private DeviceProfileDao profileDao;
 
+  @Autowired
+  private ProfileYamlCache yamlCache;
+
+  @Autowired
+  private JsonCache jsonCache;
+
   @Value("${read.max.limit}")
   private int maxLimit;
 
@@ -189,6 +195,9 @@ public class CommandControllerImpl implements CommandController {
     if (from.getOrigin() != 0)
       to.setOrigin(from.getOrigin());
     repos.save(to);
+    // commands are rendered inside every profile that references them
+    yamlCache.clear();
+    jsonCache.clear();
   }
 
   private void checkAssociatedProfilesForDupeNames(Command command) {
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.edgexfoundry.controller.Action;
+import org.edgexfoundry.controller.NotificationClient;
+import org.edgexfoundry.controller.NotificationCounts;
+import org.edgexfoundry.support.domain.notifications.Notification;
+import org.edgexfoundry.support.domain.notifications.NotificationCategory;
+import org.edgexfoundry.support.domain.notifications.NotificationSeverity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends device change notifications to support-notifications off the request thread. Changes are
+ * put on a bounded queue and drained on a fixed delay by a thread of its own, so a slow
+ * notification service cannot hold up the other scheduled tasks. Each batch becomes one digest
+ * notification, and repeats of the same change within a batch are sent once. A full queue drops
+ * the change rather than block the device write. Sent, coalesced, dropped and failed changes are
+ * counted.
+ */
+@Component
+public class DeviceChangeNotifier {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(DeviceChangeNotifier.class);
+
+  @Autowired
+  private NotificationClient notificationClient;
+
+  @Value("${notification.postdevicechanges}")
+  private boolean notifyDeviceChanges;
+
+  @Value("${notification.slug}")
+  private String notificationSlug;
+
+  @Value("${notification.content}")
+  private String notificationContent;
+
+  @Value("${notification.sender}")
+  private String notificationSender;
+
+  @Value("${notification.description}")
+  private String notificationDescription;
+
+  @Value("${notification.label}")
+  private String notificationLabel;
+
+  @Value("${notification.queue.capacity:1000}")
+  private int capacity;
+
+  @Value("${notification.batch.size:50}")
+  private int batchSize;
+
+  @Value("${notification.flush.interval:1000}")
+  private long flushInterval;
+
+  private BlockingQueue<String> queue;
+
+  private ScheduledExecutorService scheduler;
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong droppedSinceFlush = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  @PostConstruct
+  public void init() {
+    // nothing but the scheduler drains the queue, so without it every change would be dropped
+    if (flushInterval <= 0)
+      throw new IllegalArgumentException(
+          "notification.flush.interval must be positive, not " + flushInterval);
+    queue = new ArrayBlockingQueue<>(capacity);
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "device-change-notifier");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        flush();
+      } catch (Exception e) {
+        logger.error("Error flushing device change notifications:  " + e.getMessage());
+      }
+    }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queue a change to the named device. Never blocks; the change is dropped and counted if the
+   * queue is full.
+   */
+  public void enqueue(String name, Action action) {
+    if (!notifyDeviceChanges)
+      return;
+    if (!queue.offer(name + "-" + action)) {
+      dropped.incrementAndGet();
+      droppedSinceFlush.incrementAndGet();
+    }
+  }
+
+  public void flush() {
+    long overflow = droppedSinceFlush.getAndSet(0);
+    if (overflow > 0)
+      logger.error("Notification queue full; dropped " + overflow
+          + " device change notifications (total " + dropped.get() + ")");
+    List<String> batch = new ArrayList<>(batchSize);
+    while (queue.drainTo(batch, batchSize) > 0) {
+      send(batch);
+      batch.clear();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdown();
+    flush();
+  }
+
+  public NotificationCounts counts() {
+    return new NotificationCounts(sent.get(), coalesced.get(), dropped.get(), failed.get(),
+        queue.size());
+  }
+
+  public long getSent() {
+    return sent.get();
+  }
+
+  public long getCoalesced() {
+    return coalesced.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public int getPending() {
+    return queue.size();
+  }
+
+  private void send(List<String> batch) {
+    Set<String> changes = new LinkedHashSet<>(batch);
+    coalesced.addAndGet(batch.size() - changes.size());
+    Notification notification = new Notification();
+    notification
+        .setSlug(notificationSlug + System.currentTimeMillis() + "-" + sequence.incrementAndGet());
+    notification.setContent(notificationContent + String.join(", ", changes));
+    notification.setCategory(NotificationCategory.SW_HEALTH);
+    notification.setDescription(notificationDescription);
+    String[] labels = new String[1];
+    labels[0] = notificationLabel;
+    notification.setLabels(labels);
+    notification.setSender(notificationSender);
+    notification.setSeverity(NotificationSeverity.NORMAL);
+    try {
+      notificationClient.receiveNotification(notification);
+      sent.addAndGet(changes.size());
+      logger.debug("Notification sent about device changes:" + notification.getSlug());
+    } catch (Exception e) {
+      // a failed send is counted and dropped; device writes have already completed
+      failed.addAndGet(changes.size());
+      logger.debug("Notification send on device modification failed for:" + notification.getSlug()
+          + "; " + e);
+    }
+  }
+
+}
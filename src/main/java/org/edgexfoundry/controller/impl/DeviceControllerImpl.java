@@ -18,16 +18,36 @@
 
 package org.edgexfoundry.controller.impl;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.edgexfoundry.controller.Action;
 import org.edgexfoundry.controller.DeviceController;
-import org.edgexfoundry.controller.NotificationClient;
+import org.edgexfoundry.controller.DeviceCounts;
+import org.edgexfoundry.controller.DeviceQuery;
+import org.edgexfoundry.controller.NotificationCounts;
+import org.edgexfoundry.controller.StateChangeSummary;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.ConcurrentResolver;
+import org.edgexfoundry.dao.DeviceDao;
+import org.edgexfoundry.dao.DeviceIndex;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceReportDao;
 import org.edgexfoundry.dao.DeviceRepository;
 import org.edgexfoundry.dao.DeviceServiceDao;
+import org.edgexfoundry.dao.DeviceWrites;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
+import org.edgexfoundry.dao.VersionClock;
+import org.edgexfoundry.dao.VersionDao;
 import org.edgexfoundry.domain.meta.ActionType;
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.AdminState;
@@ -40,18 +60,18 @@ import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
 import org.edgexfoundry.exception.controller.ServiceException;
-import org.edgexfoundry.support.domain.notifications.Notification;
-import org.edgexfoundry.support.domain.notifications.NotificationCategory;
-import org.edgexfoundry.support.domain.notifications.NotificationSeverity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/device")
@@ -66,9 +86,19 @@ public class DeviceControllerImpl implements DeviceController {
 
   private static final String ERR_GET = "Error getting device:  ";
 
+  private static final int FIELD_WRITE_ATTEMPTS = 3;
+
+  // debouncer keys are the device id followed by one of these
+  private static final String OP_STATE_KEY = "/opstate";
+
+  private static final String ADMIN_STATE_KEY = "/adminstate";
+
   @Autowired
   private DeviceRepository repos;
 
+  @Autowired
+  private DocumentDao documentDao;
+
   @Autowired
   private AddressableDao addressableDao;
 
@@ -81,29 +111,38 @@ public class DeviceControllerImpl implements DeviceController {
   @Autowired
   private CallbackExecutor callback;
 
+  @Autowired
+  private AsyncWriter writer;
+
+  @Autowired
+  private ConcurrentResolver resolver;
+
   @Autowired
   private DeviceReportDao deviceRptDao;
 
   @Autowired
-  private NotificationClient notificationClient;
+  private DeviceChangeNotifier notifier;
 
-  @Value("${notification.postdevicechanges}")
-  private boolean notifyDeviceChanges;
+  @Autowired
+  private StateChangeDebouncer debouncer;
 
-  @Value("${notification.slug}")
-  private String notificationSlug;
+  @Autowired
+  private JsonCache jsonCache;
 
-  @Value("${notification.content}")
-  private String notificationContent;
+  @Autowired
+  private DeviceWrites deviceWrites;
 
-  @Value("${notification.sender}")
-  private String notificationSender;
+  @Autowired
+  private DeviceIndex index;
 
-  @Value("${notification.description}")
-  private String notificationDescription;
+  @Autowired
+  private DeviceDao deviceDao;
 
-  @Value("${notification.label}")
-  private String notificationLabel;
+  @Autowired
+  private VersionDao versionDao;
+
+  @Autowired
+  private VersionClock clock;
 
   /**
    * Fetch a specific device by database generated id. May return null if no device with the id is
@@ -179,6 +218,323 @@ public class DeviceControllerImpl implements DeviceController {
     }
   }
 
+  /**
+   * Fetch the devices with the given database generated ids using a single query. The result is
+   * keyed by id in request order; ids with no matching device map to null. Returns ServiceException
+   * (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if
+   * more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to device (or null when not found) in request order
+   */
+  @RequestMapping(value = "/ids", method = RequestMethod.POST)
+  @Override
+  public Map<String, Device> devicesForIds(@RequestBody List<String> ids) {
+    try {
+      if (ids.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting devices by id");
+        throw new LimitExceededException("Device");
+      }
+      return MultiGet.inRequestOrder(ids, repos.findAll(MultiGet.distinct(ids)),
+          Device::getId);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error(ERR_GET + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Fetch the devices with the given names using a single query. The result is keyed by name in
+   * request order; names with no matching device map to null. Returns ServiceException (HTTP 503)
+   * for unknown or unanticipated issues. Returns LimitExceededException (HTTP 413) if more names
+   * than the max limit are requested.
+   * 
+   * @param names - list of device names
+   * @return map of name to device (or null when not found) in request order
+   */
+  @RequestMapping(value = "/names", method = RequestMethod.POST)
+  @Override
+  public Map<String, Device> devicesForNames(@RequestBody List<String> names) {
+    try {
+      if (names.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting devices by name");
+        throw new LimitExceededException("Device");
+      }
+      return MultiGet.inRequestOrder(names, repos.findByNameIn(MultiGet.distinct(names)),
+          Device::getName);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error(ERR_GET + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Find the devices matching a combination of label, service, profile, state and lastConnected
+   * criteria, evaluated over the in-memory device index. Returns ServiceException (HTTP 503) for
+   * unknown or unanticipated issues, or if the device index cannot be loaded. Returns
+   * ClientException (HTTP 400) if and, or and not nest queries more than 32 levels deep. Returns
+   * LimitExceededException (HTTP 413) if more devices than the max limit match.
+   * 
+   * @param query - criteria the devices must match
+   * @return list of the matching devices
+   */
+  @RequestMapping(value = "/search", method = RequestMethod.POST)
+  @Override
+  public List<Device> search(@RequestBody DeviceQuery query) {
+    if (query == null)
+      throw new ServiceException(new DataValidationException("No device query provided"));
+    try {
+      DeviceQueries.check(query);
+      if (!index.isLoaded())
+        index.load();
+      if (!index.isLoaded())
+        throw new IllegalStateException("Device index could not be loaded");
+      List<String> ids = index.select(rows -> DeviceQueries.evaluate(query, rows));
+      if (ids.size() > maxLimit) {
+        logger.error("Max limit exceeded on device search");
+        throw new LimitExceededException("Device");
+      }
+      return fetch(ids);
+    } catch (ClientException cE) {
+      throw cE;
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error searching devices:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Find the devices whose lastConnected or lastReported time is older than the time provided,
+   * oldest first, optionally only those of the named device service. The query is served by the
+   * time indexes ensured by MongoIndexes. Returns ServiceException (HTTP 503) for unknown or
+   * unanticipated issues. Returns ClientException (HTTP 400) if the field is not lastconnected or
+   * lastreported. Returns NotFoundException (HTTP 404) if no DeviceService match on the name
+   * provided. Returns LimitExceededException (HTTP 413) if the page size is over the max limit.
+   * 
+   * @param field - lastconnected or lastreported
+   * @param time - devices with the field before this time (in milliseconds) are stale
+   * @param service - optional device service name the devices must belong to
+   * @param page - zero based page number
+   * @param size - page size, the max limit when zero
+   * @return page of the stale devices
+   */
+  @RequestMapping(value = "/stale/{field}/{time}", method = RequestMethod.GET)
+  @Override
+  public List<Device> staleDevices(@PathVariable String field, @PathVariable long time,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "page", defaultValue = "0") int page,
+      @RequestParam(value = "size", defaultValue = "0") int size) {
+    boolean connected = "lastconnected".equalsIgnoreCase(field);
+    if (!connected && !"lastreported".equalsIgnoreCase(field))
+      throw new ClientException("Unknown device time field:  " + field);
+    if (page < 0 || size < 0)
+      throw new ClientException("Page and size cannot be negative");
+    if (size > maxLimit) {
+      logger.error("Max limit exceeded on stale device request");
+      throw new LimitExceededException("Device");
+    }
+    try {
+      String property = connected ? "lastConnected" : "lastReported";
+      PageRequest request = new PageRequest(page, size == 0 ? maxLimit : size,
+          new Sort(Sort.Direction.ASC, property).and(new Sort(Sort.Direction.ASC, "id")));
+      if (service == null)
+        return connected ? repos.findByLastConnectedLessThan(time, request)
+            : repos.findByLastReportedLessThan(time, request);
+      DeviceService owner = serviceDao.getByName(service);
+      if (owner == null) {
+        logger.error("Request for stale devices by non-existent service name:  " + service);
+        throw new NotFoundException(DeviceService.class.toString(), service);
+      }
+      return connected ? repos.findByServiceAndLastConnectedLessThan(owner, time, request)
+          : repos.findByServiceAndLastReportedLessThan(owner, time, request);
+    } catch (NotFoundException nE) {
+      throw nE;
+    } catch (Exception e) {
+      logger.error(ERR_GET + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Count the devices in total and per device service id, device profile id, admin state and
+   * operating state. The counts are the sizes of the in-memory device index's row sets, which is
+   * periodically reconciled with the collection, so this does not read it. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues, or if the device index cannot
+   * be loaded.
+   * 
+   * @return device counts
+   */
+  @RequestMapping(value = "/statistics", method = RequestMethod.GET)
+  @Override
+  public DeviceCounts statistics() {
+    try {
+      if (!index.isLoaded())
+        index.load();
+      if (!index.isLoaded())
+        throw new IllegalStateException("Device index could not be loaded");
+      DeviceIndex.Counts counts = index.counts();
+      return new DeviceCounts(counts.getTotal(), counts.getServices(), counts.getProfiles(),
+          counts.getAdminStates(), counts.getOperatingStates(), index.getReconciled(),
+          index.getDrifts());
+    } catch (Exception e) {
+      logger.error("Error getting device statistics:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Count the device change notifications sent to support-notifications, coalesced within a
+   * batch, dropped on a full queue and failed since startup, and those still queued. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @return notification counts
+   */
+  @RequestMapping(value = "/statistics/notifications", method = RequestMethod.GET)
+  @Override
+  public NotificationCounts notificationStatistics() {
+    try {
+      return notifier.counts();
+    } catch (Exception e) {
+      logger.error("Error getting notification statistics:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Set the admin state of every device of the named service, of the named profile and with the
+   * label, whichever are given, with a single update. Each affected device service is called back
+   * once for all of its changed devices. A admin state change still debounced for any of the
+   * devices is dropped. Returns ServiceException (HTTP 503) for unknown or unanticipated issues,
+   * or if the device index cannot be loaded. Returns ClientException (HTTP 400) if the state is
+   * unknown or no service, profile or label is given. Returns NotFoundException (HTTP 404) if the
+   * service or profile cannot be found by the name provided.
+   * 
+   * @param adminState - new admin state for the devices (either LOCKED or UNLOCKED)
+   * @param service - optional device service name the devices must belong to
+   * @param profile - optional device profile name the devices must have
+   * @param label - optional label the devices must have
+   * @return counts of the devices matched and changed, per device service
+   */
+  @RequestMapping(value = "/bulk/adminstate/{adminState}", method = RequestMethod.PUT)
+  @Override
+  public StateChangeSummary updateAdminStates(@PathVariable String adminState,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "profile", required = false) String profile,
+      @RequestParam(value = "label", required = false) String label) {
+    return updateStates(service, profile, label, state(AdminState.class, adminState), null);
+  }
+
+  /**
+   * Set the op state of every device of the named service, of the named profile and with the
+   * label, whichever are given, with a single update. Each affected device service is called back
+   * once for all of its changed devices. A op state change still debounced for any of the
+   * devices is dropped. Returns ServiceException (HTTP 503) for unknown or unanticipated issues,
+   * or if the device index cannot be loaded. Returns ClientException (HTTP 400) if the state is
+   * unknown or no service, profile or label is given. Returns NotFoundException (HTTP 404) if the
+   * service or profile cannot be found by the name provided.
+   * 
+   * @param opState - new op state for the devices (either ENABLED or DISABLED)
+   * @param service - optional device service name the devices must belong to
+   * @param profile - optional device profile name the devices must have
+   * @param label - optional label the devices must have
+   * @return counts of the devices matched and changed, per device service
+   */
+  @RequestMapping(value = "/bulk/opstate/{opState}", method = RequestMethod.PUT)
+  @Override
+  public StateChangeSummary updateOpStates(@PathVariable String opState,
+      @RequestParam(value = "service", required = false) String service,
+      @RequestParam(value = "profile", required = false) String profile,
+      @RequestParam(value = "label", required = false) String label) {
+    return updateStates(service, profile, label, null, state(OperatingState.class, opState));
+  }
+
+  private static <S extends Enum<S>> S state(Class<S> type, String state) {
+    try {
+      return Enum.valueOf(type, state);
+    } catch (IllegalArgumentException e) {
+      throw new ClientException("Unknown " + type.getSimpleName() + ": " + state);
+    }
+  }
+
+  // exactly one of the states is given; changes still debounced for any selected device are
+  // dropped so they cannot undo this one, then the matching devices not yet in the state are
+  // selected from the index, changed with one update, read back to see which the update changed,
+  // and passed on to the write listeners, the notifier and, once per service, the callbacks
+  private StateChangeSummary updateStates(String service, String profile, String label,
+      AdminState admin, OperatingState op) {
+    if (service == null && profile == null && label == null)
+      throw new ClientException("A service, profile or label must select the devices");
+    try {
+      DeviceQuery query = new DeviceQuery();
+      if (service != null) {
+        DeviceService owner = serviceDao.getByName(service);
+        if (owner == null)
+          throw new NotFoundException(DeviceService.class.toString(), service);
+        query.setService(owner.getId());
+      }
+      if (profile != null) {
+        DeviceProfile deviceProfile = profileDao.getByName(profile);
+        if (deviceProfile == null)
+          throw new NotFoundException(DeviceProfile.class.toString(), profile);
+        query.setProfile(deviceProfile.getId());
+      }
+      query.setLabel(label);
+      if (!index.isLoaded())
+        index.load();
+      if (!index.isLoaded())
+        throw new IllegalStateException("Device index could not be loaded");
+      if (debouncer.pendingCount() > 0) {
+        String key = admin != null ? ADMIN_STATE_KEY : OP_STATE_KEY;
+        index.select(rows -> DeviceQueries.evaluate(query, rows))
+            .forEach(id -> debouncer.cancel(id + key));
+      }
+      DeviceQuery inState = new DeviceQuery();
+      inState.setAdminState(admin);
+      inState.setOperatingState(op);
+      query.setNot(inState);
+      List<String> ids = index.select(rows -> DeviceQueries.evaluate(query, rows));
+      long modified = clock.next();
+      if (admin != null)
+        deviceDao.updateState(ids, "adminState", admin, modified);
+      else
+        deviceDao.updateState(ids, "operatingState", op, modified);
+      List<VersionDao.Version> changed = versionDao.getDeviceVersions(ids).stream()
+          .filter(v -> v.getModified() == modified).collect(Collectors.toList());
+      deviceWrites.stateChanged(
+          changed.stream().map(VersionDao.Version::getId).collect(Collectors.toList()), admin, op,
+          modified);
+      StateChangeSummary summary = new StateChangeSummary();
+      summary.setMatched(ids.size());
+      summary.setChanged(changed.size());
+      Map<String, List<String>> byService = new LinkedHashMap<>();
+      for (VersionDao.Version device : changed) {
+        notifier.enqueue(device.getName(), Action.PUT);
+        if (device.getService() != null)
+          byService.computeIfAbsent(device.getService(), s -> new ArrayList<>())
+              .add(device.getId());
+      }
+      byService.forEach((serviceId, deviceIds) -> {
+        DeviceService owner = serviceDao.getById(serviceId);
+        if (owner == null)
+          return;
+        callback.callback(owner, deviceIds, Action.PUT, ActionType.DEVICE);
+        summary.getServices().put(owner.getName(), deviceIds.size());
+      });
+      return summary;
+    } catch (NotFoundException nE) {
+      throw nE;
+    } catch (Exception e) {
+      logger.error("Error updating device states:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Find all Devices having at least one label matching the label provided. List may be empty if no
    * device match. Returns ServiceException (HTTP 503) for unknown or unanticipated issues.
@@ -191,7 +547,7 @@ public class DeviceControllerImpl implements DeviceController {
   @Override
   public List<Device> devicesByLabel(@PathVariable String label) {
     try {
-      return repos.findByLabelsIn(label);
+      return indexed(i -> i.forLabel(label), () -> repos.findByLabelsIn(label));
     } catch (Exception excep) {
       logger.error("Error getting devices:  " + excep.getMessage());
       throw new ServiceException(excep);
@@ -216,7 +572,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent service:  " + serviceId);
         throw new NotFoundException(DeviceService.class.toString(), serviceId);
       }
-      return repos.findByService(service);
+      return indexed(i -> i.forService(service.getId()), () -> repos.findByService(service));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -243,7 +599,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent service name:  " + servicename);
         throw new NotFoundException(DeviceService.class.toString(), servicename);
       }
-      return repos.findByService(service);
+      return indexed(i -> i.forService(service.getId()), () -> repos.findByService(service));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -270,7 +626,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent profile:  " + profileId);
         throw new NotFoundException(DeviceProfile.class.toString(), profileId);
       }
-      return repos.findByProfile(profile);
+      return indexed(i -> i.forProfile(profile.getId()), () -> repos.findByProfile(profile));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception excep) {
@@ -296,7 +652,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent profile:  " + profilename);
         throw new NotFoundException(DeviceProfile.class.toString(), profilename);
       }
-      return repos.findByProfile(profile);
+      return indexed(i -> i.forProfile(profile.getId()), () -> repos.findByProfile(profile));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception excep) {
@@ -323,7 +679,8 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent addressable:  " + addressableId);
         throw new NotFoundException(Addressable.class.toString(), addressableId);
       }
-      return repos.findByAddressable(addressable);
+      return indexed(i -> i.forAddressable(addressable.getId()),
+          () -> repos.findByAddressable(addressable));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -349,7 +706,8 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request for device by non-existent addressable:  " + addressablename);
         throw new NotFoundException(Addressable.class.toString(), addressablename);
       }
-      return repos.findByAddressable(addressable);
+      return indexed(i -> i.forAddressable(addressable.getId()),
+          () -> repos.findByAddressable(addressable));
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -378,6 +736,7 @@ public class DeviceControllerImpl implements DeviceController {
     try {
       attachAssociated(device);
       repos.save(device);
+      deviceWrites.saved(device);
       notifyAssociates(device, Action.POST);
       return device.getId();
     } catch (DuplicateKeyException dE) {
@@ -391,18 +750,22 @@ public class DeviceControllerImpl implements DeviceController {
   }
 
   private void attachAssociated(Device device) {
-    DeviceService service = serviceDao.getByIdOrName(device.getService());
-    if (service == null)
-      throw new DataValidationException("A device must be associated to a known device service.");
-    device.setService(service);
-    DeviceProfile profile = profileDao.getByIdOrName(device.getProfile());
-    if (profile == null)
-      throw new DataValidationException("A device must be associated to a known device profile.");
-    device.setProfile(profile);
-    Addressable addressable = addressableDao.getByIdOrName(device.getAddressable());
-    if (addressable == null)
-      throw new DataValidationException("A device must be associated to a known addressable.");
-    device.setAddressable(addressable);
+    DeviceService requestedService = device.getService();
+    DeviceProfile requestedProfile = device.getProfile();
+    Addressable requestedAddressable = device.getAddressable();
+    CompletableFuture<DeviceService> service =
+        resolver.require(() -> serviceDao.getByIdOrName(requestedService),
+            "A device must be associated to a known device service.");
+    CompletableFuture<DeviceProfile> profile =
+        resolver.require(() -> profileDao.getByIdOrName(requestedProfile),
+            "A device must be associated to a known device profile.");
+    CompletableFuture<Addressable> addressable =
+        resolver.require(() -> addressableDao.getByIdOrName(requestedAddressable),
+            "A device must be associated to a known addressable.");
+    resolver.awaitAll(service, profile, addressable);
+    device.setService(service.join());
+    device.setProfile(profile.join());
+    device.setAddressable(addressable.join());
   }
 
   /**
@@ -455,9 +818,8 @@ public class DeviceControllerImpl implements DeviceController {
   // to be sent back on callback.
   private boolean updateLastConnected(Device device, long time, boolean notify) {
     try {
-      device.setLastConnected(time);
-      repos.save(device);
-      if (notify)
+      if (writeField(device, "lastConnected", Device::getLastConnected,
+          Device::setLastConnected, time) && notify)
         notifyAssociates(device, Action.PUT);
       return true;
     } catch (Exception e) {
@@ -564,9 +926,8 @@ public class DeviceControllerImpl implements DeviceController {
   // to be sent back on callback.
   private boolean updateLastReported(Device device, long time, boolean notify) {
     try {
-      device.setLastReported(time);
-      repos.save(device);
-      if (notify)
+      if (writeField(device, "lastReported", Device::getLastReported,
+          Device::setLastReported, time) && notify)
         notifyAssociates(device, Action.PUT);
       return true;
     } catch (Exception e) {
@@ -656,9 +1017,11 @@ public class DeviceControllerImpl implements DeviceController {
     if (state == null)
       throw new DataValidationException("Op state cannot be set to null");
     try {
-      device.setOperatingState(OperatingState.valueOf(state));
-      repos.save(device);
-      notifyAssociates(device, Action.PUT);
+      OperatingState opState = OperatingState.valueOf(state);
+      if (!debouncer.isEnabled())
+        return applyOpState(device, opState);
+      String id = device.getId();
+      debouncer.submit(id + OP_STATE_KEY, () -> applyOpState(repos.findOne(id), opState));
       return true;
     } catch (Exception e) {
       logger.error("Error updating op state for the device:  " + e.getMessage());
@@ -666,6 +1029,14 @@ public class DeviceControllerImpl implements DeviceController {
     }
   }
 
+  // a state that is already set is neither saved nor propagated
+  private boolean applyOpState(Device device, OperatingState opState) {
+    if (device != null && writeField(device, "operatingState", Device::getOperatingState,
+        Device::setOperatingState, opState))
+      notifyAssociates(device, Action.PUT);
+    return true;
+  }
+
   /**
    * Update the op status time of the device by unique name of the device. Returns ServiceException
    * (HTTP 503) for unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if the
@@ -715,9 +1086,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request to update admin state with non-existent device:  " + id);
         throw new NotFoundException(Device.class.toString(), id);
       }
-      boolean success = updateAdminState(device, adminState);
-      notifyAssociates(device, Action.PUT);
-      return success;
+      return updateAdminState(device, adminState);
     } catch (DataValidationException dE) {
       throw dE;
     } catch (NotFoundException nE) {
@@ -732,8 +1101,11 @@ public class DeviceControllerImpl implements DeviceController {
     if (state == null)
       throw new DataValidationException("Admin state cannot be set to null");
     try {
-      device.setAdminState(AdminState.valueOf(state));
-      repos.save(device);
+      AdminState adminState = AdminState.valueOf(state);
+      if (!debouncer.isEnabled())
+        return applyAdminState(device, adminState);
+      String id = device.getId();
+      debouncer.submit(id + ADMIN_STATE_KEY, () -> applyAdminState(repos.findOne(id), adminState));
       return true;
     } catch (Exception e) {
       logger.error("Error updating admin state for the device:  " + e.getMessage());
@@ -741,6 +1113,35 @@ public class DeviceControllerImpl implements DeviceController {
     }
   }
 
+  private boolean applyAdminState(Device device, AdminState adminState) {
+    if (device != null && writeField(device, "adminState", Device::getAdminState,
+        Device::setAdminState, adminState))
+      notifyAssociates(device, Action.PUT);
+    return true;
+  }
+
+  // writes one field, conditional on the version read; a concurrent write cannot be lost by setting
+  // a single field, so on a conflict the field is set again on a fresh read rather than failing
+  private <T> boolean writeField(Device device, String field, Function<Device, T> getter,
+      BiConsumer<Device, T> setter, T value) {
+    Device target = device;
+    for (int attempt = 1;; attempt++) {
+      Device read = target;
+      ChangeSet changes = new ChangeSet();
+      changes.set(field, getter.apply(read), value, proposed -> setter.accept(read, proposed));
+      try {
+        if (!documentDao.update(read, changes))
+          return false;
+        deviceWrites.saved(read);
+        return true;
+      } catch (PreconditionFailedException pE) {
+        target = repos.findOne(device.getId());
+        if (target == null || attempt == FIELD_WRITE_ATTEMPTS)
+          throw pE;
+      }
+    }
+  }
+
   /**
    * Update the admin state of the device by device name. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if the device cannot be
@@ -761,9 +1162,7 @@ public class DeviceControllerImpl implements DeviceController {
         logger.error("Request to update admin state with non-existent device name:  " + name);
         throw new NotFoundException(Device.class.toString(), name);
       }
-      boolean success = updateAdminState(device, adminState);
-      notifyAssociates(device, Action.PUT);
-      return success;
+      return updateAdminState(device, adminState);
     } catch (DataValidationException dE) {
       throw dE;
     } catch (NotFoundException nE) {
@@ -780,7 +1179,9 @@ public class DeviceControllerImpl implements DeviceController {
    * created with a PUT, but the service and profile can replaced by referring to a new device
    * service or profile id or name. Returns ServiceException (HTTP 503) for unknown or unanticipated
    * issues. Returns NotFoundException (HTTP 404) if the device cannot be found by the identifier
-   * provided
+   * provided Returns PreconditionFailedException (HTTP 412) if an If-Match header is sent and does
+   * not hold the current version, which reads return as their ETag, or if the object is changed by
+   * another request while this update is applied.
    * 
    * @param device2 - object holding the identifier and new values for the Device
    * @return boolean indicating success of the update
@@ -797,8 +1198,9 @@ public class DeviceControllerImpl implements DeviceController {
             + device2.getId() + "/" + device2.getName());
         throw new NotFoundException(Device.class.toString(), device2.getId());
       }
-      updateDevice(device2, device);
-      notifyAssociates(device, Action.PUT);
+      IfMatch.check(device);
+      if (updateDevice(device2, device))
+        notifyAssociates(device, Action.PUT);
       return true;
     } catch (NotFoundException nE) {
       throw nE;
@@ -806,44 +1208,73 @@ public class DeviceControllerImpl implements DeviceController {
       throw dE;
     } catch (ClientException cE) {
       throw cE;
+    } catch (PreconditionFailedException pE) {
+      throw pE;
     } catch (Exception e) {
       logger.error("Error updating device:  " + e.getMessage());
       throw new ServiceException(e);
     }
   }
 
+  // answered from the device index when it is loaded, otherwise by the repository query
+  private List<Device> indexed(Function<DeviceIndex, List<String>> lookup,
+      Supplier<List<Device>> query) {
+    if (!index.isLoaded())
+      return query.get();
+    return fetch(lookup.apply(index));
+  }
+
+  private List<Device> fetch(List<String> ids) {
+    List<Device> devices = new ArrayList<>();
+    if (!ids.isEmpty())
+      repos.findAll(ids).forEach(devices::add);
+    return devices;
+  }
+
   private Device getDeviceByIdOrName(Device device) {
     if (device.getId() != null)
       return repos.findOne(device.getId());
     return repos.findByName(device.getName());
   }
 
-  private void updateDevice(Device from, Device to) {
+  // writes only the fields that differ; returns false (and writes nothing) when none do
+  private boolean updateDevice(Device from, Device to) {
+    ChangeSet changes = new ChangeSet();
     if (from.getAddressable() != null)
-      to.setAddressable(addressableDao.getByIdOrName(from.getAddressable()));
+      changes.setReference("addressable", to.getAddressable(),
+          addressableDao.getByIdOrName(from.getAddressable()), to::setAddressable);
     if (from.getService() != null)
-      to.setService(serviceDao.getByIdOrName(from.getService()));
+      changes.setReference("service", to.getService(), serviceDao.getByIdOrName(from.getService()),
+          to::setService);
     if (from.getProfile() != null)
-      to.setProfile(profileDao.getByIdOrName(from.getProfile()));
+      changes.setReference("profile", to.getProfile(), profileDao.getByIdOrName(from.getProfile()),
+          to::setProfile);
     if (from.getAdminState() != null)
-      to.setAdminState(from.getAdminState());
+      changes.set("adminState", to.getAdminState(), from.getAdminState(), to::setAdminState);
     if (from.getDescription() != null)
-      to.setDescription(from.getDescription());
+      changes.set("description", to.getDescription(), from.getDescription(), to::setDescription);
     if (from.getLabels() != null)
-      to.setLabels(from.getLabels());
+      changes.set("labels", to.getLabels(), from.getLabels(), to::setLabels);
     if (from.getLastConnected() != 0)
-      to.setLastConnected(from.getLastConnected());
+      changes.set("lastConnected", to.getLastConnected(), from.getLastConnected(),
+          to::setLastConnected);
     if (from.getLastReported() != 0)
-      to.setLastReported(from.getLastReported());
+      changes.set("lastReported", to.getLastReported(), from.getLastReported(),
+          to::setLastReported);
     if (from.getLocation() != null)
-      to.setLocation(from.getLocation());
+      changes.set("location", to.getLocation(), from.getLocation(), to::setLocation);
     if (from.getOperatingState() != null)
-      to.setOperatingState(from.getOperatingState());
+      changes.set("operatingState", to.getOperatingState(), from.getOperatingState(),
+          to::setOperatingState);
     if (from.getOrigin() != 0)
-      to.setOrigin(from.getOrigin());
+      changes.set("origin", to.getOrigin(), from.getOrigin(), to::setOrigin);
     if (from.getName() != null)
-      to.setName(from.getName());
-    repos.save(to);
+      changes.set("name", to.getName(), from.getName(), to::setName);
+    if (changes.isEmpty())
+      return false;
+    documentDao.update(to, changes);
+    deviceWrites.saved(to);
+    return true;
   }
 
   /**
@@ -904,44 +1335,166 @@ public class DeviceControllerImpl implements DeviceController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Device is validated
+   * and saved; the response carries the database generated identifier once the write completes.
+   * Errors are returned exactly as for add.
+   * 
+   * @param Device object
+   * @return deferred database generated identifier for the new device
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody Device device) {
+    return writer.submit(() -> add(device));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Device is updated and
+   * associates are notified. Errors are returned exactly as for update.
+   * 
+   * @param device2 - object holding the identifier and new values for the Device
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody Device device2) {
+    return writer.submit(() -> update(device2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Device is removed.
+   * Errors are returned exactly as for delete.
+   * 
+   * @param database generated id for the device
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Device is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param unique name of the device
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
+  /**
+   * Asynchronous variant of updateLastConnected. The servlet thread is released while the last
+   * connected time is saved. Errors are returned exactly as for updateLastConnected.
+   * 
+   * @param id - database generated identifier for the device
+   * @param time - new last connected time in milliseconds
+   * @param notify - boolean indicating whether callback should be made to device service to inform
+   *        of update
+   * @return deferred boolean indicating success of update
+   */
+  @RequestMapping(value = "/async/{id}/lastconnected/{time}/{notify}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateLastConnectedAsync(@PathVariable String id,
+      @PathVariable long time, @PathVariable boolean notify) {
+    return writer.submit(() -> updateLastConnected(id, time, notify));
+  }
+
+  /**
+   * Asynchronous variant of updateLastConnectedByName. The servlet thread is released while the
+   * last connected time is saved. Errors are returned exactly as for updateLastConnectedByName.
+   * 
+   * @param name - device name
+   * @param time - new last connected time in milliseconds
+   * @param notify - boolean indicating whether callback should be made to device service to inform
+   *        of update
+   * @return deferred boolean indicating success of update
+   */
+  @RequestMapping(value = "/async/name/{name:.+}/lastconnected/{time}/{notify}",
+      method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateLastConnectedByNameAsync(@PathVariable String name,
+      @PathVariable long time, @PathVariable boolean notify) {
+    return writer.submit(() -> updateLastConnectedByName(name, time, notify));
+  }
+
+  /**
+   * Asynchronous variant of updateOpState. The servlet thread is released while the op state is
+   * saved. Errors are returned exactly as for updateOpState.
+   * 
+   * @param id - database generated identifier for the device
+   * @param opState - new op state for the device (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/{id}/opstate/{opState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateOpStateAsync(@PathVariable String id,
+      @PathVariable String opState) {
+    return writer.submit(() -> updateOpState(id, opState));
+  }
+
+  /**
+   * Asynchronous variant of updateOpStateByName. The servlet thread is released while the op
+   * state is saved. Errors are returned exactly as for updateOpStateByName.
+   * 
+   * @param name - device name
+   * @param opState - new op state for the device (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}/opstate/{opState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateOpStateByNameAsync(@PathVariable String name,
+      @PathVariable String opState) {
+    return writer.submit(() -> updateOpStateByName(name, opState));
+  }
+
+  /**
+   * Asynchronous variant of updateAdminState. The servlet thread is released while the admin state
+   * is saved. Errors are returned exactly as for updateAdminState.
+   * 
+   * @param id - database generated id for the device
+   * @param adminState - new admin state for the device (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/{id}/adminstate/{adminState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAdminStateAsync(@PathVariable String id,
+      @PathVariable String adminState) {
+    return writer.submit(() -> updateAdminState(id, adminState));
+  }
+
+  /**
+   * Asynchronous variant of updateAdminStateByName. The servlet thread is released while the admin
+   * state is saved. Errors are returned exactly as for updateAdminStateByName.
+   * 
+   * @param name - device name
+   * @param adminState - new admin state for the device (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}/adminstate/{adminState}",
+      method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAdminStateByNameAsync(@PathVariable String name,
+      @PathVariable String adminState) {
+    return writer.submit(() -> updateAdminStateByName(name, adminState));
+  }
+
   private boolean deleteDevice(Device device) {
     notifyAssociates(device, Action.DELETE);
     deviceRptDao.removeAssociatedReportsForDevice(device);
     repos.delete(device);
+    deviceWrites.deleted(device);
+    jsonCache.evict(Device.class, device.getId());
     return true;
   }
 
   private void notifyAssociates(Device device, Action action) {
-    postNotification(device.getName(), action);
+    notifier.enqueue(device.getName(), action);
     callback.callback(device.getService(), device.getId(), action, ActionType.DEVICE);
   }
-
-  // TODO possibly do async someday
-  private void postNotification(String name, Action action) {
-    if (notifyDeviceChanges) {
-      Notification notification = new Notification();
-      notification.setSlug(notificationSlug + System.currentTimeMillis());
-      notification.setContent(notificationContent + name + "-" + action);
-      notification.setCategory(NotificationCategory.SW_HEALTH);
-      notification.setDescription(notificationDescription);
-      String[] labels = new String[1];
-      labels[0] = notificationLabel;
-      notification.setLabels(labels);
-      notification.setSender(notificationSender);
-      notification.setSeverity(NotificationSeverity.NORMAL);
-      postNotification(notification);
-    }
-  }
-
-  private void postNotification(Notification notification) {
-    try {
-      notificationClient.receiveNotification(notification);
-      logger.debug("Notification sent about new device provisioning:" + notification.getSlug());
-    } catch (Exception e) {
-      // don't want the send of this notification to disrupt device
-      // metadata persistence activity so no retrhow
-      logger.debug("Notification send on device modification failed for:" + notification.getSlug()
-          + "; " + e);
-    }
-  }
 }
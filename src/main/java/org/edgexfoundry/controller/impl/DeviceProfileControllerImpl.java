@@ -19,15 +19,22 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.edgexfoundry.controller.Action;
 import org.edgexfoundry.controller.DeviceProfileController;
+import org.edgexfoundry.controller.ImportResult;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.CommandChanges;
+import org.edgexfoundry.dao.CommandDao;
 import org.edgexfoundry.dao.CommandRepository;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceProfileRepository;
 import org.edgexfoundry.dao.DeviceRepository;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
 import org.edgexfoundry.domain.meta.ActionType;
 import org.edgexfoundry.domain.meta.Command;
@@ -48,10 +55,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
-import org.yaml.snakeyaml.DumperOptions.FlowStyle;
 import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.nodes.Tag;
 
 @RestController
 @RequestMapping("/api/v1/deviceprofile")
@@ -66,15 +72,24 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
   @Value("${read.max.limit}")
   private int maxLimit;
 
+  @Autowired
+  private AsyncWriter writer;
+
   @Autowired
   private DeviceProfileRepository repos;
 
   @Autowired
   private CommandRepository commandRepos;
 
+  @Autowired
+  private CommandDao commandDao;
+
   @Autowired
   private DeviceProfileDao dao;
 
+  @Autowired
+  private DocumentDao documentDao;
+
   @Autowired
   private DeviceRepository deviceRepos;
 
@@ -84,6 +99,15 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
   @Autowired
   private CallbackExecutor callback;
 
+  @Autowired
+  private ProfileImporter importer;
+
+  @Autowired
+  private ProfileYamlCache yamlCache;
+
+  @Autowired
+  private JsonCache jsonCache;
+
   /**
    * Fetch a specific profile by database generated id. May return null if no profile with the id is
    * found. Returns ServiceException (HTTP 503) for unknown or unanticipated issues. Returns
@@ -122,9 +146,10 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
   @Override
   public String deviceProfileAsYaml(@PathVariable String id) {
     try {
+      long generation = yamlCache.generation();
       DeviceProfile profile = repos.findOne(id);
       if (profile != null)
-        return new Yaml().dumpAs(profile, Tag.MAP, FlowStyle.AUTO);
+        return yamlCache.render(profile, generation);
       throw new NotFoundException(DeviceProfile.class.toString(), id);
     } catch (NotFoundException nfE) {
       throw nfE;
@@ -159,6 +184,60 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
     }
   }
 
+  /**
+   * Fetch the device profiles with the given database generated ids using a single query. The
+   * result is keyed by id in request order; ids with no matching device profile map to null.
+   * Returns ServiceException (HTTP 503) for unknown or unanticipated issues. Returns
+   * LimitExceededException (HTTP 413) if more ids than the max limit are requested.
+   * 
+   * @param ids - list of database generated ids
+   * @return map of id to device profile (or null when not found) in request order
+   */
+  @RequestMapping(value = "/ids", method = RequestMethod.POST)
+  @Override
+  public Map<String, DeviceProfile> deviceProfilesForIds(@RequestBody List<String> ids) {
+    try {
+      if (ids.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting device profiles by id");
+        throw new LimitExceededException("DeviceProfile");
+      }
+      return MultiGet.inRequestOrder(ids, repos.findAll(MultiGet.distinct(ids)),
+          DeviceProfile::getId);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error getting device profiles:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Fetch the device profiles with the given names using a single query. The result is keyed by
+   * name in request order; names with no matching device profile map to null. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues. Returns LimitExceededException
+   * (HTTP 413) if more names than the max limit are requested.
+   * 
+   * @param names - list of device profile names
+   * @return map of name to device profile (or null when not found) in request order
+   */
+  @RequestMapping(value = "/names", method = RequestMethod.POST)
+  @Override
+  public Map<String, DeviceProfile> deviceProfilesForNames(@RequestBody List<String> names) {
+    try {
+      if (names.size() > maxLimit) {
+        logger.error("Max limit exceeded requesting device profiles by name");
+        throw new LimitExceededException("DeviceProfile");
+      }
+      return MultiGet.inRequestOrder(names, repos.findByNameIn(MultiGet.distinct(names)),
+          DeviceProfile::getName);
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error getting device profiles:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Return, in yaml form, the DeviceProfiles matching given name (profile names should be unique).
    * May be null if no profiles matches on the name provided. Returns ServiceException (HTTP 503)
@@ -171,9 +250,10 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
   @Override
   public String deviceProfileAsYamlForName(@PathVariable String name) {
     try {
+      long generation = yamlCache.generation();
       DeviceProfile profile = dao.getByName(name);
       if (profile != null)
-        return new Yaml().dumpAs(profile, Tag.MAP, FlowStyle.AUTO);
+        return yamlCache.render(profile, generation);
       else
         throw new NotFoundException(DeviceProfile.class.toString(), name);
     } catch (NotFoundException nfE) {
@@ -378,11 +458,65 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
     }
   }
 
+  /**
+   * Add many DeviceProfiles (and their Command objects) from an uploaded file, either a zip archive
+   * of .yaml/.yml files or a multi-document YAML file. Documents are parsed in parallel and the
+   * valid profiles stored with bulk writes. Each document is reported on separately: a profile
+   * whose YAML is invalid, whose name is not unique or whose command names are duplicated is not
+   * imported, but does not stop the others. Returns ServiceException (HTTP 503) for unknown or
+   * unanticipated issues. Returns ClientException (HTTP 400) if the file is empty. Returns
+   * LimitExceededException (HTTP 413) if a zip archive holds more entries or expands to more bytes
+   * than the import allows.
+   * 
+   * @param file - zip archive or YAML file containing the profiles
+   * @return the outcome for each document, in the order found
+   */
+  @RequestMapping(value = "/uploadfile/bulk", method = RequestMethod.POST)
+  @Override
+  public List<ImportResult> uploadYamlFileBulk(@RequestParam("file") MultipartFile file) {
+    try {
+      if (file.isEmpty())
+        throw new ClientException("File is empty");
+      return importer.importFile(file.getOriginalFilename(), file.getBytes());
+    } catch (ClientException cE) {
+      throw cE;
+    } catch (LimitExceededException lE) {
+      throw lE;
+    } catch (Exception e) {
+      logger.error("Error importing device profiles from file:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Add many DeviceProfiles (and their Command objects) from multi-document YAML content. Documents
+   * are parsed in parallel and the valid profiles stored with bulk writes. Each document is
+   * reported on separately: a profile whose YAML is invalid, whose name is not unique or whose
+   * command names are duplicated is not imported, but does not stop the others. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param yamlContent - multi-document YAML profile content
+   * @return the outcome for each document, in the order found
+   */
+  @RequestMapping(value = "/upload/bulk", method = RequestMethod.POST)
+  @Override
+  public List<ImportResult> uploadYamlBulk(@RequestBody String yamlContent) {
+    try {
+      return importer.importYaml("upload", yamlContent);
+    } catch (Exception e) {
+      logger.error("Error importing device profiles from YAML:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Update the DeviceProfile identified by the id or name stored in the object provided. Id is used
    * first, name is used second for identification purposes. Associated commands must be updated
    * directly. Returns ServiceException (HTTP 503) for unknown or unanticipated issues. Returns
-   * NotFoundException (HTTP 404) if the profile cannot be found by the identifier provided.
+   * NotFoundException (HTTP 404) if the profile cannot be found by the identifier provided. Returns
+   * PreconditionFailedException (HTTP 412) if an If-Match header is sent and does not hold the
+   * current version, which reads return as their ETag, or if the object is changed by another
+   * request while this update is applied.
    * 
    * @param profile2 - object holding the identifier and new values for the DeviceProfile
    * @return boolean indicating success of the update
@@ -400,8 +534,9 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
                 + profile2.getId() + "/" + profile2.getName());
         throw new NotFoundException(Device.class.toString(), profile2.getId());
       }
-      updateDeviceProfile(profile2, profile);
-      notifyAssociates(profile, Action.PUT);
+      IfMatch.check(profile);
+      if (updateDeviceProfile(profile2, profile))
+        notifyAssociates(profile, Action.PUT);
       return true;
     } catch (NotFoundException nE) {
       throw nE;
@@ -409,41 +544,59 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
       throw dE;
     } catch (ClientException cE) {
       throw cE;
+    } catch (PreconditionFailedException pE) {
+      throw pE;
     } catch (Exception e) {
       logger.error("Error updating device profile:  " + e.getMessage());
       throw new ServiceException(e);
     }
   }
 
-  private void updateDeviceProfile(DeviceProfile from, DeviceProfile to) {
+  private boolean updateDeviceProfile(DeviceProfile from, DeviceProfile to) {
+    ChangeSet changes = new ChangeSet();
     if (from.getDescription() != null)
-      to.setDescription(from.getDescription());
+      changes.set("description", to.getDescription(), from.getDescription(), to::setDescription);
     if (from.getLabels() != null)
-      to.setLabels(from.getLabels());
+      changes.set("labels", to.getLabels(), from.getLabels(), to::setLabels);
     if (from.getManufacturer() != null)
-      to.setDescription(from.getDescription());
+      changes.set("manufacturer", to.getManufacturer(), from.getManufacturer(),
+          to::setManufacturer);
     if (from.getModel() != null)
-      to.setModel(from.getModel());
+      changes.set("model", to.getModel(), from.getModel(), to::setModel);
     if (from.getObjects() != null)
-      to.setObjects(from.getObjects());
+      changes.set("objects", to.getObjects(), from.getObjects(), to::setObjects);
     if (from.getOrigin() != 0)
-      to.setOrigin(from.getOrigin());
+      changes.set("origin", to.getOrigin(), from.getOrigin(), to::setOrigin);
     if (from.getName() != null)
-      to.setName(from.getName());
+      changes.set("name", to.getName(), from.getName(), to::setName);
     if (from.getDeviceResources() != null)
-      to.setDeviceResources(from.getDeviceResources());
+      changes.set("deviceResources", to.getDeviceResources(), from.getDeviceResources(),
+          to::setDeviceResources);
     if (from.getResources() != null)
-      to.setResources(from.getResources());
+      changes.set("resources", to.getResources(), from.getResources(), to::setResources);
+    CommandChanges commandChanges = null;
     if (from.getCommands() != null) {
       dao.checkCommandNames(from.getCommands());
-      // taking lazy approach to commands - remove them all and add them
-      // all back in. TODO - someday make this a two phase commit so
-      // commands don't get wiped out before profile
-      deleteAssociatedCommands(to);
-      saveAssociatedCommands(from);
-      to.setCommands(from.getCommands());
-      repos.save(to);
+      // new commands are written before the profile is switched over, so it never references a
+      // missing one; changed commands are replaced in place, keeping their ids, after it
+      commandChanges = new CommandChanges(to.getCommands(), from.getCommands());
+      commandDao.write(commandChanges);
+      changes.set("commands", to.getCommands(), commandChanges.getCommands(), to::setCommands);
+    }
+    if (changes.isEmpty())
+      return false;
+    try {
+      documentDao.update(to, changes);
+    } catch (RuntimeException e) {
+      if (commandChanges != null)
+        commandDao.discard(commandChanges);
+      throw e;
     }
+    yamlCache.evict(to.getId());
+    jsonCache.evict(DeviceProfile.class, to.getId());
+    if (commandChanges != null)
+      commandDao.finish(commandChanges);
+    return true;
   }
 
   /**
@@ -504,6 +657,59 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new DeviceProfile is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param deviceProfile - DeviceProfile object
+   * @return deferred database generated identifier for the new device profile
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody DeviceProfile deviceProfile) {
+    return writer.submit(() -> add(deviceProfile));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the DeviceProfile is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param profile2 - DeviceProfile object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody DeviceProfile profile2) {
+    return writer.submit(() -> update(profile2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the DeviceProfile is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the device profile
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the DeviceProfile is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - device profile name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
   private boolean deleteDeviceProfile(DeviceProfile profile) {
     if (associatedDevices(profile))
       throw new DataValidationException(
@@ -515,6 +721,8 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
               + profile.getId());
     deleteAssociatedCommands(profile);
     repos.delete(profile);
+    yamlCache.evict(profile.getId());
+    jsonCache.evict(DeviceProfile.class, profile.getId());
     notifyAssociates(profile, Action.DELETE);
     return true;
   }
@@ -538,13 +746,6 @@ public class DeviceProfileControllerImpl implements DeviceProfileController {
     }
   }
 
-  private void deleteAssociatedCommands(DeviceProfile profile) {
-    List<Command> commands = profile.getCommands();
-    if (commands != null && !commands.isEmpty()) {
-      profile.getCommands().stream().forEach(c -> commandRepos.delete(c));
-    }
-  }
-
   private void notifyAssociates(DeviceProfile profile, Action action) {
     callback.callback(dao.getOwningServices(profile), profile.getId(), action, ActionType.PROFILE);
   }
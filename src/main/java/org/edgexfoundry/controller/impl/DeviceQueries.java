@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.edgexfoundry.controller.DeviceQuery;
+import org.edgexfoundry.dao.DeviceIndex;
+import org.edgexfoundry.exception.controller.ClientException;
+
+/**
+ * Evaluates a {@link DeviceQuery} over the row sets of the {@link DeviceIndex}. Evaluation recurses
+ * through the nested "and", "or" and "not" queries, so a posted query is checked first and refused
+ * if it nests deeper than {@link #MAX_DEPTH}, rather than being allowed to exhaust the stack.
+ */
+public final class DeviceQueries {
+
+  public static final int MAX_DEPTH = 32;
+
+  private DeviceQueries() {}
+
+  /**
+   * @throws ClientException if the query nests deeper than the max depth or nests a null query
+   */
+  public static void check(DeviceQuery query) {
+    List<DeviceQuery> level = new ArrayList<>();
+    level.add(query);
+    for (int depth = 1; !level.isEmpty(); depth++) {
+      if (depth > MAX_DEPTH)
+        throw new ClientException("Device query nested deeper than " + MAX_DEPTH + " levels");
+      List<DeviceQuery> next = new ArrayList<>();
+      for (DeviceQuery q : level) {
+        if (q == null)
+          throw new ClientException("Device query nests an empty query");
+        if (q.getAnd() != null)
+          next.addAll(q.getAnd());
+        if (q.getOr() != null)
+          next.addAll(q.getOr());
+        if (q.getNot() != null)
+          next.add(q.getNot());
+      }
+      level = next;
+    }
+  }
+
+  /**
+   * @return the rows of the index the query selects; the query must have been checked
+   */
+  public static BitSet evaluate(DeviceQuery query, DeviceIndex.Rows rows) {
+    BitSet selected = rows.all();
+    if (query.getLabel() != null)
+      selected.and(rows.label(query.getLabel()));
+    if (query.getService() != null)
+      selected.and(rows.service(query.getService()));
+    if (query.getProfile() != null)
+      selected.and(rows.profile(query.getProfile()));
+    if (query.getAdminState() != null)
+      selected.and(rows.adminState(query.getAdminState()));
+    if (query.getOperatingState() != null)
+      selected.and(rows.operatingState(query.getOperatingState()));
+    DeviceQuery.Range lastConnected = query.getLastConnected();
+    if (lastConnected != null)
+      selected.and(rows.lastConnected(lastConnected.getFrom(), lastConnected.getTo()));
+    if (query.getAnd() != null)
+      query.getAnd().forEach(nested -> selected.and(evaluate(nested, rows)));
+    if (query.getOr() != null) {
+      BitSet any = new BitSet();
+      query.getOr().forEach(nested -> any.or(evaluate(nested, rows)));
+      selected.and(any);
+    }
+    if (query.getNot() != null)
+      selected.andNot(evaluate(query.getNot(), rows));
+    return selected;
+  }
+
+}
@@ -196,6 +196,7 @@ public class DeviceReportControllerImpl implements DeviceReportController {
       validateDevice(deviceReport.getDevice());
       validateScheduleEvent(deviceReport.getEvent());
       repos.save(deviceReport);
+      dao.invalidate(deviceReport.getDevice());
       notifyAssociates(deviceReport, Action.POST);
       return deviceReport.getId();
     } catch (DuplicateKeyException dE) {
@@ -246,6 +247,7 @@ public class DeviceReportControllerImpl implements DeviceReportController {
   }
 
   private void updateDeviceReport(DeviceReport from, DeviceReport to) {
+    String previousDevice = to.getDevice();
     if (from.getDevice() != null) {
       validateDevice(from.getDevice());
       to.setDevice(from.getDevice());
@@ -265,6 +267,8 @@ public class DeviceReportControllerImpl implements DeviceReportController {
     if (from.getOrigin() != 0)
       to.setOrigin(from.getOrigin());
     repos.save(to);
+    dao.invalidate(previousDevice);
+    dao.invalidate(to.getDevice());
     notifyAssociates(to, Action.PUT);
   }
 
@@ -286,6 +290,7 @@ public class DeviceReportControllerImpl implements DeviceReportController {
         throw new NotFoundException(DeviceReport.class.toString(), id);
       }
       repos.delete(deviceReport);
+      dao.invalidate(deviceReport.getDevice());
       return true;
     } catch (NotFoundException nE) {
       throw nE;
@@ -315,6 +320,7 @@ public class DeviceReportControllerImpl implements DeviceReportController {
         throw new NotFoundException(DeviceReport.class.toString(), name);
       }
       repos.delete(deviceReport);
+      dao.invalidate(deviceReport.getDevice());
       return true;
     } catch (NotFoundException nE) {
       throw nE;
@@ -18,18 +18,38 @@
 
 package org.edgexfoundry.controller.impl;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.edgexfoundry.controller.DeviceServiceController;
+import org.edgexfoundry.controller.DigestNode;
+import org.edgexfoundry.controller.SyncDevice;
+import org.edgexfoundry.controller.SyncDiff;
+import org.edgexfoundry.controller.SyncManifest;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.DeviceDao;
+import org.edgexfoundry.dao.DeviceIndex;
+import org.edgexfoundry.dao.DeviceProfileRepository;
 import org.edgexfoundry.dao.DeviceRepository;
 import org.edgexfoundry.dao.DeviceServiceDao;
 import org.edgexfoundry.dao.DeviceServiceRepository;
+import org.edgexfoundry.dao.DeviceWrites;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
+import org.edgexfoundry.dao.VersionDao;
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.BaseObject;
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.domain.meta.OperatingState;
@@ -48,6 +68,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/deviceservice")
@@ -61,12 +82,18 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
 
   private static final String ERR_GET_SRV = "Error getting device service:  ";
 
+  @Autowired
+  private AsyncWriter writer;
+
   @Autowired
   private DeviceServiceRepository repos;
 
   @Autowired
   private DeviceServiceDao dao;
 
+  @Autowired
+  private DocumentDao documentDao;
+
   @Autowired
   private AddressableDao addressableDao;
 
@@ -76,6 +103,24 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
   @Autowired
   private ProvisionWatcherRepository watcherRepos;
 
+  @Autowired
+  private JsonCache jsonCache;
+
+  @Autowired
+  private DeviceWrites deviceWrites;
+
+  @Autowired
+  private DeviceIndex deviceIndex;
+
+  @Autowired
+  private DeviceDao deviceDao;
+
+  @Autowired
+  private VersionDao versionDao;
+
+  @Autowired
+  private DeviceProfileRepository profileRepos;
+
   @Value("${read.max.limit}")
   private int maxLimit;
 
@@ -117,7 +162,7 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
   @Override
   public DeviceService deviceServiceForName(@PathVariable String name) {
     try {
-      DeviceService service = repos.findByName(name);
+      DeviceService service = dao.getByName(name);
       if (service == null)
         throw new NotFoundException(DeviceService.class.toString(), name);
       return service;
@@ -246,8 +291,7 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
       DeviceService service = repos.findOne(id);
       if (service == null)
         throw new NotFoundException(DeviceService.class.toString(), id);
-      return deviceRepos.findByService(service).stream().map(d -> d.getAddressable())
-          .collect(Collectors.toSet());
+      return addressablesOf(service);
     } catch (NotFoundException nE) {
       throw nE;
     } catch (Exception e) {
@@ -272,16 +316,126 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
       DeviceService service = repos.findByName(name);
       if (service == null)
         throw new NotFoundException(DeviceService.class.toString(), name);
-      return deviceRepos.findByService(service).stream().map(d -> d.getAddressable())
-          .collect(Collectors.toSet());
+      return addressablesOf(service);
+    } catch (NotFoundException nE) {
+      throw nE;
+    } catch (Exception e) {
+      logger.error(ERR_GET + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
+  /**
+   * Return the root of the hash tree over the devices of a device service. A device service
+   * compares it with the root computed over the devices it holds and, where they differ, descends
+   * with {@link #digestNode(String, int)} to find the devices to fetch. Returns NotFoundException
+   * (HTTP 404) if the device service is not found by id. Returns ServiceException (HTTP 503) for
+   * unknown or unanticipated issues, or if the device index cannot be loaded.
+   * 
+   * @param id - database provided id for the device service
+   * @return - the root node with the digests of its two children
+   */
+  @RequestMapping(value = "/{id}/digest", method = RequestMethod.GET)
+  @Override
+  public DigestNode digest(@PathVariable String id) {
+    return digestNode(id, 1);
+  }
+
+  /**
+   * Return a node of the hash tree over the devices of a device service: for an inner node, its
+   * digest and those of its two children; for a bucket, its digest and the name and modified time
+   * of each of its devices. Returns NotFoundException (HTTP 404) if the device service is not
+   * found by id. Returns ClientException (HTTP 400) if the node is not in the tree. Returns
+   * ServiceException (HTTP 503) for unknown or unanticipated issues, or if the device index cannot
+   * be loaded.
+   * 
+   * @param id - database provided id for the device service
+   * @param node - heap number of the node; 1 is the root and the children of n are 2n and 2n + 1
+   * @return - the node
+   */
+  @RequestMapping(value = "/{id}/digest/{node}", method = RequestMethod.GET)
+  @Override
+  public DigestNode digestNode(@PathVariable String id, @PathVariable int node) {
+    try {
+      if (!deviceIndex.isLoaded())
+        deviceIndex.load();
+      if (!deviceIndex.isLoaded())
+        throw new IllegalStateException("Device index could not be loaded");
+      if (!deviceIndex.isDigestNode(node))
+        throw new ClientException("No node " + node + " in device digests");
+      DeviceService service = repos.findOne(id);
+      if (service == null)
+        throw new NotFoundException(DeviceService.class.toString(), id);
+      DeviceIndex.DigestNode read = deviceIndex.digestNode(id, node);
+      return new DigestNode(read.getDepth(), read.getNode(), read.getDigest(), read.getChildren(),
+          read.getDevices());
     } catch (NotFoundException nE) {
       throw nE;
+    } catch (ClientException cE) {
+      throw cE;
     } catch (Exception e) {
       logger.error(ERR_GET + e.getMessage());
       throw new ServiceException(e);
     }
   }
 
+  /**
+   * Synchronize a device service with core metadata in one request. The service posts the name and
+   * version (modified time) of the devices, profiles and addressables it holds, and gets back the
+   * devices of the service, and the profiles and addressables they and the service use, that it
+   * lacks or holds at another version, plus the names it holds that no longer apply. Devices refer
+   * to their profile and addressable by name. Versions are compared over projected queries, and
+   * only the added and changed objects are read, with one query per kind; a profile's version
+   * covers its commands. At most the max limit of objects is returned, addressables and profiles
+   * first, and the diff is marked truncated if more were due, so the service posts its manifest
+   * again for the rest. Returns NotFoundException (HTTP 404) if the device service is not found by
+   * name. Returns ServiceException (HTTP 503) for unknown or unanticipated issues.
+   * 
+   * @param name - unique name for the device service
+   * @param manifest - versions held by the device service, by name
+   * @return - added, changed and removed devices, profiles and addressables
+   */
+  @RequestMapping(value = "/name/{name:.+}/sync", method = RequestMethod.POST)
+  @Override
+  public SyncDiff sync(@PathVariable String name, @RequestBody SyncManifest manifest) {
+    if (manifest == null)
+      throw new ServiceException(new DataValidationException("No sync manifest provided"));
+    try {
+      DeviceService service = repos.findByName(name);
+      if (service == null)
+        throw new NotFoundException(DeviceService.class.toString(), name);
+      List<VersionDao.Version> devices = versionDao.getDeviceVersions(service);
+      Set<String> profileIds = devices.stream().map(VersionDao.Version::getProfile)
+          .filter(Objects::nonNull).collect(Collectors.toSet());
+      List<VersionDao.Version> profiles = versionDao.getProfileVersions(profileIds);
+      Set<String> addressableIds = devices.stream().map(VersionDao.Version::getAddressable)
+          .filter(Objects::nonNull).collect(Collectors.toCollection(HashSet::new));
+      if (service.getAddressable() != null && service.getAddressable().getId() != null)
+        addressableIds.add(service.getAddressable().getId());
+      List<VersionDao.Version> addressables =
+          versionDao.getVersions(Addressable.class, addressableIds);
+      SyncDiff diff = new SyncDiff();
+      // addressables and profiles first, so the devices returned can refer to them
+      int stale = diff(addressables, manifest.getAddressables(), diff.getAddressables(),
+          addressableDao::getByIds, Function.identity(), maxLimit);
+      stale += diff(profiles, manifest.getProfiles(), diff.getProfiles(),
+          ids -> profileRepos.findAll(ids), Function.identity(), Math.max(0, maxLimit - stale));
+      stale += diff(devices, manifest.getDevices(), diff.getDevices(),
+          ids -> deviceRepos.findAll(ids), SyncDevice::new, Math.max(0, maxLimit - stale));
+      if (stale > maxLimit) {
+        logger.info("Max limit reached synchronizing device service " + name + ", "
+            + (stale - maxLimit) + " objects left for the next sync");
+        diff.setTruncated(true);
+      }
+      return diff;
+    } catch (NotFoundException nE) {
+      throw nE;
+    } catch (Exception e) {
+      logger.error("Error synchronizing device service:  " + e.getMessage());
+      throw new ServiceException(e);
+    }
+  }
+
   /**
    * Add a new DeviceService - name must be unique. Returns ServiceException (HTTP 503) for unknown
    * or unanticipated issues. Returns DataValidationException (HTTP 409) if an associated
@@ -594,7 +748,9 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
    * Update the DeviceServcie identified by the id or name stored in the object provided. Id is used
    * first, name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. Returns NotFoundException (HTTP 404) if the device service
-   * cannot be found by the identifier provided.
+   * cannot be found by the identifier provided. Returns PreconditionFailedException (HTTP 412) if
+   * an If-Match header is sent and does not hold the current version, which reads return as their
+   * ETag, or if the object is changed by another request while this update is applied.
    * 
    * @param deviceService2 - object holding the identifier and new values for the DeviceService
    * @return boolean indicating success of the update
@@ -612,6 +768,7 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
                 + deviceService2.getId() + "/" + deviceService2.getName());
         throw new NotFoundException(DeviceService.class.toString(), deviceService2.getId());
       }
+      IfMatch.check(deviceService);
       updateDeviceService(deviceService2, deviceService);
       return true;
     } catch (NotFoundException nE) {
@@ -620,38 +777,47 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
       throw dE;
     } catch (ClientException cE) {
       throw cE;
+    } catch (PreconditionFailedException pE) {
+      throw pE;
     } catch (Exception e) {
       logger.error("Error updating device:  " + e.getMessage());
       throw new ServiceException(e);
     }
   }
 
-  private void updateDeviceService(DeviceService from, DeviceService to) {
-    checkAddressable(from, to);
+  private boolean updateDeviceService(DeviceService from, DeviceService to) {
+    ChangeSet changes = new ChangeSet();
+    checkAddressable(from, to, changes);
     if (from.getAdminState() != null)
-      to.setAdminState(from.getAdminState());
+      changes.set("adminState", to.getAdminState(), from.getAdminState(), to::setAdminState);
     if (from.getDescription() != null)
-      to.setDescription(from.getDescription());
+      changes.set("description", to.getDescription(), from.getDescription(), to::setDescription);
     if (from.getLabels() != null)
-      to.setLabels(from.getLabels());
+      changes.set("labels", to.getLabels(), from.getLabels(), to::setLabels);
     if (from.getLastConnected() != 0)
-      to.setLastConnected(from.getLastConnected());
+      changes.set("lastConnected", to.getLastConnected(), from.getLastConnected(),
+          to::setLastConnected);
     if (from.getLastReported() != 0)
-      to.setLastReported(from.getLastReported());
+      changes.set("lastReported", to.getLastReported(), from.getLastReported(),
+          to::setLastReported);
     if (from.getName() != null)
-      to.setName(from.getName());
+      changes.set("name", to.getName(), from.getName(), to::setName);
     if (from.getOperatingState() != null)
-      to.setOperatingState(from.getOperatingState());
+      changes.set("operatingState", to.getOperatingState(), from.getOperatingState(),
+          to::setOperatingState);
     if (from.getOrigin() != 0)
-      to.setOrigin(from.getOrigin());
-    repos.save(to);
+      changes.set("origin", to.getOrigin(), from.getOrigin(), to::setOrigin);
+    if (changes.isEmpty())
+      return false;
+    documentDao.update(to, changes);
+    return true;
   }
-  
-  private void checkAddressable(DeviceService from, DeviceService to) {
+
+  private void checkAddressable(DeviceService from, DeviceService to, ChangeSet changes) {
     if (from.getAddressable() != null) {
       Addressable addr = addressableDao.getByIdOrName(from.getAddressable());
       if (addr != null)
-        to.setAddressable(addr);
+        changes.setReference("addressable", to.getAddressable(), addr, to::setAddressable);
       else {
         logger.error(
             "Unable to locate addressable and cannot set device service addressable to null");
@@ -722,17 +888,135 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new DeviceService is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param deviceService - DeviceService object
+   * @return deferred database generated identifier for the new device service
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody DeviceService deviceService) {
+    return writer.submit(() -> add(deviceService));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the DeviceService is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param deviceService2 - DeviceService object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody DeviceService deviceService2) {
+    return writer.submit(() -> update(deviceService2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the DeviceService is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the device service
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the DeviceService is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - device service name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
+  /**
+   * Asynchronous variant of updateOpState. The servlet thread is released while the op state is
+   * saved. Errors are returned exactly as for updateOpState.
+   * 
+   * @param id - database generated id for the device service
+   * @param opState - new op state for the device service (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/{id}/opstate/{opState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateOpStateAsync(@PathVariable String id,
+      @PathVariable String opState) {
+    return writer.submit(() -> updateOpState(id, opState));
+  }
+
+  /**
+   * Asynchronous variant of updateOpStateByName. The servlet thread is released while the op state
+   * is saved. Errors are returned exactly as for updateOpStateByName.
+   * 
+   * @param name - device service name
+   * @param opState - new op state for the device service (either ENABLED or DISABLED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}/opstate/{opState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateOpStateByNameAsync(@PathVariable String name,
+      @PathVariable String opState) {
+    return writer.submit(() -> updateOpStateByName(name, opState));
+  }
+
+  /**
+   * Asynchronous variant of updateAdminState. The servlet thread is released while the admin state
+   * is saved. Errors are returned exactly as for updateAdminState.
+   * 
+   * @param id - database generated id for the device service
+   * @param adminState - new admin state for the device service (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/{id}/adminstate/{adminState}", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAdminStateAsync(@PathVariable String id,
+      @PathVariable String adminState) {
+    return writer.submit(() -> updateAdminState(id, adminState));
+  }
+
+  /**
+   * Asynchronous variant of updateAdminStateByName. The servlet thread is released while the admin
+   * state is saved. Errors are returned exactly as for updateAdminStateByName.
+   * 
+   * @param name - device service name
+   * @param adminState - new admin state for the device service (either LOCKED or UNLOCKED)
+   * @return deferred boolean indicating success of the operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}/adminstate/{adminState}",
+      method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAdminStateByNameAsync(@PathVariable String name,
+      @PathVariable String adminState) {
+    return writer.submit(() -> updateAdminStateByName(name, adminState));
+  }
+
   private boolean deleteDeviceService(DeviceService deviceService) {
     deleteAssociatedDevices(deviceService);
     deleteAssociatedProvisionWatchers(deviceService);
     repos.delete(deviceService);
+    jsonCache.evict(DeviceService.class, deviceService.getId());
     return true;
   }
 
   private void deleteAssociatedDevices(DeviceService service) {
     List<Device> devices = deviceRepos.findByService(service);
     if (devices != null)
-      devices.stream().forEach(d -> deviceRepos.delete(d));
+      devices.stream().forEach(d -> {
+        deviceRepos.delete(d);
+        deviceWrites.deleted(d);
+      });
   }
 
   private void deleteAssociatedProvisionWatchers(DeviceService service) {
@@ -741,4 +1025,44 @@ public class DeviceServiceControllerImpl implements DeviceServiceController {
       watchers.stream().forEach(w -> watcherRepos.delete(w));
   }
 
+  // distinct addressable ids come from the device index, or a distinct query when it is not
+  // loaded; either way only the addressables themselves are read
+  private Set<Addressable> addressablesOf(DeviceService service) {
+    List<String> ids = deviceIndex.isLoaded() ? deviceIndex.addressablesForService(service.getId())
+        : deviceDao.getAddressableIdsForService(service);
+    return new HashSet<>(addressableDao.getByIds(ids));
+  }
+
+  private boolean isStale(VersionDao.Version version, Map<String, Long> held) {
+    Long heldVersion = held.get(version.getName());
+    return heldVersion == null || heldVersion != version.getModified();
+  }
+
+  // sorts the current versions against those held into changes, reading up to the limit of the
+  // added and changed objects, in name order, with a single fetch; returns how many were stale
+  private <T extends BaseObject, E> int diff(List<VersionDao.Version> current,
+      Map<String, Long> held, SyncDiff.Changes<E> changes,
+      Function<List<String>, Iterable<T>> fetch, Function<T, E> entry, int limit) {
+    Set<String> names = new HashSet<>();
+    List<VersionDao.Version> stale = new ArrayList<>();
+    for (VersionDao.Version version : current) {
+      names.add(version.getName());
+      if (isStale(version, held))
+        stale.add(version);
+    }
+    stale.sort(Comparator.comparing(VersionDao.Version::getName));
+    Map<String, VersionDao.Version> fetched = new LinkedHashMap<>();
+    stale.stream().limit(limit).forEach(v -> fetched.put(v.getId(), v));
+    if (!fetched.isEmpty())
+      fetch.apply(new ArrayList<>(fetched.keySet())).forEach(o -> {
+        VersionDao.Version version = fetched.get(o.getId());
+        (held.containsKey(version.getName()) ? changes.getChanged() : changes.getAdded())
+            .add(entry.apply(o));
+        changes.getVersions().put(version.getName(), version.getModified());
+      });
+    held.keySet().stream().filter(n -> !names.contains(n)).sorted()
+        .forEach(changes.getRemoved()::add);
+    return stale.size();
+  }
+
 }
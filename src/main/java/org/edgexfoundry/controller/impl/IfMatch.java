@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.edgexfoundry.dao.PreconditionFailedException;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Checks the If-Match header of the current request against the version of the object about to be
+ * updated. The version is the one {@link Versions} gives for the object as read, which reads
+ * return as their ETag, so a client sends back the ETag it last read. Requests without the header,
+ * or with "*", are not checked.
+ */
+final class IfMatch {
+
+  static final String HEADER = "If-Match";
+
+  private IfMatch() {}
+
+  /**
+   * @throws PreconditionFailedException if the request names versions and none is current
+   */
+  static void check(BaseObject current) {
+    String header = header();
+    if (header == null || matches(header, current))
+      return;
+    throw new PreconditionFailedException(current.getClass().getSimpleName(), current.getId());
+  }
+
+  /**
+   * @return the entity tag for the object's current version
+   */
+  static String etag(BaseObject object) {
+    return "\"" + Versions.of(object) + "\"";
+  }
+
+  /**
+   * @return true if the header is "*" or names the object's current version, weak or strong
+   */
+  static boolean matches(String header, BaseObject current) {
+    if (header == null)
+      return false;
+    if (header.trim().equals("*"))
+      return true;
+    String version = Long.toString(Versions.of(current));
+    for (String tag : header.split(","))
+      if (version.equals(strip(tag)))
+        return true;
+    return false;
+  }
+
+  private static String header() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes))
+      return null;
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    return request.getHeader(HEADER);
+  }
+
+  private static String strip(String tag) {
+    String value = tag.trim();
+    if (value.startsWith("W/"))
+      value = value.substring(2);
+    if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\""))
+      value = value.substring(1, value.length() - 1);
+    return value;
+  }
+
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Caches the JSON serialization of device profiles and device services, which are read far more
+ * often than they change. Each entry holds the bytes written for one version of one object, and
+ * the version, as {@link Versions} gives it, covers the commands and addressables written inside
+ * the object, so a change to any of them is serialized again on the next read. Bytes written from
+ * an object read before such a change are stored under the old version and never served for the
+ * new one. Command and addressable updates also clear the cache to drop the entries they make
+ * unreachable; a serialization already under way when the cache is cleared is not put back. The
+ * bytes handed out are shared and must not be modified.
+ * 
+ * Devices are far more numerous, so when device.cache.offheap.mb is set their JSON is kept in an
+ * {@link OffHeapStore} instead, outside the heap, under the same version. This only saves
+ * serializing a device again and the garbage that makes: the device is still read from the
+ * database, with its references, and built on the heap to find its version, so neither the
+ * database reads nor the heap a device read takes are reduced.
+ */
+@Component
+public class JsonCache {
+
+  private static final int MB = 1024 * 1024;
+
+  private static final List<Class<?>> CACHED = Arrays.asList(DeviceProfile.class,
+      DeviceService.class);
+
+  private final ObjectMapper mapper;
+
+  private final VersionedCache<byte[]> cache;
+
+  private final OffHeapStore devices;
+
+  public JsonCache(ObjectMapper mapper, int capacity) {
+    this(mapper, capacity, 0);
+  }
+
+  @Autowired
+  public JsonCache(ObjectMapper mapper, @Value("${json.cache.size}") int capacity,
+      @Value("${device.cache.offheap.mb}") int offHeapMb) {
+    this.mapper = mapper;
+    cache = new VersionedCache<>(capacity);
+    devices = offHeapMb > 0 ? new OffHeapStore(offHeapMb * MB) : null;
+  }
+
+  public boolean isCached(Class<?> clazz) {
+    return CACHED.contains(clazz) || (devices != null && clazz == Device.class);
+  }
+
+  /**
+   * @return the object as JSON, serialized again only if this version has not been written before
+   */
+  public byte[] toJson(BaseObject object) throws JsonProcessingException {
+    if (object.getId() == null)
+      return mapper.writeValueAsBytes(object);
+    if (object instanceof Device && devices != null)
+      return toJson((Device) object);
+    String key = key(object.getClass(), object.getId());
+    long version = Versions.of(object);
+    byte[] json = cache.get(key, version);
+    if (json == null) {
+      long generation = cache.generation();
+      json = mapper.writeValueAsBytes(object);
+      cache.put(key, version, json, generation);
+    }
+    return json;
+  }
+
+  public void evict(Class<?> clazz, String id) {
+    if (clazz == Device.class && devices != null)
+      devices.remove(id);
+    else
+      cache.evict(key(clazz, id));
+  }
+
+  public void clear() {
+    cache.clear();
+    if (devices != null)
+      devices.clear();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHits() {
+    return cache.getHits();
+  }
+
+  public long getMisses() {
+    return cache.getMisses();
+  }
+
+  /**
+   * @return the off-heap device tier, or null when it is not configured
+   */
+  public OffHeapStore getDevices() {
+    return devices;
+  }
+
+  private byte[] toJson(Device device) throws JsonProcessingException {
+    long[] version = {Versions.of(device)};
+    byte[] json = devices.get(device.getId(), version);
+    if (json == null) {
+      long generation = devices.generation();
+      json = mapper.writeValueAsBytes(device);
+      devices.put(device.getId(), version, json, generation);
+    }
+    return json;
+  }
+
+  private String key(Class<?> clazz, String id) {
+    return clazz.getSimpleName() + ":" + id;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared handling for the multi-get (POST /ids and /names) endpoints. The requested keys are
+ * resolved with one $in query and the results are returned keyed in request order. Keys with no
+ * matching object map to null, so the client can tell what was not found without a second call.
+ */
+final class MultiGet {
+
+  private MultiGet() {}
+
+  /**
+   * @return the distinct, non-null keys to put in the $in query
+   */
+  static Set<String> distinct(List<String> keys) {
+    return keys.stream().filter(Objects::nonNull)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  static <T> Map<String, T> inRequestOrder(List<String> keys, Iterable<T> found,
+      Function<T, String> keyOf) {
+    Map<String, T> byKey = new HashMap<>();
+    for (T object : found)
+      byKey.put(keyOf.apply(object), object);
+    Map<String, T> result = new LinkedHashMap<>();
+    for (String key : distinct(keys))
+      result.put(key, byKey.get(key));
+    return result;
+  }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds byte values outside the Java heap, in one direct buffer used as a ring. Values are
+ * appended at the write position and, when the ring comes round, the oldest values in the way are
+ * dropped, so the buffer is never compacted and no value is ever moved. Only a small index of
+ * offsets and versions stays on the heap. Like the {@link VersionedCache}, each value is returned
+ * only for the version it was stored with, and a value is not put if the store has been cleared
+ * since the generation its caller took.
+ * 
+ * Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+ */
+public class OffHeapStore {
+
+  private final ByteBuffer buffer;
+
+  // in write order, oldest first, so the values to drop are always at the head
+  private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>();
+
+  private int position;
+
+  private long hits;
+
+  private long misses;
+
+  private long evictions;
+
+  // bumped by every clear
+  private long generation;
+
+  public OffHeapStore(int capacity) {
+    buffer = ByteBuffer.allocateDirect(capacity);
+  }
+
+  public int capacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * @return a heap copy of the value stored for this version, or null
+   */
+  public synchronized byte[] get(String key, long[] version) {
+    Slot slot = index.get(key);
+    if (slot == null || !Arrays.equals(slot.version, version)) {
+      misses++;
+      return null;
+    }
+    hits++;
+    byte[] value = new byte[slot.length];
+    buffer.position(slot.offset);
+    buffer.get(value);
+    return value;
+  }
+
+  /**
+   * @return the generation to put values with; take it before reading the object they derive from
+   */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * Store the value, replacing any earlier version, unless the store has been cleared since the
+   * generation was taken. Values larger than the buffer are not stored.
+   */
+  public synchronized void put(String key, long[] version, byte[] value, long generation) {
+    if (generation != this.generation)
+      return;
+    index.remove(key);
+    if (value.length > buffer.capacity())
+      return;
+    if (position + value.length > buffer.capacity()) {
+      // the tail of the ring is left unused and its values are the oldest
+      dropFrom(position, buffer.capacity());
+      position = 0;
+    }
+    dropFrom(position, position + value.length);
+    buffer.position(position);
+    buffer.put(value);
+    index.put(key, new Slot(position, value.length, version.clone()));
+    position += value.length;
+  }
+
+  public synchronized void remove(String key) {
+    index.remove(key);
+  }
+
+  public synchronized void clear() {
+    generation++;
+    index.clear();
+    position = 0;
+  }
+
+  public synchronized int size() {
+    return index.size();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  private void dropFrom(int start, int end) {
+    Iterator<Map.Entry<String, Slot>> oldest = index.entrySet().iterator();
+    while (oldest.hasNext()) {
+      Slot slot = oldest.next().getValue();
+      if (slot.offset >= end || slot.offset + slot.length <= start)
+        return;
+      oldest.remove();
+      evictions++;
+    }
+  }
+
+  private static class Slot {
+
+    private final int offset;
+
+    private final int length;
+
+    private final long[] version;
+
+    Slot(int offset, int length, long[] version) {
+      this.offset = offset;
+      this.length = length;
+      this.version = version;
+    }
+
+  }
+
+}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.edgexfoundry.controller.ImportResult;
+import org.edgexfoundry.dao.BulkDao;
+import org.edgexfoundry.dao.DeviceProfileDao;
+import org.edgexfoundry.dao.DeviceProfileRepository;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.exception.controller.LimitExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Imports many device profiles at once from multi-document YAML or a zip archive of YAML files.
+ * Documents are parsed in parallel on the import fork-join pool, each thread with its own Yaml
+ * since Yaml is not thread safe. The valid profiles and their commands are then stored with one
+ * bulk write per collection. Every document gets a result, so one bad profile does not stop the
+ * rest of the import. A zip archive is only expanded up to a total uncompressed size and number of
+ * entries, so a small upload cannot unpack into more than the service can hold.
+ */
+@Component
+public class ProfileImporter {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(ProfileImporter.class);
+
+  private static final Pattern DOCUMENT_START = Pattern.compile("---(\\s.*)?");
+
+  private static final String DOCUMENT_END = "...";
+
+  private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+
+  private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(Yaml::new);
+
+  private final ForkJoinPool pool;
+
+  private final DeviceProfileDao dao;
+
+  private final DeviceProfileRepository repos;
+
+  private final BulkDao bulkDao;
+
+  @Value("${import.max.bytes:4194304}")
+  private long maxBytes = 4194304;
+
+  @Value("${import.max.entries:1024}")
+  private int maxEntries = 1024;
+
+  @Autowired
+  public ProfileImporter(@Qualifier("importPool") ForkJoinPool pool, DeviceProfileDao dao,
+      DeviceProfileRepository repos, BulkDao bulkDao) {
+    this.pool = pool;
+    this.dao = dao;
+    this.repos = repos;
+    this.bulkDao = bulkDao;
+  }
+
+  /**
+   * Import the profiles in an uploaded file, which is either a zip archive of .yaml/.yml files or
+   * a single, possibly multi-document, YAML file.
+   */
+  public List<ImportResult> importFile(String source, byte[] content) throws IOException {
+    if (isZip(content))
+      return importDocuments(unzip(content));
+    return importDocuments(split(source, new String(content, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Import the profiles in (possibly multi-document) YAML content.
+   */
+  public List<ImportResult> importYaml(String source, String content) {
+    return importDocuments(split(source, content));
+  }
+
+  List<ImportResult> importDocuments(List<Document> documents) {
+    List<Entry> entries = pool
+        .submit(() -> documents.parallelStream().map(this::parse).collect(Collectors.toList()))
+        .join();
+    rejectDuplicateNames(entries);
+    store(entries.stream().filter(Entry::isValid).collect(Collectors.toList()));
+    List<ImportResult> results = entries.stream().map(e -> e.result).collect(Collectors.toList());
+    logger.info("Imported " + results.stream().filter(ImportResult::isImported).count() + " of "
+        + results.size() + " device profiles");
+    return results;
+  }
+
+  private Entry parse(Document document) {
+    Entry entry = new Entry(document.source);
+    try {
+      DeviceProfile profile = YAML.get().loadAs(document.text, DeviceProfile.class);
+      if (profile == null || profile.getName() == null) {
+        entry.reject("Document does not hold a named device profile");
+        return entry;
+      }
+      entry.result.setName(profile.getName());
+      dao.checkCommandNames(profile.getCommands());
+      entry.profile = profile;
+    } catch (Exception e) {
+      entry.reject(e.getMessage());
+    }
+    return entry;
+  }
+
+  private void rejectDuplicateNames(List<Entry> entries) {
+    Set<String> names = new HashSet<>();
+    for (Entry entry : entries)
+      if (entry.isValid() && !names.add(entry.profile.getName()))
+        entry.reject("Name is not unique: " + entry.profile.getName());
+    if (names.isEmpty())
+      return;
+    Set<String> existing = repos.findByNameIn(names).stream().map(DeviceProfile::getName)
+        .collect(Collectors.toSet());
+    for (Entry entry : entries)
+      if (entry.isValid() && existing.contains(entry.profile.getName()))
+        entry.reject("Name is not unique: " + entry.profile.getName());
+  }
+
+  private void store(List<Entry> valid) {
+    // commands first, so the profiles can reference them by id
+    List<Command> commands = new ArrayList<>();
+    List<Entry> owners = new ArrayList<>();
+    for (Entry entry : valid)
+      if (entry.profile.getCommands() != null)
+        for (Command command : entry.profile.getCommands()) {
+          commands.add(command);
+          owners.add(entry);
+        }
+    Map<Integer, String> failedCommands = bulkDao.insert(Command.class, commands);
+    failedCommands.forEach((i, error) -> owners.get(i)
+        .reject("Command " + commands.get(i).getName() + " was not stored: " + error));
+    List<Entry> ready = valid.stream().filter(Entry::isValid).collect(Collectors.toList());
+    Map<Integer, String> failedProfiles = bulkDao.insert(DeviceProfile.class,
+        ready.stream().map(e -> e.profile).collect(Collectors.toList()));
+    failedProfiles.forEach((i, error) -> ready.get(i).reject(error));
+    for (Entry entry : ready)
+      if (entry.isValid())
+        entry.result.setId(entry.profile.getId());
+    // commands stored for profiles that then failed are no longer referenced
+    List<String> orphans = new ArrayList<>();
+    for (int i = 0; i < commands.size(); i++)
+      if (!owners.get(i).isValid() && !failedCommands.containsKey(i))
+        orphans.add(commands.get(i).getId());
+    bulkDao.remove(Command.class, orphans);
+  }
+
+  /**
+   * Split YAML content into its documents. Documents are separated by "---" lines and may end
+   * with "..."; directives and blank documents are dropped.
+   */
+  static List<Document> split(String source, String content) {
+    List<String> texts = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    for (String line : content.split("\\r?\\n")) {
+      if (DOCUMENT_START.matcher(line).matches() || line.equals(DOCUMENT_END)) {
+        addDocument(texts, current);
+        current = new StringBuilder();
+      } else if (!(line.startsWith("%") && current.toString().trim().isEmpty())) {
+        current.append(line).append('\n');
+      }
+    }
+    addDocument(texts, current);
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < texts.size(); i++)
+      documents.add(
+          new Document(texts.size() == 1 ? source : source + "#" + (i + 1), texts.get(i)));
+    return documents;
+  }
+
+  /**
+   * @throws LimitExceededException if the archive holds more than the maximum number of entries,
+   *         or its YAML files more than the maximum number of bytes
+   */
+  List<Document> unzip(byte[] archive) throws IOException {
+    List<Document> documents = new ArrayList<>();
+    long remaining = maxBytes;
+    int entries = 0;
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        if (++entries > maxEntries)
+          throw new LimitExceededException("DeviceProfile");
+        String name = entry.getName().toLowerCase(Locale.ROOT);
+        if (!entry.isDirectory() && (name.endsWith(".yaml") || name.endsWith(".yml"))) {
+          // the sizes in the archive are not trusted; the bytes actually inflated are counted
+          byte[] content = read(zip, remaining);
+          remaining -= content.length;
+          documents.addAll(split(entry.getName(), new String(content, StandardCharsets.UTF_8)));
+        }
+      }
+    }
+    return documents;
+  }
+
+  private static void addDocument(List<String> texts, StringBuilder document) {
+    if (!document.toString().trim().isEmpty())
+      texts.add(document.toString());
+  }
+
+  private static boolean isZip(byte[] content) {
+    if (content.length < ZIP_MAGIC.length)
+      return false;
+    for (int i = 0; i < ZIP_MAGIC.length; i++)
+      if (content[i] != ZIP_MAGIC[i])
+        return false;
+    return true;
+  }
+
+  private static byte[] read(InputStream in, long limit) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int count;
+    while ((count = in.read(buffer)) != -1) {
+      if (out.size() + count > limit)
+        throw new LimitExceededException("DeviceProfile");
+      out.write(buffer, 0, count);
+    }
+    return out.toByteArray();
+  }
+
+  static class Document {
+
+    private final String source;
+
+    private final String text;
+
+    Document(String source, String text) {
+      this.source = source;
+      this.text = text;
+    }
+
+  }
+
+  private static class Entry {
+
+    private final ImportResult result;
+
+    private DeviceProfile profile;
+
+    Entry(String source) {
+      result = new ImportResult(source);
+    }
+
+    boolean isValid() {
+      return profile != null;
+    }
+
+    void reject(String error) {
+      result.setError(error);
+      if (profile != null)
+        profile.setId(null);
+      profile = null;
+    }
+
+  }
+
+}
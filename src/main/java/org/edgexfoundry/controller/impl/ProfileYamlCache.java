@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * Caches the YAML rendering of device profiles, which device services fetch at every start.
+ * SnakeYAML's reflective dump dominates the cost of the YAML endpoints for large profiles. Entries
+ * are keyed by profile id and remember the version they were rendered from, which covers the
+ * commands rendered inside the profile, so a profile or command changed by any writer is rendered
+ * again. Profile updates and deletes also evict their entry, and command updates clear the cache.
+ * Callers take a {@link #generation()} before reading the profile, and a rendering of a profile
+ * read before a clear is not put back after it. The least recently used entries are dropped beyond
+ * the configured size.
+ */
+@Component
+public class ProfileYamlCache {
+
+  private final VersionedCache<String> cache;
+
+  @Autowired
+  public ProfileYamlCache(@Value("${profile.yaml.cache.size}") int capacity) {
+    cache = new VersionedCache<>(capacity);
+  }
+
+  /**
+   * @return the generation to render with; take it before reading the profile
+   */
+  public long generation() {
+    return cache.generation();
+  }
+
+  /**
+   * @param generation - taken before the profile was read
+   * @return the profile in YAML, rendered again only if this version has not been rendered before
+   */
+  public String render(DeviceProfile profile, long generation) {
+    if (profile.getId() == null)
+      return dump(profile);
+    long version = Versions.of(profile);
+    String yaml = cache.get(profile.getId(), version);
+    if (yaml == null) {
+      yaml = dump(profile);
+      cache.put(profile.getId(), version, yaml, generation);
+    }
+    return yaml;
+  }
+
+  public void evict(String id) {
+    cache.evict(id);
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public long getHits() {
+    return cache.getHits();
+  }
+
+  public long getMisses() {
+    return cache.getMisses();
+  }
+
+  private String dump(DeviceProfile profile) {
+    return new Yaml().dumpAs(profile, Tag.MAP, FlowStyle.AUTO);
+  }
+
+}
@@ -19,9 +19,11 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.edgexfoundry.controller.Action;
 import org.edgexfoundry.controller.ProvisionWatcherController;
+import org.edgexfoundry.dao.ConcurrentResolver;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceServiceDao;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
@@ -65,6 +67,9 @@ public class ProvisionWatcherControllerImpl implements ProvisionWatcherControlle
   @Autowired
   private CallbackExecutor callback;
 
+  @Autowired
+  private ConcurrentResolver resolver;
+
   @Value("${read.max.limit}")
   private int maxLimit;
 
@@ -300,15 +305,17 @@ public class ProvisionWatcherControllerImpl implements ProvisionWatcherControlle
   }
 
   private void attachAssociated(ProvisionWatcher watcher) {
-    DeviceService service = serviceDao.getByIdOrName(watcher.getService());
-    if (service == null)
-      throw new DataValidationException(
-          "A provision watcher must be associated to a known device service.");
-    watcher.setService(service);
-    DeviceProfile profile = profileDao.getByIdOrName(watcher.getProfile());
-    if (profile == null)
-      throw new DataValidationException("A device must be associated to a known device profile.");
-    watcher.setProfile(profile);
+    DeviceService requestedService = watcher.getService();
+    DeviceProfile requestedProfile = watcher.getProfile();
+    CompletableFuture<DeviceService> service =
+        resolver.require(() -> serviceDao.getByIdOrName(requestedService),
+            "A provision watcher must be associated to a known device service.");
+    CompletableFuture<DeviceProfile> profile =
+        resolver.require(() -> profileDao.getByIdOrName(requestedProfile),
+            "A device must be associated to a known device profile.");
+    resolver.awaitAll(service, profile);
+    watcher.setService(service.join());
+    watcher.setProfile(profile.join());
   }
 
   /**
@@ -40,6 +40,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/schedule")
@@ -49,6 +50,9 @@ public class ScheduleControllerImpl implements ScheduleController {
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
           .getEdgeXLogger(ScheduleControllerImpl.class);
 
+  @Autowired
+  private AsyncWriter writer;
+
   @Autowired
   private ScheduleRepository repos;
 
@@ -281,6 +285,59 @@ public class ScheduleControllerImpl implements ScheduleController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new Schedule is validated
+   * and saved; the response carries the database generated identifier once the write completes.
+   * Errors are returned exactly as for add.
+   * 
+   * @param schedule - Schedule object
+   * @return deferred database generated identifier for the new schedule
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody Schedule schedule) {
+    return writer.submit(() -> add(schedule));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the Schedule is validated
+   * and updated. Errors are returned exactly as for update.
+   * 
+   * @param schedule2 - Schedule object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody Schedule schedule2) {
+    return writer.submit(() -> update(schedule2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the Schedule is removed.
+   * Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the schedule
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the Schedule is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - schedule name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
   private boolean deleteSchedule(Schedule schedule) {
     if (dao.isScheduleAssociatedToScheduleEvent(schedule)) {
       logger.error("Data integrity issue. Schedule with id: " + schedule.getId()
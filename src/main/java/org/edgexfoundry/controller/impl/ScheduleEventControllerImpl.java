@@ -19,10 +19,15 @@
 package org.edgexfoundry.controller.impl;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.edgexfoundry.controller.Action;
 import org.edgexfoundry.controller.ScheduleEventController;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.ConcurrentResolver;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
 import org.edgexfoundry.dao.ScheduleEventDao;
 import org.edgexfoundry.dao.ScheduleEventRepository;
 import org.edgexfoundry.dao.ScheduleRepository;
@@ -43,6 +48,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/scheduleevent")
@@ -58,6 +64,9 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
 
   private static final String ERR_NOT_FND = " was not found.";
 
+  @Autowired
+  private AsyncWriter writer;
+
   @Autowired
   private ScheduleEventRepository repos;
 
@@ -67,12 +76,18 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
   @Autowired
   private ScheduleEventDao dao;
 
+  @Autowired
+  private DocumentDao documentDao;
+
   @Autowired
   private AddressableDao addressableDao;
 
   @Autowired
   private CallbackExecutor callback;
 
+  @Autowired
+  private ConcurrentResolver resolver;
+
   @Value("${read.max.limit}")
   private int maxLimit;
 
@@ -254,8 +269,11 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
     if (scheduleEvent.getSchedule() == null)
       throw new DataValidationException("No schedule provided for schedule event");
     try {
+      // look up the addressable while the schedule is being checked
+      CompletableFuture<Addressable> addressable = lookupAddressable(scheduleEvent);
       if (isScheduleNameValid(scheduleEvent.getSchedule())) {
-        attachAssociated(scheduleEvent);
+        resolver.awaitAll(addressable);
+        scheduleEvent.setAddressable(addressable.join());
         repos.save(scheduleEvent);
         notifyAssociates(scheduleEvent, Action.POST);
         return scheduleEvent.getId();
@@ -275,12 +293,10 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
     }
   }
 
-  private void attachAssociated(ScheduleEvent event) {
-    Addressable addressable = addressableDao.getByIdOrName(event.getAddressable());
-    if (addressable == null)
-      throw new DataValidationException(
-          "A schedule event must be associated to a known addressable.");
-    event.setAddressable(addressable);
+  private CompletableFuture<Addressable> lookupAddressable(ScheduleEvent event) {
+    Addressable requested = event.getAddressable();
+    return resolver.require(() -> addressableDao.getByIdOrName(requested),
+        "A schedule event must be associated to a known addressable.");
   }
 
   /**
@@ -288,7 +304,10 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
    * name is used second for identification purposes. Returns ServiceException (HTTP 503) for
    * unknown or unanticipated issues. DataValidationException (HTTP 409) if an attempt to change the
    * name is made when the schedule event is still being referenced by device reports.
-   * NotFoundException (HTTP 404) if no schedule is found for the name provided.
+   * NotFoundException (HTTP 404) if no schedule is found for the name provided. Returns
+   * PreconditionFailedException (HTTP 412) if an If-Match header is sent and does not hold the
+   * current modified value, or if the object is changed by another request while this update is
+   * applied.
    * 
    * @param schedule2 - object holding the identifier and new values for the schedule event
    * @return boolean indicating success of the update
@@ -306,12 +325,15 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
                 + scheduleEvent2.getId() + "/" + scheduleEvent2.getName());
         throw new NotFoundException(ScheduleEvent.class.toString(), scheduleEvent2.getId());
       }
+      IfMatch.check(scheduleEvent);
       updateScheduleEvent(scheduleEvent2, scheduleEvent);
       return true;
     } catch (NotFoundException nE) {
       throw nE;
     } catch (DataValidationException dE) {
       throw dE;
+    } catch (PreconditionFailedException pE) {
+      throw pE;
     } catch (Exception e) {
       logger.error("Error updating ScheduleEvent:  " + e.getMessage());
       throw new ServiceException(e);
@@ -319,22 +341,25 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
   }
 
   private void updateScheduleEvent(ScheduleEvent from, ScheduleEvent to) {
+    ChangeSet changes = new ChangeSet();
     boolean serviceChanged = false;
     if (from.getAddressable() != null)
-      to.setAddressable(addressableDao.getByIdOrName(from.getAddressable()));
+      changes.setReference("addressable", to.getAddressable(),
+          addressableDao.getByIdOrName(from.getAddressable()), to::setAddressable);
     if (from.getService() != null)
       if (isServiceNameValid(from.getService())) {
-        serviceChanged = to.getService() != from.getService();
-        to.setService(from.getService());
+        serviceChanged = changes.set("service", to.getService(), from.getService(), to::setService);
       } else {
         logger.error("Service with name: " + from.getService() + ERR_NOT_FND);
         throw new NotFoundException("Schedule", from.getService());
       }
-    checkSchedule(from, to);
-    checkServiceName(from, to);
+    checkSchedule(from, to, changes);
+    checkServiceName(from, to, changes);
     if (from.getOrigin() != 0)
-      to.setOrigin(from.getOrigin());
-    repos.save(to);
+      changes.set("origin", to.getOrigin(), from.getOrigin(), to::setOrigin);
+    if (changes.isEmpty())
+      return;
+    documentDao.update(to, changes);
     if (serviceChanged) {
       // remove from the from
       notifyAssociates(from, Action.DELETE);
@@ -346,17 +371,17 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
     }
   }
 
-  private void checkSchedule(ScheduleEvent from, ScheduleEvent to) {
+  private void checkSchedule(ScheduleEvent from, ScheduleEvent to, ChangeSet changes) {
     if (from.getSchedule() != null)
       if (isScheduleNameValid(from.getSchedule()))
-        to.setSchedule(from.getSchedule());
+        changes.set("schedule", to.getSchedule(), from.getSchedule(), to::setSchedule);
       else {
         logger.error("Schedule with name: " + from.getSchedule() + ERR_NOT_FND);
         throw new NotFoundException(Schedule.class.toString(), from.getSchedule());
       }
   }
 
-  private void checkServiceName(ScheduleEvent from, ScheduleEvent to) {
+  private void checkServiceName(ScheduleEvent from, ScheduleEvent to, ChangeSet changes) {
     if (from.getName() != null) {
       if (dao.isScheduleEventAssociatedToDeviceReport(to)) {
         logger
@@ -364,7 +389,7 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
         throw new DataValidationException(
             "Data integrity issue. ScheduleEvent with name: " + from.getName() + ERR_REFBY);
       } else
-        to.setName(from.getName());
+        changes.set("name", to.getName(), from.getName(), to::setName);
     }
   }
 
@@ -428,6 +453,59 @@ public class ScheduleEventControllerImpl implements ScheduleEventController {
     }
   }
 
+  /**
+   * Asynchronous variant of add. The servlet thread is released while the new ScheduleEvent is
+   * validated and saved; the response carries the database generated identifier once the write
+   * completes. Errors are returned exactly as for add.
+   * 
+   * @param scheduleEvent - ScheduleEvent object
+   * @return deferred database generated identifier for the new schedule event
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.POST)
+  @Override
+  public DeferredResult<String> addAsync(@RequestBody ScheduleEvent scheduleEvent) {
+    return writer.submit(() -> add(scheduleEvent));
+  }
+
+  /**
+   * Asynchronous variant of update. The servlet thread is released while the ScheduleEvent is
+   * validated and updated. Errors are returned exactly as for update.
+   * 
+   * @param scheduleEvent2 - ScheduleEvent object holding the id or name and the fields to update
+   * @return deferred boolean indicating success of the update
+   */
+  @RequestMapping(value = "/async", method = RequestMethod.PUT)
+  @Override
+  public DeferredResult<Boolean> updateAsync(@RequestBody ScheduleEvent scheduleEvent2) {
+    return writer.submit(() -> update(scheduleEvent2));
+  }
+
+  /**
+   * Asynchronous variant of delete. The servlet thread is released while the ScheduleEvent is
+   * removed. Errors are returned exactly as for delete.
+   * 
+   * @param id - database generated id for the schedule event
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/id/{id}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteAsync(@PathVariable String id) {
+    return writer.submit(() -> delete(id));
+  }
+
+  /**
+   * Asynchronous variant of deleteByName. The servlet thread is released while the ScheduleEvent is
+   * removed. Errors are returned exactly as for deleteByName.
+   * 
+   * @param name - schedule event name
+   * @return deferred boolean indicating success of the remove operation
+   */
+  @RequestMapping(value = "/async/name/{name:.+}", method = RequestMethod.DELETE)
+  @Override
+  public DeferredResult<Boolean> deleteByNameAsync(@PathVariable String name) {
+    return writer.submit(() -> deleteByName(name));
+  }
+
   private boolean deleteScheduleEvent(ScheduleEvent scheduleEvent) {
     if (dao.isScheduleEventAssociatedToDeviceReport(scheduleEvent)) {
       logger.error(
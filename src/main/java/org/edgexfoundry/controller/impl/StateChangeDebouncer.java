@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds back state changes until they settle. A change submitted for a key replaces any change
+ * still waiting for that key and restarts its window, so a state flapping faster than the window
+ * is applied once, with its final value, after it has been quiet for the whole window. A key is
+ * never held back longer than the max wait after its first waiting change, so a state that keeps
+ * flapping is still applied, with its latest value, at least that often. A window of zero
+ * disables debouncing and callers apply changes immediately.
+ */
+@Component
+public class StateChangeDebouncer {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(StateChangeDebouncer.class);
+
+  @Value("${device.state.debounce:0}")
+  private long window;
+
+  // 0 is four windows
+  @Value("${device.state.debounce.max:0}")
+  private long maxWait;
+
+  private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  public void init() {
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "state-debounce");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdown();
+  }
+
+  public boolean isEnabled() {
+    return window > 0;
+  }
+
+  /**
+   * Apply the change once the key has been quiet for the debounce window, or once the max wait
+   * has passed since the first change still waiting for the key, discarding any change still
+   * waiting for the same key.
+   */
+  public void submit(String key, Runnable change) {
+    pending.compute(key, (k, waiting) -> {
+      if (waiting != null)
+        waiting.future.cancel(false);
+      long now = System.currentTimeMillis();
+      Pending next = new Pending(change, waiting == null ? now : waiting.first);
+      long delay = Math.max(0, Math.min(window, next.first + maxWait() - now));
+      next.future = scheduler.schedule(() -> apply(key, next), delay, TimeUnit.MILLISECONDS);
+      return next;
+    });
+  }
+
+  /**
+   * Discard the change still waiting for the key, if any, so a change made some other way is not
+   * undone when it settles.
+   *
+   * @return true if a waiting change was discarded
+   */
+  public boolean cancel(String key) {
+    Pending waiting = pending.remove(key);
+    if (waiting == null)
+      return false;
+    waiting.future.cancel(false);
+    return true;
+  }
+
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  private long maxWait() {
+    return maxWait > 0 ? Math.max(maxWait, window) : 4 * window;
+  }
+
+  private void apply(String key, Pending settled) {
+    // a newer change may already have replaced this one
+    if (!pending.remove(key, settled))
+      return;
+    try {
+      settled.change.run();
+    } catch (Exception e) {
+      logger.error("Error applying settled state change for " + key + ":  " + e.getMessage());
+    }
+  }
+
+  private static class Pending {
+    private final Runnable change;
+    private final long first;
+    private ScheduledFuture<?> future;
+
+    Pending(Runnable change, long first) {
+      this.change = change;
+      this.first = first;
+    }
+  }
+
+}
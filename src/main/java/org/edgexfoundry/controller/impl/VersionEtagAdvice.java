@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.io.IOException;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Tags the read of a single object with its version. The ETag is the latest modified time of the
+ * object and of the addressables, profile, service and commands written inside it, so a change to
+ * any of them changes the tag. It is the same value an If-Match on update is checked against, so a
+ * client can send back the tag it read to make its update conditional. A read whose If-None-Match
+ * names the current version is answered with a body-less 304. Lists are not tagged.
+ */
+@ControllerAdvice
+public class VersionEtagAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType,
+      Class<? extends HttpMessageConverter<?>> converterType) {
+    // asynchronous handlers declare a future, so the body itself is checked
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType,
+      MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request, ServerHttpResponse response) {
+    if (!(body instanceof BaseObject) || !isRead(request.getMethod()))
+      return body;
+    BaseObject object = (BaseObject) body;
+    response.getHeaders().setETag(IfMatch.etag(object));
+    if (!IfMatch.matches(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), object))
+      return body;
+    response.setStatusCode(HttpStatus.NOT_MODIFIED);
+    try {
+      // nothing is written, so the headers go out here
+      response.flush();
+    } catch (IOException e) {
+      throw new ServiceException(e);
+    }
+    return null;
+  }
+
+  private boolean isRead(HttpMethod method) {
+    return method == HttpMethod.GET || method == HttpMethod.HEAD;
+  }
+
+}
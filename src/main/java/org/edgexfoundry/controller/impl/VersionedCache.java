@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, least recently used cache of values derived from stored objects. Each entry remembers
+ * the version of the object it was derived from and is only returned for that version, so a
+ * changed object misses without the cache having to be told. A value is only put if the cache has
+ * not been cleared since the generation its caller took, so a value derived before a clear is not
+ * put back after it.
+ */
+public class VersionedCache<V> {
+
+  private final Map<String, Entry<V>> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  // bumped by every clear
+  private final AtomicLong generation = new AtomicLong();
+
+  public VersionedCache(int capacity) {
+    entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        return size() > capacity;
+      }
+    });
+  }
+
+  /**
+   * @return the value cached for this version of the object, or null
+   */
+  public V get(String key, long version) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.version == version) {
+      hits.incrementAndGet();
+      return entry.value;
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * @return the generation to put values with; take it before reading the object they derive from
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Cache the value unless the cache has been cleared since the generation was taken.
+   */
+  public void put(String key, long version, V value, long generation) {
+    synchronized (entries) {
+      if (this.generation.get() == generation)
+        entries.put(key, new Entry<>(version, value));
+    }
+  }
+
+  public void evict(String key) {
+    entries.remove(key);
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private static class Entry<V> {
+
+    private final long version;
+
+    private final V value;
+
+    Entry(long version, V value) {
+      this.version = version;
+      this.value = value;
+    }
+
+  }
+
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller.impl;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+
+/**
+ * The version of an object as it is read. Devices, profiles and services are read with the
+ * addressables, profile, service and commands they reference written inside them, and a change to
+ * one of those does not touch the referencing object's modified time. The version is therefore the
+ * latest modified time of the object and everything written inside it. Modified times come from
+ * the VersionClock, which never repeats or goes back, so this moves whenever any of them changes.
+ */
+final class Versions {
+
+  private Versions() {}
+
+  static long of(BaseObject object) {
+    if (object instanceof Device)
+      return of((Device) object);
+    if (object instanceof DeviceProfile)
+      return of((DeviceProfile) object);
+    if (object instanceof DeviceService)
+      return of((DeviceService) object);
+    return modified(object);
+  }
+
+  private static long of(Device device) {
+    return Math.max(Math.max(device.getModified(), modified(device.getAddressable())),
+        Math.max(device.getProfile() == null ? 0 : of(device.getProfile()),
+            device.getService() == null ? 0 : of(device.getService())));
+  }
+
+  private static long of(DeviceProfile profile) {
+    long version = profile.getModified();
+    if (profile.getCommands() != null)
+      for (Command command : profile.getCommands())
+        version = Math.max(version, modified(command));
+    return version;
+  }
+
+  private static long of(DeviceService service) {
+    return Math.max(service.getModified(), modified(service.getAddressable()));
+  }
+
+  private static long modified(BaseObject object) {
+    return object == null ? 0 : object.getModified();
+  }
+
+}
@@ -18,8 +18,9 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.Asset;
@@ -47,6 +48,13 @@ public class AddressableDao {
     return repos.findOne(id);
   }
 
+  public List<Addressable> getByIds(Collection<String> ids) {
+    List<Addressable> addressables = new ArrayList<>();
+    if (!ids.isEmpty())
+      repos.findAll(ids).forEach(addressables::add);
+    return addressables;
+  }
+
   public Addressable getByName(String name) {
     return repos.findByName(name);
   }
@@ -68,8 +76,7 @@ public class AddressableDao {
   }
 
   public List<Asset> getOwningServices(Addressable addressable) {
-    return getAssociatedDevices(addressable).stream().map(Device::getService)
-        .collect(Collectors.toList());
+    return DeviceDao.getOwningServices(getAssociatedDevices(addressable));
   }
 
   private List<Device> getAssociatedDevices(Addressable addressable) {
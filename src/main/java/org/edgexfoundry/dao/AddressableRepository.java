@@ -18,6 +18,7 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.Addressable;
@@ -29,6 +30,8 @@ public interface AddressableRepository extends MongoRepository<Addressable, Stri
 
   Addressable findByName(String name);
 
+  List<Addressable> findByNameIn(Collection<String> names);
+
   List<Addressable> findByAddress(String address);
 
   Page<Addressable> findByAddress(String address, Pageable pageable);
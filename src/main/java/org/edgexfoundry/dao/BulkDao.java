@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBObject;
+
+/**
+ * Inserts many objects of one type in a single unordered bulk write. A failed insert (such as a
+ * duplicate name) does not stop the others; failures are reported by position so the caller can
+ * tell which objects were not stored.
+ */
+@Component
+public class BulkDao {
+
+  private static final String ID = "_id";
+
+  private static final int DUPLICATE_KEY = 11000;
+
+  @Autowired
+  private MongoTemplate template;
+
+  @Autowired
+  private VersionClock clock;
+
+  /**
+   * Assign ids and timestamps to the objects and insert them.
+   * 
+   * @return error message by list index for the objects that could not be inserted
+   */
+  public <T extends BaseObject> Map<Integer, String> insert(Class<T> type, List<T> objects) {
+    if (objects.isEmpty())
+      return Collections.emptyMap();
+    // auditing only applies to save, so the timestamps are set here, from the same clock
+    long now = clock.next();
+    BulkWriteOperation bulk =
+        template.getCollection(template.getCollectionName(type)).initializeUnorderedBulkOperation();
+    for (T object : objects) {
+      object.setId(new ObjectId().toString());
+      object.setCreated(now);
+      object.setModified(now);
+      DBObject document = new BasicDBObject();
+      template.getConverter().write(object, document);
+      bulk.insert(document);
+    }
+    try {
+      bulk.execute();
+      return Collections.emptyMap();
+    } catch (BulkWriteException e) {
+      if (e.getWriteConcernError() != null)
+        throw e;
+      Map<Integer, String> errors = new HashMap<>();
+      for (BulkWriteError error : e.getWriteErrors())
+        errors.put(error.getIndex(),
+            error.getCode() == DUPLICATE_KEY ? "Name is not unique" : error.getMessage());
+      return errors;
+    }
+  }
+
+  public void remove(Class<?> type, Collection<String> ids) {
+    if (!ids.isEmpty())
+      template.remove(query(where(ID).in(ids)), type);
+  }
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records the fields an update actually changes. Each proposed value is compared with the current
+ * one; only a differing value is applied to the object and added to the $set, so re-sending an
+ * identical object results in an empty change set and no write.
+ */
+public class ChangeSet {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Update update = new Update();
+
+  private final List<String> fields = new ArrayList<>();
+
+  /**
+   * Apply the proposed value if it differs from the current value. Arrays are compared by content,
+   * and other objects, such as lists of domain objects without an equals of their own, by their
+   * JSON trees.
+   * 
+   * @return true if the field changed
+   */
+  public <T> boolean set(String field, T current, T proposed, Consumer<? super T> setter) {
+    if (Objects.deepEquals(current, proposed) || sameContent(current, proposed))
+      return false;
+    setter.accept(proposed);
+    record(field, proposed);
+    return true;
+  }
+
+  /**
+   * Apply the proposed reference if it points to a different document than the current one.
+   * References are compared by database generated id only.
+   * 
+   * @return true if the reference changed
+   */
+  public <T extends BaseObject> boolean setReference(String field, T current, T proposed,
+      Consumer<? super T> setter) {
+    if (Objects.equals(idOf(current), idOf(proposed)))
+      return false;
+    setter.accept(proposed);
+    record(field, proposed);
+    return true;
+  }
+
+  public boolean isEmpty() {
+    return fields.isEmpty();
+  }
+
+  public List<String> getFields() {
+    return Collections.unmodifiableList(fields);
+  }
+
+  Update toUpdate(long modified) {
+    return update.set(DocumentDao.MODIFIED, modified);
+  }
+
+  private void record(String field, Object value) {
+    update.set(field, value);
+    if (!fields.contains(field))
+      fields.add(field);
+  }
+
+  private static boolean sameContent(Object current, Object proposed) {
+    if (current == null || proposed == null || isSimple(current) || isSimple(proposed))
+      return false;
+    try {
+      JsonNode tree = MAPPER.valueToTree(current);
+      return tree.equals(MAPPER.valueToTree(proposed));
+    } catch (IllegalArgumentException e) {
+      // not serializable; treat as changed
+      return false;
+    }
+  }
+
+  // values whose own equals is already by content
+  private static boolean isSimple(Object value) {
+    return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+        || value instanceof Enum || value.getClass().isArray();
+  }
+
+  private static String idOf(BaseObject reference) {
+    return reference == null ? null : reference.getId();
+  }
+
+}
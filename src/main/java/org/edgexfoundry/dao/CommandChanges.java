@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.edgexfoundry.domain.meta.Command;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The difference between the commands stored for a profile and a proposed replacement list.
+ * Proposed commands are matched to stored ones by id, or by name when the id is absent or unknown
+ * (names are unique within a profile). A matched command whose content is unchanged is kept as
+ * stored. One whose content differs keeps the stored id and created time and is replaced in place,
+ * so devices and clients holding the command's id still find it. An unmatched command with an id
+ * is taken to be an existing command from elsewhere and is written over in place, as before.
+ */
+public class CommandChanges {
+
+  // bookkeeping fields, not content
+  private static final List<String> IGNORED = Arrays.asList("id", "created", "modified");
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final List<Command> commands = new ArrayList<>();
+
+  private final List<Command> added = new ArrayList<>();
+
+  private final List<Command> updated = new ArrayList<>();
+
+  private final List<Command> replaced = new ArrayList<>();
+
+  private final List<Command> removed;
+
+  public CommandChanges(List<Command> current, List<Command> proposed) {
+    List<Command> stored = current == null ? Collections.<Command>emptyList() : current;
+    Map<String, Command> byId = new HashMap<>();
+    Map<String, Command> byName = new HashMap<>();
+    for (Command command : stored) {
+      if (command.getId() != null)
+        byId.put(command.getId(), command);
+      byName.put(command.getName(), command);
+    }
+    Set<Command> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Command command : proposed) {
+      Command old = command.getId() == null ? null : byId.get(command.getId());
+      if (old == null)
+        old = byName.get(command.getName());
+      if (old != null && matched.add(old)) {
+        if (content(old).equals(content(command))) {
+          commands.add(old);
+          continue;
+        }
+        // a changed command is written over the stored one, under the same id
+        command.setId(old.getId());
+        command.setCreated(old.getCreated());
+        replaced.add(command);
+      } else if (old == null && command.getId() != null) {
+        // an existing command from outside this profile; written over as a save would
+        updated.add(command);
+      } else {
+        // a new command; the id is assigned when it is written
+        command.setId(null);
+        added.add(command);
+      }
+      commands.add(command);
+    }
+    removed = stored.stream().filter(c -> !matched.contains(c)).collect(Collectors.toList());
+  }
+
+  /**
+   * @return the commands the profile should reference, in the proposed order
+   */
+  public List<Command> getCommands() {
+    return commands;
+  }
+
+  public List<Command> getAdded() {
+    return added;
+  }
+
+  /**
+   * @return commands from outside the profile, written over in place
+   */
+  public List<Command> getUpdated() {
+    return updated;
+  }
+
+  /**
+   * @return commands of the profile whose content changed, written over in place
+   */
+  public List<Command> getReplaced() {
+    return replaced;
+  }
+
+  public List<Command> getRemoved() {
+    return removed;
+  }
+
+  public boolean isEmpty() {
+    return added.isEmpty() && updated.isEmpty() && replaced.isEmpty() && removed.isEmpty();
+  }
+
+  private static ObjectNode content(Command command) {
+    ObjectNode node = MAPPER.valueToTree(command);
+    node.remove(IGNORED);
+    return node;
+  }
+
+}
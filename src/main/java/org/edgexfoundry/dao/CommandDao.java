@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.Command;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBObject;
+
+/**
+ * Applies a profile's command changes. New commands are inserted in one ordered bulk write before
+ * the profile is switched to the new list, so it never references a command that does not exist;
+ * a command from outside the profile is written over in the same write, as before. Changed commands
+ * keep their ids and are replaced in place in one ordered bulk write after the switch, and the
+ * commands the profile no longer references are deleted with one query after that.
+ * 
+ * Between the switch and the replacement, and while the replacement runs, a reader resolving the
+ * profile can see a mixed list: the new list, with changed commands still holding their previous
+ * content. The window lasts one bulk write and closes without further action; a reader that needs
+ * the finished update compares the profile's version, which includes its commands' modified times.
+ */
+@Component
+public class CommandDao {
+
+  private static final String ID = "_id";
+
+  @Autowired
+  private MongoTemplate template;
+
+  @Autowired
+  private VersionClock clock;
+
+  /**
+   * Insert the added commands and replace (or upsert) the ones from outside the profile in a single
+   * bulk write. Added commands are given their ids here so the profile can reference them.
+   */
+  public void write(CommandChanges changes) {
+    if (changes.getAdded().isEmpty() && changes.getUpdated().isEmpty())
+      return;
+    // auditing only applies to save, so the timestamps are set here, from the same clock
+    long now = clock.next();
+    BulkWriteOperation bulk = template.getCollection(template.getCollectionName(Command.class))
+        .initializeOrderedBulkOperation();
+    for (Command command : changes.getAdded()) {
+      command.setId(new ObjectId().toString());
+      command.setCreated(now);
+      command.setModified(now);
+      bulk.insert(toDocument(command));
+    }
+    for (Command command : changes.getUpdated()) {
+      command.setModified(now);
+      DBObject document = toDocument(command);
+      bulk.find(new BasicDBObject(ID, document.get(ID))).upsert().replaceOne(document);
+    }
+    bulk.execute();
+  }
+
+  /**
+   * Replace the changed commands in place, in a single bulk write, then delete the commands no
+   * longer referenced by the profile. Call once the profile has been switched to the new list.
+   */
+  public void finish(CommandChanges changes) {
+    if (!changes.getReplaced().isEmpty()) {
+      long now = clock.next();
+      BulkWriteOperation bulk = template.getCollection(template.getCollectionName(Command.class))
+          .initializeOrderedBulkOperation();
+      for (Command command : changes.getReplaced()) {
+        command.setModified(now);
+        DBObject document = toDocument(command);
+        bulk.find(new BasicDBObject(ID, document.get(ID))).upsert().replaceOne(document);
+      }
+      bulk.execute();
+    }
+    if (changes.getRemoved().isEmpty())
+      return;
+    List<String> ids =
+        changes.getRemoved().stream().map(Command::getId).collect(Collectors.toList());
+    template.remove(query(where(ID).in(ids)), Command.class);
+  }
+
+  /**
+   * Delete the commands inserted by {@link #write(CommandChanges)}. Call when the profile could not
+   * be switched to the new list, so the copies are not left unreferenced.
+   */
+  public void discard(CommandChanges changes) {
+    if (changes.getAdded().isEmpty())
+      return;
+    List<String> ids = changes.getAdded().stream().map(Command::getId).filter(id -> id != null)
+        .collect(Collectors.toList());
+    template.remove(query(where(ID).in(ids)), Command.class);
+  }
+
+  private DBObject toDocument(Command command) {
+    DBObject document = new BasicDBObject();
+    template.getConverter().write(command, document);
+    return document;
+  }
+
+}
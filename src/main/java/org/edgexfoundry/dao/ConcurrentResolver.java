@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.edgexfoundry.exception.controller.DataValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs independent association lookups concurrently on the DAO executor so that the latency of a
+ * write is that of its slowest lookup rather than the sum of all of them. A missing association
+ * fails the whole resolution as soon as it is known, without waiting on the other lookups.
+ */
+@Component
+public class ConcurrentResolver {
+
+  private final Executor executor;
+
+  @Autowired
+  public ConcurrentResolver(@Qualifier("daoExecutor") Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Start a lookup that must find something. The returned future completes exceptionally with a
+   * DataValidationException carrying the message provided when the lookup returns null.
+   * 
+   * @param lookup - the database query
+   * @param message - validation message when nothing is found
+   * @return future result of the lookup
+   */
+  public <T> CompletableFuture<T> require(Supplier<T> lookup, String message) {
+    return CompletableFuture.supplyAsync(() -> {
+      T found = lookup.get();
+      if (found == null)
+        throw new DataValidationException(message);
+      return found;
+    }, executor);
+  }
+
+  /**
+   * Wait for all of the lookups to complete, rethrowing the first failure as soon as it occurs.
+   * 
+   * @param lookups - lookups started with require
+   */
+  public void awaitAll(CompletableFuture<?>... lookups) {
+    CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+    for (CompletableFuture<?> lookup : lookups)
+      lookup.whenComplete((result, e) -> {
+        if (e != null)
+          firstFailure.completeExceptionally(e);
+      });
+    try {
+      CompletableFuture.anyOf(CompletableFuture.allOf(lookups), firstFailure).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
+}
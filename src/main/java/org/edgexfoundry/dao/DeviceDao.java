@@ -18,16 +18,36 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.edgexfoundry.domain.meta.Asset;
 import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
 @Component
 public class DeviceDao {
 
   @Autowired
   private DeviceRepository repos;
 
+  @Autowired
+  private MongoTemplate template;
+
   public Device getByIdOrName(Device device) {
     if (device == null)
       return null;
@@ -36,4 +56,45 @@ public class DeviceDao {
     return repos.findByName(device.getName());
   }
 
+  /**
+   * Device services of the given devices, each service once, in the order first met; devices of
+   * one service commonly share a profile or an addressable.
+   */
+  static List<Asset> getOwningServices(Collection<Device> devices) {
+    Map<String, Asset> services = new LinkedHashMap<>();
+    for (Device device : devices)
+      if (device.getService() != null)
+        services.putIfAbsent(device.getService().getId(), device.getService());
+    return new ArrayList<>(services.values());
+  }
+
+  /**
+   * Ids of the distinct addressables of the devices of a service, found by a server side distinct
+   * over the device collection so no device document is read or mapped.
+   */
+  public List<String> getAddressableIdsForService(DeviceService service) {
+    DBObject query = new BasicDBObject("service", template.getConverter().toDBRef(service, null));
+    List<?> refs = template.getCollection(template.getCollectionName(Device.class))
+        .distinct("addressable", query);
+    return refs.stream().filter(DBRef.class::isInstance)
+        .map(ref -> String.valueOf(((DBRef) ref).getId())).collect(Collectors.toList());
+  }
+
+  /**
+   * Set the admin or op state of the devices with the given ids, and stamp them with the modified
+   * time, in a single multi-document update. Devices already in the state, or modified at or after
+   * the time given, are left alone; the modified time is the version, so it must move forward.
+   * 
+   * @param field - adminState or operatingState
+   * @return the number of devices changed
+   */
+  public int updateState(Collection<String> ids, String field, Enum<?> state, long modified) {
+    if (ids.isEmpty())
+      return 0;
+    Query query = new Query(Criteria.where("id").in(ids).and(field).ne(state)
+        .and(DocumentDao.MODIFIED).lt(modified));
+    Update update = Update.update(field, state).set(DocumentDao.MODIFIED, modified);
+    return template.updateMulti(query, update, Device.class).getN();
+  }
+
 }
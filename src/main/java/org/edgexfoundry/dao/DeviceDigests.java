@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A hash tree over the devices of each device service, so a device service can find the devices
+ * that changed since it last synchronized by comparing digests from the root down, instead of
+ * downloading all of them.
+ * 
+ * The tree of a service is a complete binary tree of the configured depth, numbered as a heap:
+ * node 1 is the root and node n has children 2n and 2n + 1. A device belongs to the bucket (leaf)
+ * given by the top depth bits of h(name), and the digest of a bucket is the xor of h(name + "\n" +
+ * modified) over its devices. The digest of an inner node is h(left || right) over the 16 big
+ * endian bytes of its children's digests, or 0 if both are 0. h is the first 8 bytes, big endian,
+ * of the SHA-1 of the UTF-8 bytes. Xor lets a write update its bucket without reading the other
+ * devices in it, so each write costs depth + 2 hashes.
+ * 
+ * The trees hold only the digests. {@link DeviceIndex} toggles a device in and out of its bucket
+ * as it indexes and unindexes the device's row, and lists the devices of a bucket from its rows.
+ * Not thread safe - the index's lock guards it.
+ */
+class DeviceDigests {
+
+  static final int MAX_DEPTH = 16;
+
+  private final MessageDigest sha1;
+
+  private int depth;
+
+  // tree of each service, by the dictionary code of its id; services without devices have none
+  private final Map<Integer, Tree> trees = new HashMap<>();
+
+  DeviceDigests(int depth) {
+    try {
+      sha1 = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    clear(depth);
+  }
+
+  void clear(int depth) {
+    this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+    trees.clear();
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * @return true if the node number is in the trees
+   */
+  boolean isNode(int node) {
+    return node >= 1 && node < 2 << depth;
+  }
+
+  boolean isBucket(int node) {
+    return node >= 1 << depth && isNode(node);
+  }
+
+  /**
+   * @return the bucket of a device, given h(name)
+   */
+  int bucket(long nameHash) {
+    return (1 << depth) + (int) (nameHash >>> (64 - depth));
+  }
+
+  /**
+   * @return the digest of a node of a service's tree, 0 if the service has no devices
+   */
+  long digest(int service, int node) {
+    Tree tree = trees.get(service);
+    return tree == null ? 0 : tree.digests[node];
+  }
+
+  // xor is its own inverse, so adding and removing a device change the digests the same way
+  void toggle(int service, long nameHash, String name, long modified, boolean add) {
+    Tree tree = trees.computeIfAbsent(service, s -> new Tree(depth));
+    int node = bucket(nameHash);
+    tree.digests[node] ^= hash(name + "\n" + modified);
+    for (node >>= 1; node >= 1; node >>= 1)
+      tree.digests[node] = combine(tree.digests[2 * node], tree.digests[2 * node + 1]);
+    tree.devices += add ? 1 : -1;
+    if (tree.devices == 0)
+      trees.remove(service);
+  }
+
+  long hash(String value) {
+    return first8(sha1.digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private long combine(long left, long right) {
+    if (left == 0 && right == 0)
+      return 0;
+    byte[] bytes = new byte[16];
+    for (int i = 0; i < 8; i++) {
+      bytes[i] = (byte) (left >>> (56 - 8 * i));
+      bytes[8 + i] = (byte) (right >>> (56 - 8 * i));
+    }
+    return first8(sha1.digest(bytes));
+  }
+
+  private static long first8(byte[] bytes) {
+    long value = 0;
+    for (int i = 0; i < 8; i++)
+      value = (value << 8) | (bytes[i] & 0xff);
+    return value;
+  }
+
+  private static final class Tree {
+
+    final long[] digests;
+
+    int devices;
+
+    Tree(int depth) {
+      digests = new long[2 << depth];
+    }
+
+  }
+
+}
@@ -0,0 +1,913 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+/**
+ * Keeps the fields devices are looked up by in memory, one row per device. Every string (device
+ * ids and names, labels, service, profile and addressable ids) is interned in a {@link Dictionary}
+ * and rows hold only its int codes in primitive arrays, so a large fleet costs a few dozen bytes
+ * per device rather than a graph of objects. The index is loaded from the raw device documents at
+ * start, without resolving their references, and kept current as a {@link DeviceWriteListener}.
+ * Each row keeps the device's modified time, and a write older than it, or than the device's
+ * recent delete, is ignored, so writes passed on out of order cannot bring back an old row.
+ * Lookups return device ids; {@link #isLoaded()} is false if the load failed, and callers then
+ * query the repository instead.
+ * 
+ * Each label, service, profile, addressable and state also keeps a bitmap of the rows holding it.
+ * Rows are reused as devices come and go, so row numbers stay dense and plain bitsets stay small.
+ * Lookups read one bitmap and {@link #select(Function)} combines them for multi-criteria search;
+ * only time ranges are answered by scanning their column. Each service also counts the devices
+ * using each addressable, so the distinct addressables of a service are read directly, and the
+ * device counts per service, profile and state are the sizes of those bitmaps.
+ * 
+ * Each row also keeps h(name), so the {@link DeviceDigests} hash tree of a service is updated as
+ * its rows are indexed and the devices of a bucket are listed from the service's bitmap, without a
+ * copy of the devices held for the trees.
+ * 
+ * Every reconcile period a single group aggregation recounts the collection; only if it disagrees
+ * with the index (a write that bypassed the listeners, or a failed load) is it loaded again.
+ */
+@Component
+public class DeviceIndex implements DeviceWriteListener {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(DeviceIndex.class);
+
+  private static final int NONE = Dictionary.NONE;
+
+  private static final int[] NO_LABELS = new int[0];
+
+  private static final BitSet EMPTY = new BitSet();
+
+  private static final int LOAD_BATCH = 1000;
+
+  private static final int RECONCILE_ATTEMPTS = 3;
+
+  private static final String COUNT = "count";
+
+  private static final DBObject FIELDS = new BasicDBObject("name", 1).append("labels", 1)
+      .append("service", 1).append("profile", 1).append("addressable", 1)
+      .append("adminState", 1).append("operatingState", 1).append("lastConnected", 1)
+      .append("lastReported", 1).append("modified", 1);
+
+  @Autowired
+  private MongoTemplate template;
+
+  @Value("${device.digest.depth:8}")
+  private int digestDepth = 8;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Dictionary dictionary = new Dictionary();
+
+  private volatile boolean loaded;
+
+  private final Object loading = new Object();
+
+  // bumped by every listener write, so a reconcile can tell whether one landed while it counted
+  private long writes;
+
+  // state changes made while a load scans, applied again once it has finished; null otherwise
+  private List<Runnable> missed;
+
+  private volatile long reconciled;
+
+  private volatile long drifts;
+
+  // columns, one entry per row; a free row has id NONE
+  private int[] id = new int[0];
+  private int[] name = new int[0];
+  private int[] service = new int[0];
+  private int[] profile = new int[0];
+  private int[] addressable = new int[0];
+  private int[][] labels = new int[0][];
+  private byte[] adminState = new byte[0];
+  private byte[] operatingState = new byte[0];
+  private long[] lastConnected = new long[0];
+  private long[] lastReported = new long[0];
+  private long[] modified = new long[0];
+  private long[] nameHash = new long[0];
+
+  // rows by the dictionary code of the device id and name
+  private int[] rowById = new int[0];
+  private int[] rowByName = new int[0];
+
+  private int rows;
+
+  private int[] freeRows = new int[16];
+
+  private int freeCount;
+
+  private final Tombstones tombstones = new Tombstones();
+
+  private final DeviceDigests digests = new DeviceDigests(digestDepth);
+
+  // rows by code (or state ordinal) of the value they hold
+  private final Map<Integer, BitSet> byLabel = new HashMap<>();
+  private final Map<Integer, BitSet> byService = new HashMap<>();
+  private final Map<Integer, BitSet> byProfile = new HashMap<>();
+  private final Map<Integer, BitSet> byAddressable = new HashMap<>();
+  private final Map<Integer, BitSet> byAdminState = new HashMap<>();
+  private final Map<Integer, BitSet> byOperatingState = new HashMap<>();
+  private final BitSet live = new BitSet();
+
+  // distinct addressables of each service, with the number of its devices using each
+  private final Map<Integer, Map<Integer, Integer>> addressablesByService = new HashMap<>();
+
+  private final Rows view = new IndexRows();
+
+  /**
+   * (Re)load the index from the device collection. The scan takes the lock only to apply each
+   * batch of documents, so listener writes are not held up by it. A document older than what a
+   * listener wrote meanwhile, or than the device's delete, is skipped, and state changes made
+   * during the scan are applied again once it has finished. Lookups query instead until then.
+   */
+  @PostConstruct
+  public void load() {
+    synchronized (loading) {
+      lock.writeLock().lock();
+      try {
+        loaded = false;
+        clear();
+        missed = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      boolean complete = false;
+      try {
+        DBCursor cursor = template.getCollection(template.getCollectionName(Device.class))
+            .find(new BasicDBObject(), FIELDS);
+        try {
+          List<DBObject> batch = new ArrayList<>();
+          while (cursor.hasNext()) {
+            batch.add(cursor.next());
+            if (batch.size() == LOAD_BATCH)
+              apply(batch);
+          }
+          apply(batch);
+        } finally {
+          cursor.close();
+        }
+        complete = true;
+      } catch (Exception e) {
+        logger.error("Unable to load the device index, lookups will query instead:  "
+            + e.getMessage());
+      }
+      lock.writeLock().lock();
+      try {
+        List<Runnable> changes = missed;
+        missed = null;
+        if (!complete) {
+          clear();
+          return;
+        }
+        changes.forEach(Runnable::run);
+        reconciled = System.currentTimeMillis();
+        loaded = true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Recount the collection with one aggregation and load the index again if it drifted. The
+   * recount runs without the lock and is compared with the counts as they were before it ran; if
+   * they differ but a write came through the listeners in the meantime, the recount may or may
+   * not include it, so it is taken again rather than reported as drift.
+   */
+  @Scheduled(fixedDelayString = "${device.index.reconcile:300000}")
+  public void reconcile() {
+    try {
+      for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+        Counts expected;
+        long before;
+        lock.readLock().lock();
+        try {
+          expected = counts();
+          before = writes;
+        } finally {
+          lock.readLock().unlock();
+        }
+        Counts actual = aggregate();
+        lock.readLock().lock();
+        try {
+          if (loaded && actual.equals(expected)) {
+            reconciled = System.currentTimeMillis();
+            return;
+          }
+          if (loaded && writes != before)
+            continue;
+        } finally {
+          lock.readLock().unlock();
+        }
+        logger.info("Device index drifted from the collection, reloading");
+        drifts++;
+        load();
+        return;
+      }
+      logger.info("Device index kept changing while being reconciled, trying next period");
+    } catch (Exception e) {
+      logger.error("Unable to reconcile the device index:  " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return when the index was last loaded or confirmed against the collection
+   */
+  public long getReconciled() {
+    return reconciled;
+  }
+
+  /**
+   * @return how many reconciliations found the index had drifted
+   */
+  public long getDrifts() {
+    return drifts;
+  }
+
+  /**
+   * @return the number of devices in total and per service id, profile id, admin state and
+   *         operating state, read from the sizes of their row sets
+   */
+  public Counts counts() {
+    lock.readLock().lock();
+    try {
+      Counts counts = new Counts();
+      counts.total = rows - freeCount;
+      byService.forEach((code, rowsOf) -> counts.services.put(dictionary.value(code),
+          (long) rowsOf.cardinality()));
+      byProfile.forEach((code, rowsOf) -> counts.profiles.put(dictionary.value(code),
+          (long) rowsOf.cardinality()));
+      byAdminState.forEach((ordinal, rowsOf) -> counts.adminStates
+          .put(AdminState.values()[ordinal].name(), (long) rowsOf.cardinality()));
+      byOperatingState.forEach((ordinal, rowsOf) -> counts.operatingStates
+          .put(OperatingState.values()[ordinal].name(), (long) rowsOf.cardinality()));
+      return counts;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Counts aggregate() {
+    Aggregation aggregation = newAggregation(
+        group("service", "profile", "adminState", "operatingState").count().as(COUNT));
+    AggregationResults<DBObject> results =
+        template.aggregate(aggregation, Device.class, DBObject.class);
+    Counts actual = new Counts();
+    for (DBObject result : results.getMappedResults()) {
+      DBObject key = (DBObject) result.get("_id");
+      actual.add(refId(key.get("service")), refId(key.get("profile")),
+          (String) key.get("adminState"), (String) key.get("operatingState"),
+          ((Number) result.get(COUNT)).longValue());
+    }
+    return actual;
+  }
+
+  @Override
+  public void saved(Device device, long version) {
+    String[] deviceLabels = device.getLabels();
+    lock.writeLock().lock();
+    try {
+      writes++;
+      if (isStale(device.getId(), version))
+        return;
+      put(device.getId(), device.getName(), deviceLabels, idOf(device.getService()),
+          idOf(device.getProfile()), idOf(device.getAddressable()), device.getAdminState(),
+          device.getOperatingState(), device.getLastConnected(), device.getLastReported(),
+          version);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void deleted(Device device, long version) {
+    lock.writeLock().lock();
+    try {
+      writes++;
+      tombstones.add(device.getId(), version);
+      int row = row(rowById, dictionary.code(device.getId()));
+      if (row != NONE && modified[row] <= version)
+        remove(row);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void stateChanged(Collection<String> deviceIds, AdminState admin, OperatingState op,
+      long version) {
+    List<String> ids = new ArrayList<>(deviceIds);
+    lock.writeLock().lock();
+    try {
+      writes++;
+      // a device the load has not reached yet may be scanned as it was before the change
+      if (missed != null)
+        missed.add(() -> changeState(ids, admin, op, version));
+      changeState(ids, admin, op, version);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void changeState(List<String> deviceIds, AdminState admin, OperatingState op,
+      long version) {
+    for (String deviceId : deviceIds) {
+      int row = row(rowById, dictionary.code(deviceId));
+      if (row == NONE || version < modified[row])
+        continue;
+      index(row, false);
+      if (admin != null)
+        adminState[row] = ordinal(admin);
+      if (op != null)
+        operatingState[row] = ordinal(op);
+      modified[row] = version;
+      index(row, true);
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return rows - freeCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the id of the device with this name, or null
+   */
+  public String idForName(String deviceName) {
+    lock.readLock().lock();
+    try {
+      int row = row(rowByName, dictionary.code(deviceName));
+      return row == NONE ? null : dictionary.value(id[row]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean contains(String deviceId) {
+    lock.readLock().lock();
+    try {
+      return row(rowById, dictionary.code(deviceId)) != NONE;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<String> forLabel(String label) {
+    return select(rows -> rows.label(label));
+  }
+
+  public List<String> forService(String serviceId) {
+    return select(rows -> rows.service(serviceId));
+  }
+
+  public List<String> forProfile(String profileId) {
+    return select(rows -> rows.profile(profileId));
+  }
+
+  public List<String> forAddressable(String addressableId) {
+    return select(rows -> rows.addressable(addressableId));
+  }
+
+  public List<String> forAdminState(AdminState state) {
+    return select(rows -> rows.adminState(state));
+  }
+
+  public List<String> forOperatingState(OperatingState state) {
+    return select(rows -> rows.operatingState(state));
+  }
+
+  /**
+   * @param serviceId - device service's database generated identifier
+   * @return ids of the distinct addressables of the service's devices, read from a set kept per
+   *         service so the cost does not grow with the number of devices
+   */
+  public List<String> addressablesForService(String serviceId) {
+    lock.readLock().lock();
+    try {
+      Map<Integer, Integer> used = addressablesByService.get(dictionary.code(serviceId));
+      List<String> ids = new ArrayList<>();
+      if (used != null)
+        used.keySet().forEach(code -> ids.add(dictionary.value(code)));
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return true if the node number is in the digest trees
+   */
+  public boolean isDigestNode(int node) {
+    lock.readLock().lock();
+    try {
+      return digests.isNode(node);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * A node of the digest tree of a service, with its children's digests or, for a bucket, its
+   * devices.
+   * 
+   * @param serviceId - device service's database generated identifier
+   * @param node - heap number of the node, 1 for the root
+   */
+  public DigestNode digestNode(String serviceId, int node) {
+    lock.readLock().lock();
+    try {
+      if (!digests.isNode(node))
+        throw new IllegalArgumentException(
+            "No node " + node + " in trees of depth " + digests.getDepth());
+      int code = dictionary.code(serviceId);
+      DigestNode read = new DigestNode(digests.getDepth(), node, digest(code, node));
+      if (!digests.isBucket(node)) {
+        read.children = Arrays.asList(digest(code, 2 * node), digest(code, 2 * node + 1));
+        return read;
+      }
+      read.devices = new TreeMap<>();
+      BitSet rowsOf = code == NONE ? null : byService.get(code);
+      if (rowsOf != null)
+        for (int r = rowsOf.nextSetBit(0); r >= 0; r = rowsOf.nextSetBit(r + 1))
+          if (name[r] != NONE && digests.bucket(nameHash[r]) == node)
+            read.devices.put(dictionary.value(name[r]), modified[r]);
+      return read;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private String digest(int serviceCode, int node) {
+    return String.format("%016x", serviceCode == NONE ? 0 : digests.digest(serviceCode, node));
+  }
+
+  /**
+   * Evaluate a query over the index in one consistent view.
+   * 
+   * @param query - combines the row sets of the {@link Rows} view
+   * @return ids of the devices in the rows the query selects, in row order
+   */
+  public List<String> select(Function<Rows, BitSet> query) {
+    lock.readLock().lock();
+    try {
+      BitSet selected = query.apply(view);
+      List<String> ids = new ArrayList<>(selected.cardinality());
+      for (int r = selected.nextSetBit(0); r >= 0; r = selected.nextSetBit(r + 1))
+        if (r < rows && id[r] != NONE)
+          ids.add(dictionary.value(id[r]));
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * The row sets a query is built from. Sets are shared with the index and must not be modified;
+   * combine them into the set returned by {@link #all()}, which is a new one on each call.
+   */
+  public interface Rows {
+
+    BitSet all();
+
+    BitSet label(String label);
+
+    BitSet service(String serviceId);
+
+    BitSet profile(String profileId);
+
+    BitSet addressable(String addressableId);
+
+    BitSet adminState(AdminState state);
+
+    BitSet operatingState(OperatingState state);
+
+    /**
+     * @param from - earliest time included, or null for no lower bound
+     * @param to - latest time included, or null for no upper bound
+     */
+    BitSet lastConnected(Long from, Long to);
+
+  }
+
+  /**
+   * Number of devices in total and per service id, profile id, admin state and operating state.
+   * Devices without a service or profile are only in the total.
+   */
+  public static class Counts {
+
+    private long total;
+
+    private final Map<String, Long> services = new TreeMap<>();
+
+    private final Map<String, Long> profiles = new TreeMap<>();
+
+    private final Map<String, Long> adminStates = new TreeMap<>();
+
+    private final Map<String, Long> operatingStates = new TreeMap<>();
+
+    public long getTotal() {
+      return total;
+    }
+
+    public Map<String, Long> getServices() {
+      return services;
+    }
+
+    public Map<String, Long> getProfiles() {
+      return profiles;
+    }
+
+    public Map<String, Long> getAdminStates() {
+      return adminStates;
+    }
+
+    public Map<String, Long> getOperatingStates() {
+      return operatingStates;
+    }
+
+    void add(String serviceId, String profileId, String admin, String op, long n) {
+      total += n;
+      add(services, serviceId, n);
+      add(profiles, profileId, n);
+      add(adminStates, admin, n);
+      add(operatingStates, op, n);
+    }
+
+    private static void add(Map<String, Long> counts, String key, long n) {
+      if (key != null)
+        counts.merge(key, n, Long::sum);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Counts))
+        return false;
+      Counts other = (Counts) o;
+      return total == other.total && services.equals(other.services)
+          && profiles.equals(other.profiles) && adminStates.equals(other.adminStates)
+          && operatingStates.equals(other.operatingStates);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(total, services, profiles, adminStates, operatingStates);
+    }
+
+  }
+
+  /**
+   * A node of a service's digest tree. Inner nodes list the digests of their two children; buckets
+   * list the version (modified time) of each of their devices by name.
+   */
+  public static class DigestNode {
+
+    private final int depth;
+
+    private final int node;
+
+    private final String digest;
+
+    private List<String> children;
+
+    private Map<String, Long> devices;
+
+    DigestNode(int depth, int node, String digest) {
+      this.depth = depth;
+      this.node = node;
+      this.digest = digest;
+    }
+
+    public int getDepth() {
+      return depth;
+    }
+
+    public int getNode() {
+      return node;
+    }
+
+    public String getDigest() {
+      return digest;
+    }
+
+    public List<String> getChildren() {
+      return children;
+    }
+
+    public Map<String, Long> getDevices() {
+      return devices;
+    }
+
+  }
+
+  private class IndexRows implements Rows {
+
+    @Override
+    public BitSet all() {
+      return (BitSet) live.clone();
+    }
+
+    @Override
+    public BitSet label(String label) {
+      return rows(byLabel, dictionary.code(label));
+    }
+
+    @Override
+    public BitSet service(String serviceId) {
+      return rows(byService, dictionary.code(serviceId));
+    }
+
+    @Override
+    public BitSet profile(String profileId) {
+      return rows(byProfile, dictionary.code(profileId));
+    }
+
+    @Override
+    public BitSet addressable(String addressableId) {
+      return rows(byAddressable, dictionary.code(addressableId));
+    }
+
+    @Override
+    public BitSet adminState(AdminState state) {
+      return rows(byAdminState, ordinal(state));
+    }
+
+    @Override
+    public BitSet operatingState(OperatingState state) {
+      return rows(byOperatingState, ordinal(state));
+    }
+
+    @Override
+    public BitSet lastConnected(Long from, Long to) {
+      long low = from == null ? Long.MIN_VALUE : from;
+      long high = to == null ? Long.MAX_VALUE : to;
+      BitSet matched = new BitSet();
+      for (int r = live.nextSetBit(0); r >= 0; r = live.nextSetBit(r + 1))
+        if (lastConnected[r] >= low && lastConnected[r] <= high)
+          matched.set(r);
+      return matched;
+    }
+
+    private BitSet rows(Map<Integer, BitSet> byValue, int code) {
+      BitSet matched = code == NONE ? null : byValue.get(code);
+      return matched == null ? EMPTY : matched;
+    }
+
+  }
+
+  private void apply(List<DBObject> batch) {
+    lock.writeLock().lock();
+    try {
+      batch.forEach(this::put);
+      batch.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // a write older than the device's row or its recent delete
+  private boolean isStale(String deviceId, long version) {
+    int row = row(rowById, dictionary.code(deviceId));
+    return row != NONE && version < modified[row] || tombstones.buries(deviceId, version);
+  }
+
+  private void put(DBObject document) {
+    String deviceId = String.valueOf(document.get("_id"));
+    long version = number(document.get("modified"));
+    if (isStale(deviceId, version))
+      return;
+    Object values = document.get("labels");
+    String[] deviceLabels = null;
+    if (values instanceof List)
+      deviceLabels = ((List<?>) values).stream().map(String::valueOf).toArray(String[]::new);
+    put(deviceId, (String) document.get("name"), deviceLabels,
+        refId(document.get("service")), refId(document.get("profile")),
+        refId(document.get("addressable")), state(AdminState.class, document.get("adminState")),
+        state(OperatingState.class, document.get("operatingState")),
+        number(document.get("lastConnected")), number(document.get("lastReported")), version);
+  }
+
+  private void put(String deviceId, String deviceName, String[] deviceLabels, String serviceId,
+      String profileId, String addressableId, AdminState admin, OperatingState op,
+      long connected, long reported, long version) {
+    int row = row(rowById, dictionary.code(deviceId));
+    if (row != NONE)
+      remove(row);
+    row = freeCount > 0 ? freeRows[--freeCount] : rows++;
+    if (row == id.length)
+      grow(Math.max(16, row * 2));
+    id[row] = dictionary.acquire(deviceId);
+    name[row] = dictionary.acquire(deviceName);
+    service[row] = dictionary.acquire(serviceId);
+    profile[row] = dictionary.acquire(profileId);
+    addressable[row] = dictionary.acquire(addressableId);
+    labels[row] = acquire(deviceLabels);
+    adminState[row] = ordinal(admin);
+    operatingState[row] = ordinal(op);
+    lastConnected[row] = connected;
+    lastReported[row] = reported;
+    modified[row] = version;
+    nameHash[row] = deviceName == null ? 0 : digests.hash(deviceName);
+    index(row, true);
+    growKeys();
+    rowById[id[row]] = row;
+    if (name[row] != NONE)
+      rowByName[name[row]] = row;
+  }
+
+  private void remove(int row) {
+    index(row, false);
+    rowById[id[row]] = NONE;
+    if (name[row] != NONE && rowByName[name[row]] == row)
+      rowByName[name[row]] = NONE;
+    dictionary.release(id[row]);
+    dictionary.release(name[row]);
+    dictionary.release(service[row]);
+    dictionary.release(profile[row]);
+    dictionary.release(addressable[row]);
+    for (int label : labels[row])
+      dictionary.release(label);
+    id[row] = NONE;
+    labels[row] = NO_LABELS;
+    if (freeCount == freeRows.length)
+      freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+    freeRows[freeCount++] = row;
+  }
+
+  private void index(int row, boolean set) {
+    for (int label : labels[row])
+      index(byLabel, label, row, set);
+    index(byService, service[row], row, set);
+    index(byProfile, profile[row], row, set);
+    index(byAddressable, addressable[row], row, set);
+    index(byAdminState, adminState[row], row, set);
+    index(byOperatingState, operatingState[row], row, set);
+    live.set(row, set);
+    if (service[row] != NONE && addressable[row] != NONE)
+      count(service[row], addressable[row], set ? 1 : -1);
+    if (service[row] != NONE && name[row] != NONE)
+      digests.toggle(service[row], nameHash[row], dictionary.value(name[row]), modified[row], set);
+  }
+
+  private void count(int serviceCode, int addressableCode, int delta) {
+    Map<Integer, Integer> used =
+        addressablesByService.computeIfAbsent(serviceCode, c -> new HashMap<>());
+    used.merge(addressableCode, delta, (count, d) -> count + d == 0 ? null : count + d);
+    if (used.isEmpty())
+      addressablesByService.remove(serviceCode);
+  }
+
+  private void index(Map<Integer, BitSet> byValue, int code, int row, boolean set) {
+    if (code == NONE)
+      return;
+    if (set) {
+      byValue.computeIfAbsent(code, c -> new BitSet()).set(row);
+      return;
+    }
+    BitSet rowsOf = byValue.get(code);
+    if (rowsOf != null) {
+      rowsOf.clear(row);
+      if (rowsOf.isEmpty())
+        byValue.remove(code);
+    }
+  }
+
+  private int[] acquire(String[] values) {
+    if (values == null || values.length == 0)
+      return NO_LABELS;
+    int[] codes = new int[values.length];
+    for (int i = 0; i < values.length; i++)
+      codes[i] = dictionary.acquire(values[i]);
+    return codes;
+  }
+
+  private void grow(int capacity) {
+    id = Arrays.copyOf(id, capacity);
+    name = Arrays.copyOf(name, capacity);
+    service = Arrays.copyOf(service, capacity);
+    profile = Arrays.copyOf(profile, capacity);
+    addressable = Arrays.copyOf(addressable, capacity);
+    labels = Arrays.copyOf(labels, capacity);
+    adminState = Arrays.copyOf(adminState, capacity);
+    operatingState = Arrays.copyOf(operatingState, capacity);
+    lastConnected = Arrays.copyOf(lastConnected, capacity);
+    lastReported = Arrays.copyOf(lastReported, capacity);
+    modified = Arrays.copyOf(modified, capacity);
+    nameHash = Arrays.copyOf(nameHash, capacity);
+  }
+
+  private void growKeys() {
+    int capacity = dictionary.capacity();
+    if (capacity <= rowById.length)
+      return;
+    int old = rowById.length;
+    capacity = Math.max(capacity, old * 2);
+    rowById = Arrays.copyOf(rowById, capacity);
+    rowByName = Arrays.copyOf(rowByName, capacity);
+    Arrays.fill(rowById, old, capacity, NONE);
+    Arrays.fill(rowByName, old, capacity, NONE);
+  }
+
+  private void clear() {
+    dictionary.clear();
+    byLabel.clear();
+    byService.clear();
+    byProfile.clear();
+    byAddressable.clear();
+    byAdminState.clear();
+    byOperatingState.clear();
+    live.clear();
+    addressablesByService.clear();
+    digests.clear(digestDepth);
+    Arrays.fill(rowById, NONE);
+    Arrays.fill(rowByName, NONE);
+    rows = 0;
+    freeCount = 0;
+  }
+
+  private int row(int[] rowByKey, int code) {
+    return code == NONE || code >= rowByKey.length ? NONE : rowByKey[code];
+  }
+
+  private static byte ordinal(Enum<?> state) {
+    return state == null ? NONE : (byte) state.ordinal();
+  }
+
+  private static <E extends Enum<E>> E state(Class<E> type, Object value) {
+    return value == null ? null : Enum.valueOf(type, value.toString());
+  }
+
+  private static long number(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : 0;
+  }
+
+  private static String refId(Object ref) {
+    return ref instanceof DBRef ? String.valueOf(((DBRef) ref).getId()) : null;
+  }
+
+  private static String idOf(BaseObject object) {
+    return object == null ? null : object.getId();
+  }
+
+}
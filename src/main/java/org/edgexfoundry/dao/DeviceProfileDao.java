@@ -44,12 +44,15 @@ public class DeviceProfileDao {
   @Autowired
   private DeviceRepository deviceRepos;
 
+  // a starting device service looks up the same profiles from many threads at once
+  private final SingleFlight<String, DeviceProfile> nameLookups = new SingleFlight<>();
+
   public DeviceProfile getById(String id) {
     return repos.findOne(id);
   }
 
   public DeviceProfile getByName(String name) {
-    return repos.findByName(name);
+    return nameLookups.execute(name, () -> repos.findByName(name));
   }
 
   public DeviceProfile getByIdOrName(DeviceProfile profile) {
@@ -100,8 +103,7 @@ public class DeviceProfileDao {
   }
 
   public List<Asset> getOwningServices(DeviceProfile profile) {
-    return getAssociatedDevices(profile).stream().map(Device::getService)
-        .collect(Collectors.toList());
+    return DeviceDao.getOwningServices(getAssociatedDevices(profile));
   }
 
   private List<Device> getAssociatedDevices(DeviceProfile profile) {
@@ -18,6 +18,7 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.DeviceProfile;
@@ -29,6 +30,8 @@ public interface DeviceProfileRepository extends MongoRepository<DeviceProfile,
 
   DeviceProfile findByName(String name);
 
+  List<DeviceProfile> findByNameIn(Collection<String> names);
+
   Page<DeviceProfile> findByName(String name, Pageable pageable);
 
   List<DeviceProfile> findByManufacturer(String manufacturer);
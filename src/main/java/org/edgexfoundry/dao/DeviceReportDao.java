@@ -18,28 +18,74 @@
 
 package org.edgexfoundry.dao;
 
-import java.util.Arrays;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceReport;
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Component;
 
+import com.mongodb.DBObject;
+
 @Component
 public class DeviceReportDao {
 
+  private static final String DEVICE = "device";
+
+  private static final String EXPECTED = "expected";
+
+  private static final String ID = "_id";
+
   @Autowired
   private DeviceReportRepository repos;
 
   @Autowired
   private DeviceRepository deviceRepos;
 
+  @Autowired
+  private MongoTemplate template;
+
+  @Value("${value.descriptor.cache.size:1024}")
+  private int cacheSize = 1024;
+
+  // value descriptors expected by the reports of each device, least recently used first; read by
+  // core data on every event
+  private final Map<String, List<String>> valueDescriptorCache =
+      Collections.synchronizedMap(new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+          return size() > cacheSize;
+        }
+      });
+
+  // bumped by every invalidate, so an aggregation that raced a report write is not cached
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private final SingleFlight<String, List<String>> aggregations = new SingleFlight<>();
+
   public void removeAssociatedReportsForDevice(Device device) {
     List<DeviceReport> deviceReports = repos.findByDevice(device.getName());
     deviceReports.forEach(dr -> repos.delete(dr));
+    invalidate(device.getName());
   }
 
   public DeviceReport getByIdOrName(DeviceReport report) {
@@ -58,10 +104,50 @@ public class DeviceReportDao {
     return null;
   }
 
+  /**
+   * Distinct value descriptor names expected by all reports for the device. Computed by the
+   * database with an unwind/group aggregation and cached per device, up to the configured number
+   * of devices, until {@link #invalidate} is called for it. The aggregation runs outside the
+   * cache's lock; concurrent callers for the same device share one aggregation.
+   */
   public List<String> getValueDescriptorsForDeviceReportsAssociatedToDevice(String devicename) {
-    List<DeviceReport> deviceReports = repos.findByDevice(devicename);
-    return deviceReports.stream().flatMap(r -> Arrays.asList(r.getExpected()).stream())
-        .collect(Collectors.toList());
+    List<String> cached = valueDescriptorCache.get(devicename);
+    if (cached != null)
+      return cached;
+    // callers arriving after an invalidate start a fresh aggregation rather than sharing one that
+    // may have read the reports before the write
+    long generation = invalidations.get();
+    return aggregations.execute(devicename + '\u0000' + generation, () -> {
+      List<String> result = aggregateValueDescriptors(devicename);
+      synchronized (valueDescriptorCache) {
+        if (invalidations.get() == generation)
+          valueDescriptorCache.put(devicename, result);
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Drop the cached value descriptors of the device. Must be called after any write to a report
+   * of the device.
+   */
+  public void invalidate(String devicename) {
+    if (devicename == null)
+      return;
+    synchronized (valueDescriptorCache) {
+      invalidations.incrementAndGet();
+      valueDescriptorCache.remove(devicename);
+    }
+  }
+
+  private List<String> aggregateValueDescriptors(String devicename) {
+    Aggregation aggregation = newAggregation(match(Criteria.where(DEVICE).is(devicename)),
+        unwind(EXPECTED), group(EXPECTED));
+    AggregationResults<DBObject> results =
+        template.aggregate(aggregation, DeviceReport.class, DBObject.class);
+    return Collections.unmodifiableList(results.getMappedResults().stream()
+        .map(result -> (String) result.get(ID)).filter(Objects::nonNull).sorted()
+        .collect(Collectors.toList()));
   }
 
 }
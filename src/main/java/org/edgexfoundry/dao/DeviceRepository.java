@@ -18,6 +18,7 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.Addressable;
@@ -32,6 +33,8 @@ public interface DeviceRepository extends MongoRepository<Device, String> {
 
   Device findByName(String name);
 
+  List<Device> findByNameIn(Collection<String> names);
+
   List<Device> findByLabelsIn(String label);
 
   Page<Device> findByLabels(String label, Pageable pageable);
@@ -48,4 +51,14 @@ public interface DeviceRepository extends MongoRepository<Device, String> {
 
   Page<Device> findByAddressable(Addressable addressable, Pageable pageable);
 
+  List<Device> findByLastConnectedLessThan(long time, Pageable pageable);
+
+  List<Device> findByServiceAndLastConnectedLessThan(DeviceService service, long time,
+      Pageable pageable);
+
+  List<Device> findByLastReportedLessThan(long time, Pageable pageable);
+
+  List<Device> findByServiceAndLastReportedLessThan(DeviceService service, long time,
+      Pageable pageable);
+
 }
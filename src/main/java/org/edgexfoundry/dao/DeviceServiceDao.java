@@ -28,12 +28,15 @@ public class DeviceServiceDao {
   @Autowired
   private DeviceServiceRepository repos;
 
+  // every device service asks for itself by name as it starts
+  private final SingleFlight<String, DeviceService> nameLookups = new SingleFlight<>();
+
   public DeviceService getById(String id) {
     return repos.findOne(id);
   }
 
   public DeviceService getByName(String name) {
-    return repos.findByName(name);
+    return nameLookups.execute(name, () -> repos.findByName(name));
   }
 
   public DeviceService getByIdOrName(DeviceService service) {
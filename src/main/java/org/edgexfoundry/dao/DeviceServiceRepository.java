@@ -18,6 +18,7 @@
 
 package org.edgexfoundry.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.Addressable;
@@ -30,6 +31,8 @@ public interface DeviceServiceRepository extends MongoRepository<DeviceService,
 
   DeviceService findByName(String name);
 
+  List<DeviceService> findByNameIn(Collection<String> names);
+
   List<DeviceService> findByAddressable(Addressable addressable);
 
   Page<DeviceService> findByAddressable(Addressable addressable, Pageable pageable);
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.Collection;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.OperatingState;
+
+/**
+ * Told of every device written through core metadata, after the write, so that state derived from
+ * devices can be kept current without querying them again. Concurrent writes to one device may be
+ * passed on in a different order than they were made, so each carries its version and a listener
+ * ignores a write older than the one it already holds for the device.
+ */
+public interface DeviceWriteListener {
+
+  /**
+   * @param device - the device as now stored, after an add or an update
+   * @param modified - the version written, the device's modified time
+   */
+  void saved(Device device, long modified);
+
+  /**
+   * @param device - the device as it was stored
+   * @param modified - the version of the delete, later than any write of the device before it
+   */
+  void deleted(Device device, long modified);
+
+  /**
+   * A state set on many devices by one bulk update, which does not read the devices back.
+   * 
+   * @param deviceIds - ids of the devices the update changed
+   * @param adminState - their new admin state, or null if it was not changed
+   * @param operatingState - their new operating state, or null if it was not changed
+   * @param modified - their new modified time
+   */
+  void stateChanged(Collection<String> deviceIds, AdminState adminState,
+      OperatingState operatingState, long modified);
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Passes device writes on to every {@link DeviceWriteListener} bean. A failing listener is logged
+ * and skipped; the write itself has already been made and is not undone. Saves carry the device's
+ * modified time and deletes a time from the {@link VersionClock} taken after the delete, so
+ * listeners can order the writes to a device however they arrive.
+ */
+@Component
+public class DeviceWrites {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(DeviceWrites.class);
+
+  @Autowired(required = false)
+  private List<DeviceWriteListener> listeners = new ArrayList<>();
+
+  @Autowired
+  private VersionClock clock;
+
+  public void saved(Device device) {
+    for (DeviceWriteListener listener : listeners) {
+      try {
+        listener.saved(device, device.getModified());
+      } catch (Exception e) {
+        logger.error("Error passing on save of device " + device.getName() + ":  "
+            + e.getMessage());
+      }
+    }
+  }
+
+  public void deleted(Device device) {
+    long modified = clock.next();
+    for (DeviceWriteListener listener : listeners) {
+      try {
+        listener.deleted(device, modified);
+      } catch (Exception e) {
+        logger.error("Error passing on delete of device " + device.getName() + ":  "
+            + e.getMessage());
+      }
+    }
+  }
+
+  public void stateChanged(Collection<String> deviceIds, AdminState adminState,
+      OperatingState operatingState, long modified) {
+    for (DeviceWriteListener listener : listeners) {
+      try {
+        listener.stateChanged(deviceIds, adminState, operatingState, modified);
+      } catch (Exception e) {
+        logger.error("Error passing on state change of " + deviceIds.size() + " devices:  "
+            + e.getMessage());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns strings as small int codes so that repeated values (labels, service and profile ids) are
+ * held once however many rows use them. Codes are reference counted; a code whose last user
+ * releases it is freed and reused. Not thread safe - callers hold their own lock.
+ */
+class Dictionary {
+
+  static final int NONE = -1;
+
+  private final Map<String, Integer> codes = new HashMap<>();
+
+  private String[] values = new String[16];
+
+  private int[] refs = new int[16];
+
+  private int[] free = new int[16];
+
+  private int freeCount;
+
+  private int next;
+
+  /**
+   * @return the code for the value, taking a reference to it; NONE for null
+   */
+  int acquire(String value) {
+    if (value == null)
+      return NONE;
+    Integer code = codes.get(value);
+    if (code == null) {
+      code = freeCount > 0 ? free[--freeCount] : next++;
+      if (code == values.length) {
+        values = Arrays.copyOf(values, code * 2);
+        refs = Arrays.copyOf(refs, code * 2);
+      }
+      values[code] = value;
+      codes.put(value, code);
+    }
+    refs[code]++;
+    return code;
+  }
+
+  void release(int code) {
+    if (code == NONE || --refs[code] > 0)
+      return;
+    codes.remove(values[code]);
+    values[code] = null;
+    if (freeCount == free.length)
+      free = Arrays.copyOf(free, freeCount * 2);
+    free[freeCount++] = code;
+  }
+
+  /**
+   * @return the code for the value without taking a reference; NONE if it is not held
+   */
+  int code(String value) {
+    if (value == null)
+      return NONE;
+    Integer code = codes.get(value);
+    return code == null ? NONE : code;
+  }
+
+  String value(int code) {
+    return code == NONE ? null : values[code];
+  }
+
+  /**
+   * @return one more than the highest code handed out
+   */
+  int capacity() {
+    return next;
+  }
+
+  int size() {
+    return codes.size();
+  }
+
+  void clear() {
+    codes.clear();
+    Arrays.fill(values, null);
+    Arrays.fill(refs, 0);
+    freeCount = 0;
+    next = 0;
+  }
+
+}
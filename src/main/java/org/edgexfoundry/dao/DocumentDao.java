@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.WriteResult;
+
+/**
+ * Writes partial updates. Only the fields recorded in a change set are sent to the database, as a
+ * single $set on the document's id and version, instead of saving the whole object.
+ */
+@Component
+public class DocumentDao {
+
+  static final String MODIFIED = "modified";
+
+  private static final String ID = "_id";
+
+  @Autowired
+  private MongoTemplate template;
+
+  @Autowired
+  private VersionClock clock;
+
+  /**
+   * Persist the changed fields of the object and stamp its modified time. Does nothing when the
+   * change set is empty. The modified time doubles as the object's version: the write only applies
+   * if the stored document still has the modified time the object was read with, so a concurrent
+   * update is reported rather than silently overwritten.
+   * 
+   * @return true if a write was made
+   * @throws PreconditionFailedException if the document was changed or removed since it was read
+   */
+  public boolean update(BaseObject object, ChangeSet changes) {
+    if (changes.isEmpty())
+      return false;
+    long version = object.getModified();
+    // auditing only applies to save, so the modified time is set here from the same clock; it must
+    // always move forward or a second write in the same millisecond would match a stale version
+    long modified = clock.next(version);
+    Query query = query(where(ID).is(object.getId()));
+    // documents written before auditing was enabled carry no version to compare
+    if (version != 0)
+      query.addCriteria(where(MODIFIED).is(version));
+    WriteResult result = template.updateFirst(query, changes.toUpdate(modified), object.getClass());
+    if (result.getN() == 0)
+      throw new PreconditionFailedException(object.getClass().getSimpleName(), object.getId());
+    object.setModified(modified);
+    return true;
+  }
+
+}
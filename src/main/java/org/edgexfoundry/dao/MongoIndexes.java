@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import javax.annotation.PostConstruct;
+
+import org.edgexfoundry.domain.meta.Device;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ensures, at start, the Mongo indexes that queries here rely on and that the domain classes do
+ * not declare. The stale device queries filter on a time, with or without the service, so each
+ * time field is indexed alone and behind the service. Creating an index that exists is a no-op.
+ */
+@Component
+public class MongoIndexes {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(MongoIndexes.class);
+
+  static final String[] DEVICE_TIMES = {"lastConnected", "lastReported"};
+
+  @Autowired
+  private MongoTemplate template;
+
+  @PostConstruct
+  public void ensureIndexes() {
+    try {
+      IndexOperations devices = template.indexOps(Device.class);
+      for (String time : DEVICE_TIMES) {
+        devices.ensureIndex(new Index().on(time, Direction.ASC).on("_id", Direction.ASC));
+        devices.ensureIndex(new Index().on("service", Direction.ASC).on(time, Direction.ASC)
+            .on("_id", Direction.ASC));
+      }
+    } catch (Exception e) {
+      logger.error("Unable to ensure device indexes, stale device queries will scan:  "
+          + e.getMessage());
+    }
+  }
+
+}
@@ -22,7 +22,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.Asset;
-import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +37,7 @@ public class ScheduleDao {
   private ScheduleEventRepository scheduleEventRepos;
 
   @Autowired
-  private DeviceServiceRepository deviceServiceRepository;
+  private ScheduleEventDao scheduleEventDao;
 
   public Schedule getByIdOrName(Schedule schedule) {
     if (schedule == null)
@@ -55,18 +54,7 @@ public class ScheduleDao {
   }
 
   public List<Asset> getAffectedServices(Schedule schedule) {
-    // for each schedule event get the associated service
-    ArrayList<Asset> assets = new ArrayList<>();
-    List<ScheduleEvent> list = getAssociatedScheduleEvents(schedule);
-    for (ScheduleEvent e : list) {
-      String name = e.getService();
-      if (name != null) {
-        DeviceService service = deviceServiceRepository.findByName(name);
-        if (service != null)
-          assets.add(service);
-      }
-    }
-    return assets;
+    return scheduleEventDao.getAffectedServices(getAssociatedScheduleEvents(schedule));
   }
 
   private List<ScheduleEvent> getAssociatedScheduleEvents(Schedule schedule) {
@@ -19,10 +19,14 @@
 package org.edgexfoundry.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.edgexfoundry.domain.meta.Asset;
-import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -54,12 +58,19 @@ public class ScheduleEventDao {
   }
 
   public List<Asset> getAffectedService(ScheduleEvent event) {
-    ArrayList<Asset> list = new ArrayList<>();
-    if (event != null) {
-      DeviceService ds = deviceServiceRepos.findByName(event.getService());
-      if (ds != null)
-        list.add(ds);
-    }
-    return list;
+    if (event == null)
+      return new ArrayList<>();
+    return getAffectedServices(Collections.singletonList(event));
+  }
+
+  /**
+   * Device services of the given events, each service once, resolved with a single query.
+   */
+  public List<Asset> getAffectedServices(Collection<ScheduleEvent> events) {
+    Set<String> names = events.stream().filter(Objects::nonNull).map(ScheduleEvent::getService)
+        .filter(Objects::nonNull).collect(Collectors.toSet());
+    if (names.isEmpty())
+      return new ArrayList<>();
+    return new ArrayList<>(deviceServiceRepos.findByNameIn(names));
   }
 }
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The versions of recently deleted devices, so a save passed on after the delete of the device is
+ * not taken for a new one. Writes reach listeners within moments of each other, so a delete is
+ * only remembered for the retention period. Not thread safe - callers hold their own lock.
+ */
+class Tombstones {
+
+  static final long RETENTION = 60000;
+
+  // in the order deleted, which is the order of their versions
+  private final Map<String, Long> deleted = new LinkedHashMap<>();
+
+  void add(String deviceId, long modified) {
+    deleted.remove(deviceId);
+    deleted.put(deviceId, modified);
+    Iterator<Long> versions = deleted.values().iterator();
+    while (versions.hasNext() && versions.next() < modified - RETENTION)
+      versions.remove();
+  }
+
+  /**
+   * @return true if the device was deleted at or after this version
+   */
+  boolean buries(String deviceId, long modified) {
+    Long at = deleted.get(deviceId);
+    return at != null && modified <= at;
+  }
+
+  int size() {
+    return deleted.size();
+  }
+
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues modified times, which double as document versions. A time is never earlier than the wall
+ * clock and is always later than any time issued before, so two writes in the same millisecond
+ * still get distinct, increasing versions. Auditing stamps saves from this clock, as
+ * {@link DocumentDao} does for partial updates.
+ */
+@Component
+public class VersionClock implements DateTimeProvider {
+
+  private final AtomicLong last = new AtomicLong();
+
+  /**
+   * @return a time later than any issued before
+   */
+  public long next() {
+    return next(0);
+  }
+
+  /**
+   * @param version the version the document was read with
+   * @return a time later than any issued before and later than the version
+   */
+  public long next(long version) {
+    return last.updateAndGet(
+        previous -> Math.max(System.currentTimeMillis(), Math.max(previous, version) + 1));
+  }
+
+  @Override
+  public Calendar getNow() {
+    Calendar now = Calendar.getInstance();
+    now.setTimeInMillis(next());
+    return now;
+  }
+
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+/**
+ * Reads the name and version (modified time) of documents with projected queries over the raw
+ * collections, so they can be compared with what a client holds without mapping the documents or
+ * resolving their references. A profile's version also covers its commands, which are updated in
+ * place without writing the profile.
+ */
+@Component
+public class VersionDao {
+
+  private static final String ID = "_id";
+
+  private static final String NAME = "name";
+
+  private static final String MODIFIED = "modified";
+
+  private static final String SERVICE = "service";
+
+  private static final String PROFILE = "profile";
+
+  private static final String ADDRESSABLE = "addressable";
+
+  private static final String COMMANDS = "commands";
+
+  @Autowired
+  private MongoTemplate template;
+
+  /**
+   * Versions of the devices of a service, with the ids of their profile and addressable.
+   */
+  public List<Version> getDeviceVersions(DeviceService service) {
+    DBObject query = new BasicDBObject(SERVICE, template.getConverter().toDBRef(service, null));
+    DBObject fields = new BasicDBObject(NAME, 1).append(MODIFIED, 1).append(PROFILE, 1)
+        .append(ADDRESSABLE, 1);
+    return find(Device.class, query, fields);
+  }
+
+  /**
+   * Versions of the devices with the given ids, with the ids of their service, profile and
+   * addressable, in one query.
+   */
+  public List<Version> getDeviceVersions(Collection<String> ids) {
+    if (ids.isEmpty())
+      return new ArrayList<>();
+    DBObject fields = new BasicDBObject(NAME, 1).append(MODIFIED, 1).append(SERVICE, 1)
+        .append(PROFILE, 1).append(ADDRESSABLE, 1);
+    return find(Device.class, byIds(ids), fields);
+  }
+
+  /**
+   * Versions of the documents of a type with the given ids, in one query.
+   */
+  public List<Version> getVersions(Class<?> type, Collection<String> ids) {
+    if (ids.isEmpty())
+      return new ArrayList<>();
+    return find(type, byIds(ids), new BasicDBObject(NAME, 1).append(MODIFIED, 1));
+  }
+
+  /**
+   * Versions of the profiles with the given ids, in two queries: a profile's version is the latest
+   * modified time of the profile and of its commands.
+   */
+  public List<Version> getProfileVersions(Collection<String> ids) {
+    if (ids.isEmpty())
+      return new ArrayList<>();
+    List<Version> profiles = new ArrayList<>();
+    Map<String, List<String>> commandIds = new HashMap<>();
+    DBObject fields = new BasicDBObject(NAME, 1).append(MODIFIED, 1).append(COMMANDS, 1);
+    each(DeviceProfile.class, byIds(ids), fields, document -> {
+      Version profile = version(document);
+      profiles.add(profile);
+      Object refs = document.get(COMMANDS);
+      if (refs instanceof List)
+        commandIds.put(profile.getId(), ((List<?>) refs).stream().map(VersionDao::refId)
+            .filter(Objects::nonNull).collect(Collectors.toList()));
+    });
+    Set<String> allCommandIds = new HashSet<>();
+    commandIds.values().forEach(allCommandIds::addAll);
+    Map<String, Long> commands = new HashMap<>();
+    for (Version command : getVersions(Command.class, allCommandIds))
+      commands.put(command.getId(), command.getModified());
+    List<Version> versions = new ArrayList<>(profiles.size());
+    for (Version profile : profiles) {
+      long modified = profile.getModified();
+      for (String commandId : commandIds.getOrDefault(profile.getId(), Collections.emptyList()))
+        modified = Math.max(modified, commands.getOrDefault(commandId, 0L));
+      versions.add(new Version(profile.getId(), profile.getName(), modified, null, null, null));
+    }
+    return versions;
+  }
+
+  // ids are stored as object ids where they are valid ones
+  private DBObject byIds(Collection<String> ids) {
+    List<Object> keys = new ArrayList<>(ids.size());
+    for (String id : ids)
+      keys.add(ObjectId.isValid(id) ? new ObjectId(id) : id);
+    return new BasicDBObject(ID, new BasicDBObject("$in", keys));
+  }
+
+  private List<Version> find(Class<?> type, DBObject query, DBObject fields) {
+    List<Version> versions = new ArrayList<>();
+    each(type, query, fields, document -> versions.add(version(document)));
+    return versions;
+  }
+
+  private void each(Class<?> type, DBObject query, DBObject fields, Consumer<DBObject> action) {
+    DBCursor cursor = template.getCollection(template.getCollectionName(type)).find(query, fields);
+    try {
+      while (cursor.hasNext())
+        action.accept(cursor.next());
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private static Version version(DBObject document) {
+    Object modified = document.get(MODIFIED);
+    return new Version(String.valueOf(document.get(ID)), (String) document.get(NAME),
+        modified instanceof Number ? ((Number) modified).longValue() : 0,
+        refId(document.get(SERVICE)), refId(document.get(PROFILE)),
+        refId(document.get(ADDRESSABLE)));
+  }
+
+  private static String refId(Object ref) {
+    return ref instanceof DBRef ? String.valueOf(((DBRef) ref).getId()) : null;
+  }
+
+  /**
+   * Id, name and modified time of a document; for a device, also the ids of its service, profile
+   * and addressable when they were read.
+   */
+  public static class Version {
+
+    private final String id;
+
+    private final String name;
+
+    private final long modified;
+
+    private final String service;
+
+    private final String profile;
+
+    private final String addressable;
+
+    public Version(String id, String name, long modified, String service, String profile,
+        String addressable) {
+      this.id = id;
+      this.name = name;
+      this.modified = modified;
+      this.service = service;
+      this.profile = profile;
+      this.addressable = addressable;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getModified() {
+      return modified;
+    }
+
+    public String getService() {
+      return service;
+    }
+
+    public String getProfile() {
+      return profile;
+    }
+
+    public String getAddressable() {
+      return addressable;
+    }
+
+  }
+
+}
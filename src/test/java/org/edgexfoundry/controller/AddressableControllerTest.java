@@ -20,18 +20,29 @@ package org.edgexfoundry.controller;
 
 import static org.edgexfoundry.test.data.AddressableData.newTestInstance;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.edgexfoundry.controller.impl.AddressableControllerImpl;
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.CallbackExecutor;
+import org.edgexfoundry.controller.impl.JsonCache;
 import org.edgexfoundry.dao.AddressableDao;
 import org.edgexfoundry.dao.AddressableRepository;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.DocumentDao;
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
@@ -45,6 +56,7 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
 
@@ -55,7 +67,9 @@ public class AddressableControllerTest {
   private static final int MAX_LIMIT = 100;
 
   private static final String TEST_ID = "123";
+  private static final String TEST_UNKNOWN = "unknown";
   private static final String TEST_ERR_MSG = "test message";
+  private static final String TEST_PATH = "/newpath";
 
   @InjectMocks
   private AddressableControllerImpl controller;
@@ -63,12 +77,21 @@ public class AddressableControllerTest {
   @Mock
   private AddressableRepository repos;
 
+  @Mock
+  private DocumentDao documentDao;
+
   @Mock
   private AddressableDao dao;
 
   @Mock
   private CallbackExecutor callback;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
+  @Mock
+  private JsonCache jsonCache;
+
   private Addressable addr;
 
   @Before
@@ -144,6 +167,57 @@ public class AddressableControllerTest {
     controller.addressableForName(AddressableData.TEST_ADDR_NAME);
   }
 
+  @Test
+  public void testAddressableForIds() {
+    List<String> ids = Arrays.asList(TEST_UNKNOWN, TEST_ID);
+    List<Addressable> found = new ArrayList<>();
+    found.add(addr);
+    when(repos.findAll(new LinkedHashSet<>(ids))).thenReturn(found);
+    Map<String, Addressable> result = controller.addressablesForIds(ids);
+    assertEquals("Ids not returned in request order", ids, new ArrayList<>(result.keySet()));
+    assertNull("Unknown id not marked as not found", result.get(TEST_UNKNOWN));
+    assertEquals("Addressable returned is not as expected", addr, result.get(TEST_ID));
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testAddressableForIdsMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.addressablesForIds(Arrays.asList(TEST_ID, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testAddressableForIdsException() {
+    when(repos.findAll(any(Iterable.class))).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.addressablesForIds(Arrays.asList(TEST_ID));
+  }
+
+  @Test
+  public void testAddressableForNames() {
+    String name = AddressableData.TEST_ADDR_NAME;
+    List<Addressable> found = new ArrayList<>();
+    found.add(addr);
+    when(repos.findByNameIn(new LinkedHashSet<>(Arrays.asList(name, TEST_UNKNOWN))))
+        .thenReturn(found);
+    Map<String, Addressable> result =
+        controller.addressablesForNames(Arrays.asList(name, TEST_UNKNOWN, name));
+    assertEquals("Duplicate names not collapsed", 2, result.size());
+    assertEquals("Addressable returned is not as expected", addr, result.get(name));
+    assertTrue("Unknown name not marked as not found",
+        result.containsKey(TEST_UNKNOWN) && result.get(TEST_UNKNOWN) == null);
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testAddressableForNamesMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.addressablesForNames(Arrays.asList(AddressableData.TEST_ADDR_NAME, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testAddressableForNamesException() {
+    when(repos.findByNameIn(any())).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.addressablesForNames(Arrays.asList(AddressableData.TEST_ADDR_NAME));
+  }
+
   @Test
   public void testAddressableByAddress() {
     List<Addressable> addrs = new ArrayList<>();
@@ -246,6 +320,16 @@ public class AddressableControllerTest {
     when(dao.getByIdOrName(addr)).thenReturn(addr);
     assertTrue("Addressable was not updated", controller.update(addr));
   }
+
+  @Test
+  public void testUpdateClearsJson() {
+    Addressable addr2 = newTestInstance();
+    addr2.setId(TEST_ID);
+    addr2.setPath(TEST_PATH);
+    when(dao.getByIdOrName(addr2)).thenReturn(addr);
+    assertTrue("Addressable was not updated", controller.update(addr2));
+    verify(jsonCache).clear();
+  }
   
   @Test(expected = ServiceException.class)
   public void testUpdateWithNull() {
@@ -258,6 +342,58 @@ public class AddressableControllerTest {
     controller.update(addr);
   }
 
+  @Test
+  public void testUpdateUnchanged() {
+    when(dao.getByIdOrName(addr)).thenReturn(addr);
+    assertTrue("Addressable was not updated", controller.update(addr));
+    verify(documentDao, never()).update(any(Addressable.class), any(ChangeSet.class));
+  }
+
+  @Test
+  public void testUpdateChanged() {
+    Addressable addr2 = new Addressable();
+    addr2.setId(TEST_ID);
+    addr2.setPath(TEST_PATH);
+    when(dao.getByIdOrName(addr2)).thenReturn(addr);
+    assertTrue("Addressable was not updated", controller.update(addr2));
+    assertEquals("Path not updated", TEST_PATH, addr.getPath());
+    verify(documentDao).update(eq(addr), any(ChangeSet.class));
+  }
+
+  @Test
+  public void testAddAsync() {
+    when(repos.save(addr)).thenReturn(addr);
+    assertEquals("Addressable ID returned is not the value expected", TEST_ID,
+        controller.addAsync(addr).getResult());
+  }
+
+  @Test
+  public void testUpdateAsync() {
+    when(dao.getByIdOrName(addr)).thenReturn(addr);
+    assertEquals("Addressable was not updated", true, controller.updateAsync(addr).getResult());
+  }
+
+  @Test
+  public void testUpdateAsyncNotFound() {
+    when(dao.getByIdOrName(addr)).thenReturn(null);
+    assertTrue("Not found error not returned unwrapped",
+        controller.updateAsync(addr).getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(addr);
+    assertEquals("Addressable was not deleted", true, controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(repos.findByName(AddressableData.TEST_ADDR_NAME)).thenReturn(null);
+    assertTrue("Not found error not returned unwrapped",
+        controller.deleteByNameAsync(AddressableData.TEST_ADDR_NAME)
+            .getResult() instanceof NotFoundException);
+  }
+
   @Test(expected = DataValidationException.class)
   public void testUpdateWithAssociatedDevices() {
     Addressable addr2 = AddressableData.newTestInstance();
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.edgexfoundry.controller.impl.AsyncWriter;
+import org.edgexfoundry.exception.controller.NotFoundException;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@Category(RequiresNone.class)
+public class AsyncWriterTest {
+
+  private static final String TEST_ID = "123";
+
+  @Test
+  public void testSubmit() {
+    AsyncWriter writer = new AsyncWriter(Runnable::run);
+    assertEquals("Write result not returned", TEST_ID, writer.submit(() -> TEST_ID).getResult());
+  }
+
+  @Test
+  public void testSubmitErrorUnwrapped() {
+    AsyncWriter writer = new AsyncWriter(Runnable::run);
+    DeferredResult<String> result = writer.submit(() -> {
+      throw new NotFoundException(String.class.toString(), TEST_ID);
+    });
+    assertTrue("Write error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testSubmitRejectedWhenSaturated() {
+    AsyncWriter writer = new AsyncWriter(task -> {
+      throw new RejectedExecutionException();
+    });
+    DeferredResult<String> result = writer.submit(() -> TEST_ID);
+    assertTrue("Rejected write not answered with 503",
+        result.getResult() instanceof ServiceException);
+  }
+
+  @Test
+  public void testSubmitTimeoutAccepted() throws Exception {
+    AsyncWriter writer = new AsyncWriter(task -> {
+    });
+    DeferredResult<String> result = writer.submit(() -> TEST_ID);
+    assertFalse("Write not still running", result.hasResult());
+    Field field = DeferredResult.class.getDeclaredField("timeoutResult");
+    field.setAccessible(true);
+    ResponseEntity<?> timeoutResult = (ResponseEntity<?>) field.get(result);
+    assertEquals("Timed out write not answered with 202", HttpStatus.ACCEPTED,
+        timeoutResult.getStatusCode());
+    assertFalse("Timed out write answered with a body", timeoutResult.hasBody());
+  }
+
+}
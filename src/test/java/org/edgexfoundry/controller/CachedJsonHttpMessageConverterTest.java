@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.edgexfoundry.controller.impl.CachedJsonHttpMessageConverter;
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Category(RequiresNone.class)
+public class CachedJsonHttpMessageConverterTest {
+
+  private static final String TEST_ID = "123";
+  private static final int CAPACITY = 10;
+
+  private ObjectMapper mapper = new ObjectMapper();
+
+  private JsonCache cache;
+
+  private CachedJsonHttpMessageConverter converter;
+
+  @Before
+  public void setup() {
+    cache = new JsonCache(mapper, CAPACITY);
+    converter = new CachedJsonHttpMessageConverter(cache);
+  }
+
+  @Test
+  public void testCanWrite() {
+    assertTrue("Profiles not written",
+        converter.canWrite(DeviceProfile.class, MediaType.APPLICATION_JSON));
+    assertTrue("Device services not written",
+        converter.canWrite(DeviceService.class, MediaType.APPLICATION_JSON));
+    assertFalse("Addressables should be left to Jackson",
+        converter.canWrite(Addressable.class, MediaType.APPLICATION_JSON));
+    assertFalse("Only JSON should be written",
+        converter.canWrite(DeviceProfile.class, MediaType.APPLICATION_XML));
+  }
+
+  @Test
+  public void testCannotRead() {
+    assertFalse("Request bodies should be left to Jackson",
+        converter.canRead(DeviceProfile.class, MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    DeviceProfile profile = ProfileData.newTestInstance();
+    profile.setId(TEST_ID);
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(profile, MediaType.APPLICATION_JSON, output);
+    assertArrayEquals("Unexpected body", mapper.writeValueAsBytes(profile),
+        output.getBodyAsBytes());
+    assertEquals("Profile not cached", 1, cache.size());
+  }
+
+}
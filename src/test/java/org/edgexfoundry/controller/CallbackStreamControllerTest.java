@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.edgexfoundry.controller.impl.CallbackPublisher;
+import org.edgexfoundry.controller.impl.CallbackStreamControllerImpl;
+import org.edgexfoundry.dao.DeviceServiceDao;
+import org.edgexfoundry.domain.meta.ActionType;
+import org.edgexfoundry.exception.controller.NotFoundException;
+import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ServiceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+@Category(RequiresNone.class)
+public class CallbackStreamControllerTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_ERR_MSG = "test message";
+
+  @InjectMocks
+  private CallbackStreamControllerImpl controller;
+
+  @Mock
+  private DeviceServiceDao serviceDao;
+
+  @Spy
+  private CallbackPublisher publisher = new CallbackPublisher();
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  public void testSubscribe() {
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME))
+        .thenReturn(ServiceData.newTestInstance());
+    assertNotNull("Stream not returned", controller.subscribe(ServiceData.TEST_SERVICE_NAME, null));
+    assertEquals("Stream not registered", 1, publisher.subscriberCount());
+  }
+
+  @Test
+  public void testSubscribeAllServices() {
+    assertNotNull("Stream not returned", controller.subscribe(null, null));
+    assertEquals("Stream not registered", 1, publisher.subscriberCount());
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testSubscribeServiceNotFound() {
+    controller.subscribe(ServiceData.TEST_SERVICE_NAME, null);
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testSubscribeException() {
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.subscribe(ServiceData.TEST_SERVICE_NAME, null);
+  }
+
+  @Test
+  public void testPublishToServiceStream() {
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME))
+        .thenReturn(ServiceData.newTestInstance());
+    controller.subscribe(ServiceData.TEST_SERVICE_NAME, null);
+    assertTrue("Alert not delivered to the service stream", publisher
+        .publish(ServiceData.TEST_SERVICE_NAME, TEST_ID, Action.PUT, ActionType.DEVICE));
+    assertFalse("Alert for another service should not be reported as delivered",
+        publisher.publish("otherservice", TEST_ID, Action.PUT, ActionType.DEVICE));
+  }
+
+  @Test
+  public void testPublishToAllServicesStream() {
+    controller.subscribe(null, null);
+    assertFalse("Unfiltered streams should not replace the service callback",
+        publisher.publish(ServiceData.TEST_SERVICE_NAME, TEST_ID, Action.PUT, ActionType.DEVICE));
+  }
+
+  @Test
+  public void testPublishFilteredByType() {
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME))
+        .thenReturn(ServiceData.newTestInstance());
+    List<ActionType> types = new ArrayList<>();
+    types.add(ActionType.PROFILE);
+    controller.subscribe(ServiceData.TEST_SERVICE_NAME, types);
+    assertFalse("Alert type outside of the filter should not be delivered",
+        publisher.publish(ServiceData.TEST_SERVICE_NAME, TEST_ID, Action.PUT, ActionType.DEVICE));
+    assertTrue("Alert type in the filter not delivered", publisher
+        .publish(ServiceData.TEST_SERVICE_NAME, TEST_ID, Action.PUT, ActionType.PROFILE));
+  }
+
+}
@@ -22,6 +22,7 @@ import static org.edgexfoundry.test.data.CommandData.newTestInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
@@ -29,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.edgexfoundry.controller.impl.CommandControllerImpl;
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.controller.impl.ProfileYamlCache;
 import org.edgexfoundry.dao.CommandRepository;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.domain.meta.Command;
@@ -65,6 +68,12 @@ public class CommandControllerTest {
   @Mock
   private DeviceProfileDao profileDao;
 
+  @Mock
+  private ProfileYamlCache yamlCache;
+
+  @Mock
+  private JsonCache jsonCache;
+
   private Command cmd;
 
   @Before
@@ -161,6 +170,14 @@ public class CommandControllerTest {
     assertTrue("Command was not updated", controller.update(cmd));
   }
 
+  @Test
+  public void testUpdateClearsProfileYaml() {
+    when(repos.findOne(TEST_ID)).thenReturn(cmd);
+    controller.update(cmd);
+    verify(yamlCache).clear();
+    verify(jsonCache).clear();
+  }
+
   @Test(expected = NotFoundException.class)
   public void testUpdateNotFoundException() {
     when(repos.findOne(TEST_ID)).thenReturn(null);
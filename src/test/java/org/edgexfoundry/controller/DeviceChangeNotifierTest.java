@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Field;
+
+import org.edgexfoundry.controller.impl.DeviceChangeNotifier;
+import org.edgexfoundry.support.domain.notifications.Notification;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.DeviceData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@Category(RequiresNone.class)
+public class DeviceChangeNotifierTest {
+
+  private static final String TEST_CONTENT = "Device update: ";
+  private static final String TEST_ERR_MSG = "test message";
+  private static final String TEST_OTHER_NAME = "other device";
+  private static final int CAPACITY = 3;
+  private static final int BATCH_SIZE = 2;
+  private static final long FLUSH_INTERVAL = 60000;
+
+  @InjectMocks
+  private DeviceChangeNotifier notifier;
+
+  @Mock
+  private NotificationClient notificationClient;
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    setNotifierField("notifyDeviceChanges", true);
+    setNotifierField("notificationContent", TEST_CONTENT);
+    setNotifierField("capacity", CAPACITY);
+    setNotifierField("batchSize", BATCH_SIZE);
+    // long enough that the tests flush by hand
+    setNotifierField("flushInterval", FLUSH_INTERVAL);
+    notifier.init();
+  }
+
+  @After
+  public void cleanup() {
+    notifier.shutdown();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitRejectsNoFlushInterval() throws Exception {
+    setNotifierField("flushInterval", 0L);
+    notifier.init();
+  }
+
+  @Test
+  public void testEnqueueDoesNotSend() {
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    verify(notificationClient, never()).receiveNotification(any(Notification.class));
+    assertEquals("Change not queued", 1, notifier.getPending());
+  }
+
+  @Test
+  public void testEnqueueDisabled() throws Exception {
+    setNotifierField("notifyDeviceChanges", false);
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    notifier.flush();
+    assertEquals("Change queued while disabled", 0, notifier.getPending());
+    verify(notificationClient, never()).receiveNotification(any(Notification.class));
+  }
+
+  @Test
+  public void testFlushSingleChange() {
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    notifier.flush();
+    ArgumentCaptor<Notification> sent = ArgumentCaptor.forClass(Notification.class);
+    verify(notificationClient).receiveNotification(sent.capture());
+    assertEquals("Notification content not expected", TEST_CONTENT + DeviceData.TEST_NAME + "-POST",
+        sent.getValue().getContent());
+    assertEquals("Sent count not expected", 1, notifier.getSent());
+    assertEquals("Queue not drained", 0, notifier.getPending());
+  }
+
+  @Test
+  public void testFlushBatches() {
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    notifier.enqueue(DeviceData.TEST_NAME, Action.PUT);
+    notifier.enqueue(TEST_OTHER_NAME, Action.POST);
+    notifier.flush();
+    ArgumentCaptor<Notification> sent = ArgumentCaptor.forClass(Notification.class);
+    verify(notificationClient, times(2)).receiveNotification(sent.capture());
+    assertEquals("Digest content not expected",
+        TEST_CONTENT + DeviceData.TEST_NAME + "-POST, " + DeviceData.TEST_NAME + "-PUT",
+        sent.getAllValues().get(0).getContent());
+    assertEquals("Sent count not expected", 3, notifier.getSent());
+  }
+
+  @Test
+  public void testFlushCoalescesRepeats() {
+    notifier.enqueue(DeviceData.TEST_NAME, Action.PUT);
+    notifier.enqueue(DeviceData.TEST_NAME, Action.PUT);
+    notifier.flush();
+    ArgumentCaptor<Notification> sent = ArgumentCaptor.forClass(Notification.class);
+    verify(notificationClient).receiveNotification(sent.capture());
+    assertEquals("Repeated change not coalesced", TEST_CONTENT + DeviceData.TEST_NAME + "-PUT",
+        sent.getValue().getContent());
+    assertEquals("Coalesced count not expected", 1, notifier.getCoalesced());
+  }
+
+  @Test
+  public void testEnqueueOverflow() {
+    for (int i = 0; i < CAPACITY + 2; i++)
+      notifier.enqueue(DeviceData.TEST_NAME + i, Action.POST);
+    assertEquals("Dropped count not expected", 2, notifier.getDropped());
+    assertEquals("Queue exceeded capacity", CAPACITY, notifier.getPending());
+    notifier.flush();
+    assertEquals("Sent count not expected", CAPACITY, notifier.getSent());
+  }
+
+  @Test
+  public void testFlushSendFails() {
+    doThrow(new RuntimeException(TEST_ERR_MSG)).when(notificationClient)
+        .receiveNotification(any(Notification.class));
+    notifier.enqueue(DeviceData.TEST_NAME, Action.DELETE);
+    notifier.flush();
+    assertEquals("Failed count not expected", 1, notifier.getFailed());
+    assertEquals("Sent count not expected", 0, notifier.getSent());
+  }
+
+  @Test
+  public void testCounts() {
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    notifier.enqueue(DeviceData.TEST_NAME, Action.POST);
+    notifier.flush();
+    notifier.enqueue(TEST_OTHER_NAME, Action.PUT);
+    NotificationCounts counts = notifier.counts();
+    assertEquals("Sent count not expected", 1, counts.getSent());
+    assertEquals("Coalesced count not expected", 1, counts.getCoalesced());
+    assertEquals("Pending count not expected", 1, counts.getPending());
+  }
+
+  private void setNotifierField(String name, Object value) throws Exception {
+    Field temp = notifier.getClass().getDeclaredField(name);
+    temp.setAccessible(true);
+    temp.set(notifier, value);
+  }
+
+}
@@ -19,25 +19,55 @@
 package org.edgexfoundry.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.CallbackExecutor;
+import org.edgexfoundry.controller.impl.DeviceChangeNotifier;
 import org.edgexfoundry.controller.impl.DeviceControllerImpl;
+import org.edgexfoundry.controller.impl.DeviceQueries;
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.controller.impl.StateChangeDebouncer;
+import org.edgexfoundry.controller.impl.VersionEtagAdvice;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.ConcurrentResolver;
+import org.edgexfoundry.dao.DeviceDao;
+import org.edgexfoundry.dao.DeviceIndex;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceReportDao;
 import org.edgexfoundry.dao.DeviceRepository;
 import org.edgexfoundry.dao.DeviceServiceDao;
+import org.edgexfoundry.dao.DeviceWrites;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
+import org.edgexfoundry.dao.VersionClock;
+import org.edgexfoundry.dao.VersionDao;
+import org.edgexfoundry.domain.meta.ActionType;
 import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.AdminState;
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceProfile;
 import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.edgexfoundry.exception.controller.ClientException;
 import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
@@ -47,13 +77,25 @@ import org.edgexfoundry.test.data.AddressableData;
 import org.edgexfoundry.test.data.DeviceData;
 import org.edgexfoundry.test.data.ProfileData;
 import org.edgexfoundry.test.data.ServiceData;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Category(RequiresNone.class)
 public class DeviceControllerTest {
@@ -62,7 +104,12 @@ public class DeviceControllerTest {
   private static final int MAX_LIMIT = 100;
 
   private static final String TEST_ID = "123";
+  private static final String TEST_UNKNOWN = "unknown";
   private static final String TEST_ERR_MSG = "test message";
+  private static final long TEST_TIME = 1471806386919L;
+  private static final String TEST_DESCRIPTION = "new description";
+  private static final long TEST_VERSION = 1471806386919L;
+  private static final String TEST_SERVICE_ID = "456";
 
   @InjectMocks
   private DeviceControllerImpl controller;
@@ -70,6 +117,9 @@ public class DeviceControllerTest {
   @Mock
   private DeviceRepository repos;
 
+  @Mock
+  private DocumentDao documentDao;
+
   @Mock
   private AddressableDao addressableDao;
 
@@ -82,11 +132,38 @@ public class DeviceControllerTest {
   @Mock
   private CallbackExecutor callback;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
+  @Spy
+  private ConcurrentResolver resolver = new ConcurrentResolver(Runnable::run);
+
   @Mock
   private DeviceReportDao deviceRptDao;
 
   @Mock
-  private NotificationClient notificationClient;
+  private DeviceChangeNotifier notifier;
+
+  @Mock
+  private StateChangeDebouncer debouncer;
+
+  @Mock
+  private JsonCache jsonCache;
+
+  @Mock
+  private DeviceWrites deviceWrites;
+
+  @Mock
+  private DeviceIndex index;
+
+  @Mock
+  private DeviceDao deviceDao;
+
+  @Mock
+  private VersionDao versionDao;
+
+  @Spy
+  private VersionClock clock = new VersionClock();
 
   private Device device;
 
@@ -98,6 +175,11 @@ public class DeviceControllerTest {
     device.setId(TEST_ID);
   }
 
+  @After
+  public void cleanup() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
   @Test
   public void testDevice() {
     when(repos.findOne(TEST_ID)).thenReturn(device);
@@ -161,6 +243,281 @@ public class DeviceControllerTest {
     controller.deviceForName(DeviceData.TEST_NAME);
   }
 
+  @Test
+  public void testDeviceForIds() {
+    List<String> ids = Arrays.asList(TEST_UNKNOWN, TEST_ID);
+    List<Device> found = new ArrayList<>();
+    found.add(device);
+    when(repos.findAll(new LinkedHashSet<>(ids))).thenReturn(found);
+    Map<String, Device> result = controller.devicesForIds(ids);
+    assertEquals("Ids not returned in request order", ids, new ArrayList<>(result.keySet()));
+    assertNull("Unknown id not marked as not found", result.get(TEST_UNKNOWN));
+    assertEquals("Device returned is not as expected", device, result.get(TEST_ID));
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testDeviceForIdsMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.devicesForIds(Arrays.asList(TEST_ID, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testDeviceForIdsException() {
+    when(repos.findAll(any(Iterable.class))).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.devicesForIds(Arrays.asList(TEST_ID));
+  }
+
+  @Test
+  public void testDeviceForNames() {
+    String name = DeviceData.TEST_NAME;
+    List<Device> found = new ArrayList<>();
+    found.add(device);
+    when(repos.findByNameIn(new LinkedHashSet<>(Arrays.asList(name, TEST_UNKNOWN))))
+        .thenReturn(found);
+    Map<String, Device> result =
+        controller.devicesForNames(Arrays.asList(name, TEST_UNKNOWN, name));
+    assertEquals("Duplicate names not collapsed", 2, result.size());
+    assertEquals("Device returned is not as expected", device, result.get(name));
+    assertTrue("Unknown name not marked as not found",
+        result.containsKey(TEST_UNKNOWN) && result.get(TEST_UNKNOWN) == null);
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testDeviceForNamesMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.devicesForNames(Arrays.asList(DeviceData.TEST_NAME, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testDeviceForNamesException() {
+    when(repos.findByNameIn(any())).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.devicesForNames(Arrays.asList(DeviceData.TEST_NAME));
+  }
+
+  @Test
+  public void testSearch() {
+    when(index.isLoaded()).thenReturn(true);
+    when(index.select(any())).thenReturn(Arrays.asList(TEST_ID));
+    when(repos.findAll(Arrays.asList(TEST_ID))).thenReturn(Arrays.asList(device));
+    assertEquals("Matching devices not returned", Arrays.asList(device),
+        controller.search(new DeviceQuery()));
+    verify(index, never()).load();
+  }
+
+  @Test
+  public void testSearchLoadsIndex() {
+    when(index.isLoaded()).thenReturn(false, true);
+    when(index.select(any())).thenReturn(new ArrayList<>());
+    assertTrue("Devices returned for no match", controller.search(new DeviceQuery()).isEmpty());
+    verify(index).load();
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testSearchIndexNotLoaded() {
+    controller.search(new DeviceQuery());
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testSearchWithNull() {
+    controller.search(null);
+  }
+
+  @Test(expected = ClientException.class)
+  public void testSearchTooDeep() {
+    DeviceQuery query = new DeviceQuery();
+    DeviceQuery nested = query;
+    for (int i = 0; i < DeviceQueries.MAX_DEPTH; i++) {
+      nested.setNot(new DeviceQuery());
+      nested = nested.getNot();
+    }
+    when(index.isLoaded()).thenReturn(true);
+    try {
+      controller.search(query);
+    } finally {
+      verify(index, never()).select(any());
+    }
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testSearchMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    when(index.isLoaded()).thenReturn(true);
+    when(index.select(any())).thenReturn(Arrays.asList(TEST_ID, TEST_UNKNOWN));
+    controller.search(new DeviceQuery());
+  }
+
+  @Test
+  public void testStaleDevices() {
+    ArgumentCaptor<Pageable> request = ArgumentCaptor.forClass(Pageable.class);
+    when(repos.findByLastConnectedLessThan(eq(TEST_TIME), request.capture()))
+        .thenReturn(Arrays.asList(device));
+    assertEquals("Stale devices not returned", Arrays.asList(device),
+        controller.staleDevices("lastconnected", TEST_TIME, null, 0, 0));
+    assertEquals("Page size should default to the max limit", MAX_LIMIT,
+        request.getValue().getPageSize());
+    assertEquals("Stale devices should be oldest first", Sort.Direction.ASC,
+        request.getValue().getSort().getOrderFor("lastConnected").getDirection());
+  }
+
+  @Test
+  public void testStaleDevicesForService() {
+    DeviceService service = ServiceData.newTestInstance();
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(repos.findByServiceAndLastReportedLessThan(eq(service), eq(TEST_TIME), any()))
+        .thenReturn(Arrays.asList(device));
+    assertEquals("Stale devices not returned", Arrays.asList(device),
+        controller.staleDevices("lastReported", TEST_TIME, ServiceData.TEST_SERVICE_NAME, 1, 1));
+  }
+
+  @Test(expected = ClientException.class)
+  public void testStaleDevicesUnknownField() {
+    controller.staleDevices("created", TEST_TIME, null, 0, 0);
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testStaleDevicesMaxLimit() {
+    controller.staleDevices("lastconnected", TEST_TIME, null, 0, MAX_LIMIT + 1);
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testStaleDevicesServiceNotFound() {
+    controller.staleDevices("lastconnected", TEST_TIME, ServiceData.TEST_SERVICE_NAME, 0, 0);
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testStaleDevicesException() {
+    when(repos.findByLastConnectedLessThan(eq(TEST_TIME), any()))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.staleDevices("lastconnected", TEST_TIME, null, 0, 0);
+  }
+
+  @Test
+  public void testStatistics() {
+    DeviceIndex.Counts counts = new DeviceIndex.Counts();
+    counts.getServices().put(TEST_SERVICE_ID, 1L);
+    when(index.isLoaded()).thenReturn(true);
+    when(index.counts()).thenReturn(counts);
+    when(index.getDrifts()).thenReturn(1L);
+    DeviceCounts returned = controller.statistics();
+    assertEquals("Service counts not returned", counts.getServices(), returned.getServices());
+    assertEquals("Drifts not returned", 1, returned.getDrifts());
+    verify(index, never()).load();
+  }
+
+  @Test
+  public void testStatisticsLoads() {
+    when(index.isLoaded()).thenReturn(false, true);
+    when(index.counts()).thenReturn(new DeviceIndex.Counts());
+    controller.statistics();
+    verify(index).load();
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testStatisticsNotLoaded() {
+    controller.statistics();
+  }
+
+  @Test
+  public void testNotificationStatistics() {
+    NotificationCounts counts = mock(NotificationCounts.class);
+    when(notifier.counts()).thenReturn(counts);
+    assertEquals("Counts not returned", counts, controller.notificationStatistics());
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testNotificationStatisticsException() {
+    when(notifier.counts()).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.notificationStatistics();
+  }
+
+  @Test
+  public void testUpdateAdminStates() {
+    DeviceService service = ServiceData.newTestInstance();
+    service.setId(TEST_SERVICE_ID);
+    when(serviceDao.getByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(serviceDao.getById(TEST_SERVICE_ID)).thenReturn(service);
+    when(index.isLoaded()).thenReturn(true);
+    when(index.select(any())).thenReturn(Arrays.asList(TEST_ID, TEST_UNKNOWN));
+    long[] modified = new long[1];
+    when(deviceDao.updateState(any(), eq("adminState"), eq(AdminState.LOCKED), anyLong()))
+        .thenAnswer(invocation -> {
+          modified[0] = (Long) invocation.getArguments()[3];
+          return 1;
+        });
+    // the unknown device was written since and so left alone by the update
+    when(versionDao.getDeviceVersions(Arrays.asList(TEST_ID, TEST_UNKNOWN)))
+        .thenAnswer(invocation -> Arrays.asList(
+            new VersionDao.Version(TEST_ID, DeviceData.TEST_NAME, modified[0], TEST_SERVICE_ID,
+                null, null),
+            new VersionDao.Version(TEST_UNKNOWN, TEST_UNKNOWN, modified[0] + 1, TEST_SERVICE_ID,
+                null, null)));
+    StateChangeSummary summary = controller.updateAdminStates(AdminState.LOCKED.toString(),
+        ServiceData.TEST_SERVICE_NAME, null, null);
+    assertEquals("Matched devices not counted", 2, summary.getMatched());
+    assertEquals("Changed devices not counted", 1, summary.getChanged());
+    assertEquals("Changed devices not counted per service", Integer.valueOf(1),
+        summary.getServices().get(ServiceData.TEST_SERVICE_NAME));
+    verify(deviceWrites).stateChanged(Arrays.asList(TEST_ID), AdminState.LOCKED, null,
+        modified[0]);
+    verify(notifier).enqueue(DeviceData.TEST_NAME, Action.PUT);
+    verify(callback).callback(service, Arrays.asList(TEST_ID), Action.PUT, ActionType.DEVICE);
+  }
+
+  @Test
+  public void testUpdateOpStatesByLabel() {
+    when(index.isLoaded()).thenReturn(true);
+    when(index.select(any())).thenReturn(new ArrayList<>());
+    StateChangeSummary summary = controller.updateOpStates(OperatingState.DISABLED.toString(),
+        null, null, DeviceData.TEST_LABELS[0]);
+    assertEquals("Devices matched for no selection", 0, summary.getMatched());
+    verify(deviceDao).updateState(eq(new ArrayList<>()), eq("operatingState"),
+        eq(OperatingState.DISABLED), anyLong());
+    verify(callback, never()).callback(any(DeviceService.class), anyListOf(String.class), any(),
+        any());
+  }
+
+  @Test(expected = ClientException.class)
+  public void testUpdateAdminStatesNoSelector() {
+    controller.updateAdminStates(AdminState.LOCKED.toString(), null, null, null);
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testUpdateAdminStatesServiceNotFound() {
+    controller.updateAdminStates(AdminState.LOCKED.toString(), TEST_UNKNOWN, null, null);
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testUpdateOpStatesProfileNotFound() {
+    controller.updateOpStates(OperatingState.ENABLED.toString(), null, TEST_UNKNOWN, null);
+  }
+
+  @Test
+  public void testUpdateOpStatesCancelsDebouncedStates() {
+    when(index.isLoaded()).thenReturn(true);
+    when(index.select(any())).thenReturn(Arrays.asList(TEST_ID), new ArrayList<>());
+    when(debouncer.pendingCount()).thenReturn(1);
+    controller.updateOpStates(OperatingState.DISABLED.toString(), null, null,
+        DeviceData.TEST_LABELS[0]);
+    verify(debouncer).cancel(TEST_ID + "/opstate");
+    verify(debouncer, never()).cancel(TEST_ID + "/adminstate");
+  }
+
+  @Test(expected = ClientException.class)
+  public void testUpdateOpStatesBadState() {
+    controller.updateOpStates(TEST_UNKNOWN, null, null, DeviceData.TEST_LABELS[0]);
+  }
+
+  @Test(expected = ClientException.class)
+  public void testUpdateAdminStatesBadState() {
+    controller.updateAdminStates(TEST_UNKNOWN, null, null, DeviceData.TEST_LABELS[0]);
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testUpdateAdminStatesIndexNotLoaded() {
+    controller.updateAdminStates(AdminState.LOCKED.toString(), null, null,
+        DeviceData.TEST_LABELS[0]);
+  }
+
   @Test
   public void testDeviceByLabel() {
     List<Device> devs = new ArrayList<>();
@@ -171,6 +528,25 @@ public class DeviceControllerTest {
     assertEquals("Device returned is not as expected", device, devices.get(0));
   }
 
+  @Test
+  public void testDeviceByLabelIndexed() {
+    when(index.isLoaded()).thenReturn(true);
+    when(index.forLabel(DeviceData.TEST_LABELS[0])).thenReturn(Arrays.asList(TEST_ID));
+    when(repos.findAll(Arrays.asList(TEST_ID))).thenReturn(Arrays.asList(device));
+    assertEquals("Indexed devices not returned", Arrays.asList(device),
+        controller.devicesByLabel(DeviceData.TEST_LABELS[0]));
+    verify(repos, never()).findByLabelsIn(any(String.class));
+  }
+
+  @Test
+  public void testDeviceByLabelIndexedNoneFound() {
+    when(index.isLoaded()).thenReturn(true);
+    when(index.forLabel(DeviceData.TEST_LABELS[0])).thenReturn(new ArrayList<>());
+    assertTrue("Devices returned for an unused label",
+        controller.devicesByLabel(DeviceData.TEST_LABELS[0]).isEmpty());
+    verify(repos, never()).findAll(anyListOf(String.class));
+  }
+
   @Test(expected = ServiceException.class)
   public void testDeviceByLabelException() {
     when(repos.findByLabelsIn(DeviceData.TEST_LABELS[0]))
@@ -190,6 +566,19 @@ public class DeviceControllerTest {
     assertEquals("Device returned is not as expected", device, devices.get(0));
   }
 
+  @Test
+  public void testDeviceByServiceIndexed() {
+    DeviceService service = ServiceData.newTestInstance();
+    service.setId(TEST_ID);
+    when(serviceDao.getById(TEST_ID)).thenReturn(service);
+    when(index.isLoaded()).thenReturn(true);
+    when(index.forService(TEST_ID)).thenReturn(Arrays.asList(TEST_ID));
+    when(repos.findAll(Arrays.asList(TEST_ID))).thenReturn(Arrays.asList(device));
+    assertEquals("Indexed devices not returned", Arrays.asList(device),
+        controller.devicesForService(TEST_ID));
+    verify(repos, never()).findByService(any(DeviceService.class));
+  }
+
   @Test(expected = NotFoundException.class)
   public void testDeviceByServiceNoneFound() {
     when(serviceDao.getById(TEST_ID)).thenReturn(null);
@@ -338,6 +727,7 @@ public class DeviceControllerTest {
     when(addressableDao.getByIdOrName(addressable)).thenReturn(addressable);
     when(repos.save(device)).thenReturn(device);
     assertEquals("Device ID returned is not the value expected", TEST_ID, controller.add(device));
+    verify(deviceWrites).saved(device);
   }
 
   @Test(expected = ServiceException.class)
@@ -434,7 +824,8 @@ public class DeviceControllerTest {
   @Test(expected = ServiceException.class)
   public void testUpdateLastConnectedWithNotifyException() {
     when(repos.findOne(TEST_ID)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.updateLastConnected(TEST_ID, System.currentTimeMillis(), true);
   }
 
@@ -467,11 +858,28 @@ public class DeviceControllerTest {
   @Test(expected = ServiceException.class)
   public void testUpdateLastConnectedByNameWithNotifyException() {
     when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     assertTrue("Device connected time was not updated", controller
         .updateLastConnectedByName(DeviceData.TEST_NAME, System.currentTimeMillis(), true));
   }
 
+  @Test
+  public void testUpdateLastConnectedWritesOneField() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    when(documentDao.update(eq(device), any(ChangeSet.class))).thenReturn(true);
+    assertTrue("Device connected time was not updated",
+        controller.updateLastConnected(TEST_ID, TEST_TIME, true));
+    assertEquals("Device connected time not set", TEST_TIME, device.getLastConnected());
+    ArgumentCaptor<ChangeSet> changes = ArgumentCaptor.forClass(ChangeSet.class);
+    verify(documentDao).update(eq(device), changes.capture());
+    assertEquals("Only the connected time should be written", Arrays.asList("lastConnected"),
+        changes.getValue().getFields());
+    verify(repos, never()).save(device);
+    verify(deviceWrites).saved(device);
+    verify(notifier).enqueue(device.getName(), Action.PUT);
+  }
+
   @Test
   public void testUpdateLastReported() {
     when(repos.findOne(TEST_ID)).thenReturn(device);
@@ -503,7 +911,8 @@ public class DeviceControllerTest {
   @Test(expected = ServiceException.class)
   public void testUpdateLastReportedWithNotifyException() {
     when(repos.findOne(TEST_ID)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     assertTrue("Device reported time was not updated",
         controller.updateLastReported(TEST_ID, System.currentTimeMillis(), true));
   }
@@ -539,7 +948,8 @@ public class DeviceControllerTest {
   @Test(expected = ServiceException.class)
   public void testUpdateLastReportedByNameWithNotifyException() {
     when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.updateLastReportedByName(DeviceData.TEST_NAME, System.currentTimeMillis(), true);
   }
 
@@ -589,9 +999,67 @@ public class DeviceControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testUpdateOpStateByNameExceptionInSave() {
+    device.setOperatingState(OperatingState.DISABLED);
     when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
-    controller.updateOpStateByName(DeviceData.TEST_NAME, DeviceData.TEST_OP.toString());
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.updateOpStateByName(DeviceData.TEST_NAME, OperatingState.ENABLED.toString());
+  }
+
+  @Test
+  public void testUpdateOpStateChanged() {
+    device.setOperatingState(OperatingState.DISABLED);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    when(documentDao.update(eq(device), any(ChangeSet.class))).thenReturn(true);
+    assertTrue("Device op state was not updated",
+        controller.updateOpState(TEST_ID, OperatingState.ENABLED.toString()));
+    assertEquals("Device op state not set", OperatingState.ENABLED, device.getOperatingState());
+    ArgumentCaptor<ChangeSet> changes = ArgumentCaptor.forClass(ChangeSet.class);
+    verify(documentDao).update(eq(device), changes.capture());
+    assertEquals("Only the op state should be written", Arrays.asList("operatingState"),
+        changes.getValue().getFields());
+    verify(repos, never()).save(device);
+    verify(notifier).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateOpStateConcurrentWriteRetried() {
+    device.setOperatingState(OperatingState.DISABLED);
+    Device fresh = DeviceData.newTestInstance();
+    fresh.setId(TEST_ID);
+    fresh.setOperatingState(OperatingState.DISABLED);
+    when(repos.findOne(TEST_ID)).thenReturn(device, fresh);
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new PreconditionFailedException(Device.class.getSimpleName(), TEST_ID));
+    when(documentDao.update(eq(fresh), any(ChangeSet.class))).thenReturn(true);
+    assertTrue("Device op state was not updated",
+        controller.updateOpState(TEST_ID, OperatingState.ENABLED.toString()));
+    assertEquals("Op state not set on the fresh read", OperatingState.ENABLED,
+        fresh.getOperatingState());
+    verify(deviceWrites).saved(fresh);
+    verify(notifier).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateOpStateUnchanged() {
+    device.setOperatingState(OperatingState.ENABLED);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertTrue("Device op state was not updated",
+        controller.updateOpState(TEST_ID, OperatingState.ENABLED.toString()));
+    verify(repos, never()).save(device);
+    verify(deviceWrites, never()).saved(device);
+    verify(notifier, never()).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateOpStateDebounced() {
+    device.setOperatingState(OperatingState.DISABLED);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    when(debouncer.isEnabled()).thenReturn(true);
+    assertTrue("Device op state was not accepted",
+        controller.updateOpState(TEST_ID, OperatingState.ENABLED.toString()));
+    verify(debouncer).submit(eq(TEST_ID + "/opstate"), any(Runnable.class));
+    verify(documentDao, never()).update(any(Device.class), any(ChangeSet.class));
   }
 
   @Test
@@ -640,9 +1108,33 @@ public class DeviceControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testUpdateAdminStateByNameExceptionInSave() {
+    device.setAdminState(AdminState.LOCKED);
     when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(device);
-    when(repos.save(device)).thenThrow(new RuntimeException(TEST_ERR_MSG));
-    controller.updateAdminStateByName(DeviceData.TEST_NAME, DeviceData.TEST_ADMIN.toString());
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.updateAdminStateByName(DeviceData.TEST_NAME, AdminState.UNLOCKED.toString());
+  }
+
+  @Test
+  public void testUpdateAdminStateUnchanged() {
+    device.setAdminState(AdminState.UNLOCKED);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertTrue("Device admin state was not updated",
+        controller.updateAdminState(TEST_ID, AdminState.UNLOCKED.toString()));
+    verify(repos, never()).save(device);
+    verify(deviceWrites, never()).saved(device);
+    verify(notifier, never()).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateAdminStateDebounced() {
+    device.setAdminState(AdminState.LOCKED);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    when(debouncer.isEnabled()).thenReturn(true);
+    assertTrue("Device admin state was not accepted",
+        controller.updateAdminState(TEST_ID, AdminState.UNLOCKED.toString()));
+    verify(debouncer).submit(eq(TEST_ID + "/adminstate"), any(Runnable.class));
+    verify(documentDao, never()).update(any(Device.class), any(ChangeSet.class));
   }
 
   @Test
@@ -669,6 +1161,90 @@ public class DeviceControllerTest {
     controller.update(device);
   }
 
+  @Test
+  public void testUpdateUnchanged() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(device.getDescription());
+    assertTrue("Device was not updated", controller.update(device2));
+    verify(documentDao, never()).update(any(Device.class), any(ChangeSet.class));
+    verify(notifier, never()).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateChanged() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(TEST_DESCRIPTION);
+    assertTrue("Device was not updated", controller.update(device2));
+    assertEquals("Description not updated", TEST_DESCRIPTION, device.getDescription());
+    ArgumentCaptor<ChangeSet> changes = ArgumentCaptor.forClass(ChangeSet.class);
+    verify(documentDao).update(eq(device), changes.capture());
+    assertEquals("Only the changed field should be written", Arrays.asList("description"),
+        changes.getValue().getFields());
+    verify(notifier).enqueue(device.getName(), Action.PUT);
+  }
+
+  @Test
+  public void testUpdateIfMatchCurrent() {
+    device.setModified(TEST_VERSION);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    ifMatch("\"" + TEST_VERSION + "\"");
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(TEST_DESCRIPTION);
+    assertTrue("Device was not updated", controller.update(device2));
+    verify(documentDao).update(eq(device), any(ChangeSet.class));
+  }
+
+  @Test
+  public void testUpdateIfMatchFromRead() {
+    device.setModified(TEST_VERSION);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    ServletServerHttpResponse response =
+        new ServletServerHttpResponse(new MockHttpServletResponse());
+    new VersionEtagAdvice().beforeBodyWrite(controller.device(TEST_ID), null,
+        MediaType.APPLICATION_JSON, null,
+        new ServletServerHttpRequest(new MockHttpServletRequest("GET", "/device/" + TEST_ID)),
+        response);
+    ifMatch(response.getHeaders().getETag());
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(TEST_DESCRIPTION);
+    assertTrue("Device was not updated with the ETag it was read with", controller.update(device2));
+    verify(documentDao).update(eq(device), any(ChangeSet.class));
+  }
+
+  @Test
+  public void testUpdateIfMatchStale() {
+    device.setModified(TEST_VERSION);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    ifMatch("\"" + (TEST_VERSION - 1) + "\"");
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(TEST_DESCRIPTION);
+    try {
+      controller.update(device2);
+      fail("Stale If-Match was not rejected");
+    } catch (PreconditionFailedException pE) {
+      verify(documentDao, never()).update(any(Device.class), any(ChangeSet.class));
+      verify(notifier, never()).enqueue(device.getName(), Action.PUT);
+    }
+  }
+
+  @Test(expected = PreconditionFailedException.class)
+  public void testUpdateConcurrentWrite() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    when(documentDao.update(eq(device), any(ChangeSet.class)))
+        .thenThrow(new PreconditionFailedException(Device.class.getSimpleName(), TEST_ID));
+    Device device2 = new Device();
+    device2.setId(TEST_ID);
+    device2.setDescription(TEST_DESCRIPTION);
+    controller.update(device2);
+  }
+
   @Test(expected = ServiceException.class)
   public void testUpdatException() {
     when(repos.findOne(TEST_ID)).thenThrow(new RuntimeException(TEST_ERR_MSG));
@@ -679,6 +1255,9 @@ public class DeviceControllerTest {
   public void testDelete() {
     when(repos.findOne(TEST_ID)).thenReturn(device);
     assertTrue("Device was not deleted", controller.delete(TEST_ID));
+    verify(notifier).enqueue(device.getName(), Action.DELETE);
+    verify(jsonCache).evict(Device.class, TEST_ID);
+    verify(deviceWrites).deleted(device);
   }
 
   @Test(expected = NotFoundException.class)
@@ -711,6 +1290,113 @@ public class DeviceControllerTest {
     controller.deleteByName(DeviceData.TEST_NAME);
   }
 
+  @Test
+  public void testAddAsync() {
+    DeviceService service = ServiceData.newTestInstance();
+    DeviceProfile profile = ProfileData.newTestInstance();
+    Addressable addressable = AddressableData.newTestInstance();
+    device.setService(service);
+    device.setProfile(profile);
+    device.setAddressable(addressable);
+    when(serviceDao.getByIdOrName(service)).thenReturn(service);
+    when(profileDao.getByIdOrName(profile)).thenReturn(profile);
+    when(addressableDao.getByIdOrName(addressable)).thenReturn(addressable);
+    when(repos.save(device)).thenReturn(device);
+    DeferredResult<String> result = controller.addAsync(device);
+    assertEquals("Device ID returned is not the value expected", TEST_ID, result.getResult());
+  }
+
+  @Test
+  public void testAddAsyncNoDeviceServiceAssociated() {
+    DeviceService service = ServiceData.newTestInstance();
+    device.setService(service);
+    when(serviceDao.getByIdOrName(service)).thenReturn(null);
+    DeferredResult<String> result = controller.addAsync(device);
+    assertTrue("Validation error not returned unwrapped",
+        result.getResult() instanceof DataValidationException);
+  }
+
+  @Test
+  public void testUpdateAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertEquals("Device was not updated", true, controller.updateAsync(device).getResult());
+  }
+
+  @Test
+  public void testUpdateAsyncIfMatchStale() {
+    device.setModified(TEST_VERSION);
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    ifMatch("\"" + (TEST_VERSION - 1) + "\"");
+    assertTrue("Stale If-Match was not rejected",
+        controller.updateAsync(device).getResult() instanceof PreconditionFailedException);
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertEquals("Device was not deleted", true, controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller.deleteByNameAsync(DeviceData.TEST_NAME);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testUpdateLastConnectedAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertEquals("Device last connected was not updated", true,
+        controller.updateLastConnectedAsync(TEST_ID, TEST_TIME, false).getResult());
+  }
+
+  @Test
+  public void testUpdateLastConnectedByNameAsyncNotFound() {
+    DeferredResult<Boolean> result =
+        controller.updateLastConnectedByNameAsync(DeviceData.TEST_NAME, TEST_TIME, false);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testUpdateOpStateAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertEquals("Device op state was not updated", true,
+        controller.updateOpStateAsync(TEST_ID, DeviceData.TEST_OP.toString()).getResult());
+  }
+
+  @Test
+  public void testUpdateOpStateByNameAsyncNotFound() {
+    DeferredResult<Boolean> result =
+        controller.updateOpStateByNameAsync(DeviceData.TEST_NAME, DeviceData.TEST_OP.toString());
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testUpdateAdminStateAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(device);
+    assertEquals("Device admin state was not updated", true,
+        controller.updateAdminStateAsync(TEST_ID, DeviceData.TEST_ADMIN.toString()).getResult());
+  }
+
+  @Test
+  public void testUpdateAdminStateByNameAsyncNotFound() {
+    when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller
+        .updateAdminStateByNameAsync(DeviceData.TEST_NAME, DeviceData.TEST_ADMIN.toString());
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  private void ifMatch(String version) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("If-Match", version);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
   private void setControllerMAXLIMIT(int newLimit) throws Exception {
     Class<?> controllerClass = controller.getClass();
     Field temp = controllerClass.getDeclaredField(LIMIT_PROPERTY);
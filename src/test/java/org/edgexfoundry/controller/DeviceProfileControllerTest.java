@@ -19,9 +19,16 @@
 package org.edgexfoundry.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -29,18 +36,32 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.CallbackExecutor;
 import org.edgexfoundry.controller.impl.DeviceProfileControllerImpl;
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.controller.impl.ProfileImporter;
+import org.edgexfoundry.controller.impl.ProfileYamlCache;
+import org.edgexfoundry.dao.ChangeSet;
+import org.edgexfoundry.dao.CommandChanges;
+import org.edgexfoundry.dao.CommandDao;
 import org.edgexfoundry.dao.CommandRepository;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceProfileRepository;
 import org.edgexfoundry.dao.DeviceRepository;
+import org.edgexfoundry.dao.DocumentDao;
+import org.edgexfoundry.dao.PreconditionFailedException;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
 import org.edgexfoundry.domain.meta.Command;
 import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceObject;
 import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.ProfileResource;
 import org.edgexfoundry.domain.meta.ProvisionWatcher;
 import org.edgexfoundry.exception.controller.ClientException;
 import org.edgexfoundry.exception.controller.DataValidationException;
@@ -54,12 +75,16 @@ import org.edgexfoundry.test.data.ProfileData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 import org.yaml.snakeyaml.DumperOptions.FlowStyle;
 import org.yaml.snakeyaml.Yaml;
@@ -70,20 +95,35 @@ public class DeviceProfileControllerTest {
 
   private static final String LIMIT_PROPERTY = "maxLimit";
   private static final int MAX_LIMIT = 100;
+  private static final int YAML_CACHE_SIZE = 10;
 
   private static final String TEST_ID = "123";
+  private static final String TEST_UNKNOWN = "unknown";
   private static final String TEST_ERR_MSG = "test message";
+  private static final String TEST_MANUFACTURER = "new manufacturer";
+  private static final String TEST_CMD_ID = "456";
+  private static final String TEST_CMD_NAME = "new command";
+  private static final String TEST_CMD_PATH = "/api/v1/device/{deviceId}/changed";
 
 
   @InjectMocks
   private DeviceProfileControllerImpl controller;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
   @Mock
   private DeviceProfileRepository repos;
 
+  @Mock
+  private DocumentDao documentDao;
+
   @Mock
   private CommandRepository commandRepos;
 
+  @Mock
+  private CommandDao commandDao;
+
   @Mock
   private DeviceProfileDao dao;
 
@@ -96,6 +136,15 @@ public class DeviceProfileControllerTest {
   @Mock
   private CallbackExecutor callback;
 
+  @Mock
+  private ProfileImporter importer;
+
+  @Mock
+  private JsonCache jsonCache;
+
+  @Spy
+  private ProfileYamlCache yamlCache = new ProfileYamlCache(YAML_CACHE_SIZE);
+
   private DeviceProfile profile;
 
   @Before
@@ -161,6 +210,27 @@ public class DeviceProfileControllerTest {
         controller.deviceProfileAsYaml(TEST_ID));
   }
 
+  @Test
+  public void testDeviceProfileAsYamlCached() {
+    when(repos.findOne(TEST_ID)).thenReturn(profile);
+    when(dao.getByName(ProfileData.TEST_PROFILE_NAME)).thenReturn(profile);
+    String yaml = controller.deviceProfileAsYaml(TEST_ID);
+    assertSame("Rendered YAML not reused", yaml, controller.deviceProfileAsYaml(TEST_ID));
+    assertSame("Rendered YAML not shared with name lookup", yaml,
+        controller.deviceProfileAsYamlForName(ProfileData.TEST_PROFILE_NAME));
+    assertEquals("Profile rendered more than once", 1, yamlCache.getMisses());
+  }
+
+  @Test
+  public void testDeviceProfileAsYamlNewVersion() {
+    when(repos.findOne(TEST_ID)).thenReturn(profile);
+    String yaml = controller.deviceProfileAsYaml(TEST_ID);
+    profile.setModified(profile.getModified() + 1);
+    profile.setDescription(TEST_MANUFACTURER);
+    assertNotEquals("Stale YAML returned for a new version", yaml,
+        controller.deviceProfileAsYaml(TEST_ID));
+  }
+
   @Test(expected = ServiceException.class)
   public void testDeviceProfileAsYamlException() {
     when(repos.findOne(TEST_ID)).thenThrow(new RuntimeException(TEST_ERR_MSG));
@@ -191,6 +261,57 @@ public class DeviceProfileControllerTest {
     controller.deviceProfileForName(ProfileData.TEST_PROFILE_NAME);
   }
 
+  @Test
+  public void testDeviceProfileForIds() {
+    List<String> ids = Arrays.asList(TEST_UNKNOWN, TEST_ID);
+    List<DeviceProfile> found = new ArrayList<>();
+    found.add(profile);
+    when(repos.findAll(new LinkedHashSet<>(ids))).thenReturn(found);
+    Map<String, DeviceProfile> result = controller.deviceProfilesForIds(ids);
+    assertEquals("Ids not returned in request order", ids, new ArrayList<>(result.keySet()));
+    assertNull("Unknown id not marked as not found", result.get(TEST_UNKNOWN));
+    assertEquals("Device profile returned is not as expected", profile, result.get(TEST_ID));
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testDeviceProfileForIdsMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.deviceProfilesForIds(Arrays.asList(TEST_ID, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testDeviceProfileForIdsException() {
+    when(repos.findAll(any(Iterable.class))).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.deviceProfilesForIds(Arrays.asList(TEST_ID));
+  }
+
+  @Test
+  public void testDeviceProfileForNames() {
+    String name = ProfileData.TEST_PROFILE_NAME;
+    List<DeviceProfile> found = new ArrayList<>();
+    found.add(profile);
+    when(repos.findByNameIn(new LinkedHashSet<>(Arrays.asList(name, TEST_UNKNOWN))))
+        .thenReturn(found);
+    Map<String, DeviceProfile> result =
+        controller.deviceProfilesForNames(Arrays.asList(name, TEST_UNKNOWN, name));
+    assertEquals("Duplicate names not collapsed", 2, result.size());
+    assertEquals("Device profile returned is not as expected", profile, result.get(name));
+    assertTrue("Unknown name not marked as not found",
+        result.containsKey(TEST_UNKNOWN) && result.get(TEST_UNKNOWN) == null);
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testDeviceProfileForNamesMaxLimit() throws Exception {
+    setControllerMAXLIMIT(1);
+    controller.deviceProfilesForNames(Arrays.asList(ProfileData.TEST_PROFILE_NAME, TEST_UNKNOWN));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testDeviceProfileForNamesException() {
+    when(repos.findByNameIn(any())).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.deviceProfilesForNames(Arrays.asList(ProfileData.TEST_PROFILE_NAME));
+  }
+
   @Test
   public void testDeviceProfileByNameAsYaml() {
     when(dao.getByName(ProfileData.TEST_PROFILE_NAME)).thenReturn(profile);
@@ -371,6 +492,44 @@ public class DeviceProfileControllerTest {
     controller.uploadYaml(yamlString);
   }
 
+  @Test
+  public void testUploadYamlBulk() {
+    List<ImportResult> results = Arrays.asList(new ImportResult(TEST_UNKNOWN));
+    when(importer.importYaml(any(String.class), eq(TEST_ERR_MSG))).thenReturn(results);
+    assertEquals("Import results not returned", results, controller.uploadYamlBulk(TEST_ERR_MSG));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testUploadYamlBulkException() {
+    when(importer.importYaml(any(String.class), eq(TEST_ERR_MSG)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.uploadYamlBulk(TEST_ERR_MSG);
+  }
+
+  @Test
+  public void testUploadYamlFileBulk() throws IOException {
+    List<ImportResult> results = Arrays.asList(new ImportResult(TEST_UNKNOWN));
+    MultipartFile multipartFile =
+        new MockMultipartFile("file", TEST_UNKNOWN, null, TEST_ERR_MSG.getBytes());
+    when(importer.importFile(TEST_UNKNOWN, TEST_ERR_MSG.getBytes())).thenReturn(results);
+    assertEquals("Import results not returned", results,
+        controller.uploadYamlFileBulk(multipartFile));
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testUploadYamlFileBulkTooLarge() throws IOException {
+    MultipartFile multipartFile =
+        new MockMultipartFile("file", TEST_UNKNOWN, null, TEST_ERR_MSG.getBytes());
+    when(importer.importFile(TEST_UNKNOWN, TEST_ERR_MSG.getBytes()))
+        .thenThrow(new LimitExceededException("DeviceProfile"));
+    controller.uploadYamlFileBulk(multipartFile);
+  }
+
+  @Test(expected = ClientException.class)
+  public void testUploadYamlFileBulkEmpty() {
+    controller.uploadYamlFileBulk(new MockMultipartFile("file", new byte[0]));
+  }
+
   @Test
   public void testUpdate() {
     when(dao.getByIdOrName(profile)).thenReturn(profile);
@@ -395,6 +554,38 @@ public class DeviceProfileControllerTest {
     controller.update(profile);
   }
 
+  @Test
+  public void testUpdateManufacturer() {
+    DeviceProfile profile2 = new DeviceProfile();
+    profile2.setId(TEST_ID);
+    profile2.setManufacturer(TEST_MANUFACTURER);
+    String description = profile.getDescription();
+    when(dao.getByIdOrName(profile2)).thenReturn(profile);
+    assertTrue("Device Profile was not updated", controller.update(profile2));
+    assertEquals("Manufacturer not updated", TEST_MANUFACTURER, profile.getManufacturer());
+    assertEquals("Description should not change", description, profile.getDescription());
+    verify(documentDao).update(eq(profile), any(ChangeSet.class));
+    verify(yamlCache).evict(TEST_ID);
+    verify(jsonCache).evict(DeviceProfile.class, TEST_ID);
+  }
+
+  @Test
+  public void testUpdateIdenticalProfileNotWritten() {
+    // domain objects without an equals of their own, rebuilt by the request body
+    profile.setDeviceResources(deviceResources());
+    profile.setResources(resources());
+    DeviceProfile profile2 = ProfileData.newTestInstance();
+    profile2.setId(TEST_ID);
+    profile2.setOrigin(profile.getOrigin());
+    profile2.setDeviceResources(deviceResources());
+    profile2.setResources(resources());
+    when(dao.getByIdOrName(profile2)).thenReturn(profile);
+    assertTrue("Device Profile was not updated", controller.update(profile2));
+    verify(documentDao, never()).update(any(DeviceProfile.class), any(ChangeSet.class));
+    verify(yamlCache, never()).evict(TEST_ID);
+    verify(dao, never()).getOwningServices(profile);
+  }
+
   @Test(expected = ServiceException.class)
   public void testUpdatException() {
     when(dao.getByIdOrName(profile)).thenThrow(new RuntimeException(TEST_ERR_MSG));
@@ -410,10 +601,84 @@ public class DeviceProfileControllerTest {
     assertTrue("Device Profile was not updated", controller.update(profile));
   }
 
+  @Test
+  public void testUpdateWritesOnlyChangedCommands() {
+    Command stored = CommandData.newTestInstance();
+    stored.setId(TEST_CMD_ID);
+    profile.setCommands(new ArrayList<>(Arrays.asList(stored)));
+    Command added = CommandData.newTestInstance();
+    added.setName(TEST_CMD_NAME);
+    DeviceProfile profile2 = new DeviceProfile();
+    profile2.setId(TEST_ID);
+    profile2.setCommands(Arrays.asList(CommandData.newTestInstance(), added));
+    when(dao.getByIdOrName(profile2)).thenReturn(profile);
+    assertTrue("Device Profile was not updated", controller.update(profile2));
+    ArgumentCaptor<CommandChanges> changes = ArgumentCaptor.forClass(CommandChanges.class);
+    InOrder inOrder = inOrder(commandDao, documentDao);
+    inOrder.verify(commandDao).write(changes.capture());
+    inOrder.verify(documentDao).update(eq(profile), any(ChangeSet.class));
+    inOrder.verify(commandDao).finish(changes.getValue());
+    assertEquals("Only the new command should be added", Arrays.asList(added),
+        changes.getValue().getAdded());
+    assertTrue("No command should be updated", changes.getValue().getUpdated().isEmpty());
+    assertEquals("Stored command not kept", Arrays.asList(stored, added), profile.getCommands());
+    verify(commandRepos, never()).delete(any(Command.class));
+  }
+
+  @Test
+  public void testUpdateConflictDiscardsCommandCopies() {
+    Command stored = CommandData.newTestInstance();
+    stored.setId(TEST_CMD_ID);
+    profile.setCommands(new ArrayList<>(Arrays.asList(stored)));
+    Command added = CommandData.newTestInstance();
+    added.setName(TEST_CMD_NAME);
+    DeviceProfile profile2 = new DeviceProfile();
+    profile2.setId(TEST_ID);
+    profile2.setCommands(Arrays.asList(added));
+    when(dao.getByIdOrName(profile2)).thenReturn(profile);
+    when(documentDao.update(eq(profile), any(ChangeSet.class)))
+        .thenThrow(new PreconditionFailedException(DeviceProfile.class.getSimpleName(), TEST_ID));
+    try {
+      controller.update(profile2);
+      fail("Concurrent write was not reported");
+    } catch (PreconditionFailedException pE) {
+      ArgumentCaptor<CommandChanges> changes = ArgumentCaptor.forClass(CommandChanges.class);
+      verify(commandDao).write(changes.capture());
+      verify(commandDao).discard(changes.getValue());
+      verify(commandDao, never()).finish(any(CommandChanges.class));
+    }
+  }
+
+  @Test
+  public void testUpdateChangedCommandKeepsId() {
+    Command stored = CommandData.newTestInstance();
+    stored.setId(TEST_CMD_ID);
+    profile.setCommands(new ArrayList<>(Arrays.asList(stored)));
+    Command changed = CommandData.newTestInstance();
+    changed.getGet().setPath(TEST_CMD_PATH);
+    DeviceProfile profile2 = new DeviceProfile();
+    profile2.setId(TEST_ID);
+    profile2.setCommands(Arrays.asList(changed));
+    when(dao.getByIdOrName(profile2)).thenReturn(profile);
+    assertTrue("Device Profile was not updated", controller.update(profile2));
+    ArgumentCaptor<CommandChanges> changes = ArgumentCaptor.forClass(CommandChanges.class);
+    InOrder inOrder = inOrder(commandDao, documentDao);
+    inOrder.verify(commandDao).write(changes.capture());
+    inOrder.verify(documentDao).update(eq(profile), any(ChangeSet.class));
+    inOrder.verify(commandDao).finish(changes.getValue());
+    assertEquals("Changed command not replaced in place", Arrays.asList(changed),
+        changes.getValue().getReplaced());
+    assertEquals("Stored command id not kept", TEST_CMD_ID, changed.getId());
+    assertEquals("Profile not switched to the changed command", Arrays.asList(changed),
+        profile.getCommands());
+  }
+
   @Test
   public void testDelete() {
     when(repos.findOne(TEST_ID)).thenReturn(profile);
     assertTrue("Device Profile was not deleted", controller.delete(TEST_ID));
+    verify(yamlCache).evict(TEST_ID);
+    verify(jsonCache).evict(DeviceProfile.class, TEST_ID);
   }
 
   @Test(expected = NotFoundException.class)
@@ -435,6 +700,28 @@ public class DeviceProfileControllerTest {
         controller.deleteByName(ProfileData.TEST_PROFILE_NAME));
   }
 
+  @Test
+  public void testUpdateAsync() {
+    when(dao.getByIdOrName(profile)).thenReturn(profile);
+    assertEquals("Device Profile was not updated", true,
+        controller.updateAsync(profile).getResult());
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(profile);
+    assertEquals("Device Profile was not deleted", true,
+        controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(dao.getByName(ProfileData.TEST_PROFILE_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller.deleteByNameAsync(ProfileData.TEST_PROFILE_NAME);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
   @Test(expected = NotFoundException.class)
   public void testDeleteByNameNotFound() {
     when(dao.getByName(ProfileData.TEST_PROFILE_NAME)).thenReturn(null);
@@ -466,6 +753,19 @@ public class DeviceProfileControllerTest {
     controller.delete(TEST_ID);
   }
 
+  private List<DeviceObject> deviceResources() {
+    DeviceObject object = new DeviceObject();
+    object.setName(TEST_CMD_NAME);
+    object.setDescription(TEST_CMD_NAME);
+    return new ArrayList<>(Arrays.asList(object));
+  }
+
+  private List<ProfileResource> resources() {
+    ProfileResource resource = new ProfileResource();
+    resource.setName(TEST_CMD_NAME);
+    return new ArrayList<>(Arrays.asList(resource));
+  }
+
   private void setControllerMAXLIMIT(int newLimit) throws Exception {
     Class<?> controllerClass = controller.getClass();
     Field temp = controllerClass.getDeclaredField(LIMIT_PROPERTY);
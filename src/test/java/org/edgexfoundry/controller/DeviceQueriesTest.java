@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.controller.impl.DeviceQueries;
+import org.edgexfoundry.dao.DeviceIndex;
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.edgexfoundry.exception.controller.ClientException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class DeviceQueriesTest {
+
+  private static final String TEST_SERVICE_ID = "s1";
+  private static final String TEST_OTHER_SERVICE_ID = "s2";
+  private static final String TEST_PROFILE_ID = "p1";
+  private static final String TEST_LABEL = "floor-1";
+  private static final String TEST_OTHER_LABEL = "floor-2";
+  private static final String TEST_UNKNOWN = "unknown";
+  private static final String[] IDS = {"d0", "d1", "d2", "d3"};
+
+  private DeviceIndex index;
+
+  private DeviceQuery query;
+
+  @Before
+  public void setup() {
+    index = new DeviceIndex();
+    save(device(IDS[0], TEST_SERVICE_ID, TEST_LABEL, AdminState.UNLOCKED, 100));
+    save(device(IDS[1], TEST_SERVICE_ID, TEST_OTHER_LABEL, AdminState.LOCKED, 200));
+    save(device(IDS[2], TEST_OTHER_SERVICE_ID, TEST_LABEL, AdminState.UNLOCKED, 300));
+    save(device(IDS[3], TEST_SERVICE_ID, TEST_OTHER_LABEL, AdminState.UNLOCKED, 400));
+    query = new DeviceQuery();
+  }
+
+  @Test
+  public void testEmptyMatchesAll() {
+    assertEquals("Empty query should match every device", Arrays.asList(IDS), search(query));
+  }
+
+  @Test
+  public void testCriteriaAllHold() {
+    query.setService(TEST_SERVICE_ID);
+    query.setAdminState(AdminState.UNLOCKED);
+    assertEquals("Unexpected devices", Arrays.asList(IDS[0], IDS[3]), search(query));
+  }
+
+  @Test
+  public void testProfileAndOperatingState() {
+    query.setProfile(TEST_PROFILE_ID);
+    query.setOperatingState(OperatingState.ENABLED);
+    assertEquals("Unexpected devices", Arrays.asList(IDS), search(query));
+  }
+
+  @Test
+  public void testUnknownValueMatchesNothing() {
+    query.setLabel(TEST_UNKNOWN);
+    assertEquals("Unknown label matched", 0, search(query).size());
+  }
+
+  @Test
+  public void testOr() {
+    query.setOr(Arrays.asList(label(TEST_LABEL), service(TEST_SERVICE_ID)));
+    assertEquals("Unexpected devices", Arrays.asList(IDS), search(query));
+    query.setOr(Arrays.asList(label(TEST_UNKNOWN), service(TEST_OTHER_SERVICE_ID)));
+    assertEquals("Unexpected devices", Arrays.asList(IDS[2]), search(query));
+  }
+
+  @Test
+  public void testAnd() {
+    query.setAnd(Arrays.asList(label(TEST_OTHER_LABEL), service(TEST_SERVICE_ID)));
+    assertEquals("Unexpected devices", Arrays.asList(IDS[1], IDS[3]), search(query));
+  }
+
+  @Test
+  public void testNot() {
+    query.setService(TEST_SERVICE_ID);
+    query.setNot(label(TEST_OTHER_LABEL));
+    assertEquals("Unexpected devices", Arrays.asList(IDS[0]), search(query));
+  }
+
+  @Test
+  public void testLastConnectedRange() {
+    DeviceQuery.Range range = new DeviceQuery.Range();
+    range.setFrom(200L);
+    range.setTo(300L);
+    query.setLastConnected(range);
+    assertEquals("Unexpected devices", Arrays.asList(IDS[1], IDS[2]), search(query));
+    range.setFrom(null);
+    assertEquals("Open range start", Arrays.asList(IDS[0], IDS[1], IDS[2]), search(query));
+  }
+
+  @Test
+  public void testDeletedDeviceNotMatched() {
+    delete(device(IDS[0], TEST_SERVICE_ID, TEST_LABEL, AdminState.UNLOCKED, 100));
+    query.setLabel(TEST_LABEL);
+    assertEquals("Deleted device matched", Arrays.asList(IDS[2]), search(query));
+  }
+
+  @Test
+  public void testMaxDepthAccepted() {
+    DeviceQueries.check(nest(DeviceQueries.MAX_DEPTH - 1));
+  }
+
+  @Test(expected = ClientException.class)
+  public void testTooDeepRejected() {
+    DeviceQueries.check(nest(DeviceQueries.MAX_DEPTH));
+  }
+
+  @Test(expected = ClientException.class)
+  public void testNullNestedRejected() {
+    query.setOr(Arrays.asList(label(TEST_LABEL), null));
+    DeviceQueries.check(query);
+  }
+
+  private List<String> search(DeviceQuery deviceQuery) {
+    return index.select(rows -> DeviceQueries.evaluate(deviceQuery, rows));
+  }
+
+  // a query nesting the given number of levels below the top one, alternating and, or and not
+  private DeviceQuery nest(int levels) {
+    DeviceQuery top = new DeviceQuery();
+    DeviceQuery level = top;
+    for (int i = 0; i < levels; i++) {
+      DeviceQuery next = new DeviceQuery();
+      if (i % 3 == 0)
+        level.setAnd(Arrays.asList(next));
+      else if (i % 3 == 1)
+        level.setOr(Arrays.asList(next));
+      else
+        level.setNot(next);
+      level = next;
+    }
+    return top;
+  }
+
+  private DeviceQuery label(String label) {
+    DeviceQuery labelQuery = new DeviceQuery();
+    labelQuery.setLabel(label);
+    return labelQuery;
+  }
+
+  private DeviceQuery service(String serviceId) {
+    DeviceQuery serviceQuery = new DeviceQuery();
+    serviceQuery.setService(serviceId);
+    return serviceQuery;
+  }
+
+  private void save(Device device) {
+    index.saved(device, device.getModified());
+  }
+
+  // deleted after any write of the device
+  private void delete(Device device) {
+    index.deleted(device, device.getModified() + 1);
+  }
+
+  private Device device(String id, String serviceId, String label, AdminState adminState,
+      long lastConnected) {
+    Device device = new Device();
+    device.setId(id);
+    device.setName(id);
+    device.setLabels(new String[] {label});
+    DeviceService service = new DeviceService();
+    service.setId(serviceId);
+    device.setService(service);
+    DeviceProfile profile = new DeviceProfile();
+    profile.setId(TEST_PROFILE_ID);
+    device.setProfile(profile);
+    device.setAdminState(adminState);
+    device.setOperatingState(OperatingState.ENABLED);
+    device.setLastConnected(lastConnected);
+    return device;
+  }
+
+}
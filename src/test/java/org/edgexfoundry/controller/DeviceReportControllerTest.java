@@ -21,6 +21,8 @@ package org.edgexfoundry.controller;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
@@ -208,6 +210,7 @@ public class DeviceReportControllerTest {
         .thenReturn(ScheduleEventData.newTestInstance());
     assertEquals("Device Report ID returned is not the value expected", TEST_ID,
         controller.add(report));
+    verify(dao).invalidate(DeviceData.TEST_NAME);
   }
 
   @Test(expected = NotFoundException.class)
@@ -269,6 +272,7 @@ public class DeviceReportControllerTest {
         .thenReturn(ScheduleEventData.newTestInstance());
     when(dao.getByIdOrName(report)).thenReturn(report);
     assertTrue("Device Report was not updated", controller.update(report));
+    verify(dao, times(2)).invalidate(DeviceData.TEST_NAME);
   }
 
   @Test
@@ -306,6 +310,7 @@ public class DeviceReportControllerTest {
   public void testDelete() {
     when(repos.findOne(TEST_ID)).thenReturn(report);
     assertTrue("Device Report was not deleted", controller.delete(TEST_ID));
+    verify(dao).invalidate(report.getDevice());
   }
 
   @Test(expected = NotFoundException.class)
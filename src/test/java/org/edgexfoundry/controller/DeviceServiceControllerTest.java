@@ -19,24 +19,42 @@
 package org.edgexfoundry.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.DeviceServiceControllerImpl;
+import org.edgexfoundry.controller.impl.JsonCache;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.DeviceDao;
+import org.edgexfoundry.dao.DeviceIndex;
+import org.edgexfoundry.dao.DeviceProfileRepository;
 import org.edgexfoundry.dao.DeviceRepository;
 import org.edgexfoundry.dao.DeviceServiceDao;
 import org.edgexfoundry.dao.DeviceServiceRepository;
+import org.edgexfoundry.dao.DeviceWrites;
+import org.edgexfoundry.dao.DocumentDao;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
+import org.edgexfoundry.dao.VersionDao;
 import org.edgexfoundry.domain.meta.Addressable;
 import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
 import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.exception.controller.ClientException;
 import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.LimitExceededException;
 import org.edgexfoundry.exception.controller.NotFoundException;
@@ -44,6 +62,7 @@ import org.edgexfoundry.exception.controller.ServiceException;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.AddressableData;
 import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ProfileData;
 import org.edgexfoundry.test.data.ServiceData;
 import org.junit.Before;
 import org.junit.Test;
@@ -51,8 +70,10 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Category(RequiresNone.class)
 public class DeviceServiceControllerTest {
@@ -61,14 +82,26 @@ public class DeviceServiceControllerTest {
   private static final int MAX_LIMIT = 100;
 
   private static final String TEST_ID = "123";
+  private static final String TEST_ADDRESSABLE_ID = "456";
+  private static final int TEST_NODE = 5;
+  private static final String TEST_DIGEST = "00000000000000ff";
+  private static final String TEST_ADDED_ID = "789";
+  private static final String TEST_CHANGED_ID = "790";
+  private static final String TEST_PROFILE_ID = "p1";
   private static final String TEST_ERR_MSG = "test message";
 
   @InjectMocks
   private DeviceServiceControllerImpl controller;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
   @Mock
   private DeviceServiceRepository repos;
 
+  @Mock
+  private DocumentDao documentDao;
+
   @Mock
   private DeviceServiceDao dao;
 
@@ -81,6 +114,24 @@ public class DeviceServiceControllerTest {
   @Mock
   private ProvisionWatcherRepository watcherRepos;
 
+  @Mock
+  private JsonCache jsonCache;
+
+  @Mock
+  private DeviceWrites deviceWrites;
+
+  @Mock
+  private DeviceIndex deviceIndex;
+
+  @Mock
+  private DeviceDao deviceDao;
+
+  @Mock
+  private VersionDao versionDao;
+
+  @Mock
+  private DeviceProfileRepository profileRepos;
+
   private DeviceService service;
 
   @Before
@@ -140,7 +191,7 @@ public class DeviceServiceControllerTest {
 
   @Test
   public void testDeviceServiceForName() {
-    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(dao.getByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
     assertEquals("Device service returned is not as expected", service,
         controller.deviceServiceForName(ServiceData.TEST_SERVICE_NAME));
   }
@@ -152,7 +203,7 @@ public class DeviceServiceControllerTest {
 
   @Test(expected = ServiceException.class)
   public void testDeviceServiceForNameException() {
-    when(repos.findByName(ServiceData.TEST_SERVICE_NAME))
+    when(dao.getByName(ServiceData.TEST_SERVICE_NAME))
         .thenThrow(new RuntimeException(TEST_ERR_MSG));
     controller.deviceServiceForName(ServiceData.TEST_SERVICE_NAME);
   }
@@ -230,16 +281,17 @@ public class DeviceServiceControllerTest {
   @Test
   public void testAddressablesForAssociatedDevices() {
     Addressable addressable = AddressableData.newTestInstance();
-    Device device = DeviceData.newTestInstance();
-    device.setAddressable(addressable);
-    List<Device> devices = new ArrayList<>();
-    devices.add(device);
+    List<String> ids = Arrays.asList(TEST_ADDRESSABLE_ID);
     when(repos.findOne(TEST_ID)).thenReturn(service);
-    when(deviceRepos.findByService(service)).thenReturn(devices);
+    when(deviceIndex.isLoaded()).thenReturn(true);
+    when(deviceIndex.addressablesForService(service.getId())).thenReturn(ids);
+    when(addressableDao.getByIds(ids)).thenReturn(Arrays.asList(addressable));
     Set<Addressable> addressables = controller.addressablesForAssociatedDevices(TEST_ID);
     assertEquals("Number of addressables returned does not matched expected number", 1,
         addressables.size());
     assertTrue("Addressable returned is not as expected", addressables.contains(addressable));
+    verify(deviceRepos, never()).findByService(any(DeviceService.class));
+    verify(deviceDao, never()).getAddressableIdsForService(any(DeviceService.class));
   }
 
   @Test(expected = NotFoundException.class)
@@ -257,17 +309,16 @@ public class DeviceServiceControllerTest {
   @Test
   public void testAddressablesForAssociatedDevicesByName() {
     Addressable addressable = AddressableData.newTestInstance();
-    Device device = DeviceData.newTestInstance();
-    device.setAddressable(addressable);
-    List<Device> devices = new ArrayList<>();
-    devices.add(device);
+    List<String> ids = Arrays.asList(TEST_ADDRESSABLE_ID);
     when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
-    when(deviceRepos.findByService(service)).thenReturn(devices);
+    when(deviceDao.getAddressableIdsForService(service)).thenReturn(ids);
+    when(addressableDao.getByIds(ids)).thenReturn(Arrays.asList(addressable));
     Set<Addressable> addressables =
         controller.addressablesForAssociatedDevicesByName(ServiceData.TEST_SERVICE_NAME);
     assertEquals("Number of addressables returned does not matched expected number", 1,
         addressables.size());
     assertTrue("Addressable returned is not as expected", addressables.contains(addressable));
+    verify(deviceRepos, never()).findByService(any(DeviceService.class));
   }
 
   @Test(expected = NotFoundException.class)
@@ -283,6 +334,161 @@ public class DeviceServiceControllerTest {
     controller.addressablesForAssociatedDevicesByName(ServiceData.TEST_SERVICE_NAME);
   }
 
+  @Test
+  public void testDigest() {
+    DeviceIndex.DigestNode root = mock(DeviceIndex.DigestNode.class);
+    when(root.getNode()).thenReturn(1);
+    when(root.getDigest()).thenReturn(TEST_DIGEST);
+    when(deviceIndex.isLoaded()).thenReturn(true);
+    when(deviceIndex.isDigestNode(1)).thenReturn(true);
+    when(repos.findOne(TEST_ID)).thenReturn(service);
+    when(deviceIndex.digestNode(TEST_ID, 1)).thenReturn(root);
+    DigestNode returned = controller.digest(TEST_ID);
+    assertEquals("Root not returned", 1, returned.getNode());
+    assertEquals("Root digest not returned", TEST_DIGEST, returned.getDigest());
+    verify(deviceIndex, never()).load();
+  }
+
+  @Test
+  public void testDigestNodeLoads() {
+    when(deviceIndex.isLoaded()).thenReturn(false, true);
+    when(deviceIndex.isDigestNode(TEST_NODE)).thenReturn(true);
+    when(repos.findOne(TEST_ID)).thenReturn(service);
+    when(deviceIndex.digestNode(TEST_ID, TEST_NODE))
+        .thenReturn(mock(DeviceIndex.DigestNode.class));
+    controller.digestNode(TEST_ID, TEST_NODE);
+    verify(deviceIndex).load();
+    verify(deviceIndex).digestNode(TEST_ID, TEST_NODE);
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testDigestNotLoaded() {
+    controller.digest(TEST_ID);
+  }
+
+  @Test(expected = ClientException.class)
+  public void testDigestNodeNotANode() {
+    when(deviceIndex.isLoaded()).thenReturn(true);
+    controller.digestNode(TEST_ID, TEST_NODE);
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testDigestServiceNotFound() {
+    when(deviceIndex.isLoaded()).thenReturn(true);
+    when(deviceIndex.isDigestNode(1)).thenReturn(true);
+    controller.digest(TEST_ID);
+  }
+
+  @Test
+  public void testSync() {
+    DeviceProfile profile = ProfileData.newTestInstance();
+    profile.setId(TEST_PROFILE_ID);
+    Device added = DeviceData.newTestInstance();
+    added.setId(TEST_ADDED_ID);
+    added.setProfile(profile);
+    Device changed = DeviceData.newTestInstance();
+    changed.setId(TEST_CHANGED_ID);
+    service.setAddressable(null);
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(versionDao.getDeviceVersions(service)).thenReturn(Arrays.asList(
+        new VersionDao.Version(TEST_ADDED_ID, "added", 1, null, TEST_PROFILE_ID,
+            TEST_ADDRESSABLE_ID),
+        new VersionDao.Version(TEST_CHANGED_ID, "changed", 2, null, TEST_PROFILE_ID, null),
+        new VersionDao.Version(TEST_ID, "same", 3, null, TEST_PROFILE_ID, TEST_ADDRESSABLE_ID)));
+    when(versionDao.getProfileVersions(Collections.singleton(TEST_PROFILE_ID)))
+        .thenReturn(Arrays.asList(new VersionDao.Version(TEST_PROFILE_ID, "profile", 4, null,
+            null, null)));
+    when(versionDao.getVersions(Addressable.class, Collections.singleton(TEST_ADDRESSABLE_ID)))
+        .thenReturn(Arrays.asList(new VersionDao.Version(TEST_ADDRESSABLE_ID, "address", 5, null,
+            null, null)));
+    when(deviceRepos.findAll(Arrays.asList(TEST_ADDED_ID, TEST_CHANGED_ID)))
+        .thenReturn(Arrays.asList(added, changed));
+    when(profileRepos.findAll(Arrays.asList(TEST_PROFILE_ID))).thenReturn(Arrays.asList(profile));
+    SyncManifest manifest = new SyncManifest();
+    manifest.getDevices().put("changed", 1L);
+    manifest.getDevices().put("same", 3L);
+    manifest.getDevices().put("gone", 3L);
+    manifest.getProfiles().put("profile", 3L);
+    manifest.getAddressables().put("address", 5L);
+    SyncDiff diff = controller.sync(ServiceData.TEST_SERVICE_NAME, manifest);
+    assertEquals("Added devices not as expected", Arrays.asList(TEST_ADDED_ID),
+        ids(diff.getDevices().getAdded()));
+    assertEquals("Profile not referred to by name", profile.getName(),
+        diff.getDevices().getAdded().get(0).getProfile());
+    assertEquals("Changed devices not as expected", Arrays.asList(TEST_CHANGED_ID),
+        ids(diff.getDevices().getChanged()));
+    assertEquals("Removed devices not as expected", Arrays.asList("gone"),
+        diff.getDevices().getRemoved());
+    assertEquals("Changed profiles not as expected", Arrays.asList(profile),
+        diff.getProfiles().getChanged());
+    assertEquals("Profile version not listed", Long.valueOf(4),
+        diff.getProfiles().getVersions().get("profile"));
+    assertEquals("Device version not listed", Long.valueOf(2),
+        diff.getDevices().getVersions().get("changed"));
+    assertTrue("Current addressable returned", diff.getAddressables().getChanged().isEmpty());
+    assertFalse("Diff within the limit truncated", diff.isTruncated());
+    verify(addressableDao, never()).getByIds(anyListOf(String.class));
+  }
+
+  @Test
+  public void testSyncIncludesServiceAddressable() {
+    Addressable addressable = AddressableData.newTestInstance();
+    addressable.setId(TEST_ADDRESSABLE_ID);
+    service.setAddressable(addressable);
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(versionDao.getVersions(Addressable.class, Collections.singleton(TEST_ADDRESSABLE_ID)))
+        .thenReturn(Arrays.asList(new VersionDao.Version(TEST_ADDRESSABLE_ID,
+            addressable.getName(), 5, null, null, null)));
+    when(addressableDao.getByIds(Arrays.asList(TEST_ADDRESSABLE_ID)))
+        .thenReturn(Arrays.asList(addressable));
+    SyncDiff diff = controller.sync(ServiceData.TEST_SERVICE_NAME, new SyncManifest());
+    assertEquals("Service addressable not returned", Arrays.asList(addressable),
+        diff.getAddressables().getAdded());
+  }
+
+  @Test
+  public void testSyncTruncated() throws Exception {
+    setControllerMAXLIMIT(2);
+    DeviceProfile profile = ProfileData.newTestInstance();
+    profile.setId(TEST_PROFILE_ID);
+    Device added = DeviceData.newTestInstance();
+    added.setId(TEST_ADDED_ID);
+    service.setAddressable(null);
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(versionDao.getDeviceVersions(service)).thenReturn(Arrays.asList(
+        new VersionDao.Version(TEST_CHANGED_ID, "changed", 2, null, TEST_PROFILE_ID, null),
+        new VersionDao.Version(TEST_ADDED_ID, "added", 1, null, TEST_PROFILE_ID, null)));
+    when(versionDao.getProfileVersions(Collections.singleton(TEST_PROFILE_ID)))
+        .thenReturn(Arrays.asList(new VersionDao.Version(TEST_PROFILE_ID, "profile", 4, null,
+            null, null)));
+    when(profileRepos.findAll(Arrays.asList(TEST_PROFILE_ID))).thenReturn(Arrays.asList(profile));
+    when(deviceRepos.findAll(Arrays.asList(TEST_ADDED_ID))).thenReturn(Arrays.asList(added));
+    SyncDiff diff = controller.sync(ServiceData.TEST_SERVICE_NAME, new SyncManifest());
+    assertTrue("Diff over the limit not truncated", diff.isTruncated());
+    assertEquals("Profile not returned before devices", Arrays.asList(profile),
+        diff.getProfiles().getAdded());
+    assertEquals("Devices not cut to the limit in name order", Arrays.asList(TEST_ADDED_ID),
+        ids(diff.getDevices().getAdded()));
+    assertFalse("Device left out listed", diff.getDevices().getVersions().containsKey("changed"));
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testSyncServiceNotFound() {
+    controller.sync(ServiceData.TEST_SERVICE_NAME, new SyncManifest());
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testSyncWithNull() {
+    controller.sync(ServiceData.TEST_SERVICE_NAME, null);
+  }
+
+  @Test(expected = ServiceException.class)
+  public void testSyncException() {
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(versionDao.getDeviceVersions(service)).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    controller.sync(ServiceData.TEST_SERVICE_NAME, new SyncManifest());
+  }
+
   @Test
   public void testAdd() {
     Addressable addressable = AddressableData.newTestInstance();
@@ -581,6 +787,7 @@ public class DeviceServiceControllerTest {
   public void testDelete() {
     when(repos.findOne(TEST_ID)).thenReturn(service);
     assertTrue("Device service was not deleted", controller.delete(TEST_ID));
+    verify(jsonCache).evict(DeviceService.class, TEST_ID);
   }
 
   @Test(expected = NotFoundException.class)
@@ -602,6 +809,44 @@ public class DeviceServiceControllerTest {
         controller.deleteByName(ServiceData.TEST_SERVICE_NAME));
   }
 
+  @Test
+  public void testUpdateAsync() {
+    when(dao.getByIdOrName(service)).thenReturn(service);
+    assertEquals("Device service was not updated", true,
+        controller.updateAsync(service).getResult());
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(service);
+    assertEquals("Device service was not deleted", true,
+        controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller.deleteByNameAsync(ServiceData.TEST_SERVICE_NAME);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
+  @Test
+  public void testUpdateAdminStateAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(service);
+    assertEquals("Device service admin state was not updated", true,
+        controller.updateAdminStateAsync(TEST_ID, DeviceData.TEST_ADMIN.toString()).getResult());
+  }
+
+  @Test
+  public void testUpdateAdminStateByNameAsyncNotFound() {
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller.updateAdminStateByNameAsync(
+        ServiceData.TEST_SERVICE_NAME, DeviceData.TEST_ADMIN.toString());
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
   @Test(expected = NotFoundException.class)
   public void testDeleteByNameNotFound() {
     when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(null);
@@ -616,6 +861,10 @@ public class DeviceServiceControllerTest {
         controller.deleteByName(ServiceData.TEST_SERVICE_NAME));
   }
 
+  private List<String> ids(List<SyncDevice> devices) {
+    return devices.stream().map(SyncDevice::getId).collect(Collectors.toList());
+  }
+
   private void setControllerMAXLIMIT(int newLimit) throws Exception {
     Class<?> controllerClass = controller.getClass();
     Field temp = controllerClass.getDeclaredField(LIMIT_PROPERTY);
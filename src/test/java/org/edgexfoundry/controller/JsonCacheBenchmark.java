@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the time and allocation per request of writing a cached profile against serializing it
+ * with Jackson. Wall-clock numbers depend on the machine, so they are reported rather than
+ * asserted. The class carries no test category and is not in the unit test suite; run it on its
+ * own.
+ */
+public class JsonCacheBenchmark {
+
+  private static final String TEST_ID = "123";
+  private static final int CAPACITY = 10;
+  private static final int WARMUP = 20000;
+  private static final int ITERATIONS = 20000;
+
+  private ObjectMapper mapper = new ObjectMapper();
+
+  private JsonCache cache;
+
+  private DeviceProfile profile;
+
+  @Before
+  public void setup() {
+    cache = new JsonCache(mapper, CAPACITY);
+    profile = ProfileData.newTestInstance();
+    profile.setId(TEST_ID);
+  }
+
+  @Test
+  public void costPerRequest() throws Exception {
+    for (int i = 0; i < WARMUP; i++) {
+      mapper.writeValueAsBytes(profile);
+      cache.toJson(profile);
+    }
+
+    long allocated = allocated();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++)
+      mapper.writeValueAsBytes(profile);
+    long jackson = System.nanoTime() - start;
+    long jacksonBytes = allocated() - allocated;
+
+    allocated = allocated();
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++)
+      cache.toJson(profile);
+    long cached = System.nanoTime() - start;
+    long cachedBytes = allocated() - allocated;
+
+    report("Jackson", jackson, allocated >= 0 ? jacksonBytes : -1);
+    report("Cached", cached, allocated >= 0 ? cachedBytes : -1);
+  }
+
+  private void report(String name, long nanos, long bytes) {
+    System.out.println(String.format("%s: %d ms for %d requests, %d ns and %s bytes per request",
+        name, TimeUnit.NANOSECONDS.toMillis(nanos), ITERATIONS, nanos / ITERATIONS,
+        bytes < 0 ? "n/a" : Long.toString(bytes / ITERATIONS)));
+  }
+
+  private long allocated() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean)
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    return -1;
+  }
+
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.edgexfoundry.controller.impl.JsonCache;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ProfileData;
+import org.edgexfoundry.test.data.ServiceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Category(RequiresNone.class)
+public class JsonCacheTest {
+
+  private static final String TEST_ID = "123";
+  private static final int CAPACITY = 10;
+  private static final int OFF_HEAP_MB = 1;
+
+  private ObjectMapper mapper = new ObjectMapper();
+
+  private JsonCache cache;
+
+  private DeviceProfile profile;
+
+  @Before
+  public void setup() {
+    cache = new JsonCache(mapper, CAPACITY);
+    profile = ProfileData.newTestInstance();
+    profile.setId(TEST_ID);
+  }
+
+  @Test
+  public void testIsCached() {
+    assertTrue("Profiles not cached", cache.isCached(DeviceProfile.class));
+    assertTrue("Device services not cached", cache.isCached(DeviceService.class));
+    assertFalse("Addressables should not be cached", cache.isCached(Addressable.class));
+    assertFalse("Devices cached without an off-heap tier", cache.isCached(Device.class));
+  }
+
+  @Test
+  public void testToJson() throws Exception {
+    assertArrayEquals("Cached JSON differs from Jackson", mapper.writeValueAsBytes(profile),
+        cache.toJson(profile));
+  }
+
+  @Test
+  public void testToJsonCached() throws Exception {
+    byte[] json = cache.toJson(profile);
+    assertSame("Serialized JSON not reused", json, cache.toJson(profile));
+    assertEquals("Unexpected hits", 1, cache.getHits());
+    assertEquals("Unexpected misses", 1, cache.getMisses());
+  }
+
+  @Test
+  public void testToJsonNewVersion() throws Exception {
+    byte[] json = cache.toJson(profile);
+    profile.setModified(profile.getModified() + 1);
+    assertNotSame("New version not serialized", json, cache.toJson(profile));
+    assertEquals("Old version should be replaced", 1, cache.size());
+  }
+
+  @Test
+  public void testToJsonNewCommandVersion() throws Exception {
+    Command command = CommandData.newTestInstance();
+    command.setModified(profile.getModified());
+    profile.setCommands(Arrays.asList(command));
+    byte[] json = cache.toJson(profile);
+    // the command is updated in place; the profile document is not
+    command.setModified(profile.getModified() + 1);
+    assertNotSame("Profile with a changed command not serialized again", json,
+        cache.toJson(profile));
+  }
+
+  @Test
+  public void testToJsonReadBeforeClearNotServed() throws Exception {
+    Command command = CommandData.newTestInstance();
+    command.setModified(profile.getModified());
+    DeviceProfile stale = ProfileData.newTestInstance();
+    stale.setId(TEST_ID);
+    stale.setModified(profile.getModified());
+    stale.setCommands(Arrays.asList(command));
+    // a command update clears the cache between a read and its serialization
+    cache.clear();
+    byte[] staleJson = cache.toJson(stale);
+    Command updated = CommandData.newTestInstance();
+    updated.setModified(profile.getModified() + 1);
+    profile.setCommands(Arrays.asList(updated));
+    assertNotSame("Bytes of a read from before the change served after it", staleJson,
+        cache.toJson(profile));
+  }
+
+  @Test
+  public void testToJsonWithoutId() throws Exception {
+    profile.setId(null);
+    cache.toJson(profile);
+    assertEquals("Unidentified object cached", 0, cache.size());
+  }
+
+  @Test
+  public void testSameIdDifferentClass() throws Exception {
+    DeviceService service = ServiceData.newTestInstance();
+    service.setId(TEST_ID);
+    service.setModified(profile.getModified());
+    cache.toJson(profile);
+    assertArrayEquals("Device service written as the profile with its id",
+        mapper.writeValueAsBytes(service), cache.toJson(service));
+    assertEquals("Both objects should be held", 2, cache.size());
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    byte[] json = cache.toJson(profile);
+    cache.evict(DeviceProfile.class, TEST_ID);
+    assertNotSame("Evicted JSON reused", json, cache.toJson(profile));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    cache.toJson(profile);
+    cache.clear();
+    assertEquals("Cache not cleared", 0, cache.size());
+  }
+
+  @Test
+  public void testDeviceOffHeap() throws Exception {
+    cache = new JsonCache(mapper, CAPACITY, OFF_HEAP_MB);
+    Device device = device();
+    assertTrue("Devices not cached with an off-heap tier", cache.isCached(Device.class));
+    assertArrayEquals("Cached JSON differs from Jackson", mapper.writeValueAsBytes(device),
+        cache.toJson(device));
+    cache.toJson(device);
+    assertEquals("Device not read off heap", 1, cache.getDevices().getHits());
+    assertEquals("Device held on heap", 0, cache.size());
+  }
+
+  @Test
+  public void testDeviceNewProfileVersion() throws Exception {
+    cache = new JsonCache(mapper, CAPACITY, OFF_HEAP_MB);
+    Device device = device();
+    cache.toJson(device);
+    device.getProfile().setModified(device.getProfile().getModified() + 1);
+    cache.toJson(device);
+    assertEquals("Device with a changed profile reused", 0, cache.getDevices().getHits());
+  }
+
+  @Test
+  public void testDeviceEvict() throws Exception {
+    cache = new JsonCache(mapper, CAPACITY, OFF_HEAP_MB);
+    cache.toJson(device());
+    cache.evict(Device.class, TEST_ID);
+    assertEquals("Device not evicted", 0, cache.getDevices().size());
+  }
+
+  @Test
+  public void testClearIncludesDevices() throws Exception {
+    cache = new JsonCache(mapper, CAPACITY, OFF_HEAP_MB);
+    cache.toJson(device());
+    cache.clear();
+    assertEquals("Devices not cleared", 0, cache.getDevices().size());
+  }
+
+  private Device device() {
+    Device device = DeviceData.newTestInstance();
+    device.setId(TEST_ID);
+    device.setProfile(profile);
+    return device;
+  }
+
+}
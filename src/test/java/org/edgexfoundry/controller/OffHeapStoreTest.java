@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.edgexfoundry.controller.impl.OffHeapStore;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class OffHeapStoreTest {
+
+  private static final String TEST_KEY = "123";
+  private static final String TEST_OTHER_KEY = "456";
+  private static final String TEST_THIRD_KEY = "789";
+  private static final long[] VERSION = {1, 2};
+  private static final long[] NEW_VERSION = {1, 3};
+  private static final int CAPACITY = 10;
+
+  private OffHeapStore store;
+
+  @Before
+  public void setup() {
+    store = new OffHeapStore(CAPACITY);
+  }
+
+  @Test
+  public void testGet() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    assertArrayEquals("Stored value not returned", bytes(4, 1), store.get(TEST_KEY, VERSION));
+    assertEquals("Unexpected hits", 1, store.getHits());
+  }
+
+  @Test
+  public void testGetMissing() {
+    assertNull("Value returned for unknown key", store.get(TEST_KEY, VERSION));
+    assertEquals("Unexpected misses", 1, store.getMisses());
+  }
+
+  @Test
+  public void testGetOtherVersion() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    assertNull("Value returned for another version", store.get(TEST_KEY, NEW_VERSION));
+  }
+
+  @Test
+  public void testPutNewVersion() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    put(TEST_KEY, NEW_VERSION, bytes(4, 2));
+    assertArrayEquals("New version not returned", bytes(4, 2), store.get(TEST_KEY, NEW_VERSION));
+    assertEquals("Old version should be replaced", 1, store.size());
+  }
+
+  @Test
+  public void testVersionCopied() {
+    long[] version = VERSION.clone();
+    put(TEST_KEY, version, bytes(4, 1));
+    version[1]++;
+    assertArrayEquals("Stored version changed by caller", bytes(4, 1),
+        store.get(TEST_KEY, VERSION));
+  }
+
+  @Test
+  public void testOldestDroppedWhenRingWraps() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    put(TEST_OTHER_KEY, VERSION, bytes(4, 2));
+    put(TEST_THIRD_KEY, VERSION, bytes(4, 3));
+    assertNull("Oldest value not dropped", store.get(TEST_KEY, VERSION));
+    assertArrayEquals("Newer value dropped", bytes(4, 2), store.get(TEST_OTHER_KEY, VERSION));
+    assertArrayEquals("Newest value dropped", bytes(4, 3), store.get(TEST_THIRD_KEY, VERSION));
+    assertEquals("Unexpected evictions", 1, store.getEvictions());
+  }
+
+  @Test
+  public void testTailDroppedWhenRingWraps() {
+    put(TEST_KEY, VERSION, bytes(9, 1));
+    put(TEST_OTHER_KEY, VERSION, bytes(1, 2));
+    put(TEST_THIRD_KEY, VERSION, bytes(2, 3));
+    put(TEST_KEY, VERSION, bytes(9, 4));
+    assertNull("Value at the tail not dropped", store.get(TEST_OTHER_KEY, VERSION));
+    assertNull("Overwritten value not dropped", store.get(TEST_THIRD_KEY, VERSION));
+    assertArrayEquals("Newest value dropped", bytes(9, 4), store.get(TEST_KEY, VERSION));
+    assertEquals("Only the newest value should be held", 1, store.size());
+  }
+
+  @Test
+  public void testTooLarge() {
+    put(TEST_KEY, VERSION, bytes(CAPACITY + 1, 1));
+    assertEquals("Oversized value stored", 0, store.size());
+  }
+
+  @Test
+  public void testRemove() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    store.remove(TEST_KEY);
+    assertNull("Removed value returned", store.get(TEST_KEY, VERSION));
+  }
+
+  @Test
+  public void testClear() {
+    put(TEST_KEY, VERSION, bytes(4, 1));
+    store.clear();
+    assertEquals("Store not cleared", 0, store.size());
+  }
+
+  @Test
+  public void testPutAfterClearDropped() {
+    long generation = store.generation();
+    store.clear();
+    store.put(TEST_KEY, VERSION, bytes(4, 1), generation);
+    assertNull("Value from before the clear stored", store.get(TEST_KEY, VERSION));
+  }
+
+  private void put(String key, long[] version, byte[] value) {
+    store.put(key, version, value, store.generation());
+  }
+
+  private byte[] bytes(int length, int value) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++)
+      bytes[i] = (byte) value;
+    return bytes;
+  }
+
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.controller.impl.ProfileImporter;
+import org.edgexfoundry.dao.BulkDao;
+import org.edgexfoundry.dao.DeviceProfileDao;
+import org.edgexfoundry.dao.DeviceProfileRepository;
+import org.edgexfoundry.domain.meta.BaseObject;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.exception.controller.DataValidationException;
+import org.edgexfoundry.exception.controller.LimitExceededException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.yaml.snakeyaml.Yaml;
+
+@Category(RequiresNone.class)
+public class ProfileImporterTest {
+
+  private static final String TEST_SOURCE = "profiles.yaml";
+  private static final String TEST_OTHER_NAME = "other profile";
+  private static final String TEST_ERR_MSG = "test message";
+
+  private ProfileImporter importer;
+
+  private ForkJoinPool pool;
+
+  @Mock
+  private DeviceProfileDao dao;
+
+  @Mock
+  private DeviceProfileRepository repos;
+
+  @Mock
+  private BulkDao bulkDao;
+
+  private DeviceProfile profile;
+
+  private DeviceProfile other;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    pool = new ForkJoinPool(2);
+    importer = new ProfileImporter(pool, dao, repos, bulkDao);
+    when(bulkDao.insert(eq(Command.class), anyListOf(Command.class)))
+        .thenAnswer(this::assignIds);
+    when(bulkDao.insert(eq(DeviceProfile.class), anyListOf(DeviceProfile.class)))
+        .thenAnswer(this::assignIds);
+    profile = ProfileData.newTestInstance();
+    profile.setCommands(new ArrayList<>(Arrays.asList(CommandData.newTestInstance())));
+    other = ProfileData.newTestInstance();
+    other.setName(TEST_OTHER_NAME);
+  }
+
+  @After
+  public void cleanup() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testImportMultiDocument() {
+    List<ImportResult> results =
+        importer.importYaml(TEST_SOURCE, yaml(profile) + "---\n" + yaml(other));
+    assertEquals("Unexpected number of results", 2, results.size());
+    assertEquals("Results not in document order", ProfileData.TEST_PROFILE_NAME,
+        results.get(0).getName());
+    assertEquals("Source not numbered", TEST_SOURCE + "#2", results.get(1).getSource());
+    assertTrue("Profiles not imported",
+        results.get(0).isImported() && results.get(1).isImported());
+    verify(bulkDao, times(1)).insert(eq(DeviceProfile.class), anyListOf(DeviceProfile.class));
+    verify(bulkDao, times(1)).insert(eq(Command.class), anyListOf(Command.class));
+  }
+
+  @Test
+  public void testImportSingleDocument() {
+    List<ImportResult> results = importer.importYaml(TEST_SOURCE, "%YAML 1.1\n---\n"
+        + yaml(profile) + "...\n");
+    assertEquals("Unexpected number of results", 1, results.size());
+    assertEquals("Source should not be numbered", TEST_SOURCE, results.get(0).getSource());
+    assertTrue("Profile not imported", results.get(0).isImported());
+  }
+
+  @Test
+  public void testImportInvalidDocument() {
+    List<ImportResult> results =
+        importer.importYaml(TEST_SOURCE, "name: [\n---\n" + yaml(other));
+    assertNotNull("Invalid YAML not reported", results.get(0).getError());
+    assertFalse("Invalid YAML imported", results.get(0).isImported());
+    assertTrue("Valid profile not imported", results.get(1).isImported());
+  }
+
+  @Test
+  public void testImportDuplicateNameInBatch() {
+    other.setName(ProfileData.TEST_PROFILE_NAME);
+    List<ImportResult> results =
+        importer.importYaml(TEST_SOURCE, yaml(profile) + "---\n" + yaml(other));
+    assertTrue("First profile not imported", results.get(0).isImported());
+    assertFalse("Duplicate profile imported", results.get(1).isImported());
+  }
+
+  @Test
+  public void testImportExistingName() {
+    when(repos.findByNameIn(anyCollectionOf(String.class)))
+        .thenReturn(Arrays.asList(ProfileData.newTestInstance()));
+    List<ImportResult> results =
+        importer.importYaml(TEST_SOURCE, yaml(profile) + "---\n" + yaml(other));
+    assertFalse("Existing profile imported", results.get(0).isImported());
+    assertTrue("New profile not imported", results.get(1).isImported());
+  }
+
+  @Test
+  public void testImportDuplicateCommandNames() {
+    doThrow(new DataValidationException(TEST_ERR_MSG)).when(dao)
+        .checkCommandNames(anyListOf(Command.class));
+    List<ImportResult> results = importer.importYaml(TEST_SOURCE, yaml(profile));
+    assertEquals("Command name check not reported", TEST_ERR_MSG, results.get(0).getError());
+  }
+
+  @Test
+  public void testImportProfileNotStored() {
+    when(bulkDao.insert(eq(DeviceProfile.class), anyListOf(DeviceProfile.class)))
+        .thenReturn(Collections.singletonMap(0, TEST_ERR_MSG));
+    List<ImportResult> results = importer.importYaml(TEST_SOURCE, yaml(profile));
+    assertEquals("Insert failure not reported", TEST_ERR_MSG, results.get(0).getError());
+    assertNull("Failed profile given an id", results.get(0).getId());
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<String>> orphans =
+        (ArgumentCaptor<Collection<String>>) (Object) ArgumentCaptor.forClass(Collection.class);
+    verify(bulkDao).remove(eq(Command.class), orphans.capture());
+    assertEquals("Commands of the failed profile not removed", 1, orphans.getValue().size());
+  }
+
+  @Test
+  public void testImportZip() throws IOException {
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+      addEntry(zip, "vendor/first.yaml", yaml(profile));
+      addEntry(zip, "vendor/second.YML", yaml(other));
+      addEntry(zip, "README.txt", TEST_ERR_MSG);
+    }
+    List<ImportResult> results = importer.importFile("profiles.zip", archive.toByteArray());
+    assertEquals("Unexpected number of results", 2, results.size());
+    assertEquals("Entry name not used as source", "vendor/first.yaml",
+        results.get(0).getSource());
+    assertTrue("Profiles not imported",
+        results.get(0).isImported() && results.get(1).isImported());
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testImportZipTooManyEntries() throws Exception {
+    setImporterField("maxEntries", 2);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+      addEntry(zip, "vendor/first.yaml", yaml(profile));
+      addEntry(zip, "vendor/second.yaml", yaml(other));
+      addEntry(zip, "README.txt", TEST_ERR_MSG);
+    }
+    importer.importFile("profiles.zip", archive.toByteArray());
+  }
+
+  @Test(expected = LimitExceededException.class)
+  public void testImportZipTooLarge() throws Exception {
+    String first = yaml(profile);
+    setImporterField("maxBytes", (long) first.length() + 1);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+      addEntry(zip, "vendor/first.yaml", first);
+      addEntry(zip, "vendor/second.yaml", yaml(other));
+    }
+    importer.importFile("profiles.zip", archive.toByteArray());
+  }
+
+  @Test
+  public void testImportFileNotZip() throws IOException {
+    List<ImportResult> results =
+        importer.importFile(TEST_SOURCE, yaml(profile).getBytes(StandardCharsets.UTF_8));
+    assertEquals("Unexpected number of results", 1, results.size());
+    assertTrue("Profile not imported", results.get(0).isImported());
+  }
+
+  private Object assignIds(InvocationOnMock invocation) {
+    for (Object object : (List<?>) invocation.getArguments()[1])
+      ((BaseObject) object).setId(new ObjectId().toString());
+    return Collections.emptyMap();
+  }
+
+  private String yaml(DeviceProfile profile) {
+    return new Yaml().dump(profile);
+  }
+
+  private void setImporterField(String name, Object value) throws Exception {
+    Field field = ProfileImporter.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(importer, value);
+  }
+
+  private void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    zip.write(content.getBytes(StandardCharsets.UTF_8));
+    zip.closeEntry();
+  }
+
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.edgexfoundry.controller.impl.ProfileYamlCache;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ProfileYamlCacheTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_THIRD_ID = "789";
+  private static final int CAPACITY = 2;
+
+  private ProfileYamlCache cache;
+
+  private DeviceProfile profile;
+
+  @Before
+  public void setup() {
+    cache = new ProfileYamlCache(CAPACITY);
+    profile = ProfileData.newTestInstance();
+    profile.setId(TEST_ID);
+  }
+
+  @Test
+  public void testRenderCached() {
+    String yaml = render(profile);
+    assertSame("Rendered YAML not reused", yaml, render(profile));
+    assertEquals("Unexpected hits", 1, cache.getHits());
+    assertEquals("Unexpected misses", 1, cache.getMisses());
+  }
+
+  @Test
+  public void testRenderNewVersion() {
+    String yaml = render(profile);
+    profile.setModified(profile.getModified() + 1);
+    assertNotSame("New version not rendered", yaml, render(profile));
+    assertEquals("Old version should be replaced", 1, cache.size());
+  }
+
+  @Test
+  public void testEvict() {
+    String yaml = render(profile);
+    cache.evict(TEST_ID);
+    assertNotSame("Evicted YAML reused", yaml, render(profile));
+  }
+
+  @Test
+  public void testClear() {
+    render(profile);
+    cache.clear();
+    assertEquals("Cache not cleared", 0, cache.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedDropped() {
+    String yaml = render(profile);
+    render(copy(TEST_OTHER_ID));
+    render(profile);
+    render(copy(TEST_THIRD_ID));
+    assertEquals("Size not bounded", CAPACITY, cache.size());
+    assertSame("Recently used YAML dropped", yaml, render(profile));
+  }
+
+  @Test
+  public void testDisabled() {
+    cache = new ProfileYamlCache(0);
+    String yaml = render(profile);
+    assertNotSame("Disabled cache reused YAML", yaml, render(profile));
+    assertEquals("Disabled cache holds entries", 0, cache.size());
+  }
+
+  @Test
+  public void testRenderNewCommandVersion() {
+    Command command = CommandData.newTestInstance();
+    command.setModified(profile.getModified());
+    profile.setCommands(Arrays.asList(command));
+    String yaml = render(profile);
+    // the command is updated in place; the profile document is not
+    command.setModified(profile.getModified() + 1);
+    assertNotSame("Profile with a changed command not rendered again", yaml, render(profile));
+  }
+
+  @Test
+  public void testRenderReadBeforeClearNotCached() {
+    long generation = cache.generation();
+    // a command update clears the cache between the read and the rendering
+    cache.clear();
+    cache.render(profile, generation);
+    assertEquals("Rendering of a read from before the clear cached", 0, cache.size());
+    render(profile);
+    assertEquals("Rendering of a read after the clear not cached", 1, cache.size());
+  }
+
+  private String render(DeviceProfile profile) {
+    return cache.render(profile, cache.generation());
+  }
+
+  private DeviceProfile copy(String id) {
+    DeviceProfile copy = ProfileData.newTestInstance();
+    copy.setId(id);
+    return copy;
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.edgexfoundry.controller.impl.CallbackExecutor;
 import org.edgexfoundry.controller.impl.ProvisionWatcherControllerImpl;
+import org.edgexfoundry.dao.ConcurrentResolver;
 import org.edgexfoundry.dao.DeviceProfileDao;
 import org.edgexfoundry.dao.DeviceServiceDao;
 import org.edgexfoundry.dao.ProvisionWatcherRepository;
@@ -49,6 +50,7 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
 
@@ -77,6 +79,9 @@ public class ProvisionWatcherControllerTest {
   @Mock
   private CallbackExecutor callback;
 
+  @Spy
+  private ConcurrentResolver resolver = new ConcurrentResolver(Runnable::run);
+
   private ProvisionWatcher watcher;
 
   @Before
@@ -27,6 +27,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.CallbackExecutor;
 import org.edgexfoundry.controller.impl.ScheduleControllerImpl;
 import org.edgexfoundry.dao.ScheduleDao;
@@ -44,8 +45,10 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Category(RequiresNone.class)
 public class ScheduleControllerTest {
@@ -59,6 +62,9 @@ public class ScheduleControllerTest {
   @InjectMocks
   private ScheduleControllerImpl controller;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
   @Mock
   private ScheduleRepository repos;
 
@@ -244,6 +250,26 @@ public class ScheduleControllerTest {
         controller.deleteByName(ScheduleData.TEST_SCHEDULE_NAME));
   }
 
+  @Test
+  public void testUpdateAsync() {
+    when(dao.getByIdOrName(schedule)).thenReturn(schedule);
+    assertEquals("Schedule was not updated", true, controller.updateAsync(schedule).getResult());
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(schedule);
+    assertEquals("Schedule was not deleted", true, controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(repos.findByName(ScheduleData.TEST_SCHEDULE_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result = controller.deleteByNameAsync(ScheduleData.TEST_SCHEDULE_NAME);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
   @Test(expected = NotFoundException.class)
   public void testDeleteByNameNotFound() {
     when(repos.findByName(ScheduleData.TEST_SCHEDULE_NAME)).thenReturn(null);
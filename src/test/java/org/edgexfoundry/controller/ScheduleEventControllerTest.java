@@ -27,9 +27,12 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.edgexfoundry.controller.impl.AsyncWriter;
 import org.edgexfoundry.controller.impl.CallbackExecutor;
 import org.edgexfoundry.controller.impl.ScheduleEventControllerImpl;
 import org.edgexfoundry.dao.AddressableDao;
+import org.edgexfoundry.dao.ConcurrentResolver;
+import org.edgexfoundry.dao.DocumentDao;
 import org.edgexfoundry.dao.ScheduleEventDao;
 import org.edgexfoundry.dao.ScheduleEventRepository;
 import org.edgexfoundry.dao.ScheduleRepository;
@@ -50,8 +53,10 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @Category(RequiresNone.class)
 public class ScheduleEventControllerTest {
@@ -65,9 +70,15 @@ public class ScheduleEventControllerTest {
   @InjectMocks
   private ScheduleEventControllerImpl controller;
 
+  @Spy
+  private AsyncWriter writer = new AsyncWriter(Runnable::run);
+
   @Mock
   private ScheduleEventRepository repos;
 
+  @Mock
+  private DocumentDao documentDao;
+
   @Mock
   private ScheduleRepository scheduleRepos;
 
@@ -80,6 +91,9 @@ public class ScheduleEventControllerTest {
   @Mock
   private CallbackExecutor callback;
 
+  @Spy
+  private ConcurrentResolver resolver = new ConcurrentResolver(Runnable::run);
+
   private ScheduleEvent event;
 
   @Before
@@ -374,6 +388,30 @@ public class ScheduleEventControllerTest {
         controller.deleteByName(ScheduleEventData.TEST_SCHEDULE_EVENT_NAME));
   }
 
+  @Test
+  public void testUpdateAsync() {
+    event.setSchedule(ScheduleData.TEST_SCHEDULE_NAME);
+    when(scheduleRepos.findByName(ScheduleData.TEST_SCHEDULE_NAME))
+        .thenReturn(ScheduleData.newTestInstance());
+    when(dao.getByIdOrName(event)).thenReturn(event);
+    assertEquals("Event was not updated", true, controller.updateAsync(event).getResult());
+  }
+
+  @Test
+  public void testDeleteAsync() {
+    when(repos.findOne(TEST_ID)).thenReturn(event);
+    assertEquals("Event was not deleted", true, controller.deleteAsync(TEST_ID).getResult());
+  }
+
+  @Test
+  public void testDeleteByNameAsyncNotFound() {
+    when(repos.findByName(ScheduleEventData.TEST_SCHEDULE_EVENT_NAME)).thenReturn(null);
+    DeferredResult<Boolean> result =
+        controller.deleteByNameAsync(ScheduleEventData.TEST_SCHEDULE_EVENT_NAME);
+    assertTrue("Not found error not returned unwrapped",
+        result.getResult() instanceof NotFoundException);
+  }
+
   @Test(expected = NotFoundException.class)
   public void testDeleteByNameNotFound() {
     when(repos.findByName(ScheduleEventData.TEST_SCHEDULE_EVENT_NAME)).thenReturn(null);
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.controller.impl.StateChangeDebouncer;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class StateChangeDebouncerTest {
+
+  private static final String TEST_KEY = "123/opstate";
+  private static final String TEST_OTHER_KEY = "456/opstate";
+  private static final long WINDOW = 100;
+
+  private StateChangeDebouncer debouncer;
+
+  private List<OperatingState> applied;
+
+  @Before
+  public void setup() throws Exception {
+    debouncer = new StateChangeDebouncer();
+    setDebouncerWindow(WINDOW);
+    debouncer.init();
+    applied = new CopyOnWriteArrayList<>();
+  }
+
+  @After
+  public void cleanup() {
+    debouncer.shutdown();
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    setDebouncerWindow(0);
+    assertFalse("Debouncing enabled with no window", debouncer.isEnabled());
+  }
+
+  @Test
+  public void testFlappingSettlesOnce() throws Exception {
+    CountDownLatch settled = new CountDownLatch(1);
+    for (int i = 0; i < 10; i++) {
+      OperatingState state = i % 2 == 0 ? OperatingState.DISABLED : OperatingState.ENABLED;
+      debouncer.submit(TEST_KEY, () -> {
+        applied.add(state);
+        settled.countDown();
+      });
+    }
+    assertTrue("Settled state not applied", settled.await(WINDOW * 10, TimeUnit.MILLISECONDS));
+    Thread.sleep(WINDOW * 2);
+    assertEquals("Only the settled state should be applied", Arrays.asList(OperatingState.ENABLED),
+        applied);
+    assertEquals("Change left pending", 0, debouncer.pendingCount());
+  }
+
+  @Test
+  public void testFlappingAppliedAfterMaxWait() throws Exception {
+    setDebouncerField("maxWait", WINDOW * 2);
+    CountDownLatch applies = new CountDownLatch(1);
+    long deadline = System.currentTimeMillis() + WINDOW * 10;
+    while (applies.getCount() > 0 && System.currentTimeMillis() < deadline) {
+      debouncer.submit(TEST_KEY, () -> {
+        applied.add(OperatingState.DISABLED);
+        applies.countDown();
+      });
+      Thread.sleep(WINDOW / 2);
+    }
+    assertEquals("State flapping faster than the window never applied", 0, applies.getCount());
+  }
+
+  @Test
+  public void testKeysDebouncedIndependently() throws Exception {
+    CountDownLatch settled = new CountDownLatch(2);
+    debouncer.submit(TEST_KEY, () -> {
+      applied.add(OperatingState.ENABLED);
+      settled.countDown();
+    });
+    debouncer.submit(TEST_OTHER_KEY, () -> {
+      applied.add(OperatingState.DISABLED);
+      settled.countDown();
+    });
+    assertTrue("Both changes not applied", settled.await(WINDOW * 10, TimeUnit.MILLISECONDS));
+    assertEquals("Both changes not applied", 2, applied.size());
+  }
+
+  @Test
+  public void testCancelDiscardsWaitingChange() throws Exception {
+    debouncer.submit(TEST_KEY, () -> applied.add(OperatingState.DISABLED));
+    assertTrue("Waiting change not discarded", debouncer.cancel(TEST_KEY));
+    assertFalse("Nothing left to discard", debouncer.cancel(TEST_KEY));
+    Thread.sleep(WINDOW * 2);
+    assertTrue("Discarded change applied", applied.isEmpty());
+    assertEquals("Change left pending", 0, debouncer.pendingCount());
+  }
+
+  @Test
+  public void testChangeFailureDoesNotBlockLaterChanges() throws Exception {
+    CountDownLatch settled = new CountDownLatch(1);
+    debouncer.submit(TEST_KEY, () -> {
+      throw new IllegalStateException();
+    });
+    Thread.sleep(WINDOW * 2);
+    debouncer.submit(TEST_KEY, settled::countDown);
+    assertTrue("Later change not applied", settled.await(WINDOW * 10, TimeUnit.MILLISECONDS));
+  }
+
+  private void setDebouncerWindow(long window) throws Exception {
+    setDebouncerField("window", window);
+  }
+
+  private void setDebouncerField(String name, long value) throws Exception {
+    Field temp = debouncer.getClass().getDeclaredField(name);
+    temp.setAccessible(true);
+    temp.set(debouncer, value);
+  }
+
+}
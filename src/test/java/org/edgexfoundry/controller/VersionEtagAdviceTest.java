@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.edgexfoundry.controller.impl.VersionEtagAdvice;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@Category(RequiresNone.class)
+public class VersionEtagAdviceTest {
+
+  private static final long TEST_VERSION = 1471806386919L;
+  private static final String TEST_ETAG = "\"" + TEST_VERSION + "\"";
+  private static final String TEST_URI = "/api/v1/device/123";
+
+  private VersionEtagAdvice advice = new VersionEtagAdvice();
+
+  private Device device;
+
+  private MockHttpServletRequest request;
+
+  private MockHttpServletResponse response;
+
+  @Before
+  public void setup() {
+    device = DeviceData.newTestInstance();
+    device.setModified(TEST_VERSION);
+    request = new MockHttpServletRequest("GET", TEST_URI);
+    response = new MockHttpServletResponse();
+  }
+
+  @Test
+  public void testReadTaggedWithVersion() {
+    ServletServerHttpResponse tagged = new ServletServerHttpResponse(response);
+    assertSame("Body not passed through", device, write(device, tagged));
+    assertEquals("ETag is not the version", TEST_ETAG, tagged.getHeaders().getETag());
+  }
+
+  @Test
+  public void testReadNotModified() {
+    request.addHeader("If-None-Match", TEST_ETAG);
+    assertNull("Body written for an unchanged object",
+        write(device, new ServletServerHttpResponse(response)));
+    assertEquals("Unchanged object not answered with 304", HttpStatus.NOT_MODIFIED.value(),
+        response.getStatus());
+    assertEquals("ETag not sent with the 304", TEST_ETAG, response.getHeader("ETag"));
+  }
+
+  @Test
+  public void testReadModified() {
+    request.addHeader("If-None-Match", "\"" + (TEST_VERSION - 1) + "\"");
+    assertSame("Changed object not written", device,
+        write(device, new ServletServerHttpResponse(response)));
+    assertEquals("Changed object not answered with 200", HttpStatus.OK.value(),
+        response.getStatus());
+  }
+
+  @Test
+  public void testReferenceChangeModified() {
+    device.getAddressable().setModified(TEST_VERSION - 1);
+    request.addHeader("If-None-Match", TEST_ETAG);
+    assertNull("Body written for an unchanged object",
+        write(device, new ServletServerHttpResponse(new MockHttpServletResponse())));
+    // the addressable is updated; the device document itself is not
+    device.getAddressable().setModified(TEST_VERSION + 1);
+    ServletServerHttpResponse revalidated = new ServletServerHttpResponse(response);
+    assertSame("Device with a changed addressable not written", device,
+        write(device, revalidated));
+    assertEquals("Device with a changed addressable not answered with 200",
+        HttpStatus.OK.value(), response.getStatus());
+    assertEquals("ETag does not cover the addressable", "\"" + (TEST_VERSION + 1) + "\"",
+        revalidated.getHeaders().getETag());
+  }
+
+  @Test
+  public void testCommandChangeModified() {
+    DeviceProfile profile = ProfileData.newTestInstance();
+    profile.setModified(TEST_VERSION);
+    Command command = CommandData.newTestInstance();
+    command.setModified(TEST_VERSION + 1);
+    profile.setCommands(Arrays.asList(command));
+    request.addHeader("If-None-Match", TEST_ETAG);
+    assertSame("Profile with a changed command not written", profile,
+        write(profile, new ServletServerHttpResponse(response)));
+    assertEquals("Profile with a changed command not answered with 200", HttpStatus.OK.value(),
+        response.getStatus());
+  }
+
+  @Test
+  public void testWriteNotTagged() {
+    request.setMethod("PUT");
+    ServletServerHttpResponse untagged = new ServletServerHttpResponse(response);
+    write(device, untagged);
+    assertNull("Update response tagged", untagged.getHeaders().getETag());
+  }
+
+  @Test
+  public void testListNotTagged() {
+    List<Device> devices = Collections.singletonList(device);
+    ServletServerHttpResponse untagged = new ServletServerHttpResponse(response);
+    assertSame("List not passed through", devices, write(devices, untagged));
+    assertNull("List tagged", untagged.getHeaders().getETag());
+  }
+
+  private Object write(Object body, ServletServerHttpResponse out) {
+    return advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, null,
+        new ServletServerHttpRequest(request), out);
+  }
+
+}
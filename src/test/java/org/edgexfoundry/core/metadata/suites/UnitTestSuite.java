@@ -19,20 +19,45 @@
 package org.edgexfoundry.core.metadata.suites;
 
 import org.edgexfoundry.controller.AddressableControllerTest;
+import org.edgexfoundry.controller.AsyncWriterTest;
+import org.edgexfoundry.controller.CachedJsonHttpMessageConverterTest;
+import org.edgexfoundry.controller.CallbackStreamControllerTest;
 import org.edgexfoundry.controller.CommandControllerTest;
+import org.edgexfoundry.controller.DeviceChangeNotifierTest;
 import org.edgexfoundry.controller.DeviceControllerTest;
 import org.edgexfoundry.controller.DeviceProfileControllerTest;
+import org.edgexfoundry.controller.DeviceQueriesTest;
 import org.edgexfoundry.controller.DeviceReportControllerTest;
 import org.edgexfoundry.controller.DeviceServiceControllerTest;
+import org.edgexfoundry.controller.JsonCacheTest;
+import org.edgexfoundry.controller.OffHeapStoreTest;
 import org.edgexfoundry.controller.PingControllerTest;
+import org.edgexfoundry.controller.ProfileImporterTest;
+import org.edgexfoundry.controller.ProfileYamlCacheTest;
 import org.edgexfoundry.controller.ProvisionWatcherControllerTest;
 import org.edgexfoundry.controller.ScheduleControllerTest;
 import org.edgexfoundry.controller.ScheduleEventControllerTest;
+import org.edgexfoundry.controller.StateChangeDebouncerTest;
+import org.edgexfoundry.controller.VersionEtagAdviceTest;
 import org.edgexfoundry.dao.AddressableDaoTest;
+import org.edgexfoundry.dao.BulkDaoTest;
+import org.edgexfoundry.dao.ChangeSetTest;
+import org.edgexfoundry.dao.CommandChangesTest;
+import org.edgexfoundry.dao.CommandDaoTest;
+import org.edgexfoundry.dao.ConcurrentResolverTest;
 import org.edgexfoundry.dao.DeviceDaoTest;
+import org.edgexfoundry.dao.DeviceDigestsTest;
+import org.edgexfoundry.dao.DeviceIndexTest;
 import org.edgexfoundry.dao.DeviceProfileDaoTest;
 import org.edgexfoundry.dao.DeviceReportDaoTest;
 import org.edgexfoundry.dao.DeviceServiceDaoTest;
+import org.edgexfoundry.dao.DeviceWritesTest;
+import org.edgexfoundry.dao.DictionaryTest;
+import org.edgexfoundry.dao.DocumentDaoTest;
+import org.edgexfoundry.dao.MongoIndexesTest;
+import org.edgexfoundry.dao.TombstonesTest;
+import org.edgexfoundry.dao.VersionClockTest;
+import org.edgexfoundry.dao.VersionDaoTest;
 import org.edgexfoundry.dao.integration.ScheduleDaoTest;
 import org.edgexfoundry.dao.integration.ScheduleEventDaoTest;
 import org.junit.Ignore;
@@ -48,13 +73,20 @@ import org.junit.runners.Suite;
  */
 @Ignore
 @RunWith(Suite.class)
-@Suite.SuiteClasses({AddressableControllerTest.class, CommandControllerTest.class,
-    DeviceControllerTest.class, DeviceProfileControllerTest.class, DeviceReportControllerTest.class,
-    DeviceServiceControllerTest.class, PingControllerTest.class,
+@Suite.SuiteClasses({AddressableControllerTest.class, AsyncWriterTest.class,
+    CallbackStreamControllerTest.class, CachedJsonHttpMessageConverterTest.class,
+    CommandControllerTest.class, DeviceChangeNotifierTest.class, DeviceControllerTest.class,
+    DeviceProfileControllerTest.class, DeviceQueriesTest.class, DeviceReportControllerTest.class,
+    DeviceServiceControllerTest.class, JsonCacheTest.class, OffHeapStoreTest.class,
+    PingControllerTest.class, ProfileImporterTest.class, ProfileYamlCacheTest.class,
     ProvisionWatcherControllerTest.class, ScheduleControllerTest.class,
-    ScheduleEventControllerTest.class, AddressableDaoTest.class, DeviceDaoTest.class,
-    DeviceProfileDaoTest.class, DeviceReportDaoTest.class, DeviceServiceDaoTest.class,
-    ScheduleDaoTest.class, ScheduleEventDaoTest.class})
+    ScheduleEventControllerTest.class, StateChangeDebouncerTest.class, VersionEtagAdviceTest.class,
+    AddressableDaoTest.class, BulkDaoTest.class, ChangeSetTest.class, CommandChangesTest.class,
+    CommandDaoTest.class, ConcurrentResolverTest.class, DeviceDaoTest.class,
+    DeviceDigestsTest.class, DeviceIndexTest.class, MongoIndexesTest.class, VersionDaoTest.class,
+    VersionClockTest.class, DeviceProfileDaoTest.class, DeviceReportDaoTest.class,
+    DeviceServiceDaoTest.class, DeviceWritesTest.class, DictionaryTest.class, TombstonesTest.class,
+    DocumentDaoTest.class, ScheduleDaoTest.class, ScheduleEventDaoTest.class})
 public class UnitTestSuite {
 
 }
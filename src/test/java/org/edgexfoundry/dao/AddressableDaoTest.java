@@ -20,11 +20,24 @@ package org.edgexfoundry.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Asset;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.AddressableData;
+import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ServiceData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -62,6 +75,20 @@ public class AddressableDaoTest {
     assertNull("Returned addressable is not null", dao.getByIdOrName(null));
   }
 
+  @Test
+  public void testGetByIds() {
+    List<String> ids = Arrays.asList(TEST_ID);
+    when(repos.findAll(ids)).thenReturn(Arrays.asList(addressable));
+    assertEquals("Returned addressables are not expected", Arrays.asList(addressable),
+        dao.getByIds(ids));
+  }
+
+  @Test
+  public void testGetByIdsWithNone() {
+    assertTrue("Addressables returned for no ids", dao.getByIds(new ArrayList<>()).isEmpty());
+    verify(repos, never()).findAll(anyListOf(String.class));
+  }
+
   @Test
   public void testGetByIdOrName() {
     when(repos.findOne(TEST_ID)).thenReturn(addressable);
@@ -102,4 +129,20 @@ public class AddressableDaoTest {
     dao.getByName(AddressableData.TEST_ADDR_NAME);
   }
 
+  @Test
+  public void testGetOwningServicesOncePerService() {
+    DeviceService service = ServiceData.newTestInstance();
+    service.setId(TEST_ID);
+    List<Device> devices = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Device device = DeviceData.newTestInstance();
+      device.setService(service);
+      devices.add(device);
+    }
+    when(deviceRepos.findByAddressable(addressable)).thenReturn(devices);
+    List<Asset> services = dao.getOwningServices(addressable);
+    assertEquals("Service returned more than once", 1, services.size());
+    assertEquals("Returned service is not expected", service, services.get(0));
+  }
+
 }
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ProfileData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+
+@Category(RequiresNone.class)
+public class BulkDaoTest {
+
+  private static final String TEST_COLLECTION = "deviceProfile";
+  private static final String TEST_OTHER_NAME = "other profile";
+  private static final String TEST_ERR_MSG = "test message";
+  private static final int DUPLICATE_KEY = 11000;
+
+  @InjectMocks
+  private BulkDao dao;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Spy
+  private VersionClock clock = new VersionClock();
+
+  @Mock
+  private MongoConverter converter;
+
+  @Mock
+  private DBCollection collection;
+
+  @Mock
+  private BulkWriteOperation bulk;
+
+  private List<DeviceProfile> profiles;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(template.getConverter()).thenReturn(converter);
+    when(template.getCollectionName(DeviceProfile.class)).thenReturn(TEST_COLLECTION);
+    when(template.getCollection(TEST_COLLECTION)).thenReturn(collection);
+    when(collection.initializeUnorderedBulkOperation()).thenReturn(bulk);
+    DeviceProfile other = ProfileData.newTestInstance();
+    other.setName(TEST_OTHER_NAME);
+    profiles = Arrays.asList(ProfileData.newTestInstance(), other);
+  }
+
+  @Test
+  public void testInsert() {
+    assertTrue("Unexpected errors", dao.insert(DeviceProfile.class, profiles).isEmpty());
+    verify(bulk, times(2)).insert(any(DBObject.class));
+    verify(bulk, times(1)).execute();
+    assertNotNull("Id not assigned", profiles.get(1).getId());
+  }
+
+  @Test
+  public void testInsertStampsFromVersionClock() {
+    // the clock may run ahead of the wall clock; bulk inserts must still come after earlier writes
+    long earlier = clock.next(System.currentTimeMillis() + 60000);
+    dao.insert(DeviceProfile.class, profiles);
+    assertTrue("Insert not stamped after earlier writes", profiles.get(0).getModified() > earlier);
+    assertEquals("Created and modified differ", profiles.get(0).getCreated(),
+        profiles.get(0).getModified());
+  }
+
+  @Test
+  public void testInsertNothing() {
+    assertTrue("Unexpected errors",
+        dao.insert(DeviceProfile.class, Collections.emptyList()).isEmpty());
+    verify(template, never()).getCollection(TEST_COLLECTION);
+  }
+
+  @Test
+  public void testInsertReportsFailures() {
+    BulkWriteException failure = mock(BulkWriteException.class);
+    when(failure.getWriteErrors())
+        .thenReturn(Arrays.asList(
+            new BulkWriteError(DUPLICATE_KEY, TEST_ERR_MSG, new BasicDBObject(), 0),
+            new BulkWriteError(1, TEST_ERR_MSG, new BasicDBObject(), 1)));
+    doThrow(failure).when(bulk).execute();
+    Map<Integer, String> errors = dao.insert(DeviceProfile.class, profiles);
+    assertEquals("Unexpected number of errors", 2, errors.size());
+    assertEquals("Duplicate key not reported", "Name is not unique", errors.get(0));
+    assertEquals("Error message not reported", TEST_ERR_MSG, errors.get(1));
+  }
+
+  @Test
+  public void testRemove() {
+    dao.remove(DeviceProfile.class, Arrays.asList(TEST_OTHER_NAME));
+    verify(template).remove(any(Query.class), eq(DeviceProfile.class));
+    dao.remove(DeviceProfile.class, Collections.emptyList());
+    verify(template, times(1)).remove(any(Query.class), eq(DeviceProfile.class));
+  }
+
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceObject;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.AddressableData;
+import org.edgexfoundry.test.data.DeviceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ChangeSetTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_DESCRIPTION = "new description";
+
+  private ChangeSet changes;
+
+  private Device device;
+
+  @Before
+  public void setup() {
+    changes = new ChangeSet();
+    device = DeviceData.newTestInstance();
+  }
+
+  @Test
+  public void testSetUnchanged() {
+    assertFalse("Unchanged value reported as changed",
+        changes.set("description", device.getDescription(), device.getDescription(),
+            device::setDescription));
+    assertTrue("Change set not empty", changes.isEmpty());
+  }
+
+  @Test
+  public void testSetChanged() {
+    assertTrue("Changed value not reported", changes.set("description", device.getDescription(),
+        TEST_DESCRIPTION, device::setDescription));
+    assertEquals("Value not applied", TEST_DESCRIPTION, device.getDescription());
+    assertEquals("Changed fields not expected", Arrays.asList("description"), changes.getFields());
+  }
+
+  @Test
+  public void testSetArrayComparedByContent() {
+    device.setLabels(new String[] {TEST_ID, TEST_OTHER_ID});
+    String[] labels = {TEST_ID, TEST_OTHER_ID};
+    assertFalse("Equal array reported as changed",
+        changes.set("labels", device.getLabels(), labels, device::setLabels));
+    String[] more = Arrays.copyOf(labels, labels.length + 1);
+    more[labels.length] = TEST_DESCRIPTION;
+    assertTrue("Changed array not reported",
+        changes.set("labels", device.getLabels(), more, device::setLabels));
+    assertArrayEquals("Array not applied", more, device.getLabels());
+  }
+
+  @Test
+  public void testSetListComparedByContent() {
+    List<DeviceObject> current = objects(TEST_DESCRIPTION);
+    assertFalse("Equal list reported as changed", changes.set("deviceResources", current,
+        objects(TEST_DESCRIPTION), list -> fail("Equal list applied")));
+    List<DeviceObject> changed = objects(TEST_ID);
+    assertTrue("Changed list not reported",
+        changes.set("deviceResources", current, changed, list -> {
+        }));
+    assertEquals("Changed fields not expected", Arrays.asList("deviceResources"),
+        changes.getFields());
+  }
+
+  @Test
+  public void testSetReferenceComparedById() {
+    Addressable current = AddressableData.newTestInstance();
+    current.setId(TEST_ID);
+    device.setAddressable(current);
+    Addressable same = AddressableData.newTestInstance();
+    same.setId(TEST_ID);
+    assertFalse("Same document reported as changed",
+        changes.setReference("addressable", device.getAddressable(), same, device::setAddressable));
+    assertSame("Reference replaced", current, device.getAddressable());
+    Addressable other = AddressableData.newTestInstance();
+    other.setId(TEST_OTHER_ID);
+    assertTrue("Different document not reported", changes.setReference("addressable",
+        device.getAddressable(), other, device::setAddressable));
+    assertSame("Reference not applied", other, device.getAddressable());
+  }
+
+  @Test
+  public void testFieldRecordedOnce() {
+    changes.set("description", device.getDescription(), TEST_DESCRIPTION, device::setDescription);
+    changes.set("description", device.getDescription(), TEST_ID, device::setDescription);
+    assertEquals("Changed fields not expected", Arrays.asList("description"), changes.getFields());
+  }
+
+  // equal content, distinct instances
+  private List<DeviceObject> objects(String description) {
+    DeviceObject object = new DeviceObject();
+    object.setName(TEST_ID);
+    object.setDescription(description);
+    return Arrays.asList(object);
+  }
+
+}
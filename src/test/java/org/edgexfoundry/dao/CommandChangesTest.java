@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class CommandChangesTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_OTHER_NAME = "other command";
+  private static final String TEST_PATH = "/api/v1/device/{deviceId}/other";
+  private static final long TEST_CREATED = 1471806386919L;
+
+  private Command stored;
+
+  private Command other;
+
+  @Before
+  public void setup() {
+    stored = CommandData.newTestInstance();
+    stored.setId(TEST_ID);
+    stored.setCreated(TEST_CREATED);
+    other = CommandData.newTestInstance();
+    other.setId(TEST_OTHER_ID);
+    other.setName(TEST_OTHER_NAME);
+  }
+
+  @Test
+  public void testUnchanged() {
+    Command same = CommandData.newTestInstance();
+    same.setId(TEST_ID);
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored), Arrays.asList(same));
+    assertTrue("Unchanged command reported as changed", changes.isEmpty());
+    assertSame("Stored command not kept", stored, changes.getCommands().get(0));
+  }
+
+  @Test
+  public void testUnchangedMatchedByName() {
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored),
+        Arrays.asList(CommandData.newTestInstance()));
+    assertTrue("Unchanged command reported as changed", changes.isEmpty());
+    assertSame("Stored command not kept", stored, changes.getCommands().get(0));
+  }
+
+  @Test
+  public void testChangedReplacedInPlace() {
+    Command changed = CommandData.newTestInstance();
+    changed.getGet().setPath(TEST_PATH);
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored), Arrays.asList(changed));
+    assertEquals("Changed command not replaced", Arrays.asList(changed), changes.getReplaced());
+    assertEquals("Stored id not kept", TEST_ID, changed.getId());
+    assertEquals("Stored created time not kept", TEST_CREATED, changed.getCreated());
+    assertTrue("Changed command should not be added", changes.getAdded().isEmpty());
+    assertTrue("Changed command should not be removed", changes.getRemoved().isEmpty());
+    assertTrue("Nothing from outside the profile written", changes.getUpdated().isEmpty());
+    assertFalse("Change not reported", changes.isEmpty());
+    assertEquals("Unexpected command list", Arrays.asList(changed), changes.getCommands());
+  }
+
+  @Test
+  public void testAddedAndRemoved() {
+    Command added = CommandData.newTestInstance();
+    added.setName(TEST_OTHER_NAME);
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored), Arrays.asList(added));
+    assertEquals("New command not added", Arrays.asList(added), changes.getAdded());
+    assertNull("New command should be given an id when written", added.getId());
+    assertEquals("Old command not removed", Arrays.asList(stored), changes.getRemoved());
+    assertEquals("Unexpected command list", Arrays.asList(added), changes.getCommands());
+  }
+
+  @Test
+  public void testReordered() {
+    Command copy = CommandData.newTestInstance();
+    copy.setId(TEST_OTHER_ID);
+    copy.setName(TEST_OTHER_NAME);
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored, other),
+        Arrays.asList(copy, CommandData.newTestInstance()));
+    assertTrue("Reordering should not write commands", changes.isEmpty());
+    assertEquals("Order not taken from the proposed list", Arrays.asList(other, stored),
+        changes.getCommands());
+  }
+
+  @Test
+  public void testCommandFromOutsideProfile() {
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored), Arrays.asList(other));
+    assertEquals("Existing command should be written over", Arrays.asList(other),
+        changes.getUpdated());
+    assertEquals("Id should be kept", TEST_OTHER_ID, other.getId());
+    assertEquals("Old command not removed", Arrays.asList(stored), changes.getRemoved());
+  }
+
+  @Test
+  public void testNoStoredCommands() {
+    List<Command> proposed = new ArrayList<>(Arrays.asList(CommandData.newTestInstance()));
+    CommandChanges changes = new CommandChanges(null, proposed);
+    assertEquals("New command not added", proposed, changes.getAdded());
+    changes = new CommandChanges(Arrays.asList(stored), Collections.emptyList());
+    assertEquals("Old command not removed", Arrays.asList(stored), changes.getRemoved());
+    assertTrue("No commands should be left", changes.getCommands().isEmpty());
+  }
+
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.CommandData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.BulkUpdateRequestBuilder;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+
+@Category(RequiresNone.class)
+public class CommandDaoTest {
+
+  private static final String TEST_COLLECTION = "command";
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_OTHER_NAME = "other command";
+  private static final String TEST_PATH = "/api/v1/device/{deviceId}/other";
+
+  @InjectMocks
+  private CommandDao dao;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Spy
+  private VersionClock clock = new VersionClock();
+
+  @Mock
+  private MongoConverter converter;
+
+  @Mock
+  private DBCollection collection;
+
+  @Mock
+  private BulkWriteOperation bulk;
+
+  @Mock
+  private BulkWriteRequestBuilder request;
+
+  @Mock
+  private BulkUpdateRequestBuilder upsert;
+
+  private Command stored;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(template.getConverter()).thenReturn(converter);
+    when(template.getCollectionName(Command.class)).thenReturn(TEST_COLLECTION);
+    when(template.getCollection(TEST_COLLECTION)).thenReturn(collection);
+    when(collection.initializeOrderedBulkOperation()).thenReturn(bulk);
+    when(bulk.find(any(DBObject.class))).thenReturn(request);
+    when(request.upsert()).thenReturn(upsert);
+    stored = CommandData.newTestInstance();
+    stored.setId(TEST_ID);
+  }
+
+  @Test
+  public void testWriteNothingChanged() {
+    dao.write(new CommandChanges(Arrays.asList(stored),
+        Arrays.asList(CommandData.newTestInstance())));
+    verify(template, never()).getCollection(TEST_COLLECTION);
+  }
+
+  @Test
+  public void testWriteOneBulk() {
+    Command changed = CommandData.newTestInstance();
+    changed.getGet().setPath(TEST_PATH);
+    Command added = CommandData.newTestInstance();
+    added.setName(TEST_OTHER_NAME);
+    dao.write(new CommandChanges(Arrays.asList(stored), Arrays.asList(changed, added)));
+    verify(bulk, times(1)).insert(any(DBObject.class));
+    verify(upsert, never()).replaceOne(any(DBObject.class));
+    verify(bulk, times(1)).execute();
+    verify(converter, times(1)).write(any(Command.class), any(DBObject.class));
+    assertNotNull("Added command not given an id", added.getId());
+    assertNotEquals("Added command given the stored id", TEST_ID, added.getId());
+    assertEquals("Changed command should keep its id", TEST_ID, changed.getId());
+  }
+
+  @Test
+  public void testWriteCommandFromOutsideProfile() {
+    Command other = CommandData.newTestInstance();
+    other.setId(TEST_OTHER_ID);
+    other.setName(TEST_OTHER_NAME);
+    dao.write(new CommandChanges(Arrays.asList(stored), Arrays.asList(other)));
+    verify(upsert).replaceOne(any(DBObject.class));
+    verify(bulk, never()).insert(any(DBObject.class));
+  }
+
+  @Test
+  public void testDiscard() {
+    Command added = CommandData.newTestInstance();
+    added.setName(TEST_OTHER_NAME);
+    CommandChanges changes = new CommandChanges(Arrays.asList(stored), Arrays.asList(added));
+    dao.write(changes);
+    dao.discard(changes);
+    verify(template).remove(any(Query.class), eq(Command.class));
+  }
+
+  @Test
+  public void testDiscardNothingAdded() {
+    dao.discard(new CommandChanges(Arrays.asList(stored), Collections.emptyList()));
+    verify(template, never()).remove(any(Query.class), eq(Command.class));
+  }
+
+  @Test
+  public void testFinishReplacesInPlace() {
+    Command changed = CommandData.newTestInstance();
+    changed.getGet().setPath(TEST_PATH);
+    dao.finish(new CommandChanges(Arrays.asList(stored), Arrays.asList(changed)));
+    verify(upsert, times(1)).replaceOne(any(DBObject.class));
+    verify(bulk, never()).insert(any(DBObject.class));
+    verify(bulk, times(1)).execute();
+    verify(template, never()).remove(any(Query.class), eq(Command.class));
+    assertEquals("Changed command should keep its id", TEST_ID, changed.getId());
+    assertNotEquals("Changed command not stamped", 0, changed.getModified());
+  }
+
+  @Test
+  public void testFinishRemovesStale() {
+    dao.finish(new CommandChanges(Arrays.asList(stored), Collections.emptyList()));
+    verify(template).remove(any(Query.class), eq(Command.class));
+    verify(template, never()).getCollection(TEST_COLLECTION);
+  }
+
+  @Test
+  public void testFinishNothingChanged() {
+    dao.finish(new CommandChanges(Arrays.asList(stored),
+        Arrays.asList(CommandData.newTestInstance())));
+    verify(template, never()).remove(any(Query.class), eq(Command.class));
+    verify(template, never()).getCollection(TEST_COLLECTION);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the latency of three lookups against a simulated database round trip, run one after
+ * the other and then concurrently through the resolver. Wall-clock numbers depend on the machine,
+ * so they are reported rather than asserted. The class carries no test category and is not in the
+ * unit test suite; run it on its own.
+ */
+public class ConcurrentResolverBenchmark {
+
+  private static final String TEST_VALUE = "found";
+  private static final String TEST_ERR_MSG = "test message";
+  // simulated database round trip
+  private static final long RTT = 100;
+
+  private ExecutorService executor;
+
+  private ConcurrentResolver resolver;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+    resolver = new ConcurrentResolver(executor);
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void latencyUnderSimulatedRoundTrip() {
+    long start = System.nanoTime();
+    for (int i = 0; i < 3; i++)
+      slow(RTT).get();
+    long sequential = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    resolver.awaitAll(resolver.require(slow(RTT), TEST_ERR_MSG),
+        resolver.require(slow(RTT), TEST_ERR_MSG), resolver.require(slow(RTT), TEST_ERR_MSG));
+    long concurrent = System.nanoTime() - start;
+
+    System.out.println(String.format("Sequential: %d ms, concurrent: %d ms for 3 lookups of %d ms",
+        TimeUnit.NANOSECONDS.toMillis(sequential), TimeUnit.NANOSECONDS.toMillis(concurrent), RTT));
+  }
+
+  private Supplier<String> slow(long millis) {
+    return () -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return TEST_VALUE;
+    };
+  }
+
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.edgexfoundry.exception.controller.DataValidationException;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ConcurrentResolverTest {
+
+  private static final String TEST_VALUE = "found";
+  private static final String TEST_ERR_MSG = "test message";
+
+  private ExecutorService executor;
+
+  private ConcurrentResolver resolver;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+    resolver = new ConcurrentResolver(executor);
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRequire() {
+    CompletableFuture<String> lookup = resolver.require(() -> TEST_VALUE, TEST_ERR_MSG);
+    resolver.awaitAll(lookup);
+    assertEquals("Resolved value is not expected", TEST_VALUE, lookup.join());
+  }
+
+  @Test
+  public void testRequireMissing() {
+    try {
+      resolver.awaitAll(resolver.require(() -> TEST_VALUE, TEST_ERR_MSG),
+          resolver.require(() -> null, TEST_ERR_MSG));
+    } catch (DataValidationException e) {
+      assertEquals("Validation message is not expected", TEST_ERR_MSG, e.getMessage());
+      return;
+    }
+    throw new AssertionError("Missing association not reported");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRequireException() {
+    resolver.awaitAll(resolver.require(() -> {
+      throw new IllegalStateException(TEST_ERR_MSG);
+    }, TEST_ERR_MSG));
+  }
+
+  @Test
+  public void testAwaitAllFailsFast() {
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> blocked = resolver.require(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return TEST_VALUE;
+    }, TEST_ERR_MSG);
+    try {
+      resolver.awaitAll(blocked, resolver.require(() -> null, TEST_ERR_MSG));
+    } catch (DataValidationException e) {
+      assertFalse("Waited on the blocked lookup after a failure", blocked.isDone());
+      return;
+    } finally {
+      release.countDown();
+    }
+    throw new AssertionError("Missing association not reported");
+  }
+
+  @Test
+  public void testLookupsRunConcurrently() {
+    // each lookup only finds something once all of them are running at the same time
+    CountDownLatch running = new CountDownLatch(3);
+    Supplier<String> together = () -> {
+      running.countDown();
+      try {
+        return running.await(5, TimeUnit.SECONDS) ? TEST_VALUE : null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    };
+    resolver.awaitAll(resolver.require(together, TEST_ERR_MSG),
+        resolver.require(together, TEST_ERR_MSG), resolver.require(together, TEST_ERR_MSG));
+  }
+
+}
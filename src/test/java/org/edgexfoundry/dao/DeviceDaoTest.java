@@ -20,22 +20,47 @@ package org.edgexfoundry.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.edgexfoundry.domain.meta.AdminState;
 import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.DeviceData;
+import org.edgexfoundry.test.data.ServiceData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import com.mongodb.WriteResult;
 
 @Category(RequiresNone.class)
 public class DeviceDaoTest {
 
   private static final String TEST_ID = "123";
+  private static final String TEST_COLLECTION = "device";
+  private static final String TEST_ADDRESSABLE_ID = "456";
+  private static final long TEST_MODIFIED = 1471806386919L;
 
   @InjectMocks
   private DeviceDao dao;
@@ -43,6 +68,15 @@ public class DeviceDaoTest {
   @Mock
   private DeviceRepository repos;
 
+  @Mock
+  private MongoTemplate template;
+
+  @Mock
+  private MongoConverter converter;
+
+  @Mock
+  private DBCollection collection;
+
   private Device device;
 
   @Before
@@ -68,4 +102,43 @@ public class DeviceDaoTest {
     when(repos.findByName(DeviceData.TEST_NAME)).thenReturn(device);
     assertEquals("Returned device is not expected", device, dao.getByIdOrName(device));
   }
+
+  @Test
+  public void testGetAddressableIdsForService() {
+    DeviceService service = ServiceData.newTestInstance();
+    DBRef serviceRef = new DBRef("deviceService", TEST_ID);
+    when(template.getConverter()).thenReturn(converter);
+    when(converter.toDBRef(service, null)).thenReturn(serviceRef);
+    when(template.getCollectionName(Device.class)).thenReturn(TEST_COLLECTION);
+    when(template.getCollection(TEST_COLLECTION)).thenReturn(collection);
+    when(collection.distinct("addressable", new BasicDBObject("service", serviceRef)))
+        .thenReturn(Arrays.asList(new DBRef("addressable", TEST_ADDRESSABLE_ID), null));
+    assertEquals("Addressable ids not as expected", Arrays.asList(TEST_ADDRESSABLE_ID),
+        dao.getAddressableIdsForService(service));
+  }
+
+  @Test
+  public void testUpdateState() {
+    WriteResult result = mock(WriteResult.class);
+    when(result.getN()).thenReturn(1);
+    when(template.updateMulti(any(Query.class), any(Update.class), eq(Device.class)))
+        .thenReturn(result);
+    assertEquals("Changed count not as expected", 1,
+        dao.updateState(Arrays.asList(TEST_ID), "adminState", AdminState.LOCKED, TEST_MODIFIED));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(template).updateMulti(query.capture(), update.capture(), eq(Device.class));
+    DBObject modified = (DBObject) query.getValue().getQueryObject().get("modified");
+    assertEquals("Devices written since should be left alone", TEST_MODIFIED, modified.get("$lt"));
+    DBObject set = (DBObject) update.getValue().getUpdateObject().get("$set");
+    assertEquals("Version not stamped", TEST_MODIFIED, set.get("modified"));
+  }
+
+  @Test
+  public void testUpdateStateWithNone() {
+    assertEquals("Devices changed without ids", 0,
+        dao.updateState(Collections.emptyList(), "adminState", AdminState.LOCKED, TEST_MODIFIED));
+    verify(template, never()).updateMulti(any(Query.class), any(Update.class), eq(Device.class));
+  }
+
 }
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+@Category(RequiresNone.class)
+public class DeviceDigestsTest {
+
+  private static final String TEST_COLLECTION = "device";
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_NAME = "device";
+  private static final String TEST_OTHER_NAME = "other device";
+  private static final String TEST_SERVICE_ID = "s1";
+  private static final String TEST_OTHER_SERVICE_ID = "s2";
+  private static final long TEST_MODIFIED = 1471806386919L;
+  private static final String TEST_ERR_MSG = "test message";
+  private static final String ZERO = "0000000000000000";
+  private static final int DEPTH = 2;
+
+  @InjectMocks
+  private DeviceIndex index;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Mock
+  private DBCollection collection;
+
+  @Mock
+  private DBCursor cursor;
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(template.getCollectionName(Device.class)).thenReturn(TEST_COLLECTION);
+    when(template.getCollection(TEST_COLLECTION)).thenReturn(collection);
+    when(collection.find(any(DBObject.class), any(DBObject.class))).thenReturn(cursor);
+    Field depth = DeviceIndex.class.getDeclaredField("digestDepth");
+    depth.setAccessible(true);
+    depth.set(index, DEPTH);
+  }
+
+  @Test
+  public void testLoad() {
+    DBObject document = new BasicDBObject("_id", new ObjectId()).append("name", TEST_NAME)
+        .append("modified", TEST_MODIFIED)
+        .append("service", new DBRef("deviceService", TEST_SERVICE_ID));
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(document);
+    index.load();
+    assertTrue("Digests not loaded", index.isLoaded());
+    assertEquals("Root not as documented", expectedRoot(TEST_NAME, TEST_MODIFIED),
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+  }
+
+  @Test
+  public void testLoadFailure() {
+    when(cursor.hasNext()).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    index.load();
+    assertFalse("Digests loaded despite the failure", index.isLoaded());
+  }
+
+  @Test
+  public void testSavedMatchesLoad() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    assertEquals("Root not as documented", expectedRoot(TEST_NAME, TEST_MODIFIED),
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+  }
+
+  @Test
+  public void testUpdateChangesPathToRoot() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    String root = index.digestNode(TEST_SERVICE_ID, 1).getDigest();
+    int bucket = bucketOf(TEST_NAME);
+    String bucketDigest = index.digestNode(TEST_SERVICE_ID, bucket).getDigest();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED + 1));
+    assertNotEquals("Root unchanged by an update", root,
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+    DeviceIndex.DigestNode leaf = index.digestNode(TEST_SERVICE_ID, bucket);
+    assertNotEquals("Bucket unchanged by an update", bucketDigest, leaf.getDigest());
+    assertEquals("Bucket devices not as expected", Long.valueOf(TEST_MODIFIED + 1),
+        leaf.getDevices().get(TEST_NAME));
+    assertNull("Bucket has no children", leaf.getChildren());
+  }
+
+  @Test
+  public void testOlderWritesIgnored() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED + 1));
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    index.stateChanged(Arrays.asList(TEST_ID), AdminState.LOCKED, null, TEST_MODIFIED);
+    assertEquals("Older write replaced a newer one", expectedRoot(TEST_NAME, TEST_MODIFIED + 1),
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+    delete(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED + 1));
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED + 1));
+    assertEquals("Save from before the delete hashed again", ZERO,
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+  }
+
+  @Test
+  public void testMoveAndDelete() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    save(device(TEST_ID, TEST_NAME, TEST_OTHER_SERVICE_ID, TEST_MODIFIED));
+    assertEquals("Device not removed from its old service", ZERO,
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+    assertNotEquals("Device not added to its new service", ZERO,
+        index.digestNode(TEST_OTHER_SERVICE_ID, 1).getDigest());
+    delete(device(TEST_ID, TEST_NAME, TEST_OTHER_SERVICE_ID, TEST_MODIFIED));
+    DeviceIndex.DigestNode root = index.digestNode(TEST_OTHER_SERVICE_ID, 1);
+    assertEquals("Deleted device still hashed", ZERO, root.getDigest());
+    assertEquals("Children not listed", 2, root.getChildren().size());
+  }
+
+  @Test
+  public void testStateChanged() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_MODIFIED));
+    index.stateChanged(Arrays.asList(TEST_ID), AdminState.LOCKED, null, TEST_MODIFIED + 1);
+    assertEquals("Root not rehashed with the new version",
+        expectedRoot(TEST_NAME, TEST_MODIFIED + 1),
+        index.digestNode(TEST_SERVICE_ID, 1).getDigest());
+  }
+
+  @Test
+  public void testUnknownServiceIsEmpty() {
+    index.load();
+    DeviceIndex.DigestNode bucket = index.digestNode(TEST_SERVICE_ID, 1 << DEPTH);
+    assertEquals("Empty bucket digest", ZERO, bucket.getDigest());
+    assertEquals("Empty bucket devices", Collections.emptyMap(), bucket.getDevices());
+  }
+
+  @Test
+  public void testIsNode() {
+    index.load();
+    assertTrue("Root is a node", index.isDigestNode(1));
+    assertTrue("Last bucket is a node", index.isDigestNode((2 << DEPTH) - 1));
+    assertFalse("Node past the buckets", index.isDigestNode(2 << DEPTH));
+    assertFalse("Node 0", index.isDigestNode(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDigestNodeNotANode() {
+    index.load();
+    index.digestNode(TEST_SERVICE_ID, 0);
+  }
+
+  // recomputes the documented tree for a single device independently of the implementation
+  private String expectedRoot(String name, long modified) {
+    long[] nodes = new long[2 << DEPTH];
+    nodes[bucketOf(name)] = h((name + "\n" + modified).getBytes(StandardCharsets.UTF_8));
+    for (int node = (1 << DEPTH) - 1; node >= 1; node--)
+      nodes[node] = nodes[2 * node] == 0 && nodes[2 * node + 1] == 0 ? 0
+          : h(ByteBuffer.allocate(16).putLong(nodes[2 * node]).putLong(nodes[2 * node + 1])
+              .array());
+    return String.format("%016x", nodes[1]);
+  }
+
+  private int bucketOf(String name) {
+    return (1 << DEPTH) + (int) (h(name.getBytes(StandardCharsets.UTF_8)) >>> (64 - DEPTH));
+  }
+
+  private long h(byte[] bytes) {
+    try {
+      return ByteBuffer.wrap(MessageDigest.getInstance("SHA-1").digest(bytes)).getLong();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void save(Device device) {
+    index.saved(device, device.getModified());
+  }
+
+  // deleted after any write of the device
+  private void delete(Device device) {
+    index.deleted(device, device.getModified() + 1);
+  }
+
+  private Device device(String id, String name, String serviceId, long modified) {
+    Device device = new Device();
+    device.setId(id);
+    device.setName(name);
+    DeviceService service = new DeviceService();
+    service.setId(serviceId);
+    device.setService(service);
+    device.setModified(modified);
+    return device;
+  }
+
+}
@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.domain.meta.OperatingState;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+@Category(RequiresNone.class)
+public class DeviceIndexTest {
+
+  private static final String TEST_COLLECTION = "device";
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final String TEST_UNKNOWN_ID = "789";
+  private static final String TEST_NAME = "device";
+  private static final String TEST_OTHER_NAME = "other device";
+  private static final String TEST_LABEL = "label";
+  private static final String TEST_OTHER_LABEL = "other label";
+  private static final String TEST_SERVICE_ID = "s1";
+  private static final String TEST_OTHER_SERVICE_ID = "s2";
+  private static final String TEST_PROFILE_ID = "p1";
+  private static final String TEST_ADDRESSABLE_ID = "a1";
+  private static final String TEST_ERR_MSG = "test message";
+  private static final long TEST_MODIFIED = 1471806386919L;
+
+  @InjectMocks
+  private DeviceIndex index;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Mock
+  private DBCollection collection;
+
+  @Mock
+  private DBCursor cursor;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(template.getCollectionName(Device.class)).thenReturn(TEST_COLLECTION);
+    when(template.getCollection(TEST_COLLECTION)).thenReturn(collection);
+    when(collection.find(any(DBObject.class), any(DBObject.class))).thenReturn(cursor);
+  }
+
+  @Test
+  public void testLoad() {
+    ObjectId id = new ObjectId();
+    BasicDBList labels = new BasicDBList();
+    labels.add(TEST_LABEL);
+    DBObject document = new BasicDBObject("_id", id).append("name", TEST_NAME)
+        .append("labels", labels).append("service", new DBRef("deviceService", TEST_SERVICE_ID))
+        .append("profile", new DBRef("deviceProfile", TEST_PROFILE_ID))
+        .append("adminState", AdminState.LOCKED.toString())
+        .append("operatingState", OperatingState.ENABLED.toString());
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(document);
+    index.load();
+    assertTrue("Index not loaded", index.isLoaded());
+    assertEquals("Unexpected id for name", id.toString(), index.idForName(TEST_NAME));
+    assertEquals("Label not indexed", Arrays.asList(id.toString()), index.forLabel(TEST_LABEL));
+    assertEquals("Service not indexed", Arrays.asList(id.toString()),
+        index.forService(TEST_SERVICE_ID));
+    assertEquals("Profile not indexed", Arrays.asList(id.toString()),
+        index.forProfile(TEST_PROFILE_ID));
+    assertEquals("Admin state not indexed", Arrays.asList(id.toString()),
+        index.forAdminState(AdminState.LOCKED));
+    assertTrue("Missing addressable should match nothing",
+        index.forAddressable(TEST_ADDRESSABLE_ID).isEmpty());
+  }
+
+  @Test
+  public void testLoadFailure() {
+    when(cursor.hasNext()).thenThrow(new RuntimeException(TEST_ERR_MSG));
+    index.load();
+    assertFalse("Index loaded despite the failure", index.isLoaded());
+    assertEquals("Partial load kept", 0, index.size());
+  }
+
+  @Test
+  public void testAddressablesForService() {
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    assertEquals("Shared addressable not listed once", Arrays.asList(TEST_ADDRESSABLE_ID),
+        index.addressablesForService(TEST_SERVICE_ID));
+    delete(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    assertEquals("Addressable still used by a device dropped", Arrays.asList(TEST_ADDRESSABLE_ID),
+        index.addressablesForService(TEST_SERVICE_ID));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL));
+    assertTrue("Addressable kept after its last device moved",
+        index.addressablesForService(TEST_SERVICE_ID).isEmpty());
+    assertEquals("Addressable not moved with its device", Arrays.asList(TEST_ADDRESSABLE_ID),
+        index.addressablesForService(TEST_OTHER_SERVICE_ID));
+  }
+
+  @Test
+  public void testSaved() {
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL));
+    assertEquals("Unexpected size", 2, index.size());
+    assertEquals("Label lookup", Arrays.asList(TEST_ID, TEST_OTHER_ID), index.forLabel(TEST_LABEL));
+    assertEquals("Service lookup", Arrays.asList(TEST_OTHER_ID),
+        index.forService(TEST_OTHER_SERVICE_ID));
+    assertEquals("Profile lookup", Arrays.asList(TEST_ID, TEST_OTHER_ID),
+        index.forProfile(TEST_PROFILE_ID));
+    assertEquals("Addressable lookup", Arrays.asList(TEST_ID, TEST_OTHER_ID),
+        index.forAddressable(TEST_ADDRESSABLE_ID));
+    assertEquals("Op state lookup", Arrays.asList(TEST_ID, TEST_OTHER_ID),
+        index.forOperatingState(OperatingState.ENABLED));
+    assertTrue("Unknown label matched", index.forLabel(TEST_OTHER_LABEL).isEmpty());
+  }
+
+  @Test
+  public void testSavedAgainReplacesRow() {
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_ID, TEST_OTHER_NAME, TEST_OTHER_SERVICE_ID, TEST_OTHER_LABEL));
+    assertEquals("Device indexed twice", 1, index.size());
+    assertNull("Old name still indexed", index.idForName(TEST_NAME));
+    assertEquals("New name not indexed", TEST_ID, index.idForName(TEST_OTHER_NAME));
+    assertTrue("Old service still indexed", index.forService(TEST_SERVICE_ID).isEmpty());
+    assertTrue("Old label still indexed", index.forLabel(TEST_LABEL).isEmpty());
+    assertEquals("New label not indexed", Arrays.asList(TEST_ID),
+        index.forLabel(TEST_OTHER_LABEL));
+  }
+
+  @Test
+  public void testDeleted() {
+    Device device = device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL);
+    save(device);
+    delete(device);
+    assertEquals("Device still indexed", 0, index.size());
+    assertFalse("Device id still indexed", index.contains(TEST_ID));
+    assertNull("Device name still indexed", index.idForName(TEST_NAME));
+    assertEquals("Deleted device still matched", Collections.emptyList(),
+        index.forService(TEST_SERVICE_ID));
+  }
+
+  @Test
+  public void testDeletedRowReused() {
+    Device device = device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL);
+    save(device);
+    delete(device);
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    assertEquals("Unexpected service lookup", Arrays.asList(TEST_OTHER_ID),
+        index.forService(TEST_SERVICE_ID));
+  }
+
+  @Test
+  public void testDeletedUnknown() {
+    delete(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    assertEquals("Unexpected size", 0, index.size());
+  }
+
+  @Test
+  public void testStateChanged() {
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    index.stateChanged(Arrays.asList(TEST_ID, TEST_UNKNOWN_ID), null, OperatingState.DISABLED,
+        TEST_MODIFIED);
+    assertEquals("New op state not indexed", Arrays.asList(TEST_ID),
+        index.forOperatingState(OperatingState.DISABLED));
+    assertEquals("Old op state still indexed", Arrays.asList(TEST_OTHER_ID),
+        index.forOperatingState(OperatingState.ENABLED));
+    assertEquals("Unknown device indexed", 2, index.size());
+    assertEquals("Other columns changed", Arrays.asList(TEST_ID, TEST_OTHER_ID),
+        index.forService(TEST_SERVICE_ID));
+  }
+
+  @Test
+  public void testOlderWritesIgnored() {
+    Device device = device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL);
+    device.setModified(TEST_MODIFIED);
+    save(device);
+    Device older = device(TEST_ID, TEST_OTHER_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL);
+    older.setModified(TEST_MODIFIED - 1);
+    save(older);
+    index.stateChanged(Arrays.asList(TEST_ID), null, OperatingState.DISABLED, TEST_MODIFIED - 1);
+    assertEquals("Older save replaced a newer one", TEST_ID, index.idForName(TEST_NAME));
+    assertEquals("Older state change applied", Arrays.asList(TEST_ID),
+        index.forOperatingState(OperatingState.ENABLED));
+  }
+
+  @Test
+  public void testSaveAfterDeleteIgnored() {
+    Device device = device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL);
+    save(device);
+    delete(device);
+    save(device);
+    assertFalse("Save from before the delete indexed again", index.contains(TEST_ID));
+  }
+
+  @Test
+  public void testCounts() {
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    save(device(TEST_ID, TEST_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL));
+    index.stateChanged(Arrays.asList(TEST_OTHER_ID), AdminState.LOCKED, null, TEST_MODIFIED);
+    DeviceIndex.Counts counts = index.counts();
+    assertEquals("Update counted as an add", 2, counts.getTotal());
+    assertEquals("Update not moved out of the service", Long.valueOf(1),
+        counts.getServices().get(TEST_SERVICE_ID));
+    assertEquals("Update not moved into the service", Long.valueOf(1),
+        counts.getServices().get(TEST_OTHER_SERVICE_ID));
+    assertEquals("Profile not counted", Long.valueOf(2), counts.getProfiles().get(TEST_PROFILE_ID));
+    assertEquals("Admin state not moved", Long.valueOf(1),
+        counts.getAdminStates().get(AdminState.LOCKED.name()));
+    delete(device(TEST_ID, TEST_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL));
+    counts = index.counts();
+    assertEquals("Delete not counted", 1, counts.getTotal());
+    assertNull("Emptied service still listed", counts.getServices().get(TEST_OTHER_SERVICE_ID));
+  }
+
+  @Test
+  public void testReconcileInAgreement() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    aggregateTo(group(TEST_SERVICE_ID, 1));
+    index.reconcile();
+    assertEquals("Drift found in agreeing counts", 0, index.getDrifts());
+    assertEquals("Index changed", 1, index.size());
+    assertTrue("Reconcile time not recorded", index.getReconciled() > 0);
+  }
+
+  @Test
+  public void testReconcileDrift() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    aggregateTo(group(TEST_SERVICE_ID, 2));
+    when(cursor.hasNext()).thenReturn(true, true, false);
+    when(cursor.next()).thenReturn(document(TEST_ID, TEST_SERVICE_ID, TEST_MODIFIED),
+        document(TEST_OTHER_ID, TEST_SERVICE_ID, TEST_MODIFIED));
+    index.reconcile();
+    assertEquals("Drift not counted", 1, index.getDrifts());
+    assertEquals("Index not reloaded", 2, index.size());
+    assertTrue("Index not loaded", index.isLoaded());
+  }
+
+  @Test
+  public void testReconcileWriteDuringAggregation() {
+    index.load();
+    save(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL));
+    DBObject after = group(TEST_SERVICE_ID, 2);
+    when(template.aggregate(any(Aggregation.class), eq(Device.class), eq(DBObject.class)))
+        .thenAnswer(invocation -> {
+          // the write lands while the collection is being counted, and is counted
+          save(device(TEST_OTHER_ID, TEST_OTHER_NAME, TEST_SERVICE_ID, TEST_LABEL));
+          return new AggregationResults<>(Arrays.asList(after), new BasicDBObject());
+        }).thenReturn(new AggregationResults<>(Arrays.asList(after), new BasicDBObject()));
+    index.reconcile();
+    assertEquals("Concurrent write reported as drift", 0, index.getDrifts());
+    assertEquals("Index changed", 2, index.size());
+  }
+
+  @Test
+  public void testReconcileFailure() {
+    index.load();
+    when(template.aggregate(any(Aggregation.class), eq(Device.class), eq(DBObject.class)))
+        .thenThrow(new RuntimeException(TEST_ERR_MSG));
+    index.reconcile();
+    assertEquals("Failed reconcile reported drift", 0, index.getDrifts());
+    assertTrue("Failed reconcile dropped the index", index.isLoaded());
+  }
+
+  @Test
+  public void testLoadDoesNotBlockWrites() throws Exception {
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    try {
+      when(cursor.hasNext()).thenAnswer(invocation -> {
+        // a listener write on another thread must not wait for the scan to finish
+        writer.submit(() -> save(device(TEST_ID, TEST_NAME, TEST_OTHER_SERVICE_ID, TEST_LABEL)))
+            .get(5, TimeUnit.SECONDS);
+        return false;
+      });
+      index.load();
+    } finally {
+      writer.shutdown();
+    }
+    assertEquals("Write during the scan lost", Arrays.asList(TEST_ID),
+        index.forService(TEST_OTHER_SERVICE_ID));
+  }
+
+  @Test
+  public void testLoadSkipsDeletedDuringScan() {
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenAnswer(invocation -> {
+      // the device is deleted after the scan read it
+      index.deleted(device(TEST_ID, TEST_NAME, TEST_SERVICE_ID, TEST_LABEL), TEST_MODIFIED + 1);
+      return document(TEST_ID, TEST_SERVICE_ID, TEST_MODIFIED);
+    });
+    index.load();
+    assertFalse("Device deleted during the scan indexed", index.contains(TEST_ID));
+  }
+
+  @Test
+  public void testLoadReplaysStateChanges() {
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenAnswer(invocation -> {
+      // the state changes after the scan read the device, before it reaches the index
+      index.stateChanged(Arrays.asList(TEST_ID), null, OperatingState.DISABLED, TEST_MODIFIED);
+      return document(TEST_ID, TEST_SERVICE_ID, TEST_MODIFIED - 1);
+    });
+    index.load();
+    assertEquals("State change during the scan lost", Arrays.asList(TEST_ID),
+        index.forOperatingState(OperatingState.DISABLED));
+  }
+
+  @Test
+  public void testManyDevices() {
+    for (int i = 0; i < 100; i++)
+      save(device(TEST_ID + i, TEST_NAME + i, TEST_SERVICE_ID, TEST_LABEL));
+    assertEquals("Unexpected size", 100, index.size());
+    assertEquals("Unexpected id for name", TEST_ID + 99, index.idForName(TEST_NAME + 99));
+    assertEquals("Unexpected service lookup", 100, index.forService(TEST_SERVICE_ID).size());
+  }
+
+  private void aggregateTo(DBObject group) {
+    when(template.aggregate(any(Aggregation.class), eq(Device.class), eq(DBObject.class)))
+        .thenReturn(new AggregationResults<>(Arrays.asList(group), new BasicDBObject()));
+  }
+
+  private DBObject group(String serviceId, int count) {
+    DBObject key = new BasicDBObject("service", new DBRef("deviceService", serviceId))
+        .append("profile", new DBRef("deviceProfile", TEST_PROFILE_ID))
+        .append("adminState", AdminState.UNLOCKED.name())
+        .append("operatingState", OperatingState.ENABLED.name());
+    return new BasicDBObject("_id", key).append("count", count);
+  }
+
+  private DBObject document(String id, String serviceId, long modified) {
+    return new BasicDBObject("_id", id).append("name", id)
+        .append("service", new DBRef("deviceService", serviceId))
+        .append("profile", new DBRef("deviceProfile", TEST_PROFILE_ID))
+        .append("adminState", AdminState.UNLOCKED.name())
+        .append("operatingState", OperatingState.ENABLED.name()).append("modified", modified);
+  }
+
+  private void save(Device device) {
+    index.saved(device, device.getModified());
+  }
+
+  // deleted after any write of the device
+  private void delete(Device device) {
+    index.deleted(device, device.getModified() + 1);
+  }
+
+  private Device device(String id, String name, String serviceId, String label) {
+    Device device = new Device();
+    device.setId(id);
+    device.setName(name);
+    device.setLabels(new String[] {label});
+    DeviceService service = new DeviceService();
+    service.setId(serviceId);
+    device.setService(service);
+    DeviceProfile profile = new DeviceProfile();
+    profile.setId(TEST_PROFILE_ID);
+    device.setProfile(profile);
+    Addressable addressable = new Addressable();
+    addressable.setId(TEST_ADDRESSABLE_ID);
+    device.setAddressable(addressable);
+    device.setAdminState(AdminState.UNLOCKED);
+    device.setOperatingState(OperatingState.ENABLED);
+    return device;
+  }
+
+}
@@ -20,17 +20,30 @@ package org.edgexfoundry.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.edgexfoundry.domain.meta.Asset;
 import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.CommandData;
+import org.edgexfoundry.test.data.DeviceData;
 import org.edgexfoundry.test.data.ProfileData;
+import org.edgexfoundry.test.data.ServiceData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -42,6 +55,7 @@ import org.mockito.MockitoAnnotations;
 public class DeviceProfileDaoTest {
 
   private static final String TEST_ID = "123";
+  private static final int HERD_SIZE = 20;
 
   @InjectMocks
   private DeviceProfileDao dao;
@@ -162,4 +176,46 @@ public class DeviceProfileDaoTest {
   public void testGetByName() {
     dao.getByName(ProfileData.TEST_PROFILE_NAME);
   }
+
+  @Test
+  public void testGetByNameThunderingHerd() throws Exception {
+    CountDownLatch arrived = new CountDownLatch(HERD_SIZE);
+    when(repos.findByName(ProfileData.TEST_PROFILE_NAME)).thenAnswer(invocation -> {
+      arrived.await(5, TimeUnit.SECONDS);
+      Thread.sleep(100);
+      return profile;
+    });
+    ExecutorService herd = Executors.newFixedThreadPool(HERD_SIZE);
+    try {
+      List<Future<DeviceProfile>> results = new ArrayList<>();
+      for (int i = 0; i < HERD_SIZE; i++)
+        results.add(herd.submit(() -> {
+          arrived.countDown();
+          return dao.getByName(ProfileData.TEST_PROFILE_NAME);
+        }));
+      for (Future<DeviceProfile> result : results)
+        assertSame("Returned device profile is not expected", profile,
+            result.get(10, TimeUnit.SECONDS));
+    } finally {
+      herd.shutdownNow();
+    }
+    verify(repos, times(1)).findByName(ProfileData.TEST_PROFILE_NAME);
+  }
+
+  @Test
+  public void testGetOwningServicesOncePerService() {
+    DeviceService service = ServiceData.newTestInstance();
+    service.setId(TEST_ID);
+    List<Device> devices = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Device device = DeviceData.newTestInstance();
+      device.setService(service);
+      devices.add(device);
+    }
+    when(deviceRepos.findByProfile(profile)).thenReturn(devices);
+    List<Asset> services = dao.getOwningServices(profile);
+    assertEquals("Service returned more than once", 1, services.size());
+    assertEquals("Returned service is not expected", service, services.get(0));
+  }
+
 }
@@ -20,8 +20,17 @@ package org.edgexfoundry.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.edgexfoundry.domain.meta.Device;
 import org.edgexfoundry.domain.meta.DeviceReport;
 import org.edgexfoundry.domain.meta.DeviceService;
@@ -35,11 +44,19 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
 
 @Category(RequiresNone.class)
 public class DeviceReportDaoTest {
 
   private static final String TEST_ID = "123";
+  private static final String TEST_VD_1 = "humidity";
+  private static final String TEST_VD_2 = "temperature";
 
   @InjectMocks
   private DeviceReportDao dao;
@@ -50,6 +67,9 @@ public class DeviceReportDaoTest {
   @Mock
   private DeviceRepository deviceRepos;
 
+  @Mock
+  private MongoTemplate template;
+
   private DeviceReport report;
 
   @Before
@@ -99,6 +119,72 @@ public class DeviceReportDaoTest {
 
   @Test
   public void testGetValueDescriptorsForDeviceReportsAssociatedToDevice() {
+    aggregateTo(TEST_VD_2, TEST_VD_1);
+    assertEquals("Value descriptors returned are not expected", Arrays.asList(TEST_VD_1, TEST_VD_2),
+        dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME));
+  }
+
+  @Test
+  public void testGetValueDescriptorsForDeviceReportsAssociatedToDeviceCached() {
+    aggregateTo(TEST_VD_1);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    verify(template, times(1)).aggregate(any(Aggregation.class), eq(DeviceReport.class),
+        eq(DBObject.class));
+  }
+
+  @Test
+  public void testGetValueDescriptorsAfterInvalidate() {
+    aggregateTo(TEST_VD_1);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    aggregateTo(TEST_VD_1, TEST_VD_2);
+    dao.invalidate(DeviceData.TEST_NAME);
+    assertEquals("Value descriptors not recomputed after invalidate",
+        Arrays.asList(TEST_VD_1, TEST_VD_2),
+        dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME));
+  }
+
+  @Test
+  public void testGetValueDescriptorsInvalidatedWhileAggregating() {
+    when(template.aggregate(any(Aggregation.class), eq(DeviceReport.class), eq(DBObject.class)))
+        .thenAnswer(invocation -> {
+          dao.invalidate(DeviceData.TEST_NAME);
+          return new AggregationResults<>(new ArrayList<DBObject>(), new BasicDBObject());
+        });
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    aggregateTo(TEST_VD_1);
+    assertEquals("Result of a raced aggregation cached", Arrays.asList(TEST_VD_1),
+        dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME));
+  }
+
+  @Test
+  public void testGetValueDescriptorsCacheBounded() throws Exception {
+    Field cacheSize = DeviceReportDao.class.getDeclaredField("cacheSize");
+    cacheSize.setAccessible(true);
+    cacheSize.set(dao, 1);
+    aggregateTo(TEST_VD_1);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(TEST_ID);
     dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    verify(template, times(3)).aggregate(any(Aggregation.class), eq(DeviceReport.class),
+        eq(DBObject.class));
+  }
+
+  @Test
+  public void testRemoveAssociatedReportsForDeviceInvalidates() {
+    aggregateTo(TEST_VD_1);
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    dao.removeAssociatedReportsForDevice(DeviceData.newTestInstance());
+    dao.getValueDescriptorsForDeviceReportsAssociatedToDevice(DeviceData.TEST_NAME);
+    verify(template, times(2)).aggregate(any(Aggregation.class), eq(DeviceReport.class),
+        eq(DBObject.class));
+  }
+
+  private void aggregateTo(String... valueDescriptors) {
+    List<DBObject> groups = new ArrayList<>();
+    for (String valueDescriptor : valueDescriptors)
+      groups.add(new BasicDBObject("_id", valueDescriptor));
+    when(template.aggregate(any(Aggregation.class), eq(DeviceReport.class), eq(DBObject.class)))
+        .thenReturn(new AggregationResults<>(groups, new BasicDBObject()));
   }
 }
@@ -20,8 +20,21 @@ package org.edgexfoundry.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.edgexfoundry.domain.meta.DeviceService;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.ServiceData;
@@ -36,6 +49,8 @@ import org.mockito.MockitoAnnotations;
 public class DeviceServiceDaoTest {
 
   private static final String TEST_ID = "123";
+  private static final String TEST_ERR_MSG = "test message";
+  private static final int HERD_SIZE = 50;
 
   @InjectMocks
   private DeviceServiceDao dao;
@@ -79,5 +94,67 @@ public class DeviceServiceDaoTest {
     dao.getByName(ServiceData.TEST_SERVICE_NAME);
   }
 
+  @Test
+  public void testGetByNameThunderingHerd() throws Exception {
+    CountDownLatch arrived = new CountDownLatch(HERD_SIZE);
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenAnswer(invocation -> {
+      // hold the query open until the whole herd is queued behind it
+      arrived.await(5, TimeUnit.SECONDS);
+      Thread.sleep(100);
+      return service;
+    });
+    ExecutorService herd = Executors.newFixedThreadPool(HERD_SIZE);
+    try {
+      List<Future<DeviceService>> results = new ArrayList<>();
+      for (int i = 0; i < HERD_SIZE; i++)
+        results.add(herd.submit(() -> {
+          arrived.countDown();
+          return dao.getByName(ServiceData.TEST_SERVICE_NAME);
+        }));
+      for (Future<DeviceService> result : results)
+        assertSame("Returned device service is not expected", service,
+            result.get(10, TimeUnit.SECONDS));
+    } finally {
+      herd.shutdownNow();
+    }
+    verify(repos, times(1)).findByName(ServiceData.TEST_SERVICE_NAME);
+  }
+
+  @Test
+  public void testGetByNameThunderingHerdException() throws Exception {
+    CountDownLatch arrived = new CountDownLatch(HERD_SIZE);
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenAnswer(invocation -> {
+      arrived.await(5, TimeUnit.SECONDS);
+      Thread.sleep(100);
+      throw new RuntimeException(TEST_ERR_MSG);
+    });
+    ExecutorService herd = Executors.newFixedThreadPool(HERD_SIZE);
+    try {
+      List<Future<DeviceService>> results = new ArrayList<>();
+      for (int i = 0; i < HERD_SIZE; i++)
+        results.add(herd.submit(() -> {
+          arrived.countDown();
+          return dao.getByName(ServiceData.TEST_SERVICE_NAME);
+        }));
+      for (Future<DeviceService> result : results) {
+        try {
+          result.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          assertTrue("Query exception not shared", e.getCause() instanceof RuntimeException);
+        }
+      }
+    } finally {
+      herd.shutdownNow();
+    }
+    verify(repos, times(1)).findByName(ServiceData.TEST_SERVICE_NAME);
+  }
+
+  @Test
+  public void testGetByNameSequentialLookupsQueryEachTime() {
+    when(repos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    dao.getByName(ServiceData.TEST_SERVICE_NAME);
+    dao.getByName(ServiceData.TEST_SERVICE_NAME);
+    verify(repos, times(2)).findByName(ServiceData.TEST_SERVICE_NAME);
+  }
 
 }
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.AdminState;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.DeviceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+@Category(RequiresNone.class)
+public class DeviceWritesTest {
+
+  private static final String TEST_ERR_MSG = "test message";
+  private static final long TEST_MODIFIED = 1471806386919L;
+
+  private DeviceWriteListener first = mock(DeviceWriteListener.class);
+
+  private DeviceWriteListener second = mock(DeviceWriteListener.class);
+
+  @Spy
+  private List<DeviceWriteListener> listeners = new ArrayList<>(Arrays.asList(first, second));
+
+  @Mock
+  private VersionClock clock;
+
+  @InjectMocks
+  private DeviceWrites writes;
+
+  private Device device;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    device = DeviceData.newTestInstance();
+    device.setModified(TEST_MODIFIED);
+    when(clock.next()).thenReturn(TEST_MODIFIED + 1);
+  }
+
+  @Test
+  public void testSaved() {
+    writes.saved(device);
+    verify(first).saved(device, TEST_MODIFIED);
+    verify(second).saved(device, TEST_MODIFIED);
+  }
+
+  @Test
+  public void testDeleted() {
+    writes.deleted(device);
+    verify(first).deleted(device, TEST_MODIFIED + 1);
+    verify(second).deleted(device, TEST_MODIFIED + 1);
+  }
+
+  @Test
+  public void testStateChanged() {
+    List<String> ids = Arrays.asList(device.getId());
+    writes.stateChanged(ids, AdminState.LOCKED, null, TEST_MODIFIED);
+    verify(first).stateChanged(ids, AdminState.LOCKED, null, TEST_MODIFIED);
+    verify(second).stateChanged(ids, AdminState.LOCKED, null, TEST_MODIFIED);
+  }
+
+  @Test
+  public void testFailingListenerSkipped() {
+    doThrow(new RuntimeException(TEST_ERR_MSG)).when(first).saved(device, TEST_MODIFIED);
+    writes.saved(device);
+    verify(second).saved(device, TEST_MODIFIED);
+  }
+
+}
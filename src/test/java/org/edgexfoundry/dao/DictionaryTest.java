@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class DictionaryTest {
+
+  private static final String TEST_VALUE = "value";
+  private static final String TEST_OTHER_VALUE = "other";
+
+  private Dictionary dictionary;
+
+  @Before
+  public void setup() {
+    dictionary = new Dictionary();
+  }
+
+  @Test
+  public void testAcquireSameValue() {
+    int code = dictionary.acquire(TEST_VALUE);
+    assertEquals("Value not interned once", code, dictionary.acquire(new String(TEST_VALUE)));
+    assertEquals("Unexpected size", 1, dictionary.size());
+    assertEquals("Unexpected value", TEST_VALUE, dictionary.value(code));
+  }
+
+  @Test
+  public void testAcquireNull() {
+    assertEquals("Null should have no code", Dictionary.NONE, dictionary.acquire(null));
+    assertNull("No code should have no value", dictionary.value(Dictionary.NONE));
+  }
+
+  @Test
+  public void testReleaseKeepsReferencedValue() {
+    int code = dictionary.acquire(TEST_VALUE);
+    dictionary.acquire(TEST_VALUE);
+    dictionary.release(code);
+    assertEquals("Referenced value freed", code, dictionary.code(TEST_VALUE));
+  }
+
+  @Test
+  public void testReleaseFreesCode() {
+    int code = dictionary.acquire(TEST_VALUE);
+    dictionary.release(code);
+    assertEquals("Released value still held", Dictionary.NONE, dictionary.code(TEST_VALUE));
+    assertEquals("Freed code not reused", code, dictionary.acquire(TEST_OTHER_VALUE));
+    assertEquals("Codes handed out should not grow", 1, dictionary.capacity());
+  }
+
+  @Test
+  public void testGrow() {
+    for (int i = 0; i < 100; i++)
+      assertEquals("Unexpected code", i, dictionary.acquire(TEST_VALUE + i));
+    assertEquals("Unexpected value", TEST_VALUE + 99, dictionary.value(99));
+  }
+
+  @Test
+  public void testClear() {
+    dictionary.acquire(TEST_VALUE);
+    dictionary.clear();
+    assertEquals("Dictionary not cleared", 0, dictionary.size());
+    assertEquals("Codes not restarted", 0, dictionary.acquire(TEST_OTHER_VALUE));
+  }
+
+}
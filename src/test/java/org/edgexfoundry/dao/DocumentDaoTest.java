@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.DeviceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.DBObject;
+import com.mongodb.WriteResult;
+
+@Category(RequiresNone.class)
+public class DocumentDaoTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_DESCRIPTION = "new description";
+  private static final long TEST_VERSION = 1471806386919L;
+
+  @InjectMocks
+  private DocumentDao dao;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Spy
+  private VersionClock clock = new VersionClock();
+
+  @Mock
+  private WriteResult result;
+
+  private Device device;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    device = DeviceData.newTestInstance();
+    device.setId(TEST_ID);
+    when(template.updateFirst(any(Query.class), any(Update.class), eq(Device.class)))
+        .thenReturn(result);
+    when(result.getN()).thenReturn(1);
+  }
+
+  @Test
+  public void testUpdateNoChanges() {
+    assertFalse("Write reported with no changes", dao.update(device, new ChangeSet()));
+    verify(template, never()).updateFirst(any(Query.class), any(Update.class), eq(Device.class));
+  }
+
+  @Test
+  public void testUpdateSetsOnlyChangedFields() {
+    ChangeSet changes = new ChangeSet();
+    changes.set("description", device.getDescription(), TEST_DESCRIPTION, device::setDescription);
+    assertTrue("Write not reported", dao.update(device, changes));
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(template).updateFirst(any(Query.class), update.capture(), eq(Device.class));
+    DBObject set = (DBObject) update.getValue().getUpdateObject().get("$set");
+    assertEquals("Unexpected fields written", 2, set.keySet().size());
+    assertEquals("Changed value not written", TEST_DESCRIPTION, set.get("description"));
+    assertEquals("Modified time not written", device.getModified(), set.get(DocumentDao.MODIFIED));
+  }
+
+  @Test
+  public void testUpdateConditionalOnVersion() {
+    device.setModified(TEST_VERSION);
+    assertTrue("Write not reported", dao.update(device, describe()));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(template).updateFirst(query.capture(), any(Update.class), eq(Device.class));
+    assertEquals("Write not conditional on the version read", TEST_VERSION,
+        query.getValue().getQueryObject().get(DocumentDao.MODIFIED));
+    assertTrue("Version did not move forward", device.getModified() > TEST_VERSION);
+  }
+
+  @Test
+  public void testUpdateUnversioned() {
+    device.setModified(0);
+    assertTrue("Write not reported", dao.update(device, describe()));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(template).updateFirst(query.capture(), any(Update.class), eq(Device.class));
+    assertFalse("Unversioned document should not be matched on version",
+        query.getValue().getQueryObject().containsField(DocumentDao.MODIFIED));
+  }
+
+  @Test
+  public void testUpdateConflict() {
+    device.setModified(TEST_VERSION);
+    when(result.getN()).thenReturn(0);
+    try {
+      dao.update(device, describe());
+      fail("Concurrent write was not reported");
+    } catch (PreconditionFailedException pE) {
+      assertEquals("Version should be left as read", TEST_VERSION, device.getModified());
+    }
+  }
+
+  private ChangeSet describe() {
+    ChangeSet changes = new ChangeSet();
+    changes.set("description", device.getDescription(), TEST_DESCRIPTION, device::setDescription);
+    return changes;
+  }
+
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.mongodb.DBObject;
+
+@Category(RequiresNone.class)
+public class MongoIndexesTest {
+
+  @InjectMocks
+  private MongoIndexes indexes;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Mock
+  private IndexOperations deviceIndexes;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(template.indexOps(Device.class)).thenReturn(deviceIndexes);
+  }
+
+  @Test
+  public void testEnsureIndexes() {
+    indexes.ensureIndexes();
+    ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(deviceIndexes, times(4)).ensureIndex(created.capture());
+    List<IndexDefinition> all = created.getAllValues();
+    assertEquals("Time index not as expected", Arrays.asList("lastConnected", "_id"),
+        new ArrayList<>(all.get(0).getIndexKeys().keySet()));
+    DBObject keys = all.get(3).getIndexKeys();
+    assertEquals("Service should lead the compound index", "service",
+        keys.keySet().iterator().next());
+    assertEquals("Compound index not on the time", 1, keys.get("lastReported"));
+  }
+
+  @Test
+  public void testEnsureIndexesFailure() {
+    doThrow(new RuntimeException("down")).when(deviceIndexes).ensureIndex(any(Index.class));
+    indexes.ensureIndexes();
+    verify(deviceIndexes).ensureIndex(any(Index.class));
+  }
+
+}
@@ -21,16 +21,21 @@ package org.edgexfoundry.dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.edgexfoundry.domain.meta.Asset;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.ScheduleData;
 import org.edgexfoundry.test.data.ScheduleEventData;
+import org.edgexfoundry.test.data.ServiceData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -53,7 +58,7 @@ public class ScheduleDaoTest {
   private ScheduleEventRepository scheduleEventRepos;
 
   @Mock
-  private DeviceServiceRepository deviceServiceRepository;
+  private ScheduleEventDao scheduleEventDao;
 
   private Schedule schedule;
 
@@ -100,4 +105,21 @@ public class ScheduleDaoTest {
     dao.getAffectedServices(schedule);
   }
 
+  @Test
+  public void testGetAffectedServicesSharedService() {
+    List<ScheduleEvent> events = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ScheduleEvent event = ScheduleEventData.newTestInstance();
+      event.setService(ServiceData.TEST_SERVICE_NAME);
+      events.add(event);
+    }
+    List<Asset> services = new ArrayList<>();
+    services.add(ServiceData.newTestInstance());
+    when(scheduleEventRepos.findBySchedule(ScheduleData.TEST_SCHEDULE_NAME)).thenReturn(events);
+    when(scheduleEventDao.getAffectedServices(events)).thenReturn(services);
+    assertEquals("Returned device services do not match expected return list", services,
+        dao.getAffectedServices(schedule));
+    verify(scheduleEventDao, times(1)).getAffectedServices(anyCollectionOf(ScheduleEvent.class));
+  }
+
 }
@@ -22,9 +22,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.edgexfoundry.domain.meta.DeviceReport;
@@ -106,7 +111,8 @@ public class ScheduleEventDaoTest {
     DeviceService service = ServiceData.newTestInstance();
     event.setService(ServiceData.TEST_SERVICE_NAME);
     services.add(service);
-    when(deviceServiceRepos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(service);
+    when(deviceServiceRepos.findByNameIn(Collections.singleton(ServiceData.TEST_SERVICE_NAME)))
+        .thenReturn(services);
     assertEquals("Returned device services do not match expected return list", services,
         dao.getAffectedService(event));
   }
@@ -115,7 +121,8 @@ public class ScheduleEventDaoTest {
   public void testGetAffectedServiceWithServiceNotFound() {
     List<DeviceService> services = new ArrayList<>();
     event.setService(ServiceData.TEST_SERVICE_NAME);
-    when(deviceServiceRepos.findByName(ServiceData.TEST_SERVICE_NAME)).thenReturn(null);
+    when(deviceServiceRepos.findByNameIn(Collections.singleton(ServiceData.TEST_SERVICE_NAME)))
+        .thenReturn(new ArrayList<>());
     assertEquals("Returned device services do not match expected return list", services,
         dao.getAffectedService(event));
   }
@@ -127,4 +134,30 @@ public class ScheduleEventDaoTest {
         dao.getAffectedService(null));
   }
 
+  @Test
+  public void testGetAffectedServices() {
+    List<ScheduleEvent> events = new ArrayList<>();
+    List<DeviceService> services = new ArrayList<>();
+    services.add(ServiceData.newTestInstance());
+    for (int i = 0; i < 3; i++) {
+      ScheduleEvent e = ScheduleEventData.newTestInstance();
+      e.setService(ServiceData.TEST_SERVICE_NAME);
+      events.add(e);
+    }
+    events.add(null);
+    when(deviceServiceRepos.findByNameIn(Collections.singleton(ServiceData.TEST_SERVICE_NAME)))
+        .thenReturn(services);
+    assertEquals("Returned device services do not match expected return list", services,
+        dao.getAffectedServices(events));
+    verify(deviceServiceRepos, times(1)).findByNameIn(anyCollectionOf(String.class));
+  }
+
+  @Test
+  public void testGetAffectedServicesWithNoServices() {
+    event.setService(null);
+    assertTrue("Returned device services should be empty",
+        dao.getAffectedServices(Collections.singletonList(event)).isEmpty());
+    verify(deviceServiceRepos, never()).findByNameIn(anyCollectionOf(String.class));
+  }
+
 }
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class TombstonesTest {
+
+  private static final String TEST_ID = "123";
+  private static final String TEST_OTHER_ID = "456";
+  private static final long TEST_MODIFIED = 1471806386919L;
+
+  private Tombstones tombstones;
+
+  @Before
+  public void setup() {
+    tombstones = new Tombstones();
+  }
+
+  @Test
+  public void testBuriesOlderVersions() {
+    tombstones.add(TEST_ID, TEST_MODIFIED);
+    assertTrue("Earlier write not buried", tombstones.buries(TEST_ID, TEST_MODIFIED - 1));
+    assertTrue("Write of the delete version not buried",
+        tombstones.buries(TEST_ID, TEST_MODIFIED));
+    assertFalse("Later write buried", tombstones.buries(TEST_ID, TEST_MODIFIED + 1));
+    assertFalse("Other device buried", tombstones.buries(TEST_OTHER_ID, TEST_MODIFIED - 1));
+  }
+
+  @Test
+  public void testExpiredDeletesForgotten() {
+    tombstones.add(TEST_ID, TEST_MODIFIED);
+    tombstones.add(TEST_OTHER_ID, TEST_MODIFIED + Tombstones.RETENTION + 1);
+    assertEquals("Expired delete kept", 1, tombstones.size());
+    assertFalse("Expired delete still buries", tombstones.buries(TEST_ID, TEST_MODIFIED - 1));
+  }
+
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class VersionClockTest {
+
+  private static final long TEST_VERSION = 1471806386919L;
+
+  private VersionClock clock = new VersionClock();
+
+  @Test
+  public void testNextAlwaysMovesForward() {
+    long previous = clock.next();
+    for (int i = 0; i < 1000; i++) {
+      long next = clock.next();
+      assertTrue("Time issued twice or out of order", next > previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  public void testNextNotBeforeWallClock() {
+    long now = System.currentTimeMillis();
+    assertTrue("Time earlier than the wall clock", clock.next() >= now);
+  }
+
+  @Test
+  public void testNextAfterVersion() {
+    long future = System.currentTimeMillis() + 60000;
+    assertEquals("Version read from the future not passed", future + 1, clock.next(future));
+    assertTrue("Later time not after the version", clock.next(TEST_VERSION) > future + 1);
+  }
+
+  @Test
+  public void testNowFromClock() {
+    long previous = clock.next();
+    assertTrue("Audited time not issued by the clock",
+        clock.getNow().getTimeInMillis() > previous);
+  }
+
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: core-metadata
+ * @author: Jim White, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.edgexfoundry.domain.meta.Command;
+import org.edgexfoundry.domain.meta.Device;
+import org.edgexfoundry.domain.meta.DeviceProfile;
+import org.edgexfoundry.domain.meta.DeviceService;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ServiceData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+@Category(RequiresNone.class)
+public class VersionDaoTest {
+
+  private static final String TEST_DEVICE_COLLECTION = "device";
+  private static final String TEST_PROFILE_COLLECTION = "deviceProfile";
+  private static final String TEST_COMMAND_COLLECTION = "command";
+  private static final String TEST_COMMAND_ID = "c1";
+  private static final String TEST_NAME = "device";
+  private static final String TEST_PROFILE_ID = "p1";
+  private static final String TEST_ADDRESSABLE_ID = "a1";
+  private static final String TEST_OTHER_ID = "other";
+  private static final long TEST_MODIFIED = 1471806386919L;
+
+  @InjectMocks
+  private VersionDao dao;
+
+  @Mock
+  private MongoTemplate template;
+
+  @Mock
+  private MongoConverter converter;
+
+  @Mock
+  private DBCollection collection;
+
+  @Mock
+  private DBCursor cursor;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(template.getCollectionName(Device.class)).thenReturn(TEST_DEVICE_COLLECTION);
+    when(template.getCollectionName(DeviceProfile.class)).thenReturn(TEST_PROFILE_COLLECTION);
+    when(template.getCollectionName(Command.class)).thenReturn(TEST_COMMAND_COLLECTION);
+    when(template.getCollection(any(String.class))).thenReturn(collection);
+    when(collection.find(any(DBObject.class), any(DBObject.class))).thenReturn(cursor);
+  }
+
+  @Test
+  public void testGetDeviceVersions() {
+    DeviceService service = ServiceData.newTestInstance();
+    DBRef serviceRef = new DBRef("deviceService", TEST_OTHER_ID);
+    when(template.getConverter()).thenReturn(converter);
+    when(converter.toDBRef(service, null)).thenReturn(serviceRef);
+    ObjectId id = new ObjectId();
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(new BasicDBObject("_id", id).append("name", TEST_NAME)
+        .append("modified", TEST_MODIFIED)
+        .append("profile", new DBRef("deviceProfile", TEST_PROFILE_ID))
+        .append("addressable", new DBRef("addressable", TEST_ADDRESSABLE_ID)));
+    List<VersionDao.Version> versions = dao.getDeviceVersions(service);
+    assertEquals("Unexpected number of versions", 1, versions.size());
+    VersionDao.Version version = versions.get(0);
+    assertEquals("Id not as expected", id.toString(), version.getId());
+    assertEquals("Name not as expected", TEST_NAME, version.getName());
+    assertEquals("Version not as expected", TEST_MODIFIED, version.getModified());
+    assertEquals("Profile not as expected", TEST_PROFILE_ID, version.getProfile());
+    assertEquals("Addressable not as expected", TEST_ADDRESSABLE_ID, version.getAddressable());
+    verify(collection).find(any(DBObject.class), any(DBObject.class));
+    verify(cursor).close();
+  }
+
+  @Test
+  public void testGetDeviceVersionsForIds() {
+    ObjectId id = new ObjectId();
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(new BasicDBObject("_id", id).append("name", TEST_NAME)
+        .append("modified", TEST_MODIFIED)
+        .append("service", new DBRef("deviceService", TEST_OTHER_ID)));
+    List<VersionDao.Version> versions = dao.getDeviceVersions(Arrays.asList(id.toString()));
+    assertEquals("Unexpected number of versions", 1, versions.size());
+    assertEquals("Service not as expected", TEST_OTHER_ID, versions.get(0).getService());
+    assertNull("Profile not stored", versions.get(0).getProfile());
+    ArgumentCaptor<DBObject> fields = ArgumentCaptor.forClass(DBObject.class);
+    verify(collection).find(any(DBObject.class), fields.capture());
+    assertTrue("Service not projected", fields.getValue().containsField("service"));
+  }
+
+  @Test
+  public void testGetVersions() {
+    ObjectId id = new ObjectId();
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(new BasicDBObject("_id", id).append("name", TEST_NAME));
+    List<VersionDao.Version> versions =
+        dao.getVersions(DeviceProfile.class, Arrays.asList(id.toString(), TEST_OTHER_ID));
+    ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+    verify(collection).find(query.capture(), any(DBObject.class));
+    assertEquals("Version without a modified time", 0, versions.get(0).getModified());
+    assertNull("Profile of a non device", versions.get(0).getProfile());
+    DBObject in = (DBObject) query.getValue().get("_id");
+    assertEquals("Ids not converted as stored", Arrays.asList(id, TEST_OTHER_ID), in.get("$in"));
+  }
+
+  @Test
+  public void testGetProfileVersionsCoverCommands() {
+    ObjectId id = new ObjectId();
+    BasicDBList commands = new BasicDBList();
+    commands.add(new DBRef(TEST_COMMAND_COLLECTION, TEST_COMMAND_ID));
+    when(cursor.hasNext()).thenReturn(true, false, true, false);
+    when(cursor.next()).thenReturn(
+        new BasicDBObject("_id", id).append("name", TEST_NAME).append("modified", TEST_MODIFIED)
+            .append("commands", commands),
+        new BasicDBObject("_id", TEST_COMMAND_ID).append("modified", TEST_MODIFIED + 1));
+    List<VersionDao.Version> versions = dao.getProfileVersions(Arrays.asList(id.toString()));
+    assertEquals("Unexpected number of versions", 1, versions.size());
+    assertEquals("Command change not in the profile version", TEST_MODIFIED + 1,
+        versions.get(0).getModified());
+    verify(template).getCollection(TEST_COMMAND_COLLECTION);
+  }
+
+  @Test
+  public void testGetVersionsWithNone() {
+    assertTrue("Versions without ids",
+        dao.getVersions(DeviceProfile.class, Collections.emptyList()).isEmpty());
+    verify(collection, never()).find(any(DBObject.class), any(DBObject.class));
+  }
+
+}